@@ -19,7 +19,10 @@ package com.github.blausql;
 
 import com.github.blausql.ui.MainMenuWindow;
 
+import java.io.Console;
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 
 public final class Main {
 
@@ -28,6 +31,9 @@ public final class Main {
         System.setProperty("org.apache.commons.logging.Log", "org.apache.commons.logging.impl.NoOpLog");
     }
 
+    private static final String TELNET_SERVER_OPTION = "--telnet-server";
+    private static final String TELNET_PASSWORD_VARIABLE = "BLAUSQL_TELNET_PASSWORD";
+
     public static void exitApplication(int exitCode) {
         System.exit(exitCode);
     }
@@ -38,6 +44,11 @@ public final class Main {
 
     public static void main(String[] args) {
 
+        if (args.length > 0 && TELNET_SERVER_OPTION.equals(args[0])) {
+            runTelnetServer(args);
+            return;
+        }
+
         try (StandardTerminalUI terminalUI = new StandardTerminalUI()) {
 
             Thread.setDefaultUncaughtExceptionHandler(new UncaughtExceptionHandler(terminalUI));
@@ -53,6 +64,68 @@ public final class Main {
     }
 
 
+    /**
+     * Serves the UI to telnet clients, e.g. {@code --telnet-server 2323 0.0.0.0}: a failure in a client session
+     * only ends that session. Clients log in with the password of the {@code BLAUSQL_TELNET_PASSWORD} environment
+     * variable, or the one entered on the console when the server is started.
+     */
+    private static void runTelnetServer(String[] args) {
+        int port = TelnetServer.DEFAULT_PORT;
+        try {
+            if (args.length > 1) {
+                port = Integer.parseInt(args[1]);
+            }
+
+            InetAddress bindAddress = InetAddress.getLoopbackAddress();
+            if (args.length > 2) {
+                bindAddress = InetAddress.getByName(args[2]);
+            }
+
+            char[] password = getTelnetServerPassword();
+            if (password.length == 0) {
+                System.err.format("A password is required: set the %s environment variable, "
+                        + "or start the server on a console to enter it %n", TELNET_PASSWORD_VARIABLE);
+                exitApplication(1);
+                return;
+            }
+
+            Thread.setDefaultUncaughtExceptionHandler((thread, throwable) -> {
+                System.err.format("--- UNHANDLED EXCEPTION in Thread '%s' --- %n", thread.getName());
+                throwable.printStackTrace();
+            });
+
+            new TelnetServer(port, bindAddress, password).run();
+
+        } catch (NumberFormatException ex) {
+            System.err.format("Invalid port: %s %n", args[1]);
+            exitApplication(1);
+
+        } catch (UnknownHostException ex) {
+            System.err.format("Invalid bind address: %s %n", args[2]);
+            exitApplication(1);
+
+        } catch (IOException ex) {
+            handleUnexpectedException(Thread.currentThread(), ex);
+        }
+    }
+
+    private static char[] getTelnetServerPassword() {
+        String password = System.getenv(TELNET_PASSWORD_VARIABLE);
+        if (password != null && !password.isEmpty()) {
+            return password.toCharArray();
+        }
+
+        Console console = System.console();
+        if (console == null) {
+            return new char[0];
+        }
+        char[] enteredPassword = console.readPassword("Password for telnet clients: ");
+        if (enteredPassword == null) {
+            return new char[0];
+        }
+        return enteredPassword;
+    }
+
     private static final class UncaughtExceptionHandler implements Thread.UncaughtExceptionHandler {
 
         private final StandardTerminalUI terminalUI;
@@ -34,6 +34,7 @@
 
 package com.github.blausql;
 
+import com.github.blausql.core.connection.SpeculativeConnector;
 import com.github.blausql.core.util.TextUtils;
 import com.github.blausql.ui.DisplayThrowableDialog;
 import com.github.blausql.ui.components.WaitDialog;
@@ -60,9 +61,17 @@ public final class StandardTerminalUI implements TerminalUI {
 
     private final Screen screen;
     private final WindowBasedTextGUI windowBasedTextGUI;
+    private final SpeculativeConnector speculativeConnector = new SpeculativeConnector();
 
     public StandardTerminalUI() throws IOException {
-        Terminal terminal = new DefaultTerminalFactory().createTerminal();
+        this(new DefaultTerminalFactory().createTerminal());
+    }
+
+    /**
+     * @param terminal the terminal to show the UI on, e.g. the terminal of a client of the {@link TelnetServer}
+     * @throws IOException if the screen cannot be started on the terminal
+     */
+    public StandardTerminalUI(Terminal terminal) throws IOException {
         screen = new TerminalScreen(terminal);
         screen.startScreen();
 
@@ -186,9 +195,15 @@ public final class StandardTerminalUI implements TerminalUI {
 
         } finally {
             isClosed.set(true);
+            speculativeConnector.close();
         }
     }
 
+    @Override
+    public SpeculativeConnector getSpeculativeConnector() {
+        return speculativeConnector;
+    }
+
     @Override
     public WindowBasedTextGUI getWindowBasedTextGUI() {
         return windowBasedTextGUI;
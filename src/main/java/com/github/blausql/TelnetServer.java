@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql;
+
+import com.github.blausql.ui.MainMenuWindow;
+import com.github.blausql.ui.sql.SqlQueryWindow;
+import com.googlecode.lanterna.gui2.TextGUIThread;
+import com.googlecode.lanterna.gui2.Window;
+import com.googlecode.lanterna.gui2.WindowBasedTextGUI;
+import com.googlecode.lanterna.gui2.dialogs.TextInputDialog;
+import com.googlecode.lanterna.terminal.ansi.TelnetTerminal;
+import com.googlecode.lanterna.terminal.ansi.TelnetTerminalServer;
+
+import javax.net.ServerSocketFactory;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves the UI over telnet: every client gets its own main menu and sessions, on its own thread, while
+ * all of them share one JVM, with the loaded JDBC drivers and their class loader, the schema metadata cache
+ * and the result cache.
+ * <p>
+ * Database connections and the credentials entered are kept per client session. The configuration
+ * (connections, settings, query history) is the one of the user running the server.
+ * <p>
+ * All clients are one trust domain: they log in with the same server password, and share the saved
+ * connections, the query history, the scratch database and the background task capacity. The server
+ * listens on the loopback interface unless another bind address is given.
+ */
+final class TelnetServer {
+
+    private static final Logger LOGGER = Logger.getLogger(TelnetServer.class.getName());
+
+    static final int DEFAULT_PORT = 2323;
+
+    private static final int MAX_LOGIN_ATTEMPTS = 3;
+    private static final long LOGIN_FAILURE_DELAY_MILLIS = 2000;
+    private static final int BACKLOG = 50;
+
+    private final TelnetTerminalServer terminalServer;
+    private final byte[] passwordDigest;
+    private final AtomicInteger clientCount = new AtomicInteger();
+
+    /**
+     * @param port        the port to listen on
+     * @param bindAddress the address of the interface to listen on
+     * @param password    the password clients have to log in with, not empty
+     * @throws IOException if the port cannot be opened
+     */
+    TelnetServer(int port, InetAddress bindAddress, char[] password) throws IOException {
+        if (password.length == 0) {
+            throw new IllegalArgumentException("The server password is empty");
+        }
+        this.passwordDigest = digest(password);
+        this.terminalServer = new TelnetTerminalServer(new BoundServerSocketFactory(bindAddress), port);
+    }
+
+    /**
+     * Accepts clients until the JVM is stopped.
+     *
+     * @throws IOException if accepting a client fails
+     */
+    void run() throws IOException {
+        LOGGER.log(Level.INFO, "Accepting telnet clients on {0}",
+                terminalServer.getServerSocket().getLocalSocketAddress());
+
+        while (!Thread.currentThread().isInterrupted()) {
+            TelnetTerminal terminal = terminalServer.acceptConnection();
+            if (terminal != null) {
+                Thread clientThread = new Thread(() -> serve(terminal),
+                        "blausql-telnet-client-" + clientCount.incrementAndGet());
+                clientThread.setDaemon(true);
+                clientThread.start();
+            }
+        }
+    }
+
+    private void serve(TelnetTerminal terminal) {
+        LOGGER.log(Level.INFO, "Client connected: {0}", terminal.getRemoteSocketAddress());
+
+        StandardTerminalUI terminalUI = null;
+        try {
+            terminalUI = new StandardTerminalUI(terminal);
+            closeWindowsOnDisconnect(terminalUI);
+
+            if (logIn(terminalUI, terminal)) {
+                terminalUI.showWindowCenter(new MainMenuWindow(terminalUI));
+            }
+
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Client session failed: " + terminal.getRemoteSocketAddress(), e);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+        } finally {
+            if (terminalUI != null) {
+                closeSessions(terminalUI);
+                closeQuietly(terminalUI);
+            }
+            closeQuietly(terminal);
+            LOGGER.log(Level.INFO, "Client disconnected: {0}", terminal.getRemoteSocketAddress());
+        }
+    }
+
+    /**
+     * Asks for the server password before anything else is shown.
+     *
+     * @return {@code true} if the client entered the password
+     */
+    private boolean logIn(StandardTerminalUI terminalUI, TelnetTerminal terminal) throws InterruptedException {
+        for (int attempt = 1; attempt <= MAX_LOGIN_ATTEMPTS; attempt++) {
+            String password = TextInputDialog.showPasswordDialog(terminalUI.getWindowBasedTextGUI(),
+                    "BlauSQL", "Password:", "");
+            if (password == null) {
+                return false;
+            }
+
+            if (MessageDigest.isEqual(passwordDigest, digest(password.toCharArray()))) {
+                LOGGER.log(Level.INFO, "Client logged in: {0}", terminal.getRemoteSocketAddress());
+                return true;
+            }
+
+            LOGGER.log(Level.WARNING, "Failed login attempt from {0}", terminal.getRemoteSocketAddress());
+            // slows down guessing
+            Thread.sleep(LOGIN_FAILURE_DELAY_MILLIS);
+        }
+        return false;
+    }
+
+    private static byte[] digest(char[] password) {
+        ByteBuffer passwordBytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(
+                    Arrays.copyOf(passwordBytes.array(), passwordBytes.limit()));
+
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    /**
+     * Closes the sessions of a client on its GUI thread: the thread serving the client, which runs the GUI
+     * of the client, or waits for it to run the closing, should the GUI run on another thread.
+     */
+    private static void closeSessions(StandardTerminalUI terminalUI) {
+        try {
+            terminalUI.getWindowBasedTextGUI().getGUIThread()
+                    .invokeAndWait(() -> SqlQueryWindow.closeAllSessions(terminalUI));
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.log(Level.WARNING, "Interrupted while closing the sessions of a client", e);
+        }
+    }
+
+    private static void closeWindowsOnDisconnect(StandardTerminalUI terminalUI) {
+        WindowBasedTextGUI textGUI = terminalUI.getWindowBasedTextGUI();
+
+        textGUI.getGUIThread().setExceptionHandler(new TextGUIThread.ExceptionHandler() {
+            @Override
+            public boolean onIOException(IOException e) {
+                // the client is gone: closing the windows ends its session
+                LOGGER.log(Level.FINE, "Client terminal failed", e);
+                SqlQueryWindow.closeAllSessions(terminalUI);
+                new ArrayList<>(textGUI.getWindows()).forEach(Window::close);
+                return false;
+            }
+
+            @Override
+            public boolean onRuntimeException(RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Unexpected failure in client session", e);
+                return false;
+            }
+        });
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            LOGGER.log(Level.FINE, "Failure closing " + closeable, e);
+        }
+    }
+
+    /**
+     * Creates the server socket listening on a single interface.
+     */
+    private static final class BoundServerSocketFactory extends ServerSocketFactory {
+
+        private final InetAddress bindAddress;
+
+        private BoundServerSocketFactory(InetAddress bindAddress) {
+            this.bindAddress = bindAddress;
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port) throws IOException {
+            return new ServerSocket(port, BACKLOG, bindAddress);
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+            return new ServerSocket(port, backlog, bindAddress);
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog, InetAddress address) throws IOException {
+            return new ServerSocket(port, backlog, address);
+        }
+    }
+}
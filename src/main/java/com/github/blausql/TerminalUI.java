@@ -17,6 +17,7 @@
  
 package com.github.blausql;
 
+import com.github.blausql.core.connection.SpeculativeConnector;
 import com.github.blausql.ui.components.WaitDialog;
 import com.googlecode.lanterna.gui2.Window;
 import com.googlecode.lanterna.gui2.WindowBasedTextGUI;
@@ -53,4 +54,9 @@ public interface TerminalUI extends AutoCloseable {
     void runInGUIThread(Runnable runnable);
 
     WindowBasedTextGUI getWindowBasedTextGUI();
+
+    /**
+     * @return the connector warming up the connections selected on this terminal
+     */
+    SpeculativeConnector getSpeculativeConnector();
 }
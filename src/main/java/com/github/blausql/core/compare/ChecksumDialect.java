@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.compare;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Database specific SQL to compute a hash of each row on the server. Hashes are only comparable
+ * between databases of the same kind: the text representation of values differs between products.
+ */
+enum ChecksumDialect {
+
+    H2("ORA_HASH(CONCAT_WS('|', %s))", "COALESCE(CAST(%s AS VARCHAR), '<NULL>')", ", ", "H2"),
+
+    POSTGRESQL("CAST(CAST('x' || SUBSTR(MD5(CONCAT_WS('|', %s)), 1, 8) AS BIT(32)) AS BIGINT)",
+            "COALESCE(CAST(%s AS TEXT), '<NULL>')", ", ", "PostgreSQL"),
+
+    MYSQL("CRC32(CONCAT_WS('|', %s))", "COALESCE(CAST(%s AS CHAR), '<NULL>')", ", ", "MySQL", "MariaDB"),
+
+    ORACLE("ORA_HASH(%s)", "COALESCE(TO_CHAR(%s), '<NULL>')", " || '|' || ", "Oracle"),
+
+    SQL_SERVER("CAST(BINARY_CHECKSUM(%s) AS BIGINT)", "%s", ", ", "Microsoft SQL Server");
+
+    private final String rowHashFormat;
+    private final String columnFormat;
+    private final String columnSeparator;
+    private final List<String> productNames;
+
+    ChecksumDialect(String rowHashFormat, String columnFormat, String columnSeparator, String... productNames) {
+        this.rowHashFormat = rowHashFormat;
+        this.columnFormat = columnFormat;
+        this.columnSeparator = columnSeparator;
+        this.productNames = List.of(productNames);
+    }
+
+    /**
+     * @param columns the (quoted) names of the columns of the table
+     * @return an SQL expression yielding a non-negative integer hash of the columns of a row
+     */
+    String getRowHashExpression(List<String> columns) {
+        String columnValues = columns.stream()
+                .map(column -> String.format(columnFormat, column))
+                .collect(Collectors.joining(columnSeparator));
+
+        return String.format(rowHashFormat, columnValues);
+    }
+
+    static ChecksumDialect forProductName(String productName) {
+        String normalizedProductName = productName.toLowerCase(Locale.ROOT);
+
+        for (ChecksumDialect dialect : values()) {
+            for (String dialectProductName : dialect.productNames) {
+                if (normalizedProductName.startsWith(dialectProductName.toLowerCase(Locale.ROOT))) {
+                    return dialect;
+                }
+            }
+        }
+
+        throw new IllegalArgumentException("Comparing data is not supported for " + productName);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.compare;
+
+/**
+ * A row whose key exists on one side only, or whose content differs between the two sides.
+ */
+public final class RowDifference {
+
+    public enum Kind {
+        MISSING_IN_TARGET,
+        MISSING_IN_SOURCE,
+        DIFFERENT
+    }
+
+    private final long key;
+    private final Kind kind;
+
+    RowDifference(long key, Kind kind) {
+        this.key = key;
+        this.kind = kind;
+    }
+
+    public long getKey() {
+        return key;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+}
@@ -0,0 +1,482 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.compare;
+
+import com.github.blausql.core.connection.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Compares the data of a table between two connections without transferring the rows.
+ *
+ * <p>The key range is split into chunks, and for each chunk both databases compute the number of rows
+ * and the sum of a per-row hash. Only chunks where these differ are split further, until they are small
+ * enough to fetch the key and hash of each row and list the differing keys. The two databases are queried
+ * in parallel.</p>
+ *
+ * <p>The key column must be a unique column of an integral type.</p>
+ */
+public final class TableComparison {
+
+    private static final int ROWS_PER_INITIAL_CHUNK = 100_000;
+    private static final int MAX_INITIAL_CHUNKS = 1024;
+    private static final int SUB_CHUNKS = 64;
+    private static final int MAX_ROWS_PER_ROW_COMPARISON = 2000;
+    private static final int MAX_ROW_DIFFERENCES = 1000;
+
+    private final Side source;
+    private final Side target;
+
+    private final List<RowDifference> rowDifferences = new ArrayList<>();
+    private boolean rowDifferencesTruncated;
+
+    public TableComparison(DatabaseConnection source, DatabaseConnection target, String tableName, String keyColumn) {
+        this.source = new Side(source, tableName, keyColumn);
+        this.target = new Side(target, tableName, keyColumn);
+    }
+
+    /**
+     * Compares the table; may be called only once.
+     *
+     * @return the result of the comparison
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public TableComparisonResult compare() throws InterruptedException {
+        ExecutorService sourceExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "table-comparison-source");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            return compare(sourceExecutor);
+        } finally {
+            sourceExecutor.shutdownNow();
+        }
+    }
+
+    private TableComparisonResult compare(ExecutorService sourceExecutor) throws InterruptedException {
+        Both<List<String>> columnNames = inParallel(sourceExecutor, source::getColumnNames, target::getColumnNames);
+        source.prepare(columnNames.source, columnNames.source);
+        target.prepare(columnNames.source, columnNames.target);
+        if (source.dialect != target.dialect) {
+            throw new IllegalArgumentException("Data can only be compared between databases of the same kind");
+        }
+
+        Both<KeyRange> keyRanges = inParallel(sourceExecutor, source::getKeyRange, target::getKeyRange);
+        KeyRange sourceRange = keyRanges.source;
+        KeyRange targetRange = keyRanges.target;
+        if (sourceRange.rowCount == 0 && targetRange.rowCount == 0) {
+            return new TableComparisonResult(0, 0, 0, 0, rowDifferences, false);
+        }
+
+        long from = Math.min(sourceRange.minKey, targetRange.minKey);
+        long to = Math.max(sourceRange.maxKey, targetRange.maxKey);
+        long largerRowCount = Math.max(sourceRange.rowCount, targetRange.rowCount);
+        int chunkCount = (int) Math.max(1, Math.min(MAX_INITIAL_CHUNKS, largerRowCount / ROWS_PER_INITIAL_CHUNK));
+
+        int mismatchingChunkCount = compareRange(sourceExecutor, from, to, chunkCount);
+        rowDifferences.sort(Comparator.comparingLong(RowDifference::getKey));
+
+        return new TableComparisonResult(sourceRange.rowCount, targetRange.rowCount, chunkCount,
+                mismatchingChunkCount, rowDifferences, rowDifferencesTruncated);
+    }
+
+    private int compareRange(ExecutorService sourceExecutor, long from, long to, int chunkCount)
+            throws InterruptedException {
+
+        long width = Math.max(1, (Math.addExact(Math.subtractExact(to, from), 1) + chunkCount - 1) / chunkCount);
+
+        Both<Map<Long, Checksum>> checksums = inParallel(sourceExecutor,
+                () -> source.getChunkChecksums(from, to, width), () -> target.getChunkChecksums(from, to, width));
+
+        int mismatchingChunkCount = 0;
+        for (long chunk = 0; chunk * width <= to - from && !rowDifferencesTruncated; chunk++) {
+            Checksum sourceChecksum = checksums.source.getOrDefault(chunk, Checksum.EMPTY);
+            Checksum targetChecksum = checksums.target.getOrDefault(chunk, Checksum.EMPTY);
+            if (sourceChecksum.equals(targetChecksum)) {
+                continue;
+            }
+
+            mismatchingChunkCount++;
+            long chunkFrom = from + chunk * width;
+            long chunkTo = Math.min(to, chunkFrom + width - 1);
+            if (Math.max(sourceChecksum.rowCount, targetChecksum.rowCount) <= MAX_ROWS_PER_ROW_COMPARISON
+                    || chunkFrom == chunkTo) {
+                compareRows(sourceExecutor, chunkFrom, chunkTo);
+            } else {
+                compareRange(sourceExecutor, chunkFrom, chunkTo, SUB_CHUNKS);
+            }
+        }
+
+        return mismatchingChunkCount;
+    }
+
+    private void compareRows(ExecutorService sourceExecutor, long from, long to) throws InterruptedException {
+        Both<Map<Long, Long>> rowHashes = inParallel(sourceExecutor,
+                () -> source.getRowHashes(from, to), () -> target.getRowHashes(from, to));
+        Map<Long, Long> sourceRowHashes = rowHashes.source;
+        Map<Long, Long> targetRowHashes = rowHashes.target;
+
+        for (Map.Entry<Long, Long> sourceRow : sourceRowHashes.entrySet()) {
+            Long targetRowHash = targetRowHashes.remove(sourceRow.getKey());
+            if (targetRowHash == null) {
+                addRowDifference(sourceRow.getKey(), RowDifference.Kind.MISSING_IN_TARGET);
+            } else if (!targetRowHash.equals(sourceRow.getValue())) {
+                addRowDifference(sourceRow.getKey(), RowDifference.Kind.DIFFERENT);
+            }
+        }
+        for (Long key : targetRowHashes.keySet()) {
+            addRowDifference(key, RowDifference.Kind.MISSING_IN_SOURCE);
+        }
+    }
+
+    private void addRowDifference(long key, RowDifference.Kind kind) {
+        if (rowDifferences.size() < MAX_ROW_DIFFERENCES) {
+            rowDifferences.add(new RowDifference(key, kind));
+        } else {
+            rowDifferencesTruncated = true;
+        }
+    }
+
+    /**
+     * Runs the source query on the executor and the target query on the current thread.
+     */
+    private static <T> Both<T> inParallel(ExecutorService sourceExecutor, Supplier<T> sourceQuery,
+                                      Supplier<T> targetQuery) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+
+        Future<T> sourceFuture = sourceExecutor.submit(sourceQuery::get);
+        try {
+            T targetResult = targetQuery.get();
+            T sourceResult = sourceFuture.get();
+
+            return new Both<>(sourceResult, targetResult);
+
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        } finally {
+            sourceFuture.cancel(true);
+        }
+    }
+
+    private static final class Both<T> {
+        private final T source;
+        private final T target;
+
+        private Both(T source, T target) {
+            this.source = source;
+            this.target = target;
+        }
+    }
+
+    private static final class KeyRange {
+        private final long minKey;
+        private final long maxKey;
+        private final long rowCount;
+
+        private KeyRange(long minKey, long maxKey, long rowCount) {
+            this.minKey = minKey;
+            this.maxKey = maxKey;
+            this.rowCount = rowCount;
+        }
+    }
+
+    private static final class Checksum {
+        private static final Checksum EMPTY = new Checksum(0, 0);
+
+        private final long rowCount;
+        private final long hashSum;
+
+        private Checksum(long rowCount, long hashSum) {
+            this.rowCount = rowCount;
+            this.hashSum = hashSum;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Checksum
+                    && rowCount == ((Checksum) other).rowCount
+                    && hashSum == ((Checksum) other).hashSum;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rowCount, hashSum);
+        }
+    }
+
+    /**
+     * A table found in the database metadata.
+     */
+    private static final class TableName {
+
+        private final String catalog;
+        private final String schema;
+        private final String name;
+
+        private TableName(String catalog, String schema, String name) {
+            this.catalog = catalog;
+            this.schema = schema;
+            this.name = name;
+        }
+
+        private boolean matches(String qualifier, String tableName) {
+            return name.equalsIgnoreCase(tableName)
+                    && (qualifier == null || qualifier.equalsIgnoreCase(schema) || qualifier.equalsIgnoreCase(catalog));
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof TableName
+                    && Objects.equals(catalog, ((TableName) other).catalog)
+                    && Objects.equals(schema, ((TableName) other).schema)
+                    && name.equals(((TableName) other).name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(catalog, schema, name);
+        }
+    }
+
+    /**
+     * One of the two databases compared. The table name entered by the user is only used to look up the
+     * table in the database metadata: the queries contain only identifiers taken from the database
+     * metadata (quoted), and numeric literals.
+     */
+    private static final class Side {
+
+        private final DatabaseConnection databaseConnection;
+        private final String tableName;
+        private final String keyColumn;
+
+        private String quotedTableName;
+        private ChecksumDialect dialect;
+        private String keyExpression;
+        private String rowHashExpression;
+
+        private Side(DatabaseConnection databaseConnection, String tableName, String keyColumn) {
+            this.databaseConnection = databaseConnection;
+            this.tableName = tableName;
+            this.keyColumn = keyColumn;
+        }
+
+        /**
+         * Looks up the table, optionally qualified by its schema (or catalog), case-insensitively.
+         *
+         * @return the name of the table as stored in the database metadata, quoted and qualified
+         */
+        private String resolveTableName(Connection connection) throws SQLException {
+            String qualifier = null;
+            String name = tableName.trim();
+            int separatorIndex = name.lastIndexOf('.');
+            if (separatorIndex >= 0) {
+                qualifier = name.substring(0, separatorIndex);
+                name = name.substring(separatorIndex + 1);
+            }
+
+            DatabaseMetaData metaData = connection.getMetaData();
+            List<TableName> matches = findTables(metaData, qualifier, name);
+            if (matches.size() > 1) {
+                // e.g. the same table in several schemas: the one in the current schema is meant
+                String currentSchema = connection.getSchema();
+                matches.removeIf(match -> !Objects.equals(match.schema, currentSchema));
+            }
+            if (matches.isEmpty()) {
+                throw new IllegalArgumentException("No such table: " + tableName);
+            }
+            if (matches.size() > 1) {
+                throw new IllegalArgumentException("Ambiguous table name, qualify it with its schema: " + tableName);
+            }
+
+            TableName match = matches.get(0);
+            String quote = metaData.getIdentifierQuoteString().trim();
+            if (match.schema != null) {
+                return quote(match.schema, quote) + '.' + quote(match.name, quote);
+            }
+            if (qualifier != null && match.catalog != null) {
+                return quote(match.catalog, quote) + '.' + quote(match.name, quote);
+            }
+            return quote(match.name, quote);
+        }
+
+        private static List<TableName> findTables(DatabaseMetaData metaData, String qualifier, String name)
+                throws SQLException {
+
+            // the name pattern is tried as entered and in the cases databases store unquoted names in
+            Set<String> namePatterns = new LinkedHashSet<>();
+            for (String candidate : List.of(name, name.toUpperCase(Locale.ROOT), name.toLowerCase(Locale.ROOT))) {
+                namePatterns.add(escapePattern(candidate, metaData.getSearchStringEscape()));
+            }
+
+            List<TableName> matches = new ArrayList<>();
+            for (String namePattern : namePatterns) {
+                try (ResultSet tables = metaData.getTables(null, null, namePattern, null)) {
+                    while (tables.next()) {
+                        TableName table = new TableName(tables.getString("TABLE_CAT"),
+                                tables.getString("TABLE_SCHEM"), tables.getString("TABLE_NAME"));
+                        if (table.matches(qualifier, name) && !matches.contains(table)) {
+                            matches.add(table);
+                        }
+                    }
+                }
+            }
+            return matches;
+        }
+
+        private static String escapePattern(String name, String escape) {
+            if (escape == null || escape.isEmpty()) {
+                return name;
+            }
+            return name.replace(escape, escape + escape).replace("_", escape + "_").replace("%", escape + "%");
+        }
+
+        private static String quote(String identifier, String quote) {
+            if (quote.isEmpty()) {
+                return identifier;
+            }
+            return quote + identifier.replace(quote, quote + quote) + quote;
+        }
+
+        private List<String> getColumnNames() {
+            return databaseConnection.execute(connection -> {
+                quotedTableName = resolveTableName(connection);
+
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery(
+                             "SELECT * FROM " + quotedTableName + " WHERE 1 = 0")) {
+
+                    ResultSetMetaData metaData = resultSet.getMetaData();
+                    List<String> columnNames = new ArrayList<>(metaData.getColumnCount());
+                    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                        columnNames.add(metaData.getColumnName(i));
+                    }
+                    return columnNames;
+                }
+            });
+        }
+
+        private void prepare(List<String> columnNames, List<String> ownColumnNames) {
+            Map<String, String> ownColumnNamesByUpperCase = new HashMap<>();
+            for (String ownColumnName : ownColumnNames) {
+                ownColumnNamesByUpperCase.put(ownColumnName.toUpperCase(Locale.ROOT), ownColumnName);
+            }
+
+            databaseConnection.execute(connection -> {
+                DatabaseMetaData metaData = connection.getMetaData();
+                String quote = metaData.getIdentifierQuoteString().trim();
+
+                List<String> quotedColumnNames = new ArrayList<>(columnNames.size());
+                for (String columnName : columnNames) {
+                    String ownColumnName = ownColumnNamesByUpperCase.get(columnName.toUpperCase(Locale.ROOT));
+                    if (ownColumnName == null || columnNames.size() != ownColumnNames.size()) {
+                        throw new IllegalArgumentException("The columns of the table differ between databases");
+                    }
+                    quotedColumnNames.add(quote(ownColumnName, quote));
+                }
+
+                String ownKeyColumn = ownColumnNamesByUpperCase.get(keyColumn.toUpperCase(Locale.ROOT));
+                if (ownKeyColumn == null) {
+                    throw new IllegalArgumentException("No such column: " + keyColumn);
+                }
+
+                dialect = ChecksumDialect.forProductName(metaData.getDatabaseProductName());
+                keyExpression = quote(ownKeyColumn, quote);
+                rowHashExpression = dialect.getRowHashExpression(quotedColumnNames);
+                return null;
+            });
+        }
+
+        private KeyRange getKeyRange() {
+            String sql = "SELECT MIN(" + keyExpression + ") AS MIN_KEY, MAX(" + keyExpression + ") AS MAX_KEY, "
+                    + "COUNT(*) AS ROW_COUNT FROM " + quotedTableName;
+
+            return databaseConnection.execute(connection -> {
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery(sql)) {
+
+                    resultSet.next();
+                    return new KeyRange(resultSet.getLong("MIN_KEY"), resultSet.getLong("MAX_KEY"),
+                            resultSet.getLong("ROW_COUNT"));
+                }
+            });
+        }
+
+        private Map<Long, Checksum> getChunkChecksums(long from, long to, long width) {
+            String chunkExpression = "FLOOR((" + keyExpression + " - (" + from + ")) / " + width + ")";
+            String sql = "SELECT " + chunkExpression + " AS CHUNK, COUNT(*) AS ROW_COUNT, SUM("
+                    + rowHashExpression + ") AS HASH_SUM FROM " + quotedTableName + getKeyRangeCondition(from, to)
+                    + " GROUP BY " + chunkExpression;
+
+            return databaseConnection.execute(connection -> {
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery(sql)) {
+
+                    Map<Long, Checksum> checksums = new HashMap<>();
+                    while (resultSet.next()) {
+                        checksums.put(resultSet.getLong("CHUNK"),
+                                new Checksum(resultSet.getLong("ROW_COUNT"), resultSet.getLong("HASH_SUM")));
+                    }
+                    return checksums;
+                }
+            });
+        }
+
+        private Map<Long, Long> getRowHashes(long from, long to) {
+            String sql = "SELECT " + keyExpression + ", " + rowHashExpression + " FROM " + quotedTableName
+                    + getKeyRangeCondition(from, to);
+
+            return databaseConnection.execute(connection -> {
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery(sql)) {
+
+                    Map<Long, Long> rowHashes = new HashMap<>();
+                    while (resultSet.next()) {
+                        rowHashes.put(resultSet.getLong(1), resultSet.getLong(2));
+                    }
+                    return rowHashes;
+                }
+            });
+        }
+
+        private String getKeyRangeCondition(long from, long to) {
+            return " WHERE " + keyExpression + " >= " + from + " AND " + keyExpression + " <= " + to;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.compare;
+
+import java.util.List;
+
+public final class TableComparisonResult {
+
+    private final long sourceRowCount;
+    private final long targetRowCount;
+    private final int chunkCount;
+    private final int mismatchingChunkCount;
+    private final List<RowDifference> rowDifferences;
+    private final boolean rowDifferencesTruncated;
+
+    TableComparisonResult(long sourceRowCount, long targetRowCount, int chunkCount, int mismatchingChunkCount,
+                          List<RowDifference> rowDifferences, boolean rowDifferencesTruncated) {
+        this.sourceRowCount = sourceRowCount;
+        this.targetRowCount = targetRowCount;
+        this.chunkCount = chunkCount;
+        this.mismatchingChunkCount = mismatchingChunkCount;
+        this.rowDifferences = List.copyOf(rowDifferences);
+        this.rowDifferencesTruncated = rowDifferencesTruncated;
+    }
+
+    public long getSourceRowCount() {
+        return sourceRowCount;
+    }
+
+    public long getTargetRowCount() {
+        return targetRowCount;
+    }
+
+    /**
+     * @return the number of chunks the key range was split into at first
+     */
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * @return the number of chunks (of the initial split) with differing row count or checksum
+     */
+    public int getMismatchingChunkCount() {
+        return mismatchingChunkCount;
+    }
+
+    public boolean isMatching() {
+        return mismatchingChunkCount == 0;
+    }
+
+    public List<RowDifference> getRowDifferences() {
+        return rowDifferences;
+    }
+
+    /**
+     * @return {@code true} if there are more differing rows than listed
+     */
+    public boolean isRowDifferencesTruncated() {
+        return rowDifferencesTruncated;
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Code working directly on the JDBC connection of a {@link DatabaseConnection}.
+ *
+ * @param <T> the type of the result
+ */
+@FunctionalInterface
+public interface ConnectionCallback<T> {
+
+    T doInConnection(Connection connection) throws SQLException;
+}
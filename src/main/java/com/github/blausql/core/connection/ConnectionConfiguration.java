@@ -18,15 +18,27 @@
 package com.github.blausql.core.connection;
 
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
+import java.util.regex.Pattern;
 
 public final class ConnectionConfiguration {
 
     private static final String DEFAULT_STATEMENT_SEPARATOR = ";";
 
+    /**
+     * Separates the alternate JDBC URLs when they are stored or entered as a single text.
+     */
+    public static final String JDBC_URL_SEPARATOR = "|";
+
+    private static final Pattern JDBC_URL_SEPARATOR_PATTERN = Pattern.compile(Pattern.quote(JDBC_URL_SEPARATOR));
+
     private String connectionName;
     private String driverClassName;
     private String jdbcUrl;
+    private List<String> alternateJdbcUrls = List.of();
     private boolean loginAutomatically;
     private String userName;
     private String password;
@@ -85,6 +97,8 @@ public final class ConnectionConfiguration {
                 connectionConfiguration.getStatementSeparator(),
                 connectionConfiguration.getHotkey(),
                 connectionConfiguration.getOrder());
+
+        this.alternateJdbcUrls = connectionConfiguration.getAlternateJdbcUrls();
     }
 
 
@@ -112,6 +126,70 @@ public final class ConnectionConfiguration {
         this.jdbcUrl = jdbcUrl;
     }
 
+    /**
+     * Returns the JDBC URLs of other nodes (e.g. replicas or alternate listeners) of the same database,
+     * which are connected to if the JDBC URL cannot be connected to fast enough.
+     *
+     * @return the alternate JDBC URLs, an empty list if there are none
+     */
+    public List<String> getAlternateJdbcUrls() {
+        // the list is immutable already: List.copyOf returns it as is, without copying
+        return List.copyOf(alternateJdbcUrls);
+    }
+
+    public void setAlternateJdbcUrls(List<String> alternateJdbcUrls) {
+        List<String> nonBlankUrls = new ArrayList<>();
+        if (alternateJdbcUrls != null) {
+            for (String alternateJdbcUrl : alternateJdbcUrls) {
+                if (alternateJdbcUrl != null && !alternateJdbcUrl.isBlank()) {
+                    nonBlankUrls.add(alternateJdbcUrl.trim());
+                }
+            }
+        }
+        this.alternateJdbcUrls = List.copyOf(nonBlankUrls);
+    }
+
+    /**
+     * Returns all JDBC URLs of the connection, in the order they are to be tried.
+     *
+     * @return the JDBC URL, followed by the alternate JDBC URLs
+     */
+    public List<String> getJdbcUrls() {
+        List<String> jdbcUrls = new ArrayList<>();
+        if (jdbcUrl != null && !jdbcUrl.isBlank()) {
+            jdbcUrls.add(jdbcUrl);
+        }
+        jdbcUrls.addAll(alternateJdbcUrls);
+        return jdbcUrls;
+    }
+
+    /**
+     * Joins JDBC URLs into a single text, separated by {@link #JDBC_URL_SEPARATOR}.
+     *
+     * @param jdbcUrls the JDBC URLs
+     * @return the text, empty if there are no URLs
+     */
+    public static String joinJdbcUrls(List<String> jdbcUrls) {
+        return String.join(JDBC_URL_SEPARATOR, jdbcUrls);
+    }
+
+    /**
+     * Splits a text of JDBC URLs separated by {@link #JDBC_URL_SEPARATOR}, ignoring blank ones.
+     *
+     * @param jdbcUrlsText the text, can be {@code null}
+     * @return the JDBC URLs
+     */
+    public static List<String> splitJdbcUrls(String jdbcUrlsText) {
+        if (jdbcUrlsText == null || jdbcUrlsText.isBlank()) {
+            return List.of();
+        }
+
+        List<String> jdbcUrls = new ArrayList<>(Arrays.asList(JDBC_URL_SEPARATOR_PATTERN.split(jdbcUrlsText)));
+        jdbcUrls.replaceAll(String::trim);
+        jdbcUrls.removeIf(String::isEmpty);
+        return jdbcUrls;
+    }
+
 
     public boolean getLoginAutomatically() {
         return loginAutomatically;
@@ -163,7 +241,7 @@ public final class ConnectionConfiguration {
 
     @Override
     public int hashCode() {
-        return Objects.hash(connectionName, driverClassName, jdbcUrl, loginAutomatically,
+        return Objects.hash(connectionName, driverClassName, jdbcUrl, alternateJdbcUrls, loginAutomatically,
                 userName, password, statementSeparator, hotkey, order);
     }
 
@@ -178,6 +256,7 @@ public final class ConnectionConfiguration {
                 && Objects.equals(connectionName, that.connectionName)
                 && Objects.equals(driverClassName, that.driverClassName)
                 && Objects.equals(jdbcUrl, that.jdbcUrl)
+                && Objects.equals(alternateJdbcUrls, that.alternateJdbcUrls)
                 && Objects.equals(userName, that.userName)
                 && Objects.equals(password, that.password)
                 && Objects.equals(statementSeparator, that.statementSeparator)
@@ -193,6 +272,7 @@ public final class ConnectionConfiguration {
                 + "connectionName='" + connectionName + '\''
                 + ", driverClassName='" + driverClassName + '\''
                 + ", jdbcUrl='" + jdbcUrl + '\''
+                + ", alternateJdbcUrls=" + alternateJdbcUrls
                 + ", loginAutomatically=" + loginAutomatically
                 + ", userName='" + userName + '\''
                 + ", password='" + password + '\''
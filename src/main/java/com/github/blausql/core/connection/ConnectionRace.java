@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.connection;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Connects to the first reachable one of several JDBC URLs of the same database, so that a node which is down
+ * does not block connecting until the connect timeout of the driver expires.
+ * <p>
+ * The attempts are started in the order of the URLs, each one after a stagger delay, or as soon as an attempt
+ * started before has failed; they then run in parallel. The first connection established is used,
+ * the ones established later are closed.
+ */
+final class ConnectionRace {
+
+    private static final Logger LOGGER = Logger.getLogger(ConnectionRace.class.getName());
+
+    // connecting might block for long: one thread per attempt
+    private static final ExecutorService CONNECT_EXECUTOR_SERVICE = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "jdbc-connect");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<String> jdbcUrls;
+    private final String userName;
+    private final String password;
+    private final ClassLoader contextClassLoader;
+
+    // only used by the thread calling connect()
+    private final List<Future<?>> attempts = new ArrayList<>();
+
+    // the fields below are guarded by this
+
+    private final List<SQLException> failures = new ArrayList<>();
+    private Connection winner;
+    private boolean finished;
+
+    /**
+     * @param jdbcUrls           the JDBC URLs of the database, in the order they are to be tried
+     * @param userName           the user name
+     * @param password           the password
+     * @param contextClassLoader the context class loader the driver is used with
+     */
+    ConnectionRace(List<String> jdbcUrls, String userName, String password, ClassLoader contextClassLoader) {
+        if (jdbcUrls.isEmpty()) {
+            throw new IllegalArgumentException("At least one JDBC URL is required");
+        }
+
+        this.jdbcUrls = List.copyOf(jdbcUrls);
+        this.userName = userName;
+        this.password = password;
+        this.contextClassLoader = contextClassLoader;
+    }
+
+    /**
+     * Connects to the database.
+     *
+     * @param staggerMillis how long to wait for an attempt before starting the next one
+     * @param timeoutMillis how long to wait in total, zero or less to wait until all attempts have failed
+     * @return the connection established first
+     * @throws SQLException if all attempts failed, or none succeeded within the timeout
+     */
+    Connection connect(long staggerMillis, long timeoutMillis) throws SQLException {
+        long staggerNanos = TimeUnit.MILLISECONDS.toNanos(staggerMillis);
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            synchronized (this) {
+                try {
+                    awaitWinner(staggerNanos, timeoutNanos);
+                } finally {
+                    // connections established from now on are closed
+                    finished = true;
+                }
+
+                if (winner != null) {
+                    return winner;
+                }
+                throw createFailure(timeoutMillis);
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while connecting", e);
+
+        } finally {
+            // the attempts still running are not needed any more
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    private void awaitWinner(long staggerNanos, long timeoutNanos) throws InterruptedException {
+        long startNanos = System.nanoTime();
+        long nextStartNanos = startNanos;
+        int failuresAtLastStart = 0;
+
+        while (winner == null && failures.size() < jdbcUrls.size()) {
+            long nowNanos = System.nanoTime();
+
+            long waitNanos = Long.MAX_VALUE;
+            if (timeoutNanos > 0) {
+                waitNanos = startNanos + timeoutNanos - nowNanos;
+                if (waitNanos <= 0) {
+                    return;
+                }
+            }
+
+            if (attempts.size() < jdbcUrls.size()) {
+                if (nowNanos - nextStartNanos >= 0 || failures.size() > failuresAtLastStart) {
+                    startAttempt(jdbcUrls.get(attempts.size()));
+                    nextStartNanos = nowNanos + staggerNanos;
+                    failuresAtLastStart = failures.size();
+                    continue;
+                }
+                waitNanos = Math.min(waitNanos, nextStartNanos - nowNanos);
+            }
+
+            TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+        }
+    }
+
+    private void startAttempt(String jdbcUrl) {
+        attempts.add(CONNECT_EXECUTOR_SERVICE.submit(() -> {
+            Thread thread = Thread.currentThread();
+            ClassLoader originalContextClassLoader = thread.getContextClassLoader();
+            thread.setContextClassLoader(contextClassLoader);
+            try {
+                onConnected(DriverManager.getConnection(jdbcUrl, userName, password));
+
+            } catch (SQLException e) {
+                onFailed(e);
+
+            } catch (RuntimeException e) {
+                onFailed(new SQLException("Failure connecting to " + jdbcUrl + ": " + e.getMessage(), e));
+
+            } finally {
+                thread.setContextClassLoader(originalContextClassLoader);
+            }
+        }));
+    }
+
+    private void onConnected(Connection connection) {
+        boolean used;
+        synchronized (this) {
+            used = !finished && winner == null;
+            if (used) {
+                winner = connection;
+                notifyAll();
+            }
+        }
+
+        if (!used) {
+            closeQuietly(connection);
+        }
+    }
+
+    private synchronized void onFailed(SQLException failure) {
+        failures.add(failure);
+        notifyAll();
+    }
+
+    private SQLException createFailure(long timeoutMillis) {
+        if (failures.size() == 1 && jdbcUrls.size() == 1) {
+            return failures.get(0);
+        }
+
+        SQLException failure;
+        if (failures.size() < jdbcUrls.size()) {
+            failure = new SQLTimeoutException(String.format("Could not connect within %d seconds",
+                    TimeUnit.MILLISECONDS.toSeconds(timeoutMillis)));
+        } else {
+            failure = new SQLException(String.format("Could not connect to any of the %d JDBC URLs: %s",
+                    jdbcUrls.size(), failures.get(0).getMessage()), failures.get(0));
+        }
+
+        failures.forEach(failure::addSuppressed);
+        return failure;
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Failed to close a connection not needed", e);
+        }
+    }
+}
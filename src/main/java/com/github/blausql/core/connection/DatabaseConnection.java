@@ -16,26 +16,118 @@
 
 package com.github.blausql.core.connection;
 
+import com.github.blausql.core.explain.ExecutionPlan;
+import com.github.blausql.core.explain.ExecutionPlanCapturer;
+import com.github.blausql.core.metadata.SchemaMetadata;
+import com.github.blausql.core.metadata.SchemaMetadataHarvester;
+import com.github.blausql.core.metadata.SchemaMetadataSource;
+import com.github.blausql.core.preferences.ConfigurationRepository;
+import com.github.blausql.core.result.ResultStore;
+import com.github.blausql.core.result.StoredResult;
+import com.github.blausql.core.util.SqlUtils;
+import com.github.blausql.spi.connections.LoadException;
+
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public final class DatabaseConnection implements SchemaMetadataSource {
 
-public final class DatabaseConnection {
+    private static final Logger LOGGER = Logger.getLogger(DatabaseConnection.class.getName());
+
+    private static final int HEAP_USAGE_CHECK_INTERVAL = 64;
 
     private final Connection connection;
+    private final String connectionName;
+    private final String connectionIdentity;
 
-    DatabaseConnection(Connection connection) {
+    DatabaseConnection(Connection connection, String connectionName, String userName) {
 
         this.connection = connection;
+        this.connectionName = connectionName;
+        // results are only shared by sessions that connect to the same database as the same user
+        this.connectionIdentity = connectionName + '\u0000' + userName;
+    }
+
+    public String getConnectionName() {
+        return connectionName;
     }
 
-    public StatementResult executeStatement(String sql, int limit) {
+    /**
+     * Executes a statement, reporting the rows fetched to a progress.
+     *
+     * @param sql      the statement
+     * @param limit    the maximum number of rows fetched, 0 for no limit
+     * @param progress the progress the number of rows fetched is published to
+     * @return the result of the statement
+     */
+    public StatementResult executeStatement(String sql, int limit, ExecutionProgress progress) {
+
+        QueryResultCache queryResultCache = QueryResultCache.getInstance();
+        List<Object> bindValues = Collections.emptyList();
+
+        boolean readOnlyQuery = SqlUtils.isReadOnlyQuery(sql);
+        boolean cacheable = readOnlyQuery && queryResultCache.isEnabled() && !SqlUtils.hasNoCacheHint(sql);
+
+        if (cacheable) {
+            StatementResult cachedResult = queryResultCache.get(connectionIdentity, sql, bindValues, limit);
+            if (cachedResult != null) {
+                return cachedResult;
+            }
+        }
+
+        StatementResult statementResult = executeStatementOnServer(sql, limit, progress);
+
+        if (!readOnlyQuery) {
+            // the statement might have modified data: cached results of this connection may be outdated
+            queryResultCache.invalidate(connectionIdentity);
+
+        } else if (cacheable && statementResult.isResultSet()) {
+            queryResultCache.put(connectionIdentity, sql, bindValues, limit, statementResult.getQueryResult());
+        }
+
+        return statementResult;
+    }
+
+    /**
+     * Runs code on the underlying JDBC connection, for tasks which need more than executing
+     * a single statement (e.g. prepared statements or metadata access). The code must not
+     * close the connection.
+     *
+     * @param callback the code to run
+     * @param <T>      the type of the result
+     * @return the result of the callback
+     * @throws QueryExecutionException if the callback fails with an {@code SQLException}
+     */
+    public <T> T execute(ConnectionCallback<T> callback) {
+        try {
+            if (connection.isClosed()) {
+                throw new IllegalStateException("Connection is closed");
+            }
+
+            return callback.doInConnection(connection);
+
+        } catch (SQLException e) {
+            throw new QueryExecutionException(e);
+        }
+    }
+
+    /**
+     * Removes all cached results of this connection from the {@link QueryResultCache}.
+     */
+    public void clearCachedResults() {
+        QueryResultCache.getInstance().invalidate(connectionIdentity);
+    }
+
+    private StatementResult executeStatementOnServer(String sql, int limit, ExecutionProgress progress) {
 
         try {
             if (connection.isClosed()) {
@@ -51,7 +143,7 @@ public final class DatabaseConnection {
 
                 if (yieldedResultSet) {
                     try (ResultSet resultSet = stmt.getResultSet()) {
-                        List<Map<String, Object>> queryResult = extractResultSet(resultSet, limit);
+                        List<Map<String, Object>> queryResult = extractResultSet(resultSet, limit, progress);
                         return new StatementResult(true, queryResult, -1);
                     }
                 } else {
@@ -64,39 +156,104 @@ public final class DatabaseConnection {
         }
     }
 
-    private List<Map<String, Object>> extractResultSet(ResultSet resultSet, int limit) throws SQLException {
-        List<Map<String, Object>> resultList = new ArrayList<>();
+    private List<Map<String, Object>> extractResultSet(ResultSet resultSet, int limit, ExecutionProgress progress)
+            throws SQLException {
+        ResultStore resultStore = ResultStore.getInstance();
         ResultSetMetaData metaData = resultSet.getMetaData();
+        StoredResult storedResult = resultStore.createResult(getColumnLabels(metaData), getColumnTypes(metaData));
+
+        try {
+            LobColumnReader rowReader = new LobColumnReader(metaData, getLobPreviewLength());
+
+            int processed = 0;
+            while (resultSet.next()) {
+                storedResult.addRow(rowReader.readRow(resultSet));
+
+                processed++;
+                progress.setRowsFetched(processed);
+                if (limit > 0 && processed >= limit) {
+                    break; // Defensive cap in case the driver ignores Statement.setMaxRows
+                }
+                if (processed % HEAP_USAGE_CHECK_INTERVAL == 0 && !resultStore.isHeapUsageBelowWatermark()) {
+                    // rather show what has been fetched so far than run out of memory
+                    storedResult.markTruncated();
+                    break;
+                }
+            }
+
+            storedResult.finishFetching();
+            return storedResult;
+
+        } catch (SQLException | RuntimeException e) {
+            storedResult.close();
+            throw e;
+        }
+    }
+
+    private static int getLobPreviewLength() {
+        try {
+            return ConfigurationRepository.getInstance().getResultLobPreviewLength();
+
+        } catch (LoadException e) {
+            LOGGER.log(Level.WARNING, "Could not read the LOB preview length, using the default", e);
+            return ConfigurationRepository.DEFAULT_RESULT_LOB_PREVIEW_LENGTH;
+        }
+    }
+
+    private static List<String> getColumnLabels(ResultSetMetaData metaData) throws SQLException {
         int columnCount = metaData.getColumnCount();
 
-        // Resolve column labels once for efficiency
-        List<String> columnNames = new ArrayList<>(columnCount);
+        List<String> columnLabels = new ArrayList<>(columnCount);
         for (int i = 1; i <= columnCount; i++) {
-            String columnName = metaData.getColumnLabel(i);
-            if (columnName == null || columnName.isEmpty()) {
-                columnName = metaData.getColumnName(i);
+            String columnLabel = metaData.getColumnLabel(i);
+            if (columnLabel == null || columnLabel.isEmpty()) {
+                columnLabel = metaData.getColumnName(i);
             }
-            columnNames.add(columnName);
+            columnLabels.add(columnLabel);
         }
+        return columnLabels;
+    }
 
-        int processed = 0;
-        while (resultSet.next()) {
-            Map<String, Object> row = new HashMap<>();
-            for (int i = 1; i <= columnCount; i++) {
-                String columnName = columnNames.get(i - 1);
-                row.put(columnName, resultSet.getObject(i));
-            }
-            resultList.add(row);
+    private static int[] getColumnTypes(ResultSetMetaData metaData) throws SQLException {
+        int[] columnTypes = new int[metaData.getColumnCount()];
+        for (int i = 0; i < columnTypes.length; i++) {
+            columnTypes[i] = metaData.getColumnType(i + 1);
+        }
+        return columnTypes;
+    }
 
-            processed++;
-            if (limit > 0 && processed >= limit) {
-                break; // Defensive cap in case the driver ignores Statement.setMaxRows
-            }
+    @Override
+    public String probeSchemaMetadataFingerprint() {
+        try {
+            return SchemaMetadataHarvester.probeFingerprint(connection.getMetaData());
+        } catch (SQLException e) {
+            throw new QueryExecutionException("Failed to probe database metadata", e);
         }
+    }
 
-        return resultList;
+    @Override
+    public SchemaMetadata harvestSchemaMetadata() {
+        try {
+            return SchemaMetadataHarvester.harvest(connection.getMetaData());
+        } catch (SQLException e) {
+            throw new QueryExecutionException("Failed to read database metadata", e);
+        }
     }
 
+    /**
+     * Captures the execution plan of a statement, without adding it to the plan history.
+     *
+     * @param sql the statement to explain
+     * @return the captured plan
+     * @throws QueryExecutionException if the database reports an error
+     */
+    public ExecutionPlan captureExecutionPlan(String sql) {
+        try {
+            return ExecutionPlanCapturer.capture(connection, sql);
+        } catch (SQLException e) {
+            throw new QueryExecutionException("Failed to capture the execution plan", e);
+        }
+    }
 
     public void close() {
         if (connection != null) {
@@ -25,10 +25,26 @@ import com.github.blausql.spi.connections.LoadException;
 import java.lang.reflect.Constructor;
 import java.net.MalformedURLException;
 import java.sql.*;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public final class DatabaseConnectionFactory {
 
+    private static final Logger LOGGER = Logger.getLogger(DatabaseConnectionFactory.class.getName());
+
+    private static final Object CLASS_LOADER_LOCK = new Object();
+
+    // the class loader of the configured classpath, re-created only when the classpath changes
+    private static List<String> cachedClasspath;
+    private static ClassLoader cachedClassLoader;
+
+    private static final Set<Class<?>> REGISTERED_DRIVER_CLASSES = ConcurrentHashMap.newKeySet();
+
     private DatabaseConnectionFactory() {
         // no external instances
     }
@@ -36,12 +52,117 @@ public final class DatabaseConnectionFactory {
     public static DatabaseConnection getDatabaseConnection(ConnectionConfiguration connectionConfiguration) {
 
         ClassLoader originalContextClassLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            initClassLoaderAndDriver(connectionConfiguration);
+
+            String userName = connectionConfiguration.getUserName();
+            String password = connectionConfiguration.getPassword();
+
+            Connection connection;
+            if (connectionConfiguration.getAlternateJdbcUrls().isEmpty()) {
+                // nothing to race: connect as long as the driver allows, without the deadline of a race
+                connection = DriverManager.getConnection(connectionConfiguration.getJdbcUrl(), userName, password);
+            } else {
+                connection = connect(getJdbcUrls(connectionConfiguration), userName, password);
+            }
+
+            return new DatabaseConnection(connection, connectionConfiguration.getConnectionName(), userName);
+
+
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failure establishing the connection", e);
+
+        } finally {
+
+            Thread.currentThread().setContextClassLoader(originalContextClassLoader);
+        }
+    }
+
+    private static Connection connect(List<String> jdbcUrls, String userName, String password)
+            throws SQLException {
+
+        long staggerMillis = ConfigurationRepository.DEFAULT_CONNECT_ATTEMPT_STAGGER_MILLIS;
+        long timeoutMillis = TimeUnit.SECONDS.toMillis(ConfigurationRepository.DEFAULT_CONNECT_TIMEOUT_SECONDS);
+        try {
+            ConfigurationRepository configurationRepository = ConfigurationRepository.getInstance();
+            staggerMillis = configurationRepository.getConnectAttemptStaggerMillis();
+            timeoutMillis = TimeUnit.SECONDS.toMillis(configurationRepository.getConnectTimeoutSeconds());
+
+        } catch (LoadException e) {
+            LOGGER.log(Level.WARNING, "Could not read connect settings, using the defaults", e);
+        }
+
+        ConnectionRace connectionRace = new ConnectionRace(jdbcUrls, userName, password,
+                Thread.currentThread().getContextClassLoader());
+
+        return connectionRace.connect(staggerMillis, timeoutMillis);
+    }
+
+    private static List<String> getJdbcUrls(ConnectionConfiguration connectionConfiguration) {
+        List<String> jdbcUrls = connectionConfiguration.getJdbcUrls();
+        if (jdbcUrls.isEmpty()) {
+            // let the driver manager report the missing URL
+            return Collections.singletonList(connectionConfiguration.getJdbcUrl());
+        }
+        return jdbcUrls;
+    }
+
+    /**
+     * Loads and registers the JDBC driver of a connection configuration without connecting,
+     * so that a subsequent {@link #getDatabaseConnection(ConnectionConfiguration)} only has to
+     * open the connection.
+     *
+     * @param connectionConfiguration the connection configuration
+     */
+    public static void prepareDriver(ConnectionConfiguration connectionConfiguration) {
+
+        ClassLoader originalContextClassLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            initClassLoaderAndDriver(connectionConfiguration);
+
+        } finally {
+
+            Thread.currentThread().setContextClassLoader(originalContextClassLoader);
+        }
+    }
+
+    /**
+     * Checks whether a JDBC driver can be loaded, without loading it: e.g. to report a missing
+     * driver jar before starting an operation, which would only fail after some work.
+     *
+     * @param driverClassName the name of the driver class
+     * @return {@code true} if the driver class is on the application or the configured classpath
+     */
+    public static boolean isDriverAvailable(String driverClassName) {
+        try {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+            List<String> classpath = ConfigurationRepository.getInstance().getClasspath();
+            if (!classpath.isEmpty()) {
+                classLoader = getClassLoader(classpath);
+            }
+
+            Class.forName(driverClassName, false, classLoader);
+            return true;
+
+        } catch (ClassNotFoundException e) {
+            return false;
+
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Malformed URL in configured classpath: " + e.getMessage(), e);
+
+        } catch (LoadException e) {
+            throw new IllegalStateException("Failure loading configuration", e);
+        }
+    }
+
+    private static void initClassLoaderAndDriver(ConnectionConfiguration connectionConfiguration) {
         try {
             List<String> classpath = ConfigurationRepository.getInstance().getClasspath();
 
             if (!classpath.isEmpty()) {
 
-                ClassLoader classLoader = ClassLoaderFactory.getClassLoaderForClasspath(classpath);
+                ClassLoader classLoader = getClassLoader(classpath);
                 Thread.currentThread().setContextClassLoader(classLoader);
             }
 
@@ -50,30 +171,28 @@ public final class DatabaseConnectionFactory {
                 initDriver(driverClassName);
             }
 
-            String jdbcUrl = connectionConfiguration.getJdbcUrl();
-            String userName = connectionConfiguration.getUserName();
-            String password = connectionConfiguration.getPassword();
-
-            Connection connection = DriverManager.getConnection(jdbcUrl, userName, password);
-
-            return new DatabaseConnection(connection);
-
-
         } catch (MalformedURLException e) {
             throw new IllegalArgumentException("Malformed URL in configured classpath: " + e.getMessage(), e);
 
         } catch (SQLException e) {
-            throw new IllegalStateException("Failure establishing the connection", e);
+            throw new IllegalStateException("Failure registering the JDBC driver", e);
 
         } catch (ReflectiveOperationException e) {
             throw new IllegalStateException("Failure loading the JDBC driver", e);
 
         } catch (LoadException e) {
             throw new IllegalStateException("Failure loading configuration", e);
+        }
+    }
 
-        } finally {
-
-            Thread.currentThread().setContextClassLoader(originalContextClassLoader);
+    private static ClassLoader getClassLoader(List<String> classpath) throws MalformedURLException {
+        synchronized (CLASS_LOADER_LOCK) {
+            // a new class loader loads the driver classes again: only create one if the classpath was changed
+            if (cachedClassLoader == null || !classpath.equals(cachedClasspath)) {
+                cachedClassLoader = ClassLoaderFactory.getClassLoaderForClasspath(classpath);
+                cachedClasspath = List.copyOf(classpath);
+            }
+            return cachedClassLoader;
         }
     }
 
@@ -101,10 +220,17 @@ public final class DatabaseConnectionFactory {
 
         @SuppressWarnings("unchecked") // we just checked the type above
         Class<Driver> driverClass = (Class<Driver>) loadedClass;
+        if (REGISTERED_DRIVER_CLASSES.contains(driverClass)) {
+            // registered by a previous connection
+            return;
+        }
+
         Constructor<Driver> declaredConstructor = driverClass.getDeclaredConstructor();
 
         Driver driver = declaredConstructor.newInstance();
 
-        DriverManager.registerDriver(new DelegatingDriver(driver));
+        if (REGISTERED_DRIVER_CLASSES.add(driverClass)) {
+            DriverManager.registerDriver(new DelegatingDriver(driver));
+        }
     }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.connection;
+
+import com.github.blausql.core.util.TextUtils;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The progress of executing a list of statements: published by the thread executing them, and read by
+ * the UI at its own refresh rate. Publishing only writes a few fields, so that reporting the rows fetched
+ * never slows down fetching them.
+ */
+public final class ExecutionProgress {
+
+    private static final long MILLIS_PER_SECOND = 1000;
+
+    private final int statementCount;
+
+    private volatile int statementIndex;
+    private volatile long statementStartNanos = System.nanoTime();
+    private final AtomicLong rowsFetched = new AtomicLong();
+
+    /**
+     * @param statementCount the number of statements executed
+     */
+    public ExecutionProgress(int statementCount) {
+        this.statementCount = statementCount;
+    }
+
+    /**
+     * Signals that a statement is started.
+     *
+     * @param index the zero-based index of the statement
+     */
+    public void startStatement(int index) {
+        rowsFetched.set(0);
+        statementStartNanos = System.nanoTime();
+        statementIndex = index;
+    }
+
+    void setRowsFetched(long rows) {
+        // the reader does not need to see every update immediately
+        rowsFetched.lazySet(rows);
+    }
+
+    /**
+     * Describes the progress, e.g. {@code Statement 3 of 12, running for 4.2 s, 12,000 rows fetched (2,857 rows/s)}.
+     *
+     * @return the description, on one or two lines
+     */
+    public String describe() {
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - statementStartNanos);
+        long rows = rowsFetched.get();
+
+        StringBuilder description = new StringBuilder();
+        if (statementCount > 1) {
+            description.append(String.format("Statement %d of %d, running for ", statementIndex + 1, statementCount));
+        } else {
+            description.append("Running for ");
+        }
+        description.append(TextUtils.formatDuration(elapsedMillis));
+
+        if (rows > 0) {
+            description.append(String.format(Locale.ROOT, "%n%,d rows fetched", rows));
+            if (elapsedMillis > 0) {
+                long rowsPerSecond = rows * MILLIS_PER_SECOND / elapsedMillis;
+                description.append(String.format(Locale.ROOT, " (%,d rows/s)", rowsPerSecond));
+            }
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.connection;
+
+import com.github.blausql.core.result.LobValue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Reads the rows of a {@code ResultSet}, streaming the values of large text and binary columns (e.g. CLOBs,
+ * {@code TEXT} or {@code JSON} columns) instead of materializing them: values longer than the preview length
+ * are read into {@link LobValue}s, so that a multi-megabyte document does not have to fit on the heap
+ * for every row fetched.
+ */
+final class LobColumnReader {
+
+    // VARCHAR and VARBINARY columns declared with a larger precision (or none at all) might hold large values
+    private static final int LARGE_PRECISION = 65_535;
+
+    private static final Set<String> TEXT_TYPE_NAMES = Set.of("json", "jsonb", "xml", "text", "ntext");
+
+    private enum ColumnKind { PLAIN, CLOB, BLOB, TEXT_STREAM, BINARY_STREAM }
+
+    private final ColumnKind[] columnKinds;
+    private final int previewLength;
+
+    LobColumnReader(ResultSetMetaData metaData, int previewLength) throws SQLException {
+        this.columnKinds = new ColumnKind[metaData.getColumnCount()];
+        for (int i = 0; i < columnKinds.length; i++) {
+            columnKinds[i] = getColumnKind(metaData, i + 1);
+        }
+        this.previewLength = previewLength;
+    }
+
+    private static ColumnKind getColumnKind(ResultSetMetaData metaData, int column) throws SQLException {
+        switch (metaData.getColumnType(column)) {
+            case Types.CLOB:
+            case Types.NCLOB:
+                return ColumnKind.CLOB;
+            case Types.BLOB:
+                return ColumnKind.BLOB;
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+                return ColumnKind.TEXT_STREAM;
+            case Types.LONGVARBINARY:
+                return ColumnKind.BINARY_STREAM;
+            case Types.VARCHAR:
+            case Types.NVARCHAR:
+                return getKindByPrecision(metaData, column, ColumnKind.TEXT_STREAM);
+            case Types.VARBINARY:
+                return getKindByPrecision(metaData, column, ColumnKind.BINARY_STREAM);
+            case Types.OTHER:
+                return getKindByTypeName(metaData, column);
+            default:
+                return ColumnKind.PLAIN;
+        }
+    }
+
+    private static ColumnKind getKindByPrecision(ResultSetMetaData metaData, int column, ColumnKind largeKind)
+            throws SQLException {
+        int precision = metaData.getPrecision(column);
+        if (precision <= 0 || precision > LARGE_PRECISION) {
+            return largeKind;
+        }
+        return ColumnKind.PLAIN;
+    }
+
+    private static ColumnKind getKindByTypeName(ResultSetMetaData metaData, int column) throws SQLException {
+        String typeName = metaData.getColumnTypeName(column);
+        if (typeName != null && TEXT_TYPE_NAMES.contains(typeName.toLowerCase(Locale.ROOT))) {
+            return ColumnKind.TEXT_STREAM;
+        }
+        return ColumnKind.PLAIN;
+    }
+
+    /**
+     * Reads the values of the current row.
+     *
+     * @param resultSet the result set, positioned on a row
+     * @return the values of the row
+     * @throws SQLException if reading the row (or writing a large value to a temporary file) fails
+     */
+    Object[] readRow(ResultSet resultSet) throws SQLException {
+        Object[] values = new Object[columnKinds.length];
+        try {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readValue(resultSet, i + 1, columnKinds[i]);
+            }
+            return values;
+
+        } catch (IOException e) {
+            discardLobValues(values);
+            throw new SQLException("Could not write a large value to a temporary file: " + e.getMessage(), e);
+
+        } catch (SQLException | RuntimeException e) {
+            discardLobValues(values);
+            throw e;
+        }
+    }
+
+    private Object readValue(ResultSet resultSet, int column, ColumnKind columnKind)
+            throws SQLException, IOException {
+        switch (columnKind) {
+            case CLOB:
+                return readClob(resultSet.getClob(column));
+            case BLOB:
+                return readBlob(resultSet.getBlob(column));
+            case TEXT_STREAM:
+                return readText(resultSet.getCharacterStream(column));
+            case BINARY_STREAM:
+                return readBinary(resultSet.getBinaryStream(column));
+            default:
+                return resultSet.getObject(column);
+        }
+    }
+
+    private Object readClob(Clob clob) throws SQLException, IOException {
+        if (clob == null) {
+            return null;
+        }
+        try {
+            return readText(clob.getCharacterStream());
+        } finally {
+            // LOB locators hold resources on the server until freed (or the transaction ends)
+            clob.free();
+        }
+    }
+
+    private Object readBlob(Blob blob) throws SQLException, IOException {
+        if (blob == null) {
+            return null;
+        }
+        try {
+            return readBinary(blob.getBinaryStream());
+        } finally {
+            blob.free();
+        }
+    }
+
+    private Object readText(Reader reader) throws IOException {
+        if (reader == null) {
+            return null;
+        }
+        try (Reader valueReader = reader) {
+            return LobValue.readText(valueReader, previewLength);
+        }
+    }
+
+    private Object readBinary(InputStream inputStream) throws IOException {
+        if (inputStream == null) {
+            return null;
+        }
+        try (InputStream valueInputStream = inputStream) {
+            return LobValue.readBinary(valueInputStream, previewLength);
+        }
+    }
+
+    private static void discardLobValues(Object[] values) {
+        for (Object value : values) {
+            if (value instanceof LobValue) {
+                ((LobValue) value).discard();
+            }
+        }
+    }
+}
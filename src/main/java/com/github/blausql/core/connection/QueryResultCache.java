@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.core.connection;
+
+import com.github.blausql.core.preferences.ConfigurationRepository;
+import com.github.blausql.core.result.StoredResult;
+import com.github.blausql.core.util.SqlUtils;
+import com.github.blausql.spi.connections.LoadException;
+import com.github.blausql.spi.connections.SaveException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Opt-in, size-bounded cache of query results, so that re-running the same query does not
+ * go to the database again.
+ * <p>
+ * Entries are keyed by the connection identity, the normalized SQL text, the bind values and
+ * the row limit. When the estimated total size exceeds the configured budget, the least recently
+ * used entries are evicted. Any statement that might modify data invalidates all entries of the
+ * connection it was executed on.
+ */
+public final class QueryResultCache {
+
+    private static final Logger LOGGER = Logger.getLogger(QueryResultCache.class.getName());
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private static final QueryResultCache INSTANCE = new QueryResultCache();
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+
+    private long totalBytes;
+
+    private volatile boolean enabled;
+    private volatile long maxBytes;
+
+    public static QueryResultCache getInstance() {
+        return INSTANCE;
+    }
+
+    private QueryResultCache() {
+        try {
+            ConfigurationRepository configurationRepository = ConfigurationRepository.getInstance();
+
+            enabled = configurationRepository.isResultCacheEnabled();
+            maxBytes = configurationRepository.getResultCacheMaxBytes();
+
+        } catch (LoadException e) {
+            LOGGER.log(Level.WARNING, "Could not read result cache settings: the cache is disabled", e);
+            enabled = false;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the cache, persisting the choice in the settings. Disabling the cache
+     * releases all cached results.
+     *
+     * @param enable whether the cache should be enabled
+     * @throws SaveException if the setting cannot be saved
+     */
+    public void setEnabled(boolean enable) throws SaveException {
+        ConfigurationRepository.getInstance().saveResultCacheEnabled(enable);
+
+        this.enabled = enable;
+        if (!enable) {
+            clear();
+        }
+    }
+
+    StatementResult get(String connectionIdentity, String sql, List<Object> bindValues, int limit) {
+        Key key = new Key(connectionIdentity, sql, bindValues, limit);
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+
+            return new StatementResult(true, entry.rows, -1, entry.cachedAtMillis);
+        }
+    }
+
+    void put(String connectionIdentity, String sql, List<Object> bindValues, int limit,
+             List<Map<String, Object>> rows) {
+
+        if (rows instanceof StoredResult) {
+            StoredResult storedResult = (StoredResult) rows;
+            if (storedResult.isSpilled() || storedResult.isTruncated() || storedResult.hasLobValues()) {
+                // too large to be worth caching on the heap, incomplete, or deleted with the result
+                return;
+            }
+        }
+
+        long estimatedBytes = ResultSizeEstimator.estimateRows(rows);
+        if (estimatedBytes > maxBytes) {
+            return;
+        }
+
+        // copied, as the fetched result is released once its window is closed
+        List<Map<String, Object>> cachedRows = Collections.unmodifiableList(new ArrayList<>(rows));
+
+        Key key = new Key(connectionIdentity, sql, bindValues, limit);
+        Entry entry = new Entry(cachedRows, System.currentTimeMillis(), estimatedBytes);
+
+        synchronized (this) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                totalBytes -= previous.estimatedBytes;
+            }
+            totalBytes += estimatedBytes;
+
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    /**
+     * Removes all entries of a connection.
+     *
+     * @param connectionIdentity the identity of the connection
+     */
+    public synchronized void invalidate(String connectionIdentity) {
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Entry> mapEntry = iterator.next();
+            if (mapEntry.getKey().connectionIdentity.equals(connectionIdentity)) {
+                totalBytes -= mapEntry.getValue().estimatedBytes;
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void evictLeastRecentlyUsed() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            totalBytes -= iterator.next().estimatedBytes;
+            iterator.remove();
+        }
+    }
+
+    private static final class Key {
+
+        private final String connectionIdentity;
+        private final String normalizedSql;
+        private final List<Object> bindValues;
+        private final int limit;
+
+        private Key(String connectionIdentity, String sql, List<Object> bindValues, int limit) {
+            this.connectionIdentity = connectionIdentity;
+            this.normalizedSql = SqlUtils.normalize(sql);
+            this.bindValues = List.copyOf(bindValues);
+            this.limit = limit;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(connectionIdentity, normalizedSql, bindValues, limit);
+        }
+
+        //CHECKSTYLE.OFF: NeedBraces: IDE generated equals() implementation
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key that = (Key) o;
+            return limit == that.limit
+                    && connectionIdentity.equals(that.connectionIdentity)
+                    && normalizedSql.equals(that.normalizedSql)
+                    && bindValues.equals(that.bindValues);
+        }
+        //CHECKSTYLE.ON
+    }
+
+    private static final class Entry {
+
+        private final List<Map<String, Object>> rows;
+        private final long cachedAtMillis;
+        private final long estimatedBytes;
+
+        private Entry(List<Map<String, Object>> rows, long cachedAtMillis, long estimatedBytes) {
+            this.rows = rows;
+            this.cachedAtMillis = cachedAtMillis;
+            this.estimatedBytes = estimatedBytes;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.core.connection;
+
+import com.github.blausql.core.result.LobValue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cheap estimation of the heap footprint of fetched query results. The estimation does not
+ * have to be exact: it is used to keep caches and buffers within a configured budget.
+ */
+public final class ResultSizeEstimator {
+
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int REFERENCE_SIZE = 8;
+    private static final int MAP_ENTRY_SIZE = 32;
+    private static final int STRING_OVERHEAD = 40;
+    private static final int BOXED_PRIMITIVE_SIZE = 16;
+    private static final int BIG_NUMBER_SIZE = 64;
+    private static final int DATE_TIME_SIZE = 32;
+    private static final int UNKNOWN_OBJECT_SIZE = 64;
+
+    private ResultSizeEstimator() {
+        // no external instances
+    }
+
+    public static long estimateRows(List<Map<String, Object>> rows) {
+        long bytes = OBJECT_OVERHEAD + (long) REFERENCE_SIZE * rows.size();
+
+        for (Map<String, Object> row : rows) {
+            bytes += estimateRow(row);
+        }
+
+        return bytes;
+    }
+
+    public static long estimateRow(Map<String, Object> row) {
+        // keys are column labels shared by all rows, hence they are not accounted for here
+        long bytes = OBJECT_OVERHEAD + (long) MAP_ENTRY_SIZE * row.size();
+
+        for (Object value : row.values()) {
+            bytes += estimateValue(value);
+        }
+
+        return bytes;
+    }
+
+    public static long estimateRow(Object[] values) {
+        long bytes = OBJECT_OVERHEAD + (long) REFERENCE_SIZE * values.length;
+
+        for (Object value : values) {
+            bytes += estimateValue(value);
+        }
+
+        return bytes;
+    }
+
+    public static long estimateValue(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return STRING_OVERHEAD + 2L * ((String) value).length();
+        }
+        if (value instanceof byte[]) {
+            return OBJECT_OVERHEAD + ((byte[]) value).length;
+        }
+        if (value instanceof LobValue) {
+            // the rest of the value is in a temporary file
+            return OBJECT_OVERHEAD + STRING_OVERHEAD + 2L * ((LobValue) value).getPreview().length();
+        }
+        if (value instanceof BigDecimal || value instanceof BigInteger) {
+            return BIG_NUMBER_SIZE;
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return BOXED_PRIMITIVE_SIZE;
+        }
+        if (value instanceof java.util.Date || value instanceof java.time.temporal.Temporal) {
+            return DATE_TIME_SIZE;
+        }
+
+        return UNKNOWN_OBJECT_SIZE;
+    }
+}
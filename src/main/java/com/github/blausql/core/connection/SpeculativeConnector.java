@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.connection;
+
+import com.github.blausql.core.preferences.ConfigurationRepository;
+import com.github.blausql.spi.connections.LoadException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Opt-in warm-up of connections the user is likely to select: the connection is opened in the background
+ * (e.g. while it is highlighted in a list), and handed over if it is selected, instead of connecting only then.
+ * <p>
+ * At most one connection is opened speculatively at a time; it is closed if another one is warmed up or
+ * selected, or if it is not selected within {@link ConfigurationRepository#getSpeculativeConnectTimeoutSeconds()}.
+ * A connection is only handed over for exactly the same connection configuration (including the credentials).
+ * <p>
+ * Each terminal has its own connector (see {@link com.github.blausql.TerminalUI#getSpeculativeConnector()}):
+ * in server mode, the clients do not discard each other's connections. It is closed with the terminal.
+ */
+public final class SpeculativeConnector implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(SpeculativeConnector.class.getName());
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private static final class SpeculativeConnection {
+        private final ConnectionConfiguration connectionConfiguration;
+        private final CompletableFuture<DatabaseConnection> databaseConnection;
+
+        private SpeculativeConnection(ConnectionConfiguration connectionConfiguration,
+                                      CompletableFuture<DatabaseConnection> databaseConnection) {
+            this.connectionConfiguration = connectionConfiguration;
+            this.databaseConnection = databaseConnection;
+        }
+    }
+
+    private final boolean enabled;
+    private final long dwellMillis;
+    private final long timeoutSeconds;
+
+    private final ScheduledExecutorService timerExecutorService = Executors.newSingleThreadScheduledExecutor(
+            runnable -> createDaemonThread(runnable, "speculative-connect-timer"));
+
+    // connecting might block for long (e.g. until the connect timeout of the driver): one thread per attempt
+    private final ExecutorService connectExecutorService = Executors.newCachedThreadPool(
+            runnable -> createDaemonThread(runnable, "speculative-connect"));
+
+    // the fields below are guarded by this
+
+    private ScheduledFuture<?> scheduledWarmUp;
+    private SpeculativeConnection speculativeConnection;
+    private ScheduledFuture<?> speculativeConnectionExpiry;
+    private boolean closed;
+
+    /**
+     * Creates a connector with the speculative connect settings of the configuration.
+     */
+    public SpeculativeConnector() {
+        boolean speculativeConnect = false;
+        long dwell = ConfigurationRepository.DEFAULT_SPECULATIVE_CONNECT_DWELL_MILLIS;
+        long timeout = ConfigurationRepository.DEFAULT_SPECULATIVE_CONNECT_TIMEOUT_SECONDS;
+        try {
+            ConfigurationRepository configurationRepository = ConfigurationRepository.getInstance();
+            speculativeConnect = configurationRepository.isSpeculativeConnect();
+            dwell = configurationRepository.getSpeculativeConnectDwellMillis();
+            timeout = configurationRepository.getSpeculativeConnectTimeoutSeconds();
+
+        } catch (LoadException e) {
+            LOGGER.log(Level.WARNING, "Could not read speculative connect settings: it is disabled", e);
+            speculativeConnect = false;
+        }
+
+        this.enabled = speculativeConnect;
+        this.dwellMillis = Math.max(0, dwell);
+        this.timeoutSeconds = Math.max(1, timeout);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Opens a connection in the background, unless another one is warmed up (or selected) within the dwell time.
+     *
+     * @param connectionConfiguration the connection configuration to connect with
+     */
+    public synchronized void warmUpAfterDwell(ConnectionConfiguration connectionConfiguration) {
+        if (!enabled || closed) {
+            return;
+        }
+
+        cancelScheduledWarmUp();
+        if (isWarmingUp(connectionConfiguration)) {
+            return;
+        }
+
+        ConnectionConfiguration copy = new ConnectionConfiguration(connectionConfiguration);
+        scheduledWarmUp = timerExecutorService.schedule(() -> warmUp(copy), dwellMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a connection in the background, closing the one opened speculatively before, if any.
+     *
+     * @param connectionConfiguration the connection configuration to connect with
+     */
+    public synchronized void warmUp(ConnectionConfiguration connectionConfiguration) {
+        if (!enabled || closed) {
+            return;
+        }
+
+        cancelScheduledWarmUp();
+        if (isWarmingUp(connectionConfiguration)) {
+            return;
+        }
+        discardSpeculativeConnection();
+
+        ConnectionConfiguration copy = new ConnectionConfiguration(connectionConfiguration);
+        CompletableFuture<DatabaseConnection> databaseConnection = CompletableFuture.supplyAsync(
+                () -> DatabaseConnectionFactory.getDatabaseConnection(copy), connectExecutorService);
+
+        SpeculativeConnection connection = new SpeculativeConnection(copy, databaseConnection);
+        speculativeConnection = connection;
+        speculativeConnectionExpiry = timerExecutorService.schedule(() -> discard(connection),
+                timeoutSeconds, TimeUnit.SECONDS);
+
+        databaseConnection.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                // a failed attempt is not handed over: the selection connects again
+                LOGGER.log(Level.FINE, "Speculative connection failed: " + copy.getConnectionName(), throwable);
+                discard(connection);
+            }
+        });
+    }
+
+    /**
+     * Loads the JDBC driver of a connection configuration in the background, e.g. while the user enters
+     * the credentials.
+     *
+     * @param connectionConfiguration the connection configuration
+     */
+    public synchronized void prepareDriver(ConnectionConfiguration connectionConfiguration) {
+        if (!enabled || closed) {
+            return;
+        }
+
+        ConnectionConfiguration copy = new ConnectionConfiguration(connectionConfiguration);
+        connectExecutorService.execute(() -> {
+            try {
+                DatabaseConnectionFactory.prepareDriver(copy);
+            } catch (RuntimeException e) {
+                // reported when actually connecting
+                LOGGER.log(Level.FINE, "Failed to prepare the driver of " + copy.getConnectionName(), e);
+            }
+        });
+    }
+
+    /**
+     * Cancels the scheduled warm-up and closes the connection opened speculatively, if any.
+     */
+    public synchronized void discard() {
+        cancelScheduledWarmUp();
+        discardSpeculativeConnection();
+    }
+
+    /**
+     * Closes the connection opened speculatively, if any, and stops the threads of the connector:
+     * afterwards, {@link #getDatabaseConnection(ConnectionConfiguration)} connects directly.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        discard();
+        timerExecutorService.shutdownNow();
+        // pending attempts complete, and their connections are closed by discard() above
+        connectExecutorService.shutdown();
+    }
+
+    /**
+     * Returns the connection opened speculatively for the connection configuration, waiting for it to be
+     * established if needed, or opens a new one.
+     *
+     * @param connectionConfiguration the connection configuration to connect with
+     * @return the connection
+     * @throws InterruptedException if the thread is interrupted while waiting for the speculative connection
+     */
+    public DatabaseConnection getDatabaseConnection(ConnectionConfiguration connectionConfiguration)
+            throws InterruptedException {
+
+        SpeculativeConnection connection = take(connectionConfiguration);
+        if (connection == null) {
+            return DatabaseConnectionFactory.getDatabaseConnection(connectionConfiguration);
+        }
+
+        DatabaseConnection databaseConnection = await(connection);
+        if (databaseConnection != null && isValid(databaseConnection)) {
+            return databaseConnection;
+        }
+
+        if (databaseConnection != null) {
+            closeQuietly(databaseConnection);
+        }
+        // the speculative attempt failed: connect again, reporting the failure of this attempt if it fails too
+        return DatabaseConnectionFactory.getDatabaseConnection(connectionConfiguration);
+    }
+
+    private synchronized SpeculativeConnection take(ConnectionConfiguration connectionConfiguration) {
+        cancelScheduledWarmUp();
+
+        if (!isWarmingUp(connectionConfiguration)) {
+            discardSpeculativeConnection();
+            return null;
+        }
+
+        SpeculativeConnection connection = speculativeConnection;
+        speculativeConnectionExpiry.cancel(false);
+        speculativeConnection = null;
+
+        return connection;
+    }
+
+    private static DatabaseConnection await(SpeculativeConnection connection) throws InterruptedException {
+        try {
+            return connection.databaseConnection.get();
+
+        } catch (InterruptedException e) {
+            connection.databaseConnection.thenAccept(SpeculativeConnector::closeQuietly);
+            throw e;
+
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.FINE, "Speculative connection failed", e.getCause());
+            return null;
+        }
+    }
+
+    private static boolean isValid(DatabaseConnection databaseConnection) {
+        try {
+            // the connection might have been closed by the server since it was opened
+            return databaseConnection.execute(connection -> connection.isValid(VALIDATION_TIMEOUT_SECONDS));
+
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.FINE, "Speculative connection is not valid", e);
+            return false;
+        }
+    }
+
+    private synchronized void discard(SpeculativeConnection connection) {
+        if (speculativeConnection == connection) {
+            discardSpeculativeConnection();
+        }
+    }
+
+    private boolean isWarmingUp(ConnectionConfiguration connectionConfiguration) {
+        return speculativeConnection != null
+                && speculativeConnection.connectionConfiguration.equals(connectionConfiguration);
+    }
+
+    private void cancelScheduledWarmUp() {
+        if (scheduledWarmUp != null) {
+            scheduledWarmUp.cancel(false);
+            scheduledWarmUp = null;
+        }
+    }
+
+    private void discardSpeculativeConnection() {
+        if (speculativeConnection != null) {
+            speculativeConnectionExpiry.cancel(false);
+            speculativeConnection.databaseConnection.thenAccept(SpeculativeConnector::closeQuietly);
+            speculativeConnection = null;
+        }
+    }
+
+    private static void closeQuietly(DatabaseConnection databaseConnection) {
+        try {
+            databaseConnection.close();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.FINE, "Failed to close speculative connection", e);
+        }
+    }
+
+    private static Thread createDaemonThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
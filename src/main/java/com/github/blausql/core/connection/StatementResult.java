@@ -16,6 +16,8 @@
 
 package com.github.blausql.core.connection;
 
+import com.github.blausql.core.result.StoredResult;
+
 import java.util.List;
 import java.util.Map;
 
@@ -24,12 +26,19 @@ public final class StatementResult {
     private final boolean isResultSet;
     private final List<Map<String, Object>> queryResult;
     private final int updateCount;
+    private final long cachedAtMillis;
 
     StatementResult(boolean isResultSet,
                    List<Map<String, Object>> queryResult, int updateCount) {
+        this(isResultSet, queryResult, updateCount, -1);
+    }
+
+    StatementResult(boolean isResultSet,
+                    List<Map<String, Object>> queryResult, int updateCount, long cachedAtMillis) {
         this.isResultSet = isResultSet;
         this.queryResult = queryResult;
         this.updateCount = updateCount;
+        this.cachedAtMillis = cachedAtMillis;
     }
 
     public boolean isResultSet() {
@@ -49,4 +58,39 @@ public final class StatementResult {
         }
         return updateCount;
     }
+
+    /**
+     * @return {@code true} if fetching of the result set was stopped before all rows were read,
+     * because the client was running low on memory
+     */
+    public boolean isTruncated() {
+        return queryResult instanceof StoredResult && ((StoredResult) queryResult).isTruncated();
+    }
+
+    /**
+     * Releases the resources (heap budget, spill file) held by the rows of the result set.
+     */
+    public void releaseQueryResult() {
+        if (queryResult instanceof StoredResult) {
+            ((StoredResult) queryResult).close();
+        }
+    }
+
+    /**
+     * @return {@code true} if the result was served from the {@link QueryResultCache}
+     * instead of the database
+     */
+    public boolean isFromCache() {
+        return cachedAtMillis >= 0;
+    }
+
+    /**
+     * @return the time the cached result was fetched from the database, in milliseconds since the epoch
+     */
+    public long getCachedAtMillis() {
+        if (!isFromCache()) {
+            throw new IllegalStateException("Statement result is not served from the cache");
+        }
+        return cachedAtMillis;
+    }
 }
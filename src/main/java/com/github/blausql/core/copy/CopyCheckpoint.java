@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.copy;
+
+import com.github.blausql.core.preferences.StorageDirectory;
+import com.github.blausql.core.util.FileUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Persists the progress of a table copy, so that a failed copy can be resumed from the last committed batch.
+ */
+final class CopyCheckpoint {
+
+    private static final String CHECKPOINT_DIRECTORY_NAME = "copy-checkpoints";
+    private static final String CHECKPOINT_FILE_EXTENSION = ".properties";
+
+    private static final String PARTITION_COUNT = "partitionCount";
+    private static final String FROM_KEY = ".fromKey";
+    private static final String TO_KEY = ".toKey";
+    private static final String NEXT_KEY = ".nextKey";
+
+    private final String name;
+
+    private final List<CopyPartition> partitions = new ArrayList<>();
+
+    CopyCheckpoint(String name) {
+        this.name = name;
+    }
+
+    boolean exists() throws IOException {
+        return Files.isRegularFile(getCheckpointFile());
+    }
+
+    /**
+     * @return the partitions stored in the checkpoint, or an empty list if there is no checkpoint
+     */
+    synchronized List<CopyPartition> load() throws IOException {
+        partitions.clear();
+
+        Path checkpointFile = getCheckpointFile();
+        if (Files.isRegularFile(checkpointFile)) {
+            Properties properties = new Properties();
+            try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(checkpointFile))) {
+                properties.load(inputStream);
+            }
+
+            try {
+                int partitionCount = Integer.parseInt(properties.getProperty(PARTITION_COUNT));
+                for (int i = 0; i < partitionCount; i++) {
+                    partitions.add(new CopyPartition(
+                            Long.parseLong(properties.getProperty(i + FROM_KEY)),
+                            Long.parseLong(properties.getProperty(i + TO_KEY)),
+                            Long.parseLong(properties.getProperty(i + NEXT_KEY))));
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid checkpoint file: " + checkpointFile, e);
+            }
+        }
+
+        return List.copyOf(partitions);
+    }
+
+    synchronized void start(List<CopyPartition> newPartitions) throws IOException {
+        partitions.clear();
+        partitions.addAll(newPartitions);
+
+        write();
+    }
+
+    synchronized void update(int partitionIndex, CopyPartition partition) throws IOException {
+        partitions.set(partitionIndex, partition);
+
+        write();
+    }
+
+    synchronized void delete() throws IOException {
+        partitions.clear();
+
+        Files.deleteIfExists(getCheckpointFile());
+    }
+
+    private void write() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(PARTITION_COUNT, Integer.toString(partitions.size()));
+        for (int i = 0; i < partitions.size(); i++) {
+            CopyPartition partition = partitions.get(i);
+            properties.setProperty(i + FROM_KEY, Long.toString(partition.getFromKey()));
+            properties.setProperty(i + TO_KEY, Long.toString(partition.getToKey()));
+            properties.setProperty(i + NEXT_KEY, Long.toString(partition.getNextKey()));
+        }
+
+        File directory = StorageDirectory.getSubdirectory(CHECKPOINT_DIRECTORY_NAME);
+        Path temporaryFile = Files.createTempFile(directory.toPath(), "checkpoint", ".tmp");
+        try {
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temporaryFile))) {
+                properties.store(outputStream, name);
+            }
+
+            FileUtils.replaceAtomically(temporaryFile, getCheckpointFile());
+
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private Path getCheckpointFile() throws IOException {
+        File directory = StorageDirectory.getSubdirectory(CHECKPOINT_DIRECTORY_NAME);
+
+        return new File(directory, StorageDirectory.toFileName(name) + CHECKPOINT_FILE_EXTENSION).toPath();
+    }
+}
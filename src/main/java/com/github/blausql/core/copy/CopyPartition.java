@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.copy;
+
+/**
+ * A key range of a table copy, and the key from which copying continues.
+ */
+final class CopyPartition {
+
+    private final long fromKey;
+    private final long toKey;
+    private final long nextKey;
+
+    CopyPartition(long fromKey, long toKey, long nextKey) {
+        this.fromKey = fromKey;
+        this.toKey = toKey;
+        this.nextKey = nextKey;
+    }
+
+    long getFromKey() {
+        return fromKey;
+    }
+
+    long getToKey() {
+        return toKey;
+    }
+
+    long getNextKey() {
+        return nextKey;
+    }
+
+    boolean isCompleted() {
+        return nextKey > toKey;
+    }
+
+    CopyPartition continueAfter(long lastCopiedKey) {
+        return new CopyPartition(fromKey, toKey, lastCopiedKey + 1);
+    }
+}
@@ -0,0 +1,556 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.copy;
+
+import com.github.blausql.core.connection.ConnectionConfiguration;
+import com.github.blausql.core.connection.DatabaseConnection;
+import com.github.blausql.core.connection.DatabaseConnectionFactory;
+import com.github.blausql.core.preferences.ConfigurationRepository;
+import com.github.blausql.spi.connections.LoadException;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies the rows of a table from one connection to another.
+ *
+ * <p>The key range is split into partitions, which are copied in parallel, each with its own pair
+ * of connections. For each partition, a reader thread streams the rows in key order and hands them
+ * over in batches to a writer thread through a bounded queue: a slow target blocks the reader instead
+ * of filling the heap. The writer inserts each batch with a batched {@code PreparedStatement}, commits it
+ * and records the last copied key in a checkpoint file; if the copy fails, it can be resumed from there.
+ * A failure can come between the commit of a batch and the update of the checkpoint, so a resumed copy first
+ * deletes the rows of the target table past the last checkpointed key of each partition and copies them again.</p>
+ *
+ * <p>The key column must be a unique column of an integral type, the target table must exist and
+ * have (at least) the columns of the source table.</p>
+ */
+public final class TableCopy {
+
+    private static final int QUEUE_CAPACITY = 4;
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final ConnectionConfiguration sourceConfiguration;
+    private final ConnectionConfiguration targetConfiguration;
+    private final String sourceTable;
+    private final String targetTable;
+    private final String keyColumn;
+
+    private final CopyCheckpoint checkpoint;
+
+    private final AtomicLong copiedRowCount = new AtomicLong();
+
+    private List<String> columnNames;
+    private int[] columnTypes;
+    private int keyColumnIndex;
+    private String keyExpression;
+    private String targetKeyExpression;
+    private String selectSql;
+    private String insertSql;
+
+    public TableCopy(ConnectionConfiguration sourceConfiguration, ConnectionConfiguration targetConfiguration,
+                     String sourceTable, String targetTable, String keyColumn) {
+        this.sourceConfiguration = new ConnectionConfiguration(sourceConfiguration);
+        this.targetConfiguration = new ConnectionConfiguration(targetConfiguration);
+        this.sourceTable = sourceTable;
+        this.targetTable = targetTable;
+        this.keyColumn = keyColumn;
+
+        this.checkpoint = new CopyCheckpoint(String.join("-",
+                sourceConfiguration.getConnectionName(), sourceTable,
+                targetConfiguration.getConnectionName(), targetTable));
+    }
+
+    /**
+     * @return {@code true} if a previous copy of the same table between the same connections failed
+     * @throws IOException if the checkpoint cannot be accessed
+     */
+    public boolean hasCheckpoint() throws IOException {
+        return checkpoint.exists();
+    }
+
+    /**
+     * Discards the checkpoint of a previous copy: the next copy starts from the beginning.
+     *
+     * @throws IOException if the checkpoint cannot be deleted
+     */
+    public void discardCheckpoint() throws IOException {
+        checkpoint.delete();
+    }
+
+    /**
+     * @return the number of rows committed so far by this run
+     */
+    public long getCopiedRowCount() {
+        return copiedRowCount.get();
+    }
+
+    /**
+     * Copies the table, resuming from the checkpoint if there is one; may be called only once.
+     *
+     * @return the result of the copy
+     * @throws InterruptedException if the calling thread is interrupted
+     * @throws IOException          if the checkpoint cannot be read or written
+     * @throws LoadException        if the settings cannot be read
+     */
+    public TableCopyResult copy() throws InterruptedException, IOException, LoadException {
+        long startNanos = System.nanoTime();
+
+        ConfigurationRepository configurationRepository = ConfigurationRepository.getInstance();
+        int fetchSize = configurationRepository.getCopyFetchSize();
+        int batchSize = configurationRepository.getCopyBatchSize();
+
+        List<CopyPartition> partitions = checkpoint.load();
+        boolean resumed = !partitions.isEmpty();
+        partitions = prepare(resumed, configurationRepository.getCopyPartitions());
+        if (!resumed) {
+            checkpoint.start(partitions);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, 2 * partitions.size()), runnable -> {
+            Thread thread = new Thread(runnable, "table-copy");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<?>> partitionFutures = new ArrayList<>();
+            for (int i = 0; i < partitions.size(); i++) {
+                if (!partitions.get(i).isCompleted()) {
+                    int partitionIndex = i;
+                    CopyPartition partition = partitions.get(i);
+                    partitionFutures.add(executor.submit(() ->
+                            copyPartition(executor, partitionIndex, partition, resumed, fetchSize, batchSize)));
+                }
+            }
+
+            awaitAll(partitionFutures);
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+        checkpoint.delete();
+
+        return new TableCopyResult(copiedRowCount.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), resumed);
+    }
+
+    private static void awaitAll(List<Future<?>> futures) throws InterruptedException {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Reads the columns of the tables and, unless resuming, splits the key range of the source table.
+     */
+    private List<CopyPartition> prepare(boolean resumed, int partitionCount) throws IOException {
+        DatabaseConnection source = DatabaseConnectionFactory.getDatabaseConnection(sourceConfiguration);
+        try {
+            DatabaseConnection target = DatabaseConnectionFactory.getDatabaseConnection(targetConfiguration);
+            try {
+                source.execute(this::prepareSelect);
+                target.execute(this::prepareInsert);
+
+                if (resumed) {
+                    return checkpoint.load();
+                }
+
+                return source.execute(connection -> createPartitions(connection, partitionCount));
+
+            } finally {
+                target.close();
+            }
+        } finally {
+            source.close();
+        }
+    }
+
+    private Void prepareSelect(Connection connection) throws SQLException {
+        String quote = connection.getMetaData().getIdentifierQuoteString().trim();
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT * FROM " + sourceTable + " WHERE 1 = 0")) {
+
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            columnNames = new ArrayList<>(metaData.getColumnCount());
+            columnTypes = new int[metaData.getColumnCount()];
+            keyColumnIndex = -1;
+            for (int i = 0; i < metaData.getColumnCount(); i++) {
+                columnNames.add(metaData.getColumnName(i + 1));
+                columnTypes[i] = metaData.getColumnType(i + 1);
+                if (columnNames.get(i).equalsIgnoreCase(keyColumn)) {
+                    keyColumnIndex = i;
+                }
+            }
+        }
+
+        if (keyColumnIndex < 0) {
+            throw new IllegalArgumentException("No such column: " + keyColumn);
+        }
+
+        keyExpression = quote + columnNames.get(keyColumnIndex) + quote;
+        selectSql = "SELECT " + joinQuoted(columnNames, quote) + " FROM " + sourceTable
+                + " WHERE " + keyExpression + " >= ? AND " + keyExpression + " <= ? ORDER BY " + keyExpression;
+
+        return null;
+    }
+
+    private Void prepareInsert(Connection connection) throws SQLException {
+        String quote = connection.getMetaData().getIdentifierQuoteString().trim();
+
+        Map<String, String> targetColumnNamesByUpperCase = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT * FROM " + targetTable + " WHERE 1 = 0")) {
+
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                targetColumnNamesByUpperCase.put(metaData.getColumnName(i).toUpperCase(Locale.ROOT),
+                        metaData.getColumnName(i));
+            }
+        }
+
+        List<String> targetColumnNames = new ArrayList<>(columnNames.size());
+        for (String columnName : columnNames) {
+            String targetColumnName = targetColumnNamesByUpperCase.get(columnName.toUpperCase(Locale.ROOT));
+            if (targetColumnName == null) {
+                throw new IllegalArgumentException("Column " + columnName + " does not exist in " + targetTable);
+            }
+            targetColumnNames.add(targetColumnName);
+        }
+
+        targetKeyExpression = quote + targetColumnNames.get(keyColumnIndex) + quote;
+
+        insertSql = "INSERT INTO " + targetTable + " (" + joinQuoted(targetColumnNames, quote) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columnNames.size(), "?")) + ")";
+
+        return null;
+    }
+
+    private static String joinQuoted(List<String> names, String quote) {
+        List<String> quotedNames = new ArrayList<>(names.size());
+        for (String name : names) {
+            quotedNames.add(quote + name + quote);
+        }
+        return String.join(", ", quotedNames);
+    }
+
+    private List<CopyPartition> createPartitions(Connection connection, int partitionCount) throws SQLException {
+        String sql = "SELECT MIN(" + keyExpression + ") AS MIN_KEY, MAX(" + keyExpression + ") AS MAX_KEY FROM "
+                + sourceTable;
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+
+            if (!resultSet.next()) {
+                return Collections.emptyList();
+            }
+            long minKey = resultSet.getLong("MIN_KEY");
+            if (resultSet.wasNull()) {
+                return Collections.emptyList();
+            }
+            long maxKey = resultSet.getLong("MAX_KEY");
+
+            long keyCount = Math.addExact(Math.subtractExact(maxKey, minKey), 1);
+            long width = (keyCount + partitionCount - 1) / Math.max(1, partitionCount);
+
+            List<CopyPartition> partitions = new ArrayList<>();
+            for (long fromKey = minKey; fromKey <= maxKey && fromKey >= minKey; fromKey += width) {
+                long toKey = Math.min(maxKey, fromKey + width - 1);
+                partitions.add(new CopyPartition(fromKey, toKey, fromKey));
+            }
+            return partitions;
+        }
+    }
+
+    private Void copyPartition(ExecutorService executor, int partitionIndex, CopyPartition partition,
+                               boolean resumed, int fetchSize, int batchSize)
+            throws InterruptedException, IOException {
+
+        DatabaseConnection source = DatabaseConnectionFactory.getDatabaseConnection(sourceConfiguration);
+        try {
+            DatabaseConnection target = DatabaseConnectionFactory.getDatabaseConnection(targetConfiguration);
+            try {
+                if (resumed) {
+                    target.execute(connection -> deleteRowsPastCheckpoint(connection, partition));
+                }
+
+                BlockingQueue<List<Object[]>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+                Future<?> reader = executor.submit(() -> source.execute(connection ->
+                        readPartition(connection, partition, fetchSize, batchSize, queue)));
+                try {
+                    writePartition(target, partitionIndex, partition, queue, reader);
+                } finally {
+                    reader.cancel(true);
+                }
+
+                return null;
+
+            } finally {
+                target.close();
+            }
+        } finally {
+            source.close();
+        }
+    }
+
+    /**
+     * Deletes the rows committed after the checkpoint of the partition was last updated.
+     */
+    private Void deleteRowsPastCheckpoint(Connection connection, CopyPartition partition) throws SQLException {
+        connection.setAutoCommit(false);
+
+        String sql = "DELETE FROM " + targetTable
+                + " WHERE " + targetKeyExpression + " >= ? AND " + targetKeyExpression + " <= ?";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, partition.getNextKey());
+            statement.setLong(2, partition.getToKey());
+            statement.executeUpdate();
+            connection.commit();
+
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+
+        return null;
+    }
+
+    private Void readPartition(Connection connection, CopyPartition partition, int fetchSize, int batchSize,
+                               BlockingQueue<List<Object[]>> queue) throws SQLException {
+
+        // some drivers (e.g. PostgreSQL) only stream results with a cursor inside a transaction
+        connection.setAutoCommit(false);
+
+        try (PreparedStatement statement = connection.prepareStatement(selectSql)) {
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, partition.getNextKey());
+            statement.setLong(2, partition.getToKey());
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                List<Object[]> batch = new ArrayList<>(batchSize);
+                while (resultSet.next()) {
+                    batch.add(readRow(resultSet));
+
+                    if (batch.size() == batchSize) {
+                        if (!enqueue(queue, batch)) {
+                            return null;
+                        }
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+
+                if (!batch.isEmpty() && !enqueue(queue, batch)) {
+                    return null;
+                }
+
+                // an empty batch marks the end of the partition
+                enqueue(queue, Collections.emptyList());
+            }
+        }
+
+        return null;
+    }
+
+    private Object[] readRow(ResultSet resultSet) throws SQLException {
+        Object[] row = new Object[columnTypes.length];
+        for (int i = 0; i < columnTypes.length; i++) {
+            row[i] = readValue(resultSet, i + 1, columnTypes[i]);
+        }
+        return row;
+    }
+
+    /**
+     * Reads a value with the getter of its JDBC type: {@code getObject} returns driver specific
+     * classes for some types (e.g. {@code oracle.sql.TIMESTAMP}), which the target driver cannot bind.
+     */
+    private static Object readValue(ResultSet resultSet, int column, int columnType) throws SQLException {
+        switch (columnType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return nullIfWasNull(resultSet, resultSet.getLong(column));
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return nullIfWasNull(resultSet, resultSet.getDouble(column));
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return resultSet.getBigDecimal(column);
+            case Types.BOOLEAN:
+                return nullIfWasNull(resultSet, resultSet.getBoolean(column));
+            case Types.DATE:
+                return resultSet.getDate(column);
+            case Types.TIME:
+                return resultSet.getTime(column);
+            case Types.TIMESTAMP:
+                return resultSet.getTimestamp(column);
+            case Types.TIME_WITH_TIMEZONE:
+                return resultSet.getObject(column, OffsetTime.class);
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return resultSet.getObject(column, OffsetDateTime.class);
+            default:
+                return readCharacterOrBinaryValue(resultSet, column, columnType);
+        }
+    }
+
+    private static Object readCharacterOrBinaryValue(ResultSet resultSet, int column, int columnType)
+            throws SQLException {
+        switch (columnType) {
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.CLOB:
+            case Types.NCLOB:
+                // LOB locators are not valid after the cursor has moved on
+                return resultSet.getString(column);
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return resultSet.getBytes(column);
+            default:
+                return resultSet.getObject(column);
+        }
+    }
+
+    private static Object nullIfWasNull(ResultSet resultSet, Object value) throws SQLException {
+        if (resultSet.wasNull()) {
+            return null;
+        }
+        return value;
+    }
+
+    /**
+     * @return {@code false} if the reader was interrupted, since the copy is cancelled
+     */
+    private static boolean enqueue(BlockingQueue<List<Object[]>> queue, List<Object[]> batch) {
+        try {
+            queue.put(batch);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void writePartition(DatabaseConnection target, int partitionIndex, CopyPartition partition,
+                                BlockingQueue<List<Object[]>> queue, Future<?> reader)
+            throws InterruptedException, IOException {
+
+        CopyPartition currentPartition = partition;
+        while (true) {
+            List<Object[]> batch = takeBatch(queue, reader);
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            target.execute(connection -> writeBatch(connection, batch));
+
+            long lastCopiedKey = ((Number) batch.get(batch.size() - 1)[keyColumnIndex]).longValue();
+            currentPartition = currentPartition.continueAfter(lastCopiedKey);
+            checkpoint.update(partitionIndex, currentPartition);
+
+            copiedRowCount.addAndGet(batch.size());
+        }
+    }
+
+    /**
+     * @return the next batch, or an empty list at the end of the partition
+     */
+    private List<Object[]> takeBatch(BlockingQueue<List<Object[]>> queue, Future<?> reader)
+            throws InterruptedException {
+
+        List<Object[]> batch = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        while (batch == null) {
+            if (reader.isDone()) {
+                // surfaces the failure of the reader, if any
+                awaitAll(List.of(reader));
+
+                batch = queue.poll();
+                if (batch == null) {
+                    throw new IllegalStateException("Reading " + sourceTable + " stopped unexpectedly");
+                }
+            } else {
+                batch = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
+        return batch;
+    }
+
+    private Void writeBatch(Connection connection, List<Object[]> batch) throws SQLException {
+        connection.setAutoCommit(false);
+
+        try (PreparedStatement statement = connection.prepareStatement(insertSql)) {
+            for (Object[] row : batch) {
+                for (int i = 0; i < row.length; i++) {
+                    if (row[i] == null) {
+                        statement.setNull(i + 1, columnTypes[i]);
+                    } else {
+                        statement.setObject(i + 1, row[i]);
+                    }
+                }
+                statement.addBatch();
+            }
+
+            statement.executeBatch();
+            connection.commit();
+
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+
+        return null;
+    }
+}
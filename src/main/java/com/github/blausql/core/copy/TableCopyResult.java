@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.copy;
+
+public final class TableCopyResult {
+
+    private static final long MILLIS_PER_SECOND = 1000;
+
+    private final long copiedRowCount;
+    private final long elapsedMillis;
+    private final boolean resumed;
+
+    TableCopyResult(long copiedRowCount, long elapsedMillis, boolean resumed) {
+        this.copiedRowCount = copiedRowCount;
+        this.elapsedMillis = elapsedMillis;
+        this.resumed = resumed;
+    }
+
+    /**
+     * @return the number of rows copied by this run (excluding rows copied before a resume)
+     */
+    public long getCopiedRowCount() {
+        return copiedRowCount;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getRowsPerSecond() {
+        return copiedRowCount * MILLIS_PER_SECOND / Math.max(1, elapsedMillis);
+    }
+
+    /**
+     * @return {@code true} if the copy continued from the checkpoint of a previous, failed copy
+     */
+    public boolean isResumed() {
+        return resumed;
+    }
+}
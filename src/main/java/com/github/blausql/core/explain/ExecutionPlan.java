@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.explain;
+
+import java.util.List;
+
+/**
+ * The execution plan of a statement, as captured at a point in time.
+ */
+public final class ExecutionPlan {
+
+    private final String normalizedSql;
+    private final List<String> planLines;
+    private final long capturedAtMillis;
+    private final long elapsedMillis;
+    private final boolean analyzed;
+
+    ExecutionPlan(String normalizedSql, List<String> planLines, long capturedAtMillis, long elapsedMillis,
+                  boolean analyzed) {
+        this.normalizedSql = normalizedSql;
+        this.planLines = List.copyOf(planLines);
+        this.capturedAtMillis = capturedAtMillis;
+        this.elapsedMillis = elapsedMillis;
+        this.analyzed = analyzed;
+    }
+
+    public String getNormalizedSql() {
+        return normalizedSql;
+    }
+
+    public List<String> getPlanLines() {
+        return planLines;
+    }
+
+    public long getCapturedAtMillis() {
+        return capturedAtMillis;
+    }
+
+    /**
+     * @return the time it took to capture the plan: if the plan is {@linkplain #isAnalyzed() analyzed},
+     * this includes executing the statement
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return {@code true} if the statement was executed to capture actual row counts and timings
+     */
+    public boolean isAnalyzed() {
+        return analyzed;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.explain;
+
+import com.github.blausql.core.util.SqlUtils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Captures the {@link ExecutionPlan} of a statement with the {@link ExplainStrategy} of the database.
+ */
+public final class ExecutionPlanCapturer {
+
+    private ExecutionPlanCapturer() {
+        // no external instances
+    }
+
+    /**
+     * Captures the execution plan of a statement. Queries are analyzed (i.e. executed, to report
+     * actual row counts and timings) where the database supports it; statements which might modify
+     * data are only explained. An analyzed query is executed in a transaction (or, inside the transaction
+     * of the session, after a savepoint) which is always rolled back: a query that modifies data after all
+     * (e.g. calling a function with side effects) changes nothing.
+     *
+     * @param connection the connection to use
+     * @param sql        the statement to explain
+     * @return the captured plan
+     * @throws SQLException if the database reports an error
+     */
+    public static ExecutionPlan capture(Connection connection, String sql) throws SQLException {
+        ExplainStrategy strategy = ExplainStrategy.forProductName(connection.getMetaData().getDatabaseProductName());
+
+        String normalizedSql = SqlUtils.normalize(sql);
+        boolean analyze = SqlUtils.isReadOnlyQuery(normalizedSql) && canRollBack(connection);
+
+        long capturedAtMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+
+        // the original statement is explained: comments might be optimizer hints
+        List<String> planLines;
+        if (analyze) {
+            planLines = analyzeAndRollBack(connection, strategy, sql.trim());
+        } else {
+            planLines = strategy.explain(connection, sql.trim(), false);
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        return new ExecutionPlan(normalizedSql, planLines, capturedAtMillis, elapsedMillis, analyze);
+    }
+
+    private static List<String> analyzeAndRollBack(Connection connection, ExplainStrategy strategy, String sql)
+            throws SQLException {
+
+        if (!connection.getAutoCommit()) {
+            return analyzeInSessionTransaction(connection, strategy, sql);
+        }
+
+        connection.setAutoCommit(false);
+        try {
+            return strategy.explain(connection, sql, true);
+
+        } finally {
+            try {
+                connection.rollback();
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if a statement executed now can be rolled back without discarding the changes of
+     * a transaction the session has open
+     */
+    private static boolean canRollBack(Connection connection) throws SQLException {
+        return connection.getAutoCommit() || connection.getMetaData().supportsSavepoints();
+    }
+
+    /**
+     * Analyzes a query without discarding the changes of the transaction the session has open.
+     */
+    private static List<String> analyzeInSessionTransaction(Connection connection, ExplainStrategy strategy,
+                                                            String sql) throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            return strategy.explain(connection, sql, true);
+
+        } finally {
+            connection.rollback(savepoint);
+        }
+    }
+}
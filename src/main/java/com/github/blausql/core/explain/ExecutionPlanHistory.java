@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.explain;
+
+import com.github.blausql.core.preferences.StorageDirectory;
+import com.github.blausql.core.util.FileUtils;
+import com.github.blausql.core.util.SqlUtils;
+import com.github.blausql.spi.connections.LoadException;
+import com.github.blausql.spi.connections.SaveException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local history of the {@link ExecutionPlan}s captured for each statement of a connection, persisted in the
+ * BlauSQL storage directory. Statements are identified by their {@linkplain SqlUtils#normalize(String)
+ * normalized} text, so plans captured for differently formatted variants of a statement can be compared.
+ */
+public final class ExecutionPlanHistory {
+
+    private static final String HISTORY_DIRECTORY_NAME = "plan-history";
+    private static final String HISTORY_FILE_EXTENSION = ".plans";
+
+    private static final int MAGIC = 0x42535048; // "BSPH"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int MAX_PLANS_PER_STATEMENT = 20;
+
+    private static final int HEX_RADIX = 16;
+
+    private static final ExecutionPlanHistory INSTANCE = new ExecutionPlanHistory();
+
+    public static ExecutionPlanHistory getInstance() {
+        return INSTANCE;
+    }
+
+    private ExecutionPlanHistory() {
+        // no external instances
+    }
+
+    /**
+     * Returns the plans captured for a statement.
+     *
+     * @param connectionName the name of the connection
+     * @param sql            the statement (normalized or not)
+     * @return the plans, the most recent first
+     * @throws LoadException if the history cannot be read
+     */
+    public synchronized List<ExecutionPlan> getHistory(String connectionName, String sql) throws LoadException {
+        try {
+            Path historyFile = getHistoryFile(connectionName, SqlUtils.normalize(sql));
+            if (!Files.isRegularFile(historyFile)) {
+                return new ArrayList<>();
+            }
+
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(historyFile)))) {
+                return readPlans(in);
+            }
+
+        } catch (IOException e) {
+            throw new LoadException("Failed to read execution plan history", e);
+        }
+    }
+
+    /**
+     * Adds a plan to the history of its statement; only the most recent plans are kept.
+     *
+     * @param connectionName the name of the connection the plan was captured on
+     * @param executionPlan  the plan to add
+     * @throws SaveException if the history cannot be written
+     */
+    public synchronized void record(String connectionName, ExecutionPlan executionPlan) throws SaveException {
+        try {
+            List<ExecutionPlan> plans = getHistory(connectionName, executionPlan.getNormalizedSql());
+            plans.add(0, executionPlan);
+            if (plans.size() > MAX_PLANS_PER_STATEMENT) {
+                plans.subList(MAX_PLANS_PER_STATEMENT, plans.size()).clear();
+            }
+
+            File directory = StorageDirectory.getSubdirectory(HISTORY_DIRECTORY_NAME);
+            Path temporaryFile = Files.createTempFile(directory.toPath(), "plans", ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                    writePlans(plans, out);
+                }
+
+                FileUtils.replaceAtomically(temporaryFile,
+                        getHistoryFile(connectionName, executionPlan.getNormalizedSql()));
+
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+
+        } catch (IOException | LoadException e) {
+            throw new SaveException("Failed to save execution plan history", e);
+        }
+    }
+
+    private static List<ExecutionPlan> readPlans(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unsupported execution plan history file format");
+        }
+
+        int planCount = in.readInt();
+        List<ExecutionPlan> plans = new ArrayList<>(planCount);
+        for (int i = 0; i < planCount; i++) {
+            String normalizedSql = readString(in);
+            long capturedAtMillis = in.readLong();
+            long elapsedMillis = in.readLong();
+            boolean analyzed = in.readBoolean();
+
+            int lineCount = in.readInt();
+            List<String> planLines = new ArrayList<>(lineCount);
+            for (int j = 0; j < lineCount; j++) {
+                planLines.add(readString(in));
+            }
+
+            plans.add(new ExecutionPlan(normalizedSql, planLines, capturedAtMillis, elapsedMillis, analyzed));
+        }
+        return plans;
+    }
+
+    private static void writePlans(List<ExecutionPlan> plans, DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+
+        out.writeInt(plans.size());
+        for (ExecutionPlan plan : plans) {
+            writeString(out, plan.getNormalizedSql());
+            out.writeLong(plan.getCapturedAtMillis());
+            out.writeLong(plan.getElapsedMillis());
+            out.writeBoolean(plan.isAnalyzed());
+
+            out.writeInt(plan.getPlanLines().size());
+            for (String line : plan.getPlanLines()) {
+                writeString(out, line);
+            }
+        }
+    }
+
+    // DataOutputStream.writeUTF is limited to 64 KiB, which a statement might exceed
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Path getHistoryFile(String connectionName, String normalizedSql) throws IOException {
+        File directory = StorageDirectory.getSubdirectory(HISTORY_DIRECTORY_NAME);
+
+        String fileName = StorageDirectory.toFileName(connectionName) + "-" + sha256(normalizedSql)
+                + HISTORY_FILE_EXTENSION;
+
+        return new File(directory, fileName).toPath();
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return new BigInteger(1, messageDigest.digest(text.getBytes(StandardCharsets.UTF_8))).toString(HEX_RADIX);
+
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.explain;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Database specific way of capturing the execution plan of a statement.
+ */
+enum ExplainStrategy {
+
+    H2("H2") {
+        @Override
+        List<String> explain(Connection connection, String sql, boolean analyze) throws SQLException {
+            return queryPlan(connection, analyzeOrExplain(analyze, "EXPLAIN ANALYZE ", "EXPLAIN ") + sql);
+        }
+    },
+
+    POSTGRESQL("PostgreSQL") {
+        @Override
+        List<String> explain(Connection connection, String sql, boolean analyze) throws SQLException {
+            return queryPlan(connection, analyzeOrExplain(analyze, "EXPLAIN (ANALYZE, BUFFERS) ", "EXPLAIN ") + sql);
+        }
+    },
+
+    MYSQL("MySQL") {
+        @Override
+        List<String> explain(Connection connection, String sql, boolean analyze) throws SQLException {
+            return queryPlan(connection, analyzeOrExplain(analyze, "EXPLAIN ANALYZE ", "EXPLAIN FORMAT=TREE ") + sql);
+        }
+    },
+
+    MARIADB("MariaDB") {
+        @Override
+        List<String> explain(Connection connection, String sql, boolean analyze) throws SQLException {
+            return queryPlan(connection, analyzeOrExplain(analyze, "ANALYZE ", "EXPLAIN ") + sql);
+        }
+    },
+
+    ORACLE("Oracle") {
+        @Override
+        List<String> explain(Connection connection, String sql, boolean analyze) throws SQLException {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("EXPLAIN PLAN FOR " + sql);
+            }
+            return queryPlan(connection, "SELECT PLAN_TABLE_OUTPUT FROM TABLE(DBMS_XPLAN.DISPLAY())");
+        }
+    },
+
+    SQL_SERVER("Microsoft SQL Server") {
+        @Override
+        List<String> explain(Connection connection, String sql, boolean analyze) throws SQLException {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET SHOWPLAN_TEXT ON");
+                try {
+                    return queryPlan(connection, sql);
+                } finally {
+                    statement.execute("SET SHOWPLAN_TEXT OFF");
+                }
+            }
+        }
+    };
+
+    private static final String COLUMN_SEPARATOR = " | ";
+
+    private final String productName;
+
+    ExplainStrategy(String productName) {
+        this.productName = productName;
+    }
+
+    /**
+     * Captures the execution plan of a statement.
+     *
+     * @param analyze whether the statement may be executed to measure actual row counts and timings,
+     *                where the database supports it
+     * @return the lines of the plan
+     */
+    abstract List<String> explain(Connection connection, String sql, boolean analyze) throws SQLException;
+
+    static ExplainStrategy forProductName(String databaseProductName) {
+        String normalizedProductName = databaseProductName.toLowerCase(Locale.ROOT);
+
+        for (ExplainStrategy strategy : values()) {
+            if (normalizedProductName.startsWith(strategy.productName.toLowerCase(Locale.ROOT))) {
+                return strategy;
+            }
+        }
+
+        throw new IllegalArgumentException("Capturing execution plans is not supported for " + databaseProductName);
+    }
+
+    private static String analyzeOrExplain(boolean analyze, String analyzePrefix, String explainPrefix) {
+        if (analyze) {
+            return analyzePrefix;
+        }
+        return explainPrefix;
+    }
+
+    /**
+     * Executes a statement and returns all result sets it yields, as lines of text. A row with
+     * multiple columns is joined to a single line; plans spanning multiple lines in a single value
+     * (e.g. in H2) are split.
+     */
+    private static List<String> queryPlan(Connection connection, String sql) throws SQLException {
+        List<String> lines = new ArrayList<>();
+
+        try (Statement statement = connection.createStatement()) {
+            boolean hasResultSet = statement.execute(sql);
+            while (hasResultSet || statement.getUpdateCount() != -1) {
+                if (hasResultSet) {
+                    try (ResultSet resultSet = statement.getResultSet()) {
+                        appendRows(resultSet, lines);
+                    }
+                }
+                hasResultSet = statement.getMoreResults();
+            }
+        }
+
+        return lines;
+    }
+
+    private static void appendRows(ResultSet resultSet, List<String> lines) throws SQLException {
+        int columnCount = resultSet.getMetaData().getColumnCount();
+
+        while (resultSet.next()) {
+            StringBuilder row = new StringBuilder();
+            for (int i = 1; i <= columnCount; i++) {
+                if (i > 1) {
+                    row.append(COLUMN_SEPARATOR);
+                }
+                row.append(resultSet.getString(i));
+            }
+            row.toString().lines().forEach(lines::add);
+        }
+    }
+}
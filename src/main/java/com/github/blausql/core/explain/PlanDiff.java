@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.explain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Line based difference of two execution plans.
+ */
+public final class PlanDiff {
+
+    public static final String UNCHANGED_PREFIX = "  ";
+    public static final String REMOVED_PREFIX = "- ";
+    public static final String ADDED_PREFIX = "+ ";
+
+    private PlanDiff() {
+        // no external instances
+    }
+
+    /**
+     * Computes the difference of two plans, based on their longest common subsequence of lines.
+     *
+     * @param oldLines the lines of the earlier plan
+     * @param newLines the lines of the later plan
+     * @return all lines of both plans, prefixed with {@link #UNCHANGED_PREFIX}, {@link #REMOVED_PREFIX}
+     * or {@link #ADDED_PREFIX}
+     */
+    public static List<String> diff(List<String> oldLines, List<String> newLines) {
+        int[][] commonLengths = new int[oldLines.size() + 1][newLines.size() + 1];
+        for (int i = oldLines.size() - 1; i >= 0; i--) {
+            for (int j = newLines.size() - 1; j >= 0; j--) {
+                if (oldLines.get(i).equals(newLines.get(j))) {
+                    commonLengths[i][j] = commonLengths[i + 1][j + 1] + 1;
+                } else {
+                    commonLengths[i][j] = Math.max(commonLengths[i + 1][j], commonLengths[i][j + 1]);
+                }
+            }
+        }
+
+        List<String> diff = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < oldLines.size() && j < newLines.size()) {
+            if (oldLines.get(i).equals(newLines.get(j))) {
+                diff.add(UNCHANGED_PREFIX + oldLines.get(i++));
+                j++;
+            } else if (commonLengths[i + 1][j] >= commonLengths[i][j + 1]) {
+                diff.add(REMOVED_PREFIX + oldLines.get(i++));
+            } else {
+                diff.add(ADDED_PREFIX + newLines.get(j++));
+            }
+        }
+        for (String line : oldLines.subList(i, oldLines.size())) {
+            diff.add(REMOVED_PREFIX + line);
+        }
+        for (String line : newLines.subList(j, newLines.size())) {
+            diff.add(ADDED_PREFIX + line);
+        }
+
+        return Collections.unmodifiableList(diff);
+    }
+
+    /**
+     * @return {@code true} if the plans have the same lines
+     */
+    public static boolean isSame(ExecutionPlan oldPlan, ExecutionPlan newPlan) {
+        return oldPlan.getPlanLines().equals(newPlan.getPlanLines());
+    }
+}
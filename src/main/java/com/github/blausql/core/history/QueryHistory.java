@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.history;
+
+import com.github.blausql.core.preferences.StorageDirectory;
+import com.github.blausql.spi.connections.LoadException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistent history of all executed statements, kept in a {@link QueryHistoryLog} in the BlauSQL
+ * storage directory.
+ * <p>
+ * Recording never blocks: entries are queued and appended to the log by a background thread.
+ * The log is read into a {@link QueryHistoryIndex} on the first search, which is kept up to date
+ * with the entries recorded afterwards.
+ */
+public final class QueryHistory {
+
+    private static final Logger LOGGER = Logger.getLogger(QueryHistory.class.getName());
+
+    private static final String HISTORY_DIRECTORY_NAME = "history";
+
+    private static final QueryHistory INSTANCE = new QueryHistory();
+
+    private final BlockingQueue<QueryHistoryEntry> pendingEntries = new LinkedBlockingQueue<>();
+    private final AtomicBoolean writerStarted = new AtomicBoolean();
+
+    private QueryHistoryLog log;
+    private QueryHistoryIndex index;
+
+    public static QueryHistory getInstance() {
+        return INSTANCE;
+    }
+
+    private QueryHistory() {
+        // no external instances
+    }
+
+    /**
+     * Queues an execution to be added to the history, without waiting for it to be written.
+     *
+     * @param entry the execution to record
+     */
+    public void record(QueryHistoryEntry entry) {
+        pendingEntries.add(entry);
+
+        if (writerStarted.compareAndSet(false, true)) {
+            Thread writerThread = new Thread(this::writePendingEntriesContinuously, "query-history-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+
+            Runtime.getRuntime().addShutdownHook(new Thread(this::writePendingEntries, "query-history-shutdown"));
+        }
+    }
+
+    /**
+     * Searches the statements of the history, see {@link QueryHistoryIndex#search(String, int)}.
+     *
+     * @param text  the text to search, an empty string to list the most recently executed statements
+     * @param limit the maximum number of statements to return
+     * @return the matching statements, best matches first
+     * @throws LoadException if the history cannot be read
+     */
+    public synchronized List<QueryHistoryStatement> search(String text, int limit) throws LoadException {
+        return getIndex().search(text, limit);
+    }
+
+    /**
+     * @param limit the maximum number of statements to return
+     * @return the statements with the longest execution time, the slowest first
+     * @throws LoadException if the history cannot be read
+     */
+    public synchronized List<QueryHistoryStatement> getSlowest(int limit) throws LoadException {
+        return getIndex().getSlowest(limit);
+    }
+
+    /**
+     * @param limit the maximum number of statements to return
+     * @return the statements executed most often, the most frequent first
+     * @throws LoadException if the history cannot be read
+     */
+    public synchronized List<QueryHistoryStatement> getMostFrequent(int limit) throws LoadException {
+        return getIndex().getMostFrequent(limit);
+    }
+
+    /**
+     * Reads the history into memory, unless it has been read already.
+     *
+     * @return the number of distinct statements in the history
+     * @throws LoadException if the history cannot be read
+     */
+    public synchronized int load() throws LoadException {
+        return getIndex().getStatementCount();
+    }
+
+    private QueryHistoryIndex getIndex() throws LoadException {
+        if (index == null) {
+            try {
+                QueryHistoryIndex loadedIndex = new QueryHistoryIndex();
+                getLog().readAll(loadedIndex::add);
+                index = loadedIndex;
+
+            } catch (IOException e) {
+                throw new LoadException("Failed to read query history", e);
+            }
+        }
+        return index;
+    }
+
+    private QueryHistoryLog getLog() throws IOException {
+        if (log == null) {
+            log = new QueryHistoryLog(StorageDirectory.getSubdirectory(HISTORY_DIRECTORY_NAME));
+        }
+        return log;
+    }
+
+    private void writePendingEntriesContinuously() {
+        try {
+            while (true) {
+                List<QueryHistoryEntry> entries = new ArrayList<>();
+                entries.add(pendingEntries.take());
+                pendingEntries.drainTo(entries);
+
+                write(entries);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writePendingEntries() {
+        List<QueryHistoryEntry> entries = new ArrayList<>();
+        pendingEntries.drainTo(entries);
+
+        write(entries);
+    }
+
+    private synchronized void write(List<QueryHistoryEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        try {
+            getLog().append(entries);
+        } catch (IOException e) {
+            // the history is a convenience: failing to write it must not disturb the user
+            LOGGER.log(Level.WARNING, "Could not write query history", e);
+        }
+
+        if (index != null) {
+            entries.forEach(index::add);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.history;
+
+/**
+ * A single execution of a statement.
+ */
+public final class QueryHistoryEntry {
+
+    private final String connectionName;
+    private final String sql;
+    private final long executedAtMillis;
+    private final long durationMillis;
+    private final long rowCount;
+    private final QueryOutcome outcome;
+
+    /**
+     * @param rowCount the number of rows fetched or affected, {@code -1} if not known
+     */
+    public QueryHistoryEntry(String connectionName, String sql, long executedAtMillis, long durationMillis,
+                             long rowCount, QueryOutcome outcome) {
+        this.connectionName = connectionName;
+        this.sql = sql;
+        this.executedAtMillis = executedAtMillis;
+        this.durationMillis = durationMillis;
+        this.rowCount = rowCount;
+        this.outcome = outcome;
+    }
+
+    public String getConnectionName() {
+        return connectionName;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public long getExecutedAtMillis() {
+        return executedAtMillis;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public QueryOutcome getOutcome() {
+        return outcome;
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.history;
+
+import com.github.blausql.core.util.SqlUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of the query history: executions are summarized per normalized statement, and
+ * statements are indexed by the (case-insensitive) trigrams of their text, so that a substring search
+ * only has to check the statements containing all trigrams of the searched text. Not thread-safe.
+ */
+final class QueryHistoryIndex {
+
+    private static final int TRIGRAM_LENGTH = 3;
+    private static final int CHAR_BITS = 16;
+
+    private static final Comparator<StatementStats> MOST_RECENT_FIRST =
+            Comparator.comparingLong((StatementStats stats) -> stats.lastExecution.getExecutedAtMillis()).reversed();
+
+    private final Map<String, Integer> statementIdsBySql = new HashMap<>();
+    private final List<StatementStats> statements = new ArrayList<>();
+    private final Map<Long, PostingList> postingListsByTrigram = new HashMap<>();
+
+    void add(QueryHistoryEntry entry) {
+        String sql = SqlUtils.normalize(entry.getSql());
+
+        Integer statementId = statementIdsBySql.get(sql);
+        if (statementId == null) {
+            statementId = statements.size();
+            statementIdsBySql.put(sql, statementId);
+            statements.add(new StatementStats(sql));
+
+            for (long trigram : getTrigrams(sql)) {
+                postingListsByTrigram.computeIfAbsent(trigram, key -> new PostingList()).add(statementId);
+            }
+        }
+
+        statements.get(statementId).add(entry);
+    }
+
+    int getStatementCount() {
+        return statements.size();
+    }
+
+    /**
+     * Searches statements containing the text (ignoring case and differences in whitespace), the most
+     * recently executed first. If there are less than {@code limit} such statements, statements containing
+     * the characters of the text in the same order (but not necessarily adjacent) follow, the closest
+     * matches first.
+     */
+    List<QueryHistoryStatement> search(String text, int limit) {
+        String query = text.trim().replaceAll("\\s+", " ");
+        if (query.isEmpty()) {
+            return toResult(statements.stream().sorted(MOST_RECENT_FIRST), limit);
+        }
+
+        List<StatementStats> matches = new ArrayList<>();
+        for (int statementId : getCandidates(query)) {
+            StatementStats stats = statements.get(statementId);
+            if (containsIgnoreCase(stats.sql, query)) {
+                matches.add(stats);
+            }
+        }
+        matches.sort(MOST_RECENT_FIRST);
+
+        Set<StatementStats> result = new LinkedHashSet<>(matches.subList(0, Math.min(limit, matches.size())));
+        if (result.size() < limit) {
+            statements.stream()
+                    .filter(stats -> !result.contains(stats))
+                    .filter(stats -> getFuzzyMatchSpan(stats.sql, query) >= 0)
+                    .sorted(Comparator.comparingInt((StatementStats stats) -> getFuzzyMatchSpan(stats.sql, query))
+                            .thenComparing(MOST_RECENT_FIRST))
+                    .limit(limit - result.size())
+                    .forEach(result::add);
+        }
+
+        return toResult(result.stream(), limit);
+    }
+
+    List<QueryHistoryStatement> getSlowest(int limit) {
+        return toResult(statements.stream().sorted(
+                Comparator.comparingLong((StatementStats stats) -> stats.maxDurationMillis).reversed()), limit);
+    }
+
+    List<QueryHistoryStatement> getMostFrequent(int limit) {
+        return toResult(statements.stream().sorted(
+                Comparator.comparingInt((StatementStats stats) -> stats.executionCount).reversed()), limit);
+    }
+
+    private static List<QueryHistoryStatement> toResult(Stream<StatementStats> stats, int limit) {
+        return stats.limit(limit).map(StatementStats::toQueryHistoryStatement).collect(Collectors.toList());
+    }
+
+    /**
+     * @return the ids of the statements which contain all trigrams of the query, or all statement ids
+     * if the query is shorter than a trigram
+     */
+    private int[] getCandidates(String query) {
+        long[] trigrams = getTrigrams(query);
+        if (trigrams.length == 0) {
+            int[] allStatementIds = new int[statements.size()];
+            Arrays.setAll(allStatementIds, i -> i);
+            return allStatementIds;
+        }
+
+        PostingList[] postingLists = new PostingList[trigrams.length];
+        for (int i = 0; i < trigrams.length; i++) {
+            postingLists[i] = postingListsByTrigram.get(trigrams[i]);
+            if (postingLists[i] == null) {
+                return new int[0];
+            }
+        }
+        Arrays.sort(postingLists, Comparator.comparingInt(PostingList::size));
+
+        int[] candidates = postingLists[0].toArray();
+        for (int i = 1; i < postingLists.length && candidates.length > 0; i++) {
+            candidates = postingLists[i].intersect(candidates);
+        }
+        return candidates;
+    }
+
+    private static long[] getTrigrams(String text) {
+        if (text.length() < TRIGRAM_LENGTH) {
+            return new long[0];
+        }
+
+        long[] trigrams = new long[text.length() - TRIGRAM_LENGTH + 1];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = ((long) Character.toLowerCase(text.charAt(i)) << (2 * CHAR_BITS))
+                    | ((long) Character.toLowerCase(text.charAt(i + 1)) << CHAR_BITS)
+                    | Character.toLowerCase(text.charAt(i + 2));
+        }
+        return Arrays.stream(trigrams).distinct().toArray();
+    }
+
+    private static boolean containsIgnoreCase(String text, String query) {
+        for (int i = 0; i + query.length() <= text.length(); i++) {
+            if (text.regionMatches(true, i, query, 0, query.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the length of the shortest part of the text which contains the characters of the query
+     * in order, starting at their first occurrence; {@code -1} if the text does not contain them
+     */
+    private static int getFuzzyMatchSpan(String text, String query) {
+        int start = -1;
+        int position = 0;
+        for (int i = 0; i < query.length(); i++) {
+            char queryChar = Character.toLowerCase(query.charAt(i));
+            while (position < text.length() && Character.toLowerCase(text.charAt(position)) != queryChar) {
+                position++;
+            }
+            if (position == text.length()) {
+                return -1;
+            }
+            if (start < 0) {
+                start = position;
+            }
+            position++;
+        }
+        return position - start;
+    }
+
+    /**
+     * Ascending statement ids; as ids are assigned in increasing order, appending keeps the order.
+     */
+    private static final class PostingList {
+        private static final int INITIAL_CAPACITY = 4;
+
+        private int[] statementIds = new int[INITIAL_CAPACITY];
+        private int size;
+
+        void add(int statementId) {
+            if (size == statementIds.length) {
+                statementIds = Arrays.copyOf(statementIds, size * 2);
+            }
+            statementIds[size++] = statementId;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(statementIds, size);
+        }
+
+        int[] intersect(int[] sortedIds) {
+            int[] intersection = new int[Math.min(size, sortedIds.length)];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < size && j < sortedIds.length) {
+                if (statementIds[i] < sortedIds[j]) {
+                    i++;
+                } else if (statementIds[i] > sortedIds[j]) {
+                    j++;
+                } else {
+                    intersection[count++] = statementIds[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(intersection, count);
+        }
+    }
+
+    private static final class StatementStats {
+        private final String sql;
+        private int executionCount;
+        private long totalDurationMillis;
+        private long maxDurationMillis;
+        private QueryHistoryEntry lastExecution;
+
+        private StatementStats(String sql) {
+            this.sql = sql;
+        }
+
+        private void add(QueryHistoryEntry entry) {
+            executionCount++;
+            totalDurationMillis += entry.getDurationMillis();
+            maxDurationMillis = Math.max(maxDurationMillis, entry.getDurationMillis());
+            if (lastExecution == null || entry.getExecutedAtMillis() >= lastExecution.getExecutedAtMillis()) {
+                lastExecution = entry;
+            }
+        }
+
+        private QueryHistoryStatement toQueryHistoryStatement() {
+            return new QueryHistoryStatement(sql, executionCount, totalDurationMillis, maxDurationMillis,
+                    lastExecution);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.history;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of {@link QueryHistoryEntry} records, split into segment files.
+ * <p>
+ * Each session appends to a new segment, so a record torn by a crash only affects the end of the segment
+ * it was written to. A segment is rotated once it exceeds {@link #SEGMENT_BYTES}; the oldest segments are
+ * deleted once all segments together exceed {@link #MAX_TOTAL_BYTES}. Every record carries its length and
+ * a CRC-32 checksum: reading a segment stops at the first incomplete or corrupt record.
+ */
+final class QueryHistoryLog {
+
+    private static final int MAGIC = 0x4253514C; // "BSQL"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final long SEGMENT_BYTES = 4L * 1024 * 1024;
+    private static final long MAX_TOTAL_BYTES = 128L * 1024 * 1024;
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES * 2;
+
+    private static final Pattern SEGMENT_FILE_NAME_PATTERN = Pattern.compile("segment-(\\d+)\\.log");
+    private static final String SEGMENT_FILE_NAME_FORMAT = "segment-%010d.log";
+
+    private static final QueryOutcome[] OUTCOMES = QueryOutcome.values();
+
+    private final File directory;
+
+    private DataOutputStream currentSegment;
+    private long currentSegmentBytes;
+    private long nextSegmentNumber = -1;
+
+    QueryHistoryLog(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Reads all readable records, the oldest first.
+     *
+     * @param consumer the consumer to pass the records to
+     * @throws IOException if the directory cannot be listed or a segment cannot be opened
+     */
+    void readAll(Consumer<QueryHistoryEntry> consumer) throws IOException {
+        for (Path segment : listSegments()) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+
+            // the header is missing if a session terminated before writing anything
+            if (buffer.remaining() >= HEADER_BYTES && buffer.getInt() == MAGIC && buffer.getInt() == FORMAT_VERSION) {
+                readRecords(buffer, consumer);
+            }
+        }
+    }
+
+    private static void readRecords(ByteBuffer buffer, Consumer<QueryHistoryEntry> consumer) throws IOException {
+        CRC32 crc32 = new CRC32();
+
+        while (buffer.remaining() >= RECORD_HEADER_BYTES) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                // a record torn by a crash
+                return;
+            }
+
+            crc32.reset();
+            crc32.update(buffer.array(), buffer.position(), length);
+            if ((int) crc32.getValue() != checksum) {
+                return;
+            }
+
+            consumer.accept(decode(buffer.array(), buffer.position(), length));
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    /**
+     * Appends records to the current segment and flushes them to the operating system.
+     *
+     * @param entries the records to append
+     * @throws IOException if the records cannot be written
+     */
+    void append(List<QueryHistoryEntry> entries) throws IOException {
+        CRC32 crc32 = new CRC32();
+
+        for (QueryHistoryEntry entry : entries) {
+            if (currentSegment == null || currentSegmentBytes >= SEGMENT_BYTES) {
+                startNewSegment();
+            }
+
+            byte[] payload = encode(entry);
+            crc32.reset();
+            crc32.update(payload);
+
+            currentSegment.writeInt(payload.length);
+            currentSegment.writeInt((int) crc32.getValue());
+            currentSegment.write(payload);
+            currentSegmentBytes += RECORD_HEADER_BYTES + payload.length;
+        }
+
+        currentSegment.flush();
+    }
+
+    void close() throws IOException {
+        if (currentSegment != null) {
+            currentSegment.close();
+            currentSegment = null;
+        }
+    }
+
+    private void startNewSegment() throws IOException {
+        close();
+
+        List<Path> segments = listSegments();
+        if (nextSegmentNumber < 0) {
+            nextSegmentNumber = 0;
+            if (!segments.isEmpty()) {
+                nextSegmentNumber = getSegmentNumber(segments.get(segments.size() - 1)) + 1;
+            }
+        }
+        deleteOldestSegments(segments);
+
+        Path segment = new File(directory, String.format(SEGMENT_FILE_NAME_FORMAT, nextSegmentNumber++)).toPath();
+        currentSegment = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)));
+        currentSegment.writeInt(MAGIC);
+        currentSegment.writeInt(FORMAT_VERSION);
+        currentSegmentBytes = HEADER_BYTES;
+    }
+
+    private static void deleteOldestSegments(List<Path> segments) throws IOException {
+        long totalBytes = 0;
+        for (Path segment : segments) {
+            totalBytes += Files.size(segment);
+        }
+
+        for (int i = 0; i < segments.size() && totalBytes + SEGMENT_BYTES > MAX_TOTAL_BYTES; i++) {
+            totalBytes -= Files.size(segments.get(i));
+            Files.delete(segments.get(i));
+        }
+    }
+
+    /**
+     * @return the segment files, the oldest first
+     */
+    private List<Path> listSegments() throws IOException {
+        File[] files = directory.listFiles((dir, name) -> SEGMENT_FILE_NAME_PATTERN.matcher(name).matches());
+        if (files == null) {
+            throw new IOException("Cannot list directory: " + directory);
+        }
+
+        List<Path> segments = new ArrayList<>(files.length);
+        for (File file : files) {
+            segments.add(file.toPath());
+        }
+        segments.sort((a, b) -> Long.compare(getSegmentNumber(a), getSegmentNumber(b)));
+        return segments;
+    }
+
+    private static long getSegmentNumber(Path segment) {
+        Matcher matcher = SEGMENT_FILE_NAME_PATTERN.matcher(String.valueOf(segment.getFileName()));
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a segment file: " + segment);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private static byte[] encode(QueryHistoryEntry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(entry.getExecutedAtMillis());
+            out.writeLong(entry.getDurationMillis());
+            out.writeLong(entry.getRowCount());
+            out.writeByte(entry.getOutcome().ordinal());
+            writeString(out, entry.getConnectionName());
+            writeString(out, entry.getSql());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static QueryHistoryEntry decode(byte[] bytes, int offset, int length) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, offset, length))) {
+            long executedAtMillis = in.readLong();
+            long durationMillis = in.readLong();
+            long rowCount = in.readLong();
+            QueryOutcome outcome = OUTCOMES[in.readUnsignedByte()];
+            String connectionName = readString(in);
+            String sql = readString(in);
+
+            return new QueryHistoryEntry(connectionName, sql, executedAtMillis, durationMillis, rowCount, outcome);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
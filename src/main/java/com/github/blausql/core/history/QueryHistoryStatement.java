@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.history;
+
+/**
+ * The executions of a (normalized) statement, summarized.
+ */
+public final class QueryHistoryStatement {
+
+    private final String sql;
+    private final int executionCount;
+    private final long totalDurationMillis;
+    private final long maxDurationMillis;
+    private final QueryHistoryEntry lastExecution;
+
+    QueryHistoryStatement(String sql, int executionCount, long totalDurationMillis, long maxDurationMillis,
+                          QueryHistoryEntry lastExecution) {
+        this.sql = sql;
+        this.executionCount = executionCount;
+        this.totalDurationMillis = totalDurationMillis;
+        this.maxDurationMillis = maxDurationMillis;
+        this.lastExecution = lastExecution;
+    }
+
+    /**
+     * @return the normalized statement
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    public int getExecutionCount() {
+        return executionCount;
+    }
+
+    public long getAverageDurationMillis() {
+        return totalDurationMillis / executionCount;
+    }
+
+    public long getMaxDurationMillis() {
+        return maxDurationMillis;
+    }
+
+    public QueryHistoryEntry getLastExecution() {
+        return lastExecution;
+    }
+}
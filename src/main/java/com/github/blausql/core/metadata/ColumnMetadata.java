@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.core.metadata;
+
+/**
+ * Immutable description of a column of a database table or view.
+ */
+public final class ColumnMetadata {
+
+    private final String columnName;
+    private final String typeName;
+    private final int jdbcType;
+    private final int columnSize;
+    private final boolean nullable;
+
+    public ColumnMetadata(String columnName, String typeName, int jdbcType, int columnSize, boolean nullable) {
+        this.columnName = columnName;
+        this.typeName = typeName;
+        this.jdbcType = jdbcType;
+        this.columnSize = columnSize;
+        this.nullable = nullable;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * @return the SQL type of the column, as defined in {@link java.sql.Types}
+     */
+    public int getJdbcType() {
+        return jdbcType;
+    }
+
+    public int getColumnSize() {
+        return columnSize;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnMetadata{"
+                + "columnName='" + columnName + '\''
+                + ", typeName='" + typeName + '\''
+                + ", jdbcType=" + jdbcType
+                + ", columnSize=" + columnSize
+                + ", nullable=" + nullable
+                + '}';
+    }
+}
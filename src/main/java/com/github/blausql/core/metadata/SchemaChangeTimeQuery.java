@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.core.metadata;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Database specific query of the time the last table or view was created or altered: a single
+ * aggregate on the data dictionary, much cheaper than reading the tables and columns.
+ */
+enum SchemaChangeTimeQuery {
+
+    ORACLE("SELECT MAX(LAST_DDL_TIME) FROM ALL_OBJECTS WHERE OBJECT_TYPE IN ('TABLE', 'VIEW')", "Oracle"),
+
+    SQL_SERVER("SELECT MAX(modify_date) FROM sys.objects WHERE type IN ('U', 'V')", "Microsoft SQL Server"),
+
+    DB2("SELECT MAX(ALTER_TIME) FROM SYSCAT.TABLES", "DB2");
+
+    private final String sql;
+    private final String productName;
+
+    SchemaChangeTimeQuery(String sql, String productName) {
+        this.sql = sql;
+        this.productName = productName;
+    }
+
+    /**
+     * @param connection the connection to query
+     * @return the time of the last change, as text
+     * @throws SQLException if the database reports an error
+     */
+    String query(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+
+            if (resultSet.next()) {
+                return String.valueOf(resultSet.getString(1));
+            }
+            return "";
+        }
+    }
+
+    /**
+     * @param productName the database product name reported by the driver
+     * @return the query for the database, or an empty {@code Optional} if it does not record the time of changes
+     */
+    static Optional<SchemaChangeTimeQuery> forProductName(String productName) {
+        String normalizedProductName = productName.toLowerCase(Locale.ROOT);
+
+        for (SchemaChangeTimeQuery query : values()) {
+            if (normalizedProductName.startsWith(query.productName.toLowerCase(Locale.ROOT))) {
+                return Optional.of(query);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.core.metadata;
+
+import java.util.List;
+
+/**
+ * Immutable snapshot of the tables and columns harvested from a database.
+ */
+public final class SchemaMetadata {
+
+    private final String fingerprint;
+    private final long harvestedAtMillis;
+    private final List<TableMetadata> tables;
+
+    /**
+     * @param fingerprint       the result of the staleness probe at the time of harvesting:
+     *                          see {@link SchemaMetadataHarvester#probeFingerprint(java.sql.DatabaseMetaData)}
+     * @param harvestedAtMillis the time of harvesting, in milliseconds since the epoch
+     * @param tables            the tables harvested
+     */
+    public SchemaMetadata(String fingerprint, long harvestedAtMillis, List<TableMetadata> tables) {
+        this.fingerprint = fingerprint;
+        this.harvestedAtMillis = harvestedAtMillis;
+        this.tables = List.copyOf(tables);
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public long getHarvestedAtMillis() {
+        return harvestedAtMillis;
+    }
+
+    public List<TableMetadata> getTables() {
+        return tables;
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaMetadata{"
+                + "fingerprint='" + fingerprint + '\''
+                + ", harvestedAtMillis=" + harvestedAtMillis
+                + ", tables=" + tables.size()
+                + '}';
+    }
+}
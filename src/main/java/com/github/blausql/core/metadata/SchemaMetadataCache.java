@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.core.metadata;
+
+import com.github.blausql.core.preferences.ConfigurationRepository;
+import com.github.blausql.core.preferences.StorageDirectory;
+import com.github.blausql.core.util.FileUtils;
+import com.github.blausql.spi.connections.LoadException;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per-connection cache of {@link SchemaMetadata}, persisted in the BlauSQL storage directory,
+ * so that a new session starts with the metadata harvested by a previous one.
+ * <p>
+ * Cached metadata is refreshed if it is older than the configured time-to-live or if the
+ * staleness probe reports a different fingerprint than the one recorded at harvest time.
+ */
+public final class SchemaMetadataCache {
+
+    private static final Logger LOGGER = Logger.getLogger(SchemaMetadataCache.class.getName());
+
+    private static final String CACHE_DIRECTORY_NAME = "metadata";
+    private static final String CACHE_FILE_EXTENSION = ".bin";
+
+    private static final SchemaMetadataCache INSTANCE = new SchemaMetadataCache();
+
+    private final Map<String, SchemaMetadata> loadedMetadata = new ConcurrentHashMap<>();
+
+    public static SchemaMetadataCache getInstance() {
+        return INSTANCE;
+    }
+
+    private SchemaMetadataCache() {
+        // no external instances
+    }
+
+    /**
+     * Returns the cached metadata of a connection, reading the cache file on first access.
+     *
+     * @param connectionName the name of the connection
+     * @return the cached metadata, or an empty {@code Optional} if nothing is cached yet
+     */
+    public Optional<SchemaMetadata> get(String connectionName) {
+        SchemaMetadata schemaMetadata = loadedMetadata.get(connectionName);
+        if (schemaMetadata == null) {
+            schemaMetadata = readCacheFile(connectionName);
+            if (schemaMetadata != null) {
+                loadedMetadata.putIfAbsent(connectionName, schemaMetadata);
+            }
+        }
+
+        return Optional.ofNullable(schemaMetadata);
+    }
+
+    /**
+     * Refreshes the cached metadata of a connection if it is missing, expired or stale.
+     * This method talks to the database, and hence should be called from a background thread.
+     *
+     * @param connectionName the name of the connection
+     * @param source         the source to probe and harvest
+     * @return the up-to-date metadata
+     * @throws LoadException if the cache settings cannot be read
+     */
+    public SchemaMetadata refreshIfStale(String connectionName, SchemaMetadataSource source) throws LoadException {
+
+        Optional<SchemaMetadata> cached = get(connectionName);
+        if (cached.isPresent()) {
+            SchemaMetadata schemaMetadata = cached.get();
+
+            long ttlMillis = TimeUnit.MINUTES.toMillis(
+                    ConfigurationRepository.getInstance().getSchemaMetadataCacheTtlMinutes());
+
+            boolean expired = System.currentTimeMillis() - schemaMetadata.getHarvestedAtMillis() > ttlMillis;
+
+            if (!expired && schemaMetadata.getFingerprint().equals(source.probeSchemaMetadataFingerprint())) {
+                return schemaMetadata;
+            }
+        }
+
+        return refresh(connectionName, source);
+    }
+
+    /**
+     * Unconditionally harvests the metadata of a connection and updates the cache.
+     * This method talks to the database, and hence should be called from a background thread.
+     *
+     * @param connectionName the name of the connection
+     * @param source         the source to harvest
+     * @return the harvested metadata
+     */
+    public SchemaMetadata refresh(String connectionName, SchemaMetadataSource source) {
+        SchemaMetadata schemaMetadata = source.harvestSchemaMetadata();
+
+        loadedMetadata.put(connectionName, schemaMetadata);
+        writeCacheFile(connectionName, schemaMetadata);
+
+        return schemaMetadata;
+    }
+
+    private static SchemaMetadata readCacheFile(String connectionName) {
+        try {
+            File directory = StorageDirectory.getSubdirectory(CACHE_DIRECTORY_NAME);
+            Path cacheFile = getCacheFile(directory, connectionName);
+            if (!Files.isRegularFile(cacheFile)) {
+                return null;
+            }
+
+            // read to the heap: a mapping is only released by the garbage collector, and a mapped file
+            // cannot be replaced on Windows, which the next refresh does
+            return SchemaMetadataCodec.read(ByteBuffer.wrap(Files.readAllBytes(cacheFile)));
+
+        } catch (IOException | RuntimeException e) {
+            // a missing or corrupted cache only costs a fresh harvest
+            LOGGER.log(Level.WARNING, "Could not read schema metadata cache of " + connectionName, e);
+            return null;
+        }
+    }
+
+    private static void writeCacheFile(String connectionName, SchemaMetadata schemaMetadata) {
+        try {
+            File directory = StorageDirectory.getSubdirectory(CACHE_DIRECTORY_NAME);
+            Path cacheFile = getCacheFile(directory, connectionName);
+            Path temporaryFile = Files.createTempFile(directory.toPath(), "metadata", ".tmp");
+
+            try {
+                try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temporaryFile))) {
+                    SchemaMetadataCodec.write(schemaMetadata, outputStream);
+                }
+
+                FileUtils.replaceAtomically(temporaryFile, cacheFile);
+
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not write schema metadata cache of " + connectionName, e);
+        }
+    }
+
+    private static Path getCacheFile(File directory, String connectionName) {
+        return new File(directory, StorageDirectory.toFileName(connectionName) + CACHE_FILE_EXTENSION).toPath();
+    }
+}
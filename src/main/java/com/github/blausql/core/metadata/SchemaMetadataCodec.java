@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.core.metadata;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of {@link SchemaMetadata}.
+ * <p>
+ * All strings are written once to a dictionary at the beginning of the file and referenced by index
+ * afterwards; integers are written as variable-length quantities. Decoding works on a {@link ByteBuffer}
+ * holding the whole file, without intermediate copies of its parts.
+ */
+public final class SchemaMetadataCodec {
+
+    private static final int MAGIC = 0x42534D43; // "BSMC"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int VARINT_PAYLOAD_MASK = 0x7F;
+    private static final int VARINT_CONTINUATION_BIT = 0x80;
+    private static final int VARINT_BITS_PER_BYTE = 7;
+
+    private SchemaMetadataCodec() {
+        // no external instances
+    }
+
+    public static void write(SchemaMetadata schemaMetadata, OutputStream outputStream) throws IOException {
+
+        StringDictionary dictionary = new StringDictionary();
+        dictionary.collect(schemaMetadata);
+
+        DataOutputStream out = new DataOutputStream(outputStream);
+
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(schemaMetadata.getHarvestedAtMillis());
+
+        writeVarInt(out, dictionary.size());
+        for (String string : dictionary.strings()) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, bytes.length);
+            out.write(bytes);
+        }
+
+        writeVarInt(out, dictionary.indexOf(schemaMetadata.getFingerprint()));
+
+        List<TableMetadata> tables = schemaMetadata.getTables();
+        writeVarInt(out, tables.size());
+        for (TableMetadata table : tables) {
+            writeVarInt(out, dictionary.indexOf(table.getCatalog()));
+            writeVarInt(out, dictionary.indexOf(table.getSchema()));
+            writeVarInt(out, dictionary.indexOf(table.getTableName()));
+            writeVarInt(out, dictionary.indexOf(table.getTableType()));
+
+            List<ColumnMetadata> columns = table.getColumns();
+            writeVarInt(out, columns.size());
+            for (ColumnMetadata column : columns) {
+                writeVarInt(out, dictionary.indexOf(column.getColumnName()));
+                writeVarInt(out, dictionary.indexOf(column.getTypeName()));
+                out.writeInt(column.getJdbcType());
+                writeVarInt(out, Math.max(0, column.getColumnSize()));
+                out.writeBoolean(column.isNullable());
+            }
+        }
+
+        out.flush();
+    }
+
+    public static SchemaMetadata read(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a schema metadata cache file");
+            }
+
+            int formatVersion = buffer.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported schema metadata cache format version: " + formatVersion);
+            }
+
+            long harvestedAtMillis = buffer.getLong();
+
+            String[] dictionary = new String[readVarInt(buffer) + 1];
+            for (int i = 1; i < dictionary.length; i++) {
+                byte[] bytes = new byte[readVarInt(buffer)];
+                buffer.get(bytes);
+                dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            String fingerprint = dictionary[readVarInt(buffer)];
+
+            int tableCount = readVarInt(buffer);
+            List<TableMetadata> tables = new ArrayList<>(tableCount);
+            for (int i = 0; i < tableCount; i++) {
+                tables.add(readTable(buffer, dictionary));
+            }
+
+            return new SchemaMetadata(fingerprint, harvestedAtMillis, tables);
+
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IOException("Schema metadata cache file is corrupted", e);
+        }
+    }
+
+    private static TableMetadata readTable(ByteBuffer buffer, String[] dictionary) {
+        String catalog = dictionary[readVarInt(buffer)];
+        String schema = dictionary[readVarInt(buffer)];
+        String tableName = dictionary[readVarInt(buffer)];
+        String tableType = dictionary[readVarInt(buffer)];
+
+        int columnCount = readVarInt(buffer);
+        List<ColumnMetadata> columns = new ArrayList<>(columnCount);
+        for (int j = 0; j < columnCount; j++) {
+            String columnName = dictionary[readVarInt(buffer)];
+            String typeName = dictionary[readVarInt(buffer)];
+            int jdbcType = buffer.getInt();
+            int columnSize = readVarInt(buffer);
+            boolean nullable = buffer.get() != 0;
+
+            columns.add(new ColumnMetadata(columnName, typeName, jdbcType, columnSize, nullable));
+        }
+
+        return new TableMetadata(catalog, schema, tableName, tableType, columns);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~VARINT_PAYLOAD_MASK) != 0) {
+            out.writeByte((remaining & VARINT_PAYLOAD_MASK) | VARINT_CONTINUATION_BIT);
+            remaining >>>= VARINT_BITS_PER_BYTE;
+        }
+        out.writeByte(remaining);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & VARINT_PAYLOAD_MASK) << shift;
+            shift += VARINT_BITS_PER_BYTE;
+        } while ((b & VARINT_CONTINUATION_BIT) != 0);
+
+        return value;
+    }
+
+    /**
+     * Assigns an index to each distinct string; index zero is reserved for {@code null}.
+     */
+    private static final class StringDictionary {
+
+        private final Map<String, Integer> indexes = new LinkedHashMap<>();
+
+        private void collect(SchemaMetadata schemaMetadata) {
+            add(schemaMetadata.getFingerprint());
+
+            for (TableMetadata table : schemaMetadata.getTables()) {
+                add(table.getCatalog());
+                add(table.getSchema());
+                add(table.getTableName());
+                add(table.getTableType());
+
+                for (ColumnMetadata column : table.getColumns()) {
+                    add(column.getColumnName());
+                    add(column.getTypeName());
+                }
+            }
+        }
+
+        private void add(String string) {
+            if (string != null) {
+                indexes.putIfAbsent(string, indexes.size() + 1);
+            }
+        }
+
+        private int indexOf(String string) {
+            if (string == null) {
+                return 0;
+            }
+            return indexes.get(string);
+        }
+
+        private int size() {
+            return indexes.size();
+        }
+
+        private Iterable<String> strings() {
+            return indexes.keySet();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.core.metadata;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Harvests {@link SchemaMetadata} from the JDBC {@link DatabaseMetaData} of a connection.
+ */
+public final class SchemaMetadataHarvester {
+
+    private static final String[] TABLE_TYPES = {"TABLE", "VIEW"};
+
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private SchemaMetadataHarvester() {
+        // no external instances
+    }
+
+    /**
+     * Staleness probe: computes a fingerprint from the identity of the database and, where the database
+     * records it (Oracle, SQL Server and DB2), the time the last table or view was created or altered.
+     * It does not read the tables or columns: on other databases, changes are only picked up by a harvest
+     * (once the cached metadata expires, or on request).
+     *
+     * @param databaseMetaData the metadata to probe
+     * @return the fingerprint string
+     * @throws SQLException if the database reports an error
+     */
+    public static String probeFingerprint(DatabaseMetaData databaseMetaData) throws SQLException {
+        Optional<SchemaChangeTimeQuery> schemaChangeTimeQuery =
+                SchemaChangeTimeQuery.forProductName(databaseMetaData.getDatabaseProductName());
+
+        String lastChangeTime = "";
+        if (schemaChangeTimeQuery.isPresent()) {
+            lastChangeTime = schemaChangeTimeQuery.get().query(databaseMetaData.getConnection());
+        }
+
+        return databaseMetaData.getDatabaseProductName()
+                + ' ' + databaseMetaData.getDatabaseProductVersion()
+                + '|' + databaseMetaData.getURL()
+                + '|' + databaseMetaData.getUserName()
+                + '|' + lastChangeTime;
+    }
+
+    /**
+     * Harvests all tables and views, along with their columns. Columns are read with a
+     * single dictionary query rather than one query per table.
+     *
+     * @param databaseMetaData the metadata to harvest
+     * @return the harvested schema metadata
+     * @throws SQLException if the database reports an error
+     */
+    public static SchemaMetadata harvest(DatabaseMetaData databaseMetaData) throws SQLException {
+
+        // probed first: a change made while harvesting is noticed by the next probe
+        String fingerprint = probeFingerprint(databaseMetaData);
+        Map<String, TableBuilder> tables = new LinkedHashMap<>();
+
+        try (ResultSet resultSet = databaseMetaData.getTables(null, null, "%", TABLE_TYPES.clone())) {
+            while (resultSet.next()) {
+                TableBuilder tableBuilder = new TableBuilder(
+                        resultSet.getString("TABLE_CAT"),
+                        resultSet.getString("TABLE_SCHEM"),
+                        resultSet.getString("TABLE_NAME"),
+                        resultSet.getString("TABLE_TYPE"));
+
+                tables.put(tableBuilder.key(), tableBuilder);
+            }
+        }
+
+        try (ResultSet resultSet = databaseMetaData.getColumns(null, null, "%", "%")) {
+            while (resultSet.next()) {
+                String key = toKey(
+                        resultSet.getString("TABLE_CAT"),
+                        resultSet.getString("TABLE_SCHEM"),
+                        resultSet.getString("TABLE_NAME"));
+
+                TableBuilder tableBuilder = tables.get(key);
+                if (tableBuilder != null) {
+                    tableBuilder.columns.add(new ColumnMetadata(
+                            resultSet.getString("COLUMN_NAME"),
+                            resultSet.getString("TYPE_NAME"),
+                            resultSet.getInt("DATA_TYPE"),
+                            resultSet.getInt("COLUMN_SIZE"),
+                            resultSet.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls));
+                }
+            }
+        }
+
+        List<TableMetadata> tableMetadataList = new ArrayList<>(tables.size());
+        for (TableBuilder tableBuilder : tables.values()) {
+            tableMetadataList.add(tableBuilder.build());
+        }
+
+        return new SchemaMetadata(fingerprint, System.currentTimeMillis(), tableMetadataList);
+    }
+
+    private static String toKey(String catalog, String schema, String tableName) {
+        return catalog + KEY_SEPARATOR + schema + KEY_SEPARATOR + tableName;
+    }
+
+    private static final class TableBuilder {
+
+        private final String catalog;
+        private final String schema;
+        private final String tableName;
+        private final String tableType;
+        private final List<ColumnMetadata> columns = new ArrayList<>();
+
+        private TableBuilder(String catalog, String schema, String tableName, String tableType) {
+            this.catalog = catalog;
+            this.schema = schema;
+            this.tableName = tableName;
+            this.tableType = tableType;
+        }
+
+        private String key() {
+            return toKey(catalog, schema, tableName);
+        }
+
+        private TableMetadata build() {
+            return new TableMetadata(catalog, schema, tableName, tableType, columns);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.core.metadata;
+
+/**
+ * Source of schema metadata, typically an open database connection.
+ */
+public interface SchemaMetadataSource {
+
+    /**
+     * Runs the staleness probe against the source, which is cheaper than a harvest.
+     *
+     * @return the current fingerprint of the source
+     * @see SchemaMetadataHarvester#probeFingerprint(java.sql.DatabaseMetaData)
+     */
+    String probeSchemaMetadataFingerprint();
+
+    /**
+     * Harvests the full schema metadata from the source.
+     *
+     * @return the harvested metadata
+     */
+    SchemaMetadata harvestSchemaMetadata();
+}
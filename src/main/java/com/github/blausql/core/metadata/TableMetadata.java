@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.core.metadata;
+
+import java.util.List;
+
+/**
+ * Immutable description of a database table or view, including its columns.
+ */
+public final class TableMetadata {
+
+    private final String catalog;
+    private final String schema;
+    private final String tableName;
+    private final String tableType;
+    private final List<ColumnMetadata> columns;
+
+    public TableMetadata(String catalog,
+                         String schema,
+                         String tableName,
+                         String tableType,
+                         List<ColumnMetadata> columns) {
+        this.catalog = catalog;
+        this.schema = schema;
+        this.tableName = tableName;
+        this.tableType = tableType;
+        this.columns = List.copyOf(columns);
+    }
+
+    public String getCatalog() {
+        return catalog;
+    }
+
+    public String getSchema() {
+        return schema;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getTableType() {
+        return tableType;
+    }
+
+    public List<ColumnMetadata> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public String toString() {
+        return "TableMetadata{"
+                + "catalog='" + catalog + '\''
+                + ", schema='" + schema + '\''
+                + ", tableName='" + tableName + '\''
+                + ", tableType='" + tableType + '\''
+                + ", columns=" + columns.size()
+                + '}';
+    }
+}
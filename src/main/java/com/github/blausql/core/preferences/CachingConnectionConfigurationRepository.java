@@ -0,0 +1,359 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.core.preferences;
+
+import com.github.blausql.core.connection.ConnectionConfiguration;
+import com.github.blausql.spi.connections.ConnectionConfigurationRepository;
+import com.github.blausql.spi.connections.DeleteException;
+import com.github.blausql.spi.connections.LoadException;
+import com.github.blausql.spi.connections.SaveException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Caches the connection configurations of a custom {@link ConnectionConfigurationRepository}, so that
+ * navigating the menus does not read them from the provider (e.g. a remote configuration service) every time.
+ * <p>
+ * All configurations are read at once and kept for a time-to-live; once three quarters of it have passed,
+ * they are read again in the background, while reads are still served from the cache. Saves and deletes go
+ * to the provider first, then update the cache. Name lookups made without all configurations in the cache
+ * are cached one by one, including the names not found.
+ */
+final class CachingConnectionConfigurationRepository implements ConnectionConfigurationRepository {
+
+    private static final Logger LOGGER = Logger.getLogger(CachingConnectionConfigurationRepository.class.getName());
+
+    private static final int REFRESH_AHEAD_NUMERATOR = 3;
+    private static final int REFRESH_AHEAD_DENOMINATOR = 4;
+
+    private static final int MAX_REFRESH_ATTEMPTS = 3;
+
+    private static final int MAX_CACHED_LOOKUPS = 10_000;
+
+    private static final class CachedSnapshot {
+        private final ConnectionConfigurationSnapshot snapshot;
+        private final long loadedAtNanos;
+
+        private CachedSnapshot(ConnectionConfigurationSnapshot snapshot, long loadedAtNanos) {
+            this.snapshot = snapshot;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+    }
+
+    private static final class CachedLookup {
+        // null if there is no connection configuration with the name
+        private final ConnectionConfiguration connectionConfiguration;
+        private final long loadedAtNanos;
+
+        private CachedLookup(ConnectionConfiguration connectionConfiguration, long loadedAtNanos) {
+            this.connectionConfiguration = copyOrNull(connectionConfiguration);
+            this.loadedAtNanos = loadedAtNanos;
+        }
+    }
+
+    private final ConnectionConfigurationRepository delegate;
+    private final long timeToLiveNanos;
+    private final long refreshAheadNanos;
+
+    private final AtomicReference<CachedSnapshot> cachedSnapshot = new AtomicReference<>();
+    private final Map<String, CachedLookup> cachedLookups = new ConcurrentHashMap<>();
+
+    // incremented on every change: a refresh started before a change must not overwrite it
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private final ExecutorService refreshExecutorService = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "connections-cache-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param delegate        the repository of the provider
+     * @param timeToLiveNanos how long the connection configurations are cached
+     */
+    CachingConnectionConfigurationRepository(ConnectionConfigurationRepository delegate, long timeToLiveNanos) {
+        this.delegate = Objects.requireNonNull(delegate, "Argument delegate cannot be null");
+        this.timeToLiveNanos = timeToLiveNanos;
+        this.refreshAheadNanos = timeToLiveNanos / REFRESH_AHEAD_DENOMINATOR * REFRESH_AHEAD_NUMERATOR;
+    }
+
+    @Override
+    public List<ConnectionConfiguration> getConnectionConfigurations() throws LoadException {
+        return getSnapshot().getConnectionConfigurations();
+    }
+
+    @Override
+    public List<ConnectionConfiguration> getConnectionConfigurations(int offset, int limit) throws LoadException {
+        return getSnapshot().getConnectionConfigurations(offset, limit);
+    }
+
+    @Override
+    public ConnectionConfiguration findConnectionConfigurationByName(String connectionName) throws LoadException {
+        ConnectionConfigurationSnapshot snapshot = getFreshSnapshot();
+        if (snapshot != null) {
+            return snapshot.findByName(connectionName);
+        }
+
+        String nameKey = toNameKey(connectionName);
+
+        CachedLookup cachedLookup = cachedLookups.get(nameKey);
+        if (cachedLookup != null && isFresh(cachedLookup.loadedAtNanos)) {
+            return copyOrNull(cachedLookup.connectionConfiguration);
+        }
+
+        long lookupGeneration = generation.get();
+        long lookedUpAtNanos = System.nanoTime();
+
+        ConnectionConfiguration connectionConfiguration = delegate.findConnectionConfigurationByName(connectionName);
+
+        cacheLookup(nameKey, new CachedLookup(connectionConfiguration, lookedUpAtNanos), lookupGeneration);
+
+        return copyOrNull(connectionConfiguration);
+    }
+
+    @Override
+    public synchronized void saveConnectionConfiguration(ConnectionConfiguration connectionConfiguration)
+            throws SaveException {
+
+        Objects.requireNonNull(connectionConfiguration, "Argument connectionConfiguration cannot be null");
+
+        boolean saved = false;
+        try {
+            delegate.saveConnectionConfiguration(connectionConfiguration);
+            saved = true;
+        } finally {
+            onChanged(saved, snapshot -> snapshot.withSaved(List.of(connectionConfiguration)));
+        }
+
+        cacheLookups(List.of(connectionConfiguration));
+    }
+
+    @Override
+    public synchronized void saveConnectionConfigurations(Collection<ConnectionConfiguration> connectionConfigurations)
+            throws SaveException {
+
+        Objects.requireNonNull(connectionConfigurations, "Argument connectionConfigurations cannot be null");
+
+        boolean saved = false;
+        try {
+            delegate.saveConnectionConfigurations(connectionConfigurations);
+            saved = true;
+        } finally {
+            onChanged(saved, snapshot -> snapshot.withSaved(connectionConfigurations));
+        }
+
+        cacheLookups(connectionConfigurations);
+    }
+
+    @Override
+    public synchronized void deleteConnectionConfigurationByName(String connectionName) throws DeleteException {
+        boolean deleted = false;
+        try {
+            delegate.deleteConnectionConfigurationByName(connectionName);
+            deleted = true;
+        } finally {
+            onChanged(deleted, snapshot -> snapshot.withDeleted(List.of(connectionName)));
+        }
+
+        cachedLookups.remove(toNameKey(connectionName));
+    }
+
+    @Override
+    public synchronized void deleteConnectionConfigurationsByName(Collection<String> connectionNames)
+            throws DeleteException {
+
+        Objects.requireNonNull(connectionNames, "Argument connectionNames cannot be null");
+
+        boolean deleted = false;
+        try {
+            delegate.deleteConnectionConfigurationsByName(connectionNames);
+            deleted = true;
+        } finally {
+            onChanged(deleted, snapshot -> snapshot.withDeleted(connectionNames));
+        }
+
+        for (String connectionName : connectionNames) {
+            cachedLookups.remove(toNameKey(connectionName));
+        }
+    }
+
+    private interface SnapshotChange {
+        ConnectionConfigurationSnapshot apply(ConnectionConfigurationSnapshot snapshot);
+    }
+
+    private void onChanged(boolean succeeded, SnapshotChange change) {
+        generation.incrementAndGet();
+
+        if (!succeeded) {
+            // the provider might have applied a part of the change: nothing cached can be trusted
+            cachedSnapshot.set(null);
+            cachedLookups.clear();
+            return;
+        }
+
+        CachedSnapshot cached = cachedSnapshot.get();
+        if (cached != null) {
+            cachedSnapshot.set(new CachedSnapshot(change.apply(cached.snapshot), cached.loadedAtNanos));
+
+            // the provider might list the configurations in a different order
+            refreshInBackground();
+        }
+    }
+
+    private void cacheLookups(Collection<ConnectionConfiguration> connectionConfigurations) {
+        long savedAtNanos = System.nanoTime();
+        for (ConnectionConfiguration connectionConfiguration : connectionConfigurations) {
+            cachedLookups.put(toNameKey(connectionConfiguration.getConnectionName()),
+                    new CachedLookup(connectionConfiguration, savedAtNanos));
+        }
+    }
+
+    private synchronized void cacheLookup(String nameKey, CachedLookup cachedLookup, long lookupGeneration) {
+        if (generation.get() != lookupGeneration) {
+            // changed during the lookup
+            return;
+        }
+
+        if (cachedLookups.size() >= MAX_CACHED_LOOKUPS) {
+            cachedLookups.clear();
+        }
+        cachedLookups.put(nameKey, cachedLookup);
+    }
+
+    private ConnectionConfigurationSnapshot getSnapshot() throws LoadException {
+        ConnectionConfigurationSnapshot snapshot = getFreshSnapshot();
+        if (snapshot == null) {
+            snapshot = loadSnapshot();
+        }
+        return snapshot;
+    }
+
+    private ConnectionConfigurationSnapshot getFreshSnapshot() {
+        CachedSnapshot cached = cachedSnapshot.get();
+        if (cached == null || !isFresh(cached.loadedAtNanos)) {
+            return null;
+        }
+
+        if (System.nanoTime() - cached.loadedAtNanos >= refreshAheadNanos) {
+            refreshInBackground();
+        }
+        return cached.snapshot;
+    }
+
+    private synchronized ConnectionConfigurationSnapshot loadSnapshot() throws LoadException {
+        ConnectionConfigurationSnapshot snapshot = getFreshSnapshot();
+        if (snapshot != null) {
+            // loaded by another thread in the meantime
+            return snapshot;
+        }
+
+        long loadedAtNanos = System.nanoTime();
+        snapshot = new ConnectionConfigurationSnapshot(delegate.getConnectionConfigurations());
+
+        cachedSnapshot.set(new CachedSnapshot(snapshot, loadedAtNanos));
+        cachedLookups.clear();
+
+        return snapshot;
+    }
+
+    private void refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            refreshExecutorService.execute(this::refresh);
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+            LOGGER.log(Level.WARNING, "Could not refresh connection configurations", e);
+        }
+    }
+
+    private void refresh() {
+        try {
+            for (int attempt = 0; attempt < MAX_REFRESH_ATTEMPTS; attempt++) {
+                long refreshGeneration = generation.get();
+                long loadedAtNanos = System.nanoTime();
+
+                ConnectionConfigurationSnapshot snapshot =
+                        new ConnectionConfigurationSnapshot(delegate.getConnectionConfigurations());
+
+                if (installRefreshedSnapshot(snapshot, loadedAtNanos, refreshGeneration)) {
+                    return;
+                }
+            }
+
+        } catch (LoadException | RuntimeException e) {
+            // served from the cache until it expires, then loaded (and failing) in the foreground
+            LOGGER.log(Level.WARNING, "Could not refresh connection configurations", e);
+
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private synchronized boolean installRefreshedSnapshot(ConnectionConfigurationSnapshot snapshot,
+                                                          long loadedAtNanos, long refreshGeneration) {
+        if (generation.get() != refreshGeneration) {
+            // changed while refreshing: the snapshot might not contain the change
+            return false;
+        }
+
+        cachedSnapshot.set(new CachedSnapshot(snapshot, loadedAtNanos));
+        cachedLookups.clear();
+        return true;
+    }
+
+    private boolean isFresh(long loadedAtNanos) {
+        return System.nanoTime() - loadedAtNanos < timeToLiveNanos;
+    }
+
+    private static ConnectionConfiguration copyOrNull(ConnectionConfiguration connectionConfiguration) {
+        if (connectionConfiguration == null) {
+            return null;
+        }
+        return new ConnectionConfiguration(connectionConfiguration);
+    }
+
+    private static String toNameKey(String connectionName) {
+        return connectionName.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return "CachingConnectionConfigurationRepository{"
+                + "delegate=" + delegate
+                + ", timeToLiveSeconds=" + TimeUnit.NANOSECONDS.toSeconds(timeToLiveNanos)
+                + '}';
+    }
+}
@@ -22,6 +22,7 @@ import com.github.blausql.spi.connections.SaveException;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Locale;
 import java.util.Properties;
 
 import java.util.List;
@@ -38,8 +39,48 @@ public final class ConfigurationRepository {
 
     private static final String CLASSPATH_SEPARATOR_CHAR = "|";
 
+    private static final long DEFAULT_SCHEMA_METADATA_CACHE_TTL_MINUTES = 24 * 60;
+    private static final long DEFAULT_RESULT_CACHE_MAX_BYTES = 64L * 1024 * 1024;
+    private static final long DEFAULT_RESULT_FETCH_LIMIT = 10_000;
+    private static final long DEFAULT_COPY_FETCH_SIZE = 1000;
+    private static final long DEFAULT_COPY_BATCH_SIZE = 1000;
+    private static final long DEFAULT_COPY_PARTITIONS = 1;
+    private static final String DEFAULT_CONNECTION_REPOSITORY = "properties";
+
+    public static final long DEFAULT_RESULT_MEMORY_BUDGET_BYTES = Runtime.getRuntime().maxMemory() / 4;
+    public static final int DEFAULT_RESULT_HEAP_WATERMARK_PERCENT = 85;
+    public static final int DEFAULT_BACKGROUND_TASK_CONCURRENCY = 16;
+    public static final long DEFAULT_CONNECTION_REPOSITORY_CACHE_TTL_SECONDS = 5 * 60;
+    public static final long DEFAULT_SPECULATIVE_CONNECT_DWELL_MILLIS = 500;
+    public static final long DEFAULT_SPECULATIVE_CONNECT_TIMEOUT_SECONDS = 30;
+    public static final long DEFAULT_CONNECT_TIMEOUT_SECONDS = 30;
+    public static final long DEFAULT_CONNECT_ATTEMPT_STAGGER_MILLIS = 500;
+    public static final int DEFAULT_RESULT_MAX_VALUE_LENGTH = 200;
+    public static final int DEFAULT_RESULT_LOB_PREVIEW_LENGTH = 1000;
+
     private static class Keys {
         private static final String CLASSPATH = "classpath";
+        private static final String SCHEMA_METADATA_CACHE_TTL_MINUTES = "schemaMetadataCacheTtlMinutes";
+        private static final String RESULT_CACHE_ENABLED = "resultCacheEnabled";
+        private static final String RESULT_CACHE_MAX_BYTES = "resultCacheMaxBytes";
+        private static final String RESULT_FETCH_LIMIT = "resultFetchLimit";
+        private static final String RESULT_MEMORY_BUDGET_BYTES = "resultMemoryBudgetBytes";
+        private static final String RESULT_HEAP_WATERMARK_PERCENT = "resultHeapWatermarkPercent";
+        private static final String COPY_FETCH_SIZE = "copyFetchSize";
+        private static final String COPY_BATCH_SIZE = "copyBatchSize";
+        private static final String COPY_PARTITIONS = "copyPartitions";
+        private static final String BACKGROUND_TASK_CONCURRENCY = "backgroundTaskConcurrency";
+        private static final String BACKGROUND_TASK_VIRTUAL_THREADS = "backgroundTaskVirtualThreads";
+        private static final String CONNECTION_REPOSITORY = "connectionRepository";
+        private static final String CONNECTION_REPOSITORY_CACHE_TTL_SECONDS = "connectionRepositoryCacheTtlSeconds";
+        private static final String SPECULATIVE_CONNECT = "speculativeConnect";
+        private static final String SPECULATIVE_CONNECT_DWELL_MILLIS = "speculativeConnectDwellMillis";
+        private static final String SPECULATIVE_CONNECT_TIMEOUT_SECONDS = "speculativeConnectTimeoutSeconds";
+        private static final String CONNECT_TIMEOUT_SECONDS = "connectTimeoutSeconds";
+        private static final String CONNECT_ATTEMPT_STAGGER_MILLIS = "connectAttemptStaggerMillis";
+        private static final String RESULT_MAX_VALUE_LENGTH = "resultMaxValueLength";
+        private static final String RESULT_LOB_PREVIEW_LENGTH = "resultLobPreviewLength";
+        private static final String SCRATCH_DATABASE_FILE = "scratchDatabaseFile";
     }
 
     private ConfigurationRepository() {
@@ -48,33 +89,275 @@ public final class ConfigurationRepository {
 
     public void saveClasspath(List<String> entries) throws SaveException {
 
-        try {
-            Properties properties = SETTINGS_PROPERTY_STORE.loadProperties();
+        String classpathString = String.join(CLASSPATH_SEPARATOR_CHAR, entries);
 
-            String classpathString = String.join(CLASSPATH_SEPARATOR_CHAR, entries);
+        saveSetting(Keys.CLASSPATH, classpathString);
+    }
 
-            properties.put(Keys.CLASSPATH, classpathString);
 
-            SETTINGS_PROPERTY_STORE.persistProperties(properties);
+    public List<String> getClasspath() throws LoadException {
 
-        } catch (IOException e) {
-            throw new SaveException("Failed to save configuration", e);
-        }
+        String classpath = getSetting(Keys.CLASSPATH, "");
+
+        return Arrays.asList(classpath.split("\\" + CLASSPATH_SEPARATOR_CHAR));
     }
 
+    /**
+     * Returns how long harvested schema metadata is considered fresh before
+     * it is refreshed in the background.
+     *
+     * @return the time-to-live in minutes
+     * @throws LoadException if the settings cannot be read
+     */
+    public long getSchemaMetadataCacheTtlMinutes() throws LoadException {
+        return getLongSetting(Keys.SCHEMA_METADATA_CACHE_TTL_MINUTES, DEFAULT_SCHEMA_METADATA_CACHE_TTL_MINUTES);
+    }
 
-    public List<String> getClasspath() throws LoadException {
+    public boolean isResultCacheEnabled() throws LoadException {
+        return Boolean.parseBoolean(getSetting(Keys.RESULT_CACHE_ENABLED, Boolean.FALSE.toString()));
+    }
+
+    public void saveResultCacheEnabled(boolean enabled) throws SaveException {
+        saveSetting(Keys.RESULT_CACHE_ENABLED, Boolean.toString(enabled));
+    }
+
+    /**
+     * Returns the total size the query result cache may occupy on the heap.
+     *
+     * @return the (estimated) number of bytes
+     * @throws LoadException if the settings cannot be read
+     */
+    public long getResultCacheMaxBytes() throws LoadException {
+        return getLongSetting(Keys.RESULT_CACHE_MAX_BYTES, DEFAULT_RESULT_CACHE_MAX_BYTES);
+    }
+
+    /**
+     * Returns the maximum number of rows fetched for a single query.
+     *
+     * @return the maximum number of rows
+     * @throws LoadException if the settings cannot be read
+     */
+    public int getResultFetchLimit() throws LoadException {
+        return Math.toIntExact(getLongSetting(Keys.RESULT_FETCH_LIMIT, DEFAULT_RESULT_FETCH_LIMIT));
+    }
+
+    /**
+     * Returns the total size the rows of all open query results may occupy on the heap,
+     * before they are spilled to disk.
+     *
+     * @return the (estimated) number of bytes
+     * @throws LoadException if the settings cannot be read
+     */
+    public long getResultMemoryBudgetBytes() throws LoadException {
+        return getLongSetting(Keys.RESULT_MEMORY_BUDGET_BYTES, DEFAULT_RESULT_MEMORY_BUDGET_BYTES);
+    }
+
+    /**
+     * Returns the heap usage, in percent of the maximum heap size, above which fetching of
+     * query results is stopped.
+     *
+     * @return the percentage
+     * @throws LoadException if the settings cannot be read
+     */
+    public int getResultHeapWatermarkPercent() throws LoadException {
+        return Math.toIntExact(getLongSetting(Keys.RESULT_HEAP_WATERMARK_PERCENT,
+                DEFAULT_RESULT_HEAP_WATERMARK_PERCENT));
+    }
+
+    /**
+     * Returns the JDBC fetch size used to read the source table when copying table data.
+     *
+     * @return the number of rows fetched from the database at once
+     * @throws LoadException if the settings cannot be read
+     */
+    public int getCopyFetchSize() throws LoadException {
+        return Math.toIntExact(getLongSetting(Keys.COPY_FETCH_SIZE, DEFAULT_COPY_FETCH_SIZE));
+    }
+
+    /**
+     * Returns the number of rows inserted and committed at once when copying table data.
+     *
+     * @return the number of rows in a batch
+     * @throws LoadException if the settings cannot be read
+     */
+    public int getCopyBatchSize() throws LoadException {
+        return Math.toIntExact(getLongSetting(Keys.COPY_BATCH_SIZE, DEFAULT_COPY_BATCH_SIZE));
+    }
+
+    /**
+     * Returns the number of key ranges copied in parallel, each with its own pair of connections.
+     *
+     * @return the number of partitions
+     * @throws LoadException if the settings cannot be read
+     */
+    public int getCopyPartitions() throws LoadException {
+        return Math.toIntExact(getLongSetting(Keys.COPY_PARTITIONS, DEFAULT_COPY_PARTITIONS));
+    }
+
+    /**
+     * Returns the maximum number of characters shown for a single value in the query result window;
+     * longer values are truncated.
+     *
+     * @return the number of characters
+     * @throws LoadException if the settings cannot be read
+     */
+    public int getResultMaxValueLength() throws LoadException {
+        return Math.toIntExact(getLongSetting(Keys.RESULT_MAX_VALUE_LENGTH, DEFAULT_RESULT_MAX_VALUE_LENGTH));
+    }
+
+    /**
+     * Returns the number of characters (or bytes) of large text and binary values (e.g. CLOBs) kept in memory;
+     * the rest of such values is written to temporary files.
+     *
+     * @return the number of characters or bytes
+     * @throws LoadException if the settings cannot be read
+     */
+    public int getResultLobPreviewLength() throws LoadException {
+        return Math.toIntExact(getLongSetting(Keys.RESULT_LOB_PREVIEW_LENGTH, DEFAULT_RESULT_LOB_PREVIEW_LENGTH));
+    }
+
+    /**
+     * Returns the maximum number of background tasks (e.g. statements) running at the same time.
+     *
+     * @return the number of tasks
+     * @throws LoadException if the settings cannot be read
+     */
+    public int getBackgroundTaskConcurrency() throws LoadException {
+        return Math.toIntExact(getLongSetting(Keys.BACKGROUND_TASK_CONCURRENCY, DEFAULT_BACKGROUND_TASK_CONCURRENCY));
+    }
 
+    /**
+     * Returns whether background tasks should run on virtual threads, where the JVM supports them.
+     *
+     * @return {@code true} to use virtual threads
+     * @throws LoadException if the settings cannot be read
+     */
+    public boolean isBackgroundTaskVirtualThreads() throws LoadException {
+        return Boolean.parseBoolean(getSetting(Keys.BACKGROUND_TASK_VIRTUAL_THREADS, Boolean.FALSE.toString()));
+    }
+
+    /**
+     * Returns where the built-in repository keeps connection configurations: {@code properties}
+     * (the {@code connections.properties} file) or {@code h2} (an embedded H2 database).
+     *
+     * @return the type of the connection configuration repository, in lower case
+     * @throws LoadException if the settings cannot be read
+     */
+    public String getConnectionRepositoryType() throws LoadException {
+        return getSetting(Keys.CONNECTION_REPOSITORY, DEFAULT_CONNECTION_REPOSITORY).trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns how long connection configurations read from a custom connection configuration repository
+     * are cached.
+     *
+     * @return the time-to-live in seconds, zero or less if they are not cached
+     * @throws LoadException if the settings cannot be read
+     */
+    public long getConnectionRepositoryCacheTtlSeconds() throws LoadException {
+        return getLongSetting(Keys.CONNECTION_REPOSITORY_CACHE_TTL_SECONDS,
+                DEFAULT_CONNECTION_REPOSITORY_CACHE_TTL_SECONDS);
+    }
+
+    /**
+     * Returns whether connections are opened in the background before they are selected, e.g. while
+     * a connection is highlighted in the list.
+     *
+     * @return {@code true} to connect speculatively
+     * @throws LoadException if the settings cannot be read
+     */
+    public boolean isSpeculativeConnect() throws LoadException {
+        return Boolean.parseBoolean(getSetting(Keys.SPECULATIVE_CONNECT, Boolean.FALSE.toString()));
+    }
+
+    /**
+     * Returns how long a connection has to stay highlighted before it is opened speculatively.
+     *
+     * @return the dwell time in milliseconds
+     * @throws LoadException if the settings cannot be read
+     */
+    public long getSpeculativeConnectDwellMillis() throws LoadException {
+        return getLongSetting(Keys.SPECULATIVE_CONNECT_DWELL_MILLIS, DEFAULT_SPECULATIVE_CONNECT_DWELL_MILLIS);
+    }
+
+    /**
+     * Returns how long a speculatively opened connection is kept open, waiting to be selected.
+     *
+     * @return the timeout in seconds
+     * @throws LoadException if the settings cannot be read
+     */
+    public long getSpeculativeConnectTimeoutSeconds() throws LoadException {
+        return getLongSetting(Keys.SPECULATIVE_CONNECT_TIMEOUT_SECONDS, DEFAULT_SPECULATIVE_CONNECT_TIMEOUT_SECONDS);
+    }
+
+    /**
+     * Returns how long connecting to a database with alternate JDBC URLs may take in total, across all of its
+     * JDBC URLs. Connections without alternate JDBC URLs wait as long as the JDBC driver does.
+     *
+     * @return the timeout in seconds, zero or less to wait as long as the JDBC driver does
+     * @throws LoadException if the settings cannot be read
+     */
+    public long getConnectTimeoutSeconds() throws LoadException {
+        return getLongSetting(Keys.CONNECT_TIMEOUT_SECONDS, DEFAULT_CONNECT_TIMEOUT_SECONDS);
+    }
+
+    /**
+     * Returns how long to wait for a connection attempt before also trying the next JDBC URL of a connection
+     * with alternate JDBC URLs.
+     *
+     * @return the delay in milliseconds
+     * @throws LoadException if the settings cannot be read
+     */
+    public long getConnectAttemptStaggerMillis() throws LoadException {
+        return getLongSetting(Keys.CONNECT_ATTEMPT_STAGGER_MILLIS, DEFAULT_CONNECT_ATTEMPT_STAGGER_MILLIS);
+    }
+
+    /**
+     * Returns the file the scratch database is kept in; if not set, the scratch database is kept in memory
+     * and is discarded when the application exits.
+     *
+     * @return the path of the database file (without the {@code .mv.db} suffix), or an empty string
+     * @throws LoadException if the settings cannot be read
+     */
+    public String getScratchDatabaseFile() throws LoadException {
+        return getSetting(Keys.SCRATCH_DATABASE_FILE, "").trim();
+    }
+
+    private String getSetting(String key, String defaultValue) throws LoadException {
         try {
             Properties properties = SETTINGS_PROPERTY_STORE.loadProperties();
 
-            String classpath = properties.getProperty(Keys.CLASSPATH, "");
-
-            return Arrays.asList(classpath.split("\\" + CLASSPATH_SEPARATOR_CHAR));
+            return properties.getProperty(key, defaultValue);
 
         } catch (IOException e) {
             throw new LoadException("Failed to read configuration", e);
         }
     }
 
+    private void saveSetting(String key, String value) throws SaveException {
+        try {
+            Properties properties = SETTINGS_PROPERTY_STORE.loadProperties();
+
+            properties.put(key, value);
+
+            SETTINGS_PROPERTY_STORE.persistProperties(properties);
+
+        } catch (IOException e) {
+            throw new SaveException("Failed to save configuration", e);
+        }
+    }
+
+    private long getLongSetting(String key, long defaultValue) throws LoadException {
+        String value = getSetting(key, null);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new LoadException("Invalid numeric value for setting: " + key, e);
+        }
+    }
+
 }
@@ -18,17 +18,26 @@ package com.github.blausql.core.preferences;
 
 import com.github.blausql.spi.connections.ConnectionConfigurationRepository;
 import com.github.blausql.spi.connections.ConnectionConfigurationRepositoryProvider;
+import com.github.blausql.spi.connections.LoadException;
 
 import java.util.Iterator;
 import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Factory class for creating and managing instances of {@link ConnectionConfigurationRepository}.
  * This class uses the Java ServiceLoader mechanism to discover and load custom repository
  * implementations, falling back to the default implementation if none is provided.
+ * <p>
+ * The repository of a custom implementation is wrapped in a {@link CachingConnectionConfigurationRepository},
+ * unless the {@code connectionRepositoryCacheTtlSeconds} setting is zero.
  */
 public final class ConnectionConfigurationRepositoryFactory {
 
+    private static final Logger LOGGER = Logger.getLogger(ConnectionConfigurationRepositoryFactory.class.getName());
+
     private static final DefaultConnectionConfigurationRepositoryProvider DEFAULT_PROVIDER =
             new DefaultConnectionConfigurationRepositoryProvider();
 
@@ -70,6 +79,23 @@ public final class ConnectionConfigurationRepositoryFactory {
                         + "Only one custom implementation is allowed.");
         }
 
-        return provider.createRepository();
+        return withCache(provider.createRepository());
+    }
+
+    private static ConnectionConfigurationRepository withCache(ConnectionConfigurationRepository repository) {
+        long timeToLiveSeconds;
+        try {
+            timeToLiveSeconds = ConfigurationRepository.getInstance().getConnectionRepositoryCacheTtlSeconds();
+
+        } catch (LoadException e) {
+            LOGGER.log(Level.WARNING, "Failed to read the connection repository cache settings, using the defaults", e);
+            timeToLiveSeconds = ConfigurationRepository.DEFAULT_CONNECTION_REPOSITORY_CACHE_TTL_SECONDS;
+        }
+
+        if (timeToLiveSeconds <= 0) {
+            return repository;
+        }
+
+        return new CachingConnectionConfigurationRepository(repository, TimeUnit.SECONDS.toNanos(timeToLiveSeconds));
     }
 }
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.core.preferences;
+
+import com.github.blausql.core.connection.ConnectionConfiguration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable view of all connection configurations, indexed by name and hotkey.
+ * <p>
+ * Configurations are copied when the snapshot is built and when they are handed out,
+ * so callers can never modify the snapshot.
+ */
+final class ConnectionConfigurationSnapshot {
+
+    private final List<ConnectionConfiguration> connectionConfigurations;
+    private final Map<String, ConnectionConfiguration> connectionConfigurationsByName;
+    private final Map<Character, ConnectionConfiguration> connectionConfigurationsByHotkey;
+
+    /**
+     * @param sortedConnectionConfigurations the configurations, in the order they are listed
+     */
+    ConnectionConfigurationSnapshot(List<ConnectionConfiguration> sortedConnectionConfigurations) {
+        List<ConnectionConfiguration> configurations = new ArrayList<>(sortedConnectionConfigurations.size());
+        Map<String, ConnectionConfiguration> byName = new HashMap<>();
+        Map<Character, ConnectionConfiguration> byHotkey = new HashMap<>();
+
+        for (ConnectionConfiguration connectionConfiguration : sortedConnectionConfigurations) {
+            ConnectionConfiguration copy = new ConnectionConfiguration(connectionConfiguration);
+            configurations.add(copy);
+
+            // like lookups before, the first one wins if names only differ in case
+            byName.putIfAbsent(toNameKey(copy.getConnectionName()), copy);
+
+            Character hotkey = copy.getHotkey();
+            if (hotkey != null) {
+                byHotkey.putIfAbsent(Character.toUpperCase(hotkey), copy);
+            }
+        }
+
+        this.connectionConfigurations = Collections.unmodifiableList(configurations);
+        this.connectionConfigurationsByName = Collections.unmodifiableMap(byName);
+        this.connectionConfigurationsByHotkey = Collections.unmodifiableMap(byHotkey);
+    }
+
+    List<ConnectionConfiguration> getConnectionConfigurations() {
+        return copyOf(connectionConfigurations);
+    }
+
+    /**
+     * @param offset the number of configurations to skip
+     * @param limit  the maximum number of configurations to return
+     * @return copies of the configurations of the page
+     */
+    List<ConnectionConfiguration> getConnectionConfigurations(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Invalid page: offset=" + offset + ", limit=" + limit);
+        }
+
+        int fromIndex = Math.min(offset, connectionConfigurations.size());
+        int toIndex = (int) Math.min((long) fromIndex + limit, connectionConfigurations.size());
+
+        return copyOf(connectionConfigurations.subList(fromIndex, toIndex));
+    }
+
+    private static List<ConnectionConfiguration> copyOf(List<ConnectionConfiguration> connectionConfigurations) {
+        List<ConnectionConfiguration> copies = new ArrayList<>(connectionConfigurations.size());
+        for (ConnectionConfiguration connectionConfiguration : connectionConfigurations) {
+            copies.add(new ConnectionConfiguration(connectionConfiguration));
+        }
+        return copies;
+    }
+
+    /**
+     * @param savedConnectionConfigurations the configurations saved since the snapshot was built
+     * @return a new snapshot, where the saved configurations replace the ones with the same name (ignoring case),
+     *          or are appended
+     */
+    ConnectionConfigurationSnapshot withSaved(Collection<ConnectionConfiguration> savedConnectionConfigurations) {
+        List<ConnectionConfiguration> configurations = new ArrayList<>(connectionConfigurations);
+        Map<String, Integer> indexesByName = new HashMap<>();
+        for (int i = 0; i < configurations.size(); i++) {
+            indexesByName.putIfAbsent(toNameKey(configurations.get(i).getConnectionName()), i);
+        }
+
+        for (ConnectionConfiguration savedConnectionConfiguration : savedConnectionConfigurations) {
+            String nameKey = toNameKey(savedConnectionConfiguration.getConnectionName());
+
+            Integer index = indexesByName.get(nameKey);
+            if (index == null) {
+                indexesByName.put(nameKey, configurations.size());
+                configurations.add(savedConnectionConfiguration);
+            } else {
+                configurations.set(index, savedConnectionConfiguration);
+            }
+        }
+
+        return new ConnectionConfigurationSnapshot(configurations);
+    }
+
+    /**
+     * @param deletedConnectionNames the names of the connections deleted since the snapshot was built
+     * @return a new snapshot, without the configurations of the names (matching case)
+     */
+    ConnectionConfigurationSnapshot withDeleted(Collection<String> deletedConnectionNames) {
+        Set<String> deletedNames = new HashSet<>(deletedConnectionNames);
+
+        List<ConnectionConfiguration> configurations = new ArrayList<>(connectionConfigurations);
+        configurations.removeIf(configuration -> deletedNames.contains(configuration.getConnectionName()));
+
+        return new ConnectionConfigurationSnapshot(configurations);
+    }
+
+    /**
+     * @param connectionName the name of the connection, ignoring case
+     * @return a copy of the configuration, or {@code null} if there is none with the name
+     */
+    ConnectionConfiguration findByName(String connectionName) {
+        return copyOrNull(connectionConfigurationsByName.get(toNameKey(connectionName)));
+    }
+
+    /**
+     * @param hotkey the hotkey, ignoring case
+     * @return a copy of the configuration, or {@code null} if none uses the hotkey
+     */
+    ConnectionConfiguration findByHotkey(char hotkey) {
+        return copyOrNull(connectionConfigurationsByHotkey.get(Character.toUpperCase(hotkey)));
+    }
+
+    private static ConnectionConfiguration copyOrNull(ConnectionConfiguration connectionConfiguration) {
+        if (connectionConfiguration == null) {
+            return null;
+        }
+        return new ConnectionConfiguration(connectionConfiguration);
+    }
+
+    private static String toNameKey(String connectionName) {
+        return connectionName.toLowerCase(Locale.ROOT);
+    }
+}
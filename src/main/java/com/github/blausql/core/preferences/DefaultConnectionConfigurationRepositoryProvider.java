@@ -18,18 +18,36 @@ package com.github.blausql.core.preferences;
 
 import com.github.blausql.spi.connections.ConnectionConfigurationRepository;
 import com.github.blausql.spi.connections.ConnectionConfigurationRepositoryProvider;
+import com.github.blausql.spi.connections.LoadException;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
- * Default provider for the {@link ConnectionConfigurationRepository} that uses properties files for storage.
+ * Default provider for the {@link ConnectionConfigurationRepository} that uses properties files for storage,
+ * or an embedded H2 database if the {@code connectionRepository} setting is {@code h2}.
  * This is used when no custom implementation is provided via the ServiceLoader mechanism.
  */
 final class DefaultConnectionConfigurationRepositoryProvider implements ConnectionConfigurationRepositoryProvider {
 
+    private static final Logger LOGGER =
+            Logger.getLogger(DefaultConnectionConfigurationRepositoryProvider.class.getName());
+
+    private static final String H2_REPOSITORY_TYPE = "h2";
+
     private static final ConnectionConfigurationRepository INSTANCE =
             new PropertiesBasedConnectionConfigurationRepository();
 
     @Override
     public ConnectionConfigurationRepository createRepository() {
+        try {
+            if (H2_REPOSITORY_TYPE.equals(ConfigurationRepository.getInstance().getConnectionRepositoryType())) {
+                return new H2ConnectionConfigurationRepository(INSTANCE);
+            }
+        } catch (LoadException e) {
+            LOGGER.log(Level.WARNING, "Could not read the connectionRepository setting, using properties", e);
+        }
+
         return INSTANCE;
     }
 }
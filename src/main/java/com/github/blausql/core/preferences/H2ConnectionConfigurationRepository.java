@@ -0,0 +1,539 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.core.preferences;
+
+import com.github.blausql.core.connection.ConnectionCallback;
+import com.github.blausql.core.connection.ConnectionConfiguration;
+import com.github.blausql.core.connection.DatabaseConnection;
+import com.github.blausql.core.connection.DatabaseConnectionFactory;
+import com.github.blausql.spi.connections.ConnectionConfigurationRepository;
+import com.github.blausql.spi.connections.DeleteException;
+import com.github.blausql.spi.connections.LoadException;
+import com.github.blausql.spi.connections.SaveException;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link ConnectionConfigurationRepository} storing connection configurations in an embedded H2 database
+ * in the BlauSQL storage directory, selected with the {@code connectionRepository=h2} setting.
+ * <p>
+ * Configurations are looked up by name and hotkey through indexes, and every change is a transaction.
+ * Within the process, the operations share a single connection, one at a time.
+ * The database is opened with {@code AUTO_SERVER=TRUE}: several BlauSQL processes on the same host can use
+ * it at the same time. H2 is not bundled with BlauSQL: its jar must be on the application classpath or
+ * on the classpath configured for JDBC drivers.
+ * <p>
+ * When the database is created, the configurations of {@code connections.properties} are imported, once:
+ * the import is recorded in the {@code REPOSITORY_METADATA} table, so that configurations deleted later
+ * are not imported again.
+ */
+final class H2ConnectionConfigurationRepository implements ConnectionConfigurationRepository {
+
+    private static final Logger LOGGER = Logger.getLogger(H2ConnectionConfigurationRepository.class.getName());
+
+    private static final String DRIVER_CLASS_NAME = "org.h2.Driver";
+    private static final String DATABASE_FILE_NAME = "connections";
+
+    private static final String COLUMNS = "CONNECTION_NAME, DRIVER_CLASS_NAME, JDBC_URL, LOGIN_AUTOMATICALLY, "
+            + "USER_NAME, PASSWORD, STATEMENT_SEPARATOR, HOTKEY, SORT_ORDER, ALTERNATE_JDBC_URLS";
+
+    private static final String CREATE_TABLE =
+            "CREATE TABLE IF NOT EXISTS CONNECTION_CONFIGURATION ("
+                    + "NAME_KEY VARCHAR(1000) NOT NULL PRIMARY KEY, "
+                    + "HOTKEY_KEY CHAR(1), "
+                    + "CONNECTION_NAME VARCHAR(1000) NOT NULL, "
+                    + "DRIVER_CLASS_NAME VARCHAR(1000), "
+                    + "JDBC_URL VARCHAR(10000), "
+                    + "LOGIN_AUTOMATICALLY BOOLEAN NOT NULL, "
+                    + "USER_NAME VARCHAR(1000), "
+                    + "PASSWORD VARCHAR(1000), "
+                    + "STATEMENT_SEPARATOR VARCHAR(100), "
+                    + "HOTKEY CHAR(1), "
+                    + "SORT_ORDER INT, "
+                    + "ALTERNATE_JDBC_URLS VARCHAR(100000))";
+
+    // databases created before alternate JDBC URLs were supported
+    private static final String ADD_ALTERNATE_JDBC_URLS_COLUMN = "ALTER TABLE CONNECTION_CONFIGURATION "
+            + "ADD COLUMN IF NOT EXISTS ALTERNATE_JDBC_URLS VARCHAR(100000)";
+
+    private static final String CREATE_HOTKEY_INDEX = "CREATE UNIQUE INDEX IF NOT EXISTS "
+            + "CONNECTION_CONFIGURATION_HOTKEY ON CONNECTION_CONFIGURATION (HOTKEY_KEY)";
+
+    private static final String CREATE_ORDER_INDEX = "CREATE INDEX IF NOT EXISTS "
+            + "CONNECTION_CONFIGURATION_ORDER ON CONNECTION_CONFIGURATION (SORT_ORDER, CONNECTION_NAME)";
+
+    private static final String SELECT_ALL = "SELECT " + COLUMNS + " FROM CONNECTION_CONFIGURATION "
+            + "ORDER BY SORT_ORDER NULLS LAST, CONNECTION_NAME";
+
+    private static final String SELECT_PAGE = SELECT_ALL + " LIMIT ? OFFSET ?";
+
+    private static final String SELECT_BY_NAME = "SELECT " + COLUMNS + " FROM CONNECTION_CONFIGURATION "
+            + "WHERE NAME_KEY = ?";
+
+    private static final String SELECT_OTHER_WITH_HOTKEY = "SELECT CONNECTION_NAME FROM CONNECTION_CONFIGURATION "
+            + "WHERE HOTKEY_KEY = ? AND NAME_KEY <> ?";
+
+    private static final String CREATE_METADATA_TABLE = "CREATE TABLE IF NOT EXISTS REPOSITORY_METADATA ("
+            + "METADATA_KEY VARCHAR(100) NOT NULL PRIMARY KEY, "
+            + "METADATA_VALUE VARCHAR(1000))";
+
+    private static final String IMPORTED_KEY = "IMPORTED_CONNECTIONS_PROPERTIES";
+
+    private static final String SELECT_METADATA = "SELECT METADATA_VALUE FROM REPOSITORY_METADATA "
+            + "WHERE METADATA_KEY = ?";
+
+    private static final String MERGE_METADATA = "MERGE INTO REPOSITORY_METADATA (METADATA_KEY, METADATA_VALUE) "
+            + "KEY (METADATA_KEY) VALUES (?, ?)";
+
+    private static final String COUNT = "SELECT COUNT(*) AS CONNECTION_COUNT FROM CONNECTION_CONFIGURATION";
+
+    private static final String MERGE = "MERGE INTO CONNECTION_CONFIGURATION (NAME_KEY, HOTKEY_KEY, " + COLUMNS + ") "
+            + "KEY (NAME_KEY) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // the name must match exactly, as with the properties file; NAME_KEY makes it an index lookup
+    private static final String DELETE = "DELETE FROM CONNECTION_CONFIGURATION "
+            + "WHERE NAME_KEY = ? AND CONNECTION_NAME = ?";
+
+    private final ConnectionConfigurationRepository importSource;
+    private final ConnectionConfiguration databaseConfiguration;
+
+    // guarded by this
+    private DatabaseConnection databaseConnection;
+    private boolean initialized;
+
+    /**
+     * @param importSource the repository to import the configurations from when the database is created
+     */
+    H2ConnectionConfigurationRepository(ConnectionConfigurationRepository importSource) {
+        this.importSource = importSource;
+
+        String databasePath = new File(PropertyStoreFactory.STORAGE_DIRECTORY, DATABASE_FILE_NAME).getAbsolutePath();
+
+        this.databaseConfiguration = new ConnectionConfiguration("BlauSQL connection repository",
+                DRIVER_CLASS_NAME,
+                "jdbc:h2:file:" + databasePath + ";AUTO_SERVER=TRUE;DB_CLOSE_DELAY=-1",
+                true, "sa", "", null, null, null);
+    }
+
+    @Override
+    public List<ConnectionConfiguration> getConnectionConfigurations() throws LoadException {
+        try {
+            return execute(connection -> {
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery(SELECT_ALL)) {
+
+                    List<ConnectionConfiguration> connectionConfigurations = new ArrayList<>();
+                    while (resultSet.next()) {
+                        connectionConfigurations.add(toConnectionConfiguration(resultSet));
+                    }
+                    return connectionConfigurations;
+                }
+            });
+
+        } catch (RuntimeException e) {
+            throw new LoadException("Failed to load connection configurations", e);
+        }
+    }
+
+    @Override
+    public ConnectionConfiguration findConnectionConfigurationByName(String connectionName) throws LoadException {
+        try {
+            return execute(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_NAME)) {
+                    statement.setString(1, toNameKey(connectionName));
+
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        if (!resultSet.next()) {
+                            return null;
+                        }
+                        return toConnectionConfiguration(resultSet);
+                    }
+                }
+            });
+
+        } catch (RuntimeException e) {
+            throw new LoadException("Failed to load connection configuration: " + connectionName, e);
+        }
+    }
+
+    @Override
+    public List<ConnectionConfiguration> getConnectionConfigurations(int offset, int limit) throws LoadException {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Invalid page: offset=" + offset + ", limit=" + limit);
+        }
+
+        try {
+            return execute(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(SELECT_PAGE)) {
+                    statement.setInt(1, limit);
+                    statement.setInt(2, offset);
+
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        List<ConnectionConfiguration> connectionConfigurations = new ArrayList<>();
+                        while (resultSet.next()) {
+                            connectionConfigurations.add(toConnectionConfiguration(resultSet));
+                        }
+                        return connectionConfigurations;
+                    }
+                }
+            });
+
+        } catch (RuntimeException e) {
+            throw new LoadException("Failed to load connection configurations", e);
+        }
+    }
+
+    @Override
+    public void saveConnectionConfiguration(ConnectionConfiguration connectionConfig) throws SaveException {
+        Objects.requireNonNull(connectionConfig, "Argument connectionConfig cannot be null");
+
+        saveConnectionConfigurations(List.of(connectionConfig));
+    }
+
+    @Override
+    public void saveConnectionConfigurations(Collection<ConnectionConfiguration> connectionConfigs)
+            throws SaveException {
+
+        Objects.requireNonNull(connectionConfigs, "Argument connectionConfigs cannot be null");
+
+        for (ConnectionConfiguration connectionConfig : connectionConfigs) {
+            if (connectionConfig.getConnectionName() == null || connectionConfig.getConnectionName().isBlank()) {
+                throw new SaveException("A connection must have a non-empty name");
+            }
+        }
+
+        String hotkeyConflict;
+        try {
+            hotkeyConflict = execute(connection -> inTransaction(connection, () -> {
+                for (ConnectionConfiguration connectionConfig : connectionConfigs) {
+                    String otherConnectionName = findOtherConnectionUsingHotkey(connection, connectionConfig);
+                    if (otherConnectionName != null) {
+                        // nothing is saved: the commit after the rollback is empty
+                        connection.rollback();
+                        return "Hotkey '" + connectionConfig.getHotkey() + "' is already used by: "
+                                + otherConnectionName;
+                    }
+                    merge(connection, connectionConfig);
+                }
+                return null;
+            }));
+
+        } catch (RuntimeException e) {
+            throw new SaveException("Failed to save connection configuration", e);
+        }
+
+        if (hotkeyConflict != null) {
+            throw new SaveException(hotkeyConflict);
+        }
+    }
+
+    @Override
+    public void deleteConnectionConfigurationByName(String connectionName) throws DeleteException {
+        deleteConnectionConfigurationsByName(List.of(connectionName));
+    }
+
+    @Override
+    public void deleteConnectionConfigurationsByName(Collection<String> connectionNames) throws DeleteException {
+        Objects.requireNonNull(connectionNames, "Argument connectionNames cannot be null");
+
+        String connectionNotFound;
+        try {
+            connectionNotFound = execute(connection -> inTransaction(connection, () -> {
+                try (PreparedStatement statement = connection.prepareStatement(DELETE)) {
+                    for (String connectionName : connectionNames) {
+                        statement.setString(1, toNameKey(connectionName));
+                        statement.setString(2, connectionName);
+                        if (statement.executeUpdate() == 0) {
+                            // nothing is deleted: the commit after the rollback is empty
+                            connection.rollback();
+                            return connectionName;
+                        }
+                    }
+                    return null;
+                }
+            }));
+
+        } catch (RuntimeException e) {
+            throw new DeleteException("Failed to delete connection configuration", e);
+        }
+
+        if (connectionNotFound != null) {
+            throw new DeleteException("Connection configuration not found: " + connectionNotFound);
+        }
+    }
+
+    private synchronized <T> T execute(ConnectionCallback<T> callback) {
+        if (databaseConnection == null) {
+            if (!DatabaseConnectionFactory.isDriverAvailable(DRIVER_CLASS_NAME)) {
+                throw new IllegalStateException("The connectionRepository=h2 setting needs the H2 JDBC driver ("
+                        + DRIVER_CLASS_NAME + "), which is not bundled with BlauSQL: add the H2 jar to the "
+                        + "classpath with Set Classpath in the main menu, or remove the setting");
+            }
+            // kept open: connecting registers the JDBC driver again, which is too costly for every lookup
+            databaseConnection = DatabaseConnectionFactory.getDatabaseConnection(databaseConfiguration);
+        }
+
+        boolean succeeded = false;
+        try {
+            T result = databaseConnection.execute(connection -> {
+                initialize(connection);
+                return callback.doInConnection(connection);
+            });
+            succeeded = true;
+            return result;
+
+        } finally {
+            if (!succeeded) {
+                // the connection might be broken: the next call connects again
+                closeDatabaseConnection();
+            }
+        }
+    }
+
+    private void closeDatabaseConnection() {
+        try {
+            databaseConnection.close();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.FINE, "Could not close the connection repository database", e);
+        } finally {
+            databaseConnection = null;
+        }
+    }
+
+    private interface TransactionCallback<T> {
+        T doInTransaction() throws SQLException;
+    }
+
+    private static <T> T inTransaction(Connection connection, TransactionCallback<T> callback) throws SQLException {
+        connection.setAutoCommit(false);
+
+        boolean committed = false;
+        try {
+            T result = callback.doInTransaction();
+            connection.commit();
+            committed = true;
+            return result;
+
+        } finally {
+            if (!committed) {
+                connection.rollback();
+            }
+        }
+    }
+
+    private void initialize(Connection connection) throws SQLException {
+        if (initialized) {
+            return;
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_TABLE);
+            statement.execute(ADD_ALTERNATE_JDBC_URLS_COLUMN);
+            statement.execute(CREATE_HOTKEY_INDEX);
+            statement.execute(CREATE_ORDER_INDEX);
+            statement.execute(CREATE_METADATA_TABLE);
+        }
+
+        inTransaction(connection, () -> {
+            if (getMetadata(connection, IMPORTED_KEY) != null) {
+                return null;
+            }
+            // databases created before the import was recorded were imported into if they have any rows
+            if (!isEmpty(connection) || importConnectionConfigurations(connection)) {
+                setMetadata(connection, IMPORTED_KEY, Instant.now().toString());
+            }
+            return null;
+        });
+
+        initialized = true;
+    }
+
+    private static boolean isEmpty(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(COUNT)) {
+
+            if (!resultSet.next()) {
+                throw new SQLException("No row returned by: " + COUNT);
+            }
+            return resultSet.getLong("CONNECTION_COUNT") == 0;
+        }
+    }
+
+    private static String getMetadata(Connection connection, String key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_METADATA)) {
+            statement.setString(1, key);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                return resultSet.getString("METADATA_VALUE");
+            }
+        }
+    }
+
+    private static void setMetadata(Connection connection, String key, String value) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(MERGE_METADATA)) {
+            statement.setString(1, key);
+            statement.setString(2, value);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * @return {@code true} if the configurations were imported, {@code false} if the import should be retried
+     */
+    private boolean importConnectionConfigurations(Connection connection) throws SQLException {
+        List<ConnectionConfiguration> connectionConfigurations;
+        try {
+            connectionConfigurations = importSource.getConnectionConfigurations();
+        } catch (LoadException e) {
+            LOGGER.log(Level.WARNING, "Could not import connection configurations", e);
+            return false;
+        }
+
+        Set<Character> usedHotkeys = new HashSet<>();
+        for (ConnectionConfiguration connectionConfiguration : connectionConfigurations) {
+            Character hotkey = connectionConfiguration.getHotkey();
+            if (hotkey != null && !usedHotkeys.add(Character.toUpperCase(hotkey))) {
+                // a hand-edited properties file might assign a hotkey twice: the first one keeps it
+                connectionConfiguration.setHotkey(null);
+            }
+            merge(connection, connectionConfiguration);
+        }
+
+        LOGGER.log(Level.INFO, "Imported {0} connection configurations", connectionConfigurations.size());
+        return true;
+    }
+
+    private static String findOtherConnectionUsingHotkey(Connection connection,
+                                                         ConnectionConfiguration connectionConfig)
+            throws SQLException {
+
+        Character hotkey = connectionConfig.getHotkey();
+        if (hotkey == null) {
+            return null;
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_OTHER_WITH_HOTKEY)) {
+            statement.setString(1, toHotkeyKey(hotkey));
+            statement.setString(2, toNameKey(connectionConfig.getConnectionName()));
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                return resultSet.getString("CONNECTION_NAME");
+            }
+        }
+    }
+
+    private static void merge(Connection connection, ConnectionConfiguration connectionConfig) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(MERGE)) {
+            Character hotkey = connectionConfig.getHotkey();
+
+            int index = 0;
+            statement.setString(++index, toNameKey(connectionConfig.getConnectionName()));
+            statement.setString(++index, toHotkeyKey(hotkey));
+            statement.setString(++index, connectionConfig.getConnectionName());
+            statement.setString(++index, connectionConfig.getDriverClassName());
+            statement.setString(++index, connectionConfig.getJdbcUrl());
+            statement.setBoolean(++index, connectionConfig.getLoginAutomatically());
+            statement.setString(++index, connectionConfig.getUserName());
+            statement.setString(++index, connectionConfig.getPassword());
+            statement.setString(++index, connectionConfig.getStatementSeparator());
+            statement.setString(++index, toHotkeyString(hotkey));
+
+            Integer order = connectionConfig.getOrder();
+            if (order == null) {
+                statement.setNull(++index, Types.INTEGER);
+            } else {
+                statement.setInt(++index, order);
+            }
+
+            statement.setString(++index, ConnectionConfiguration.joinJdbcUrls(connectionConfig.getAlternateJdbcUrls()));
+
+            statement.executeUpdate();
+        }
+    }
+
+    private static ConnectionConfiguration toConnectionConfiguration(ResultSet resultSet) throws SQLException {
+        String hotkey = resultSet.getString("HOTKEY");
+
+        int order = resultSet.getInt("SORT_ORDER");
+        Integer nullableOrder = null;
+        if (!resultSet.wasNull()) {
+            nullableOrder = order;
+        }
+
+        Character nullableHotkey = null;
+        if (hotkey != null && !hotkey.isEmpty()) {
+            nullableHotkey = hotkey.charAt(0);
+        }
+
+        ConnectionConfiguration connectionConfiguration = new ConnectionConfiguration(
+                resultSet.getString("CONNECTION_NAME"),
+                resultSet.getString("DRIVER_CLASS_NAME"),
+                resultSet.getString("JDBC_URL"),
+                resultSet.getBoolean("LOGIN_AUTOMATICALLY"),
+                resultSet.getString("USER_NAME"),
+                resultSet.getString("PASSWORD"),
+                resultSet.getString("STATEMENT_SEPARATOR"),
+                nullableHotkey,
+                nullableOrder);
+
+        connectionConfiguration.setAlternateJdbcUrls(
+                ConnectionConfiguration.splitJdbcUrls(resultSet.getString("ALTERNATE_JDBC_URLS")));
+
+        return connectionConfiguration;
+    }
+
+    private static String toNameKey(String connectionName) {
+        return connectionName.toLowerCase(Locale.ROOT);
+    }
+
+    private static String toHotkeyKey(Character hotkey) {
+        if (hotkey == null) {
+            return null;
+        }
+        return String.valueOf(Character.toUpperCase(hotkey));
+    }
+
+    private static String toHotkeyString(Character hotkey) {
+        if (hotkey == null) {
+            return null;
+        }
+        return hotkey.toString();
+    }
+}
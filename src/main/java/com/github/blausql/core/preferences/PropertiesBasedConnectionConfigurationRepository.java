@@ -22,16 +22,34 @@ import com.github.blausql.spi.connections.DeleteException;
 import com.github.blausql.spi.connections.LoadException;
 import com.github.blausql.spi.connections.SaveException;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Default implementation of {@link ConnectionConfigurationRepository} that stores connection configurations
  * in a properties file.
+ * <p>
+ * The configurations are read into an immutable {@link ConnectionConfigurationSnapshot}, which serves all
+ * reads and is replaced on every write. The file is watched, so that edits made outside the application
+ * are picked up on the next read.
  */
 // CHECKSTYLE.OFF: AvoidInlineConditionals: here, they simplify trivial methods
 final class PropertiesBasedConnectionConfigurationRepository implements ConnectionConfigurationRepository {
 
+    private static final Logger LOGGER = Logger.getLogger(
+            PropertiesBasedConnectionConfigurationRepository.class.getName());
+
     private static final String STATEMENT_SEPARATOR = ";";
 
     private static final char PROPERTY_SEPARATOR = '.';
@@ -93,62 +111,117 @@ final class PropertiesBasedConnectionConfigurationRepository implements Connecti
                 return leftConnectionName.compareTo(rightConnectionName);
             };
 
+    private final AtomicReference<ConnectionConfigurationSnapshot> snapshotReference = new AtomicReference<>();
+
+    private final AtomicBoolean watchingConnectionsFile = new AtomicBoolean();
+
     @Override
     public List<ConnectionConfiguration> getConnectionConfigurations() throws LoadException {
+        return getSnapshot().getConnectionConfigurations();
+    }
+
+    private ConnectionConfigurationSnapshot getSnapshot() throws LoadException {
+        ConnectionConfigurationSnapshot snapshot = snapshotReference.get();
+        if (snapshot == null) {
+            snapshot = loadSnapshot();
+        }
+        return snapshot;
+    }
+
+    private synchronized ConnectionConfigurationSnapshot loadSnapshot() throws LoadException {
+        ConnectionConfigurationSnapshot snapshot = snapshotReference.get();
+        if (snapshot != null) {
+            // loaded by another thread in the meantime
+            return snapshot;
+        }
+
         try {
-            LinkedHashMap<String, ConnectionConfiguration> map = new LinkedHashMap<>();
-            Properties properties = CONNECTIONS_PROPERTY_STORE.loadProperties();
+            snapshot = createSnapshot(CONNECTIONS_PROPERTY_STORE.loadProperties());
+            snapshotReference.set(snapshot);
 
-            for (Map.Entry<Object, Object> entry : properties.entrySet()) {
-                final String key = entry.getKey().toString();
-                final String value = entry.getValue().toString();
+        } catch (IOException e) {
+            throw new LoadException("Failed to load connection configurations", e);
+        }
 
-                ConnectionPropertyReference propertyReference = ConnectionPropertyReference.fromString(key);
+        startWatchingConnectionsFile();
 
-                ConnectionConfiguration connectionConfig = map.computeIfAbsent(
-                        propertyReference.connectionName, ConnectionConfiguration::new);
+        return snapshot;
+    }
 
-                PropertyMapping propertyMapping = PropertyMapping.valueOf(propertyReference.propertyName);
-                propertyMapping.setValue(connectionConfig, value);
-            }
+    private static ConnectionConfigurationSnapshot createSnapshot(Properties properties) {
+        LinkedHashMap<String, ConnectionConfiguration> map = new LinkedHashMap<>();
 
-            ArrayList<ConnectionConfiguration> connectionConfigurations = new ArrayList<>(map.values());
-            connectionConfigurations.sort(CONNECTION_CONFIGURATION_COMPARATOR);
+        for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+            final String key = entry.getKey().toString();
+            final String value = entry.getValue().toString();
 
-            return connectionConfigurations;
+            ConnectionPropertyReference propertyReference = ConnectionPropertyReference.fromString(key);
 
-        } catch (IOException e) {
-            throw new LoadException("Failed to load connection configurations", e);
+            ConnectionConfiguration connectionConfig = map.computeIfAbsent(
+                    propertyReference.connectionName, ConnectionConfiguration::new);
+
+            PropertyMapping propertyMapping = PropertyMapping.valueOf(propertyReference.propertyName);
+            propertyMapping.setValue(connectionConfig, value);
         }
+
+        ArrayList<ConnectionConfiguration> connectionConfigurations = new ArrayList<>(map.values());
+        connectionConfigurations.sort(CONNECTION_CONFIGURATION_COMPARATOR);
+
+        return new ConnectionConfigurationSnapshot(connectionConfigurations);
     }
 
     @Override
-    public void saveConnectionConfiguration(ConnectionConfiguration connectionConfig) throws SaveException {
+    public List<ConnectionConfiguration> getConnectionConfigurations(int offset, int limit) throws LoadException {
+        return getSnapshot().getConnectionConfigurations(offset, limit);
+    }
 
+    @Override
+    public void saveConnectionConfiguration(ConnectionConfiguration connectionConfig) throws SaveException {
         Objects.requireNonNull(connectionConfig, "Argument connectionConfig cannot be null");
 
-        if (connectionConfig.getConnectionName() == null || connectionConfig.getConnectionName().isBlank()) {
-            throw new SaveException("A connection must have a non-empty name");
-        }
+        saveConnectionConfigurations(List.of(connectionConfig));
+    }
+
+    @Override
+    public synchronized void saveConnectionConfigurations(Collection<ConnectionConfiguration> connectionConfigs)
+            throws SaveException {
+
+        Objects.requireNonNull(connectionConfigs, "Argument connectionConfigs cannot be null");
+
+        Map<Character, String> hotkeysSaved = new HashMap<>();
+        for (ConnectionConfiguration connectionConfig : connectionConfigs) {
+            if (connectionConfig.getConnectionName() == null || connectionConfig.getConnectionName().isBlank()) {
+                throw new SaveException("A connection must have a non-empty name");
+            }
 
-        Character hotkey = connectionConfig.getHotkey();
-        if (hotkey != null) {
-            checkNoExistingConnectionConfigurationUsesTheHotKey(connectionConfig, hotkey);
+            Character hotkey = connectionConfig.getHotkey();
+            if (hotkey != null) {
+                checkNoExistingConnectionConfigurationUsesTheHotKey(connectionConfig, hotkey);
+                checkNoSavedConnectionConfigurationUsesTheHotKey(connectionConfig, hotkey, hotkeysSaved);
+            }
         }
 
         try {
             Properties properties = CONNECTIONS_PROPERTY_STORE.loadProperties();
 
-            // Remove all existing properties for this connection
-            properties.keySet().removeIf(key -> ConnectionPropertyReference.fromString(key.toString())
-                    .connectionName.equalsIgnoreCase(connectionConfig.getConnectionName()));
+            Set<String> connectionNameKeys = new HashSet<>();
+            for (ConnectionConfiguration connectionConfig : connectionConfigs) {
+                connectionNameKeys.add(connectionConfig.getConnectionName().toLowerCase(Locale.ROOT));
+            }
+
+            // Remove all existing properties for these connections
+            properties.keySet().removeIf(key -> connectionNameKeys.contains(ConnectionPropertyReference
+                    .fromString(key.toString()).connectionName.toLowerCase(Locale.ROOT)));
 
             // Add the updated properties
-            for (PropertyMapping propertyMapping : PropertyMapping.values()) {
-                propertyMapping.putPropertyKeyValue(connectionConfig, properties);
+            for (ConnectionConfiguration connectionConfig : connectionConfigs) {
+                for (PropertyMapping propertyMapping : PropertyMapping.values()) {
+                    propertyMapping.putPropertyKeyValue(connectionConfig, properties);
+                }
             }
 
-            CONNECTIONS_PROPERTY_STORE.persistProperties(properties);
+            // a single write for all of them
+            persist(properties);
 
         } catch (IOException e) {
             throw new SaveException("Failed to save connection configuration", e);
@@ -158,52 +231,71 @@ final class PropertiesBasedConnectionConfigurationRepository implements Connecti
     private void checkNoExistingConnectionConfigurationUsesTheHotKey(
             ConnectionConfiguration configuration, Character hotkey) throws SaveException {
 
-        List<ConnectionConfiguration> existingConnectionConfigurations;
+        ConnectionConfiguration existingConfiguration;
         try {
-            existingConnectionConfigurations = getConnectionConfigurations();
+            existingConfiguration = getSnapshot().findByHotkey(hotkey);
         } catch (LoadException e) {
             // unlike righteous error handling, this allows recovering from issues, e.g. a corrupted config file.
-            existingConnectionConfigurations = Collections.emptyList();
+            existingConfiguration = null;
         }
 
-        for (ConnectionConfiguration existingConfiguration : existingConnectionConfigurations) {
+        if (existingConfiguration != null
+                && !Objects.equals(existingConfiguration.getConnectionName(), configuration.getConnectionName())) {
 
-            Character existingHotkey = existingConfiguration.getHotkey();
+            String connectionName = existingConfiguration.getConnectionName();
 
-            if (existingHotkey != null
-                    && !Objects.equals(existingConfiguration.getConnectionName(), configuration.getConnectionName())
-                    && Objects.equals(
-                        Character.toUpperCase(hotkey),
-                        Character.toUpperCase(existingConfiguration.getHotkey()))) {
+            throw new SaveException("Hotkey '" + hotkey + "' is already used by: " + connectionName);
+        }
+    }
 
-                String connectionName = existingConfiguration.getConnectionName();
+    private static void checkNoSavedConnectionConfigurationUsesTheHotKey(
+            ConnectionConfiguration configuration, Character hotkey, Map<Character, String> hotkeysSaved)
+            throws SaveException {
 
-                throw new SaveException("Hotkey '" + hotkey + "' is already used by: " + connectionName);
-            }
+        String connectionName = hotkeysSaved.putIfAbsent(Character.toUpperCase(hotkey),
+                configuration.getConnectionName());
+
+        if (connectionName != null && !connectionName.equalsIgnoreCase(configuration.getConnectionName())) {
+            throw new SaveException("Hotkey '" + hotkey + "' is already used by: " + connectionName);
         }
     }
 
     @Override
     public void deleteConnectionConfigurationByName(String connectionName) throws DeleteException {
+        deleteConnectionConfigurationsByName(List.of(connectionName));
+    }
+
+    @Override
+    public synchronized void deleteConnectionConfigurationsByName(Collection<String> connectionNames)
+            throws DeleteException {
+
+        Objects.requireNonNull(connectionNames, "Argument connectionNames cannot be null");
+
         try {
-            boolean foundInProperties = false;
             Properties properties = CONNECTIONS_PROPERTY_STORE.loadProperties();
 
+            Set<String> connectionNamesToDelete = new HashSet<>(connectionNames);
+            Set<String> connectionNamesFound = new HashSet<>();
+
             Iterator<Object> iterator = properties.keySet().iterator();
             while (iterator.hasNext()) {
-                String key = iterator.next().toString();
+                String connectionName = ConnectionPropertyReference.fromString(iterator.next().toString())
+                        .connectionName;
 
-                if (ConnectionPropertyReference.fromString(key).connectionName.equals(connectionName)) {
+                if (connectionNamesToDelete.contains(connectionName)) {
                     iterator.remove();
-                    foundInProperties = true;
+                    connectionNamesFound.add(connectionName);
                 }
             }
 
-            if (!foundInProperties) {
-                throw new IllegalStateException("Connection configuration not found:" + connectionName);
+            for (String connectionName : connectionNamesToDelete) {
+                if (!connectionNamesFound.contains(connectionName)) {
+                    // nothing is persisted: either all of them are deleted, or none
+                    throw new IllegalStateException("Connection configuration not found:" + connectionName);
+                }
             }
 
-            CONNECTIONS_PROPERTY_STORE.persistProperties(properties);
+            persist(properties);
 
         } catch (IOException e) {
             throw new DeleteException("Failed to delete connection configuration", e);
@@ -212,15 +304,96 @@ final class PropertiesBasedConnectionConfigurationRepository implements Connecti
 
     @Override
     public ConnectionConfiguration findConnectionConfigurationByName(String connectionName) throws LoadException {
+        return getSnapshot().findByName(connectionName);
+    }
+
+    private void persist(Properties properties) throws IOException {
+        CONNECTIONS_PROPERTY_STORE.persistProperties(properties);
+
+        snapshotReference.set(createSnapshot(properties));
+
+        startWatchingConnectionsFile();
+    }
 
-        List<ConnectionConfiguration> connections = getConnectionConfigurations();
+    private void startWatchingConnectionsFile() {
+        if (watchingConnectionsFile.get()) {
+            return;
+        }
+
+        File connectionsFile = CONNECTIONS_PROPERTY_STORE.getPropertyFile();
+        WatchService watchService = null;
+        try {
+            // the directory only exists once something has been saved: retried on every load and save until then
+            watchService = FileSystems.getDefault().newWatchService();
+            PropertyStoreFactory.STORAGE_DIRECTORY.toPath().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+
+        } catch (NoSuchFileException e) {
+            LOGGER.log(Level.FINE, "Storage directory does not exist yet, not watching it", e);
+            closeQuietly(watchService);
+            return;
+
+        } catch (IOException | UnsupportedOperationException e) {
+            LOGGER.log(Level.WARNING, "Could not watch " + connectionsFile + " for changes", e);
+            closeQuietly(watchService);
+            return;
+        }
+
+        if (watchingConnectionsFile.compareAndSet(false, true)) {
+            WatchService startedWatchService = watchService;
+            Thread watcherThread = new Thread(
+                    () -> watchConnectionsFile(startedWatchService, connectionsFile.getName()),
+                    "connections-file-watcher");
+            watcherThread.setDaemon(true);
+            watcherThread.start();
+        } else {
+            closeQuietly(watchService);
+        }
+    }
+
+    private void watchConnectionsFile(WatchService watchService, String connectionsFileName) {
+        try {
+            while (true) {
+                WatchKey watchKey = watchService.take();
+
+                for (WatchEvent<?> event : watchKey.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                            || connectionsFileName.equals(String.valueOf(event.context()))) {
+                        onConnectionsFileChanged();
+                    }
+                }
 
-        for (ConnectionConfiguration connection : connections) {
-            if (connectionName.equalsIgnoreCase(connection.getConnectionName())) {
-                return connection;
+                if (!watchKey.reset()) {
+                    return;
+                }
             }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+        } finally {
+            closeQuietly(watchService);
+        }
+    }
+
+    private static void closeQuietly(WatchService watchService) {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Could not close watch service", e);
+        }
+    }
+
+    private synchronized void onConnectionsFileChanged() {
+        // our own writes leave the file as the store remembers it: only external edits drop the snapshot
+        if (CONNECTIONS_PROPERTY_STORE.invalidateIfChanged()) {
+            snapshotReference.set(null);
         }
-        return null;
     }
 
     private enum PropertyMapping {
@@ -257,6 +430,17 @@ final class PropertiesBasedConnectionConfigurationRepository implements Connecti
                 connectionConfig.setJdbcUrl(value);
             }
         },
+        AlternateJdbcUrls {
+            @Override
+            String getValue(ConnectionConfiguration connectionConfig) {
+                return ConnectionConfiguration.joinJdbcUrls(connectionConfig.getAlternateJdbcUrls());
+            }
+
+            @Override
+            void setValue(ConnectionConfiguration connectionConfig, String value) {
+                connectionConfig.setAlternateJdbcUrls(ConnectionConfiguration.splitJdbcUrls(value));
+            }
+        },
         UserName {
             @Override
             String getValue(ConnectionConfiguration connectionConfig) {
@@ -17,32 +17,51 @@
  
 package com.github.blausql.core.preferences;
 
+import com.github.blausql.core.util.FileUtils;
+
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Properties;
 
+/**
+ * A properties file, cached in memory.
+ * <p>
+ * Callers always get their own copy of the properties, so modifying them has no effect until they are
+ * persisted. Persisting writes a temporary file first, which then replaces the properties file atomically:
+ * a crash never leaves a truncated file behind.
+ */
 final class PropertyStore {
 
     private Properties loadedProperties;
+    private long loadedLastModified;
+    private long loadedLength;
+
     private final File propertyFile;
 
     PropertyStore(File propertyFile) {
         this.propertyFile = propertyFile;
     }
 
+    File getPropertyFile() {
+        return propertyFile;
+    }
 
     synchronized Properties loadProperties()
             throws IOException {
 
         if (loadedProperties == null) {
-            loadedProperties = new Properties();
+            Properties properties = new Properties();
             if (propertyFile.exists()) {
                 try (FileInputStream inStream = new FileInputStream(propertyFile)) {
-                    loadedProperties.load(inStream);
+                    properties.load(inStream);
                 }
             }
+            loadedProperties = properties;
+            rememberFileState();
         }
 
-        return loadedProperties;
+        return copyOf(loadedProperties);
     }
 
     synchronized void persistProperties(Properties properties)
@@ -61,10 +80,49 @@ final class PropertyStore {
             }
         }
 
-        try (FileOutputStream fileOutputStream = new FileOutputStream(propertyFile)) {
-            properties.store(fileOutputStream, "");
-            loadedProperties = properties;
+        Path temporaryFile = Files.createTempFile(containerDirectory.toPath(), propertyFile.getName(), ".tmp");
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+                properties.store(outputStream, "");
+            }
+
+            FileUtils.replaceAtomically(temporaryFile, propertyFile.toPath());
+
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+
+        loadedProperties = copyOf(properties);
+        rememberFileState();
+    }
+
+    /**
+     * Drops the cached properties if the file has been changed since it was last read or written,
+     * e.g. edited by the user.
+     *
+     * @return {@code true} if the properties have to be read again
+     */
+    synchronized boolean invalidateIfChanged() {
+        if (loadedProperties == null) {
+            return false;
+        }
+
+        if (propertyFile.lastModified() == loadedLastModified && propertyFile.length() == loadedLength) {
+            return false;
         }
 
+        loadedProperties = null;
+        return true;
+    }
+
+    private void rememberFileState() {
+        loadedLastModified = propertyFile.lastModified();
+        loadedLength = propertyFile.length();
+    }
+
+    private static Properties copyOf(Properties properties) {
+        Properties copy = new Properties();
+        copy.putAll(properties);
+        return copy;
     }
 }
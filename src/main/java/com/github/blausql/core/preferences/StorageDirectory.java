@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.core.preferences;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Resolves the locations of files BlauSQL keeps next to its configuration files.
+ */
+public final class StorageDirectory {
+
+    private StorageDirectory() {
+        // no instances allowed
+    }
+
+    /**
+     * Returns a sub-directory of the storage directory, creating it if it does not exist yet.
+     *
+     * @param name the name of the sub-directory
+     * @return the sub-directory
+     * @throws IOException if the directory does not exist and could not be created
+     */
+    public static File getSubdirectory(String name) throws IOException {
+
+        File directory = new File(PropertyStoreFactory.STORAGE_DIRECTORY, name);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Directory does not exist and could not be created: "
+                    + directory.getAbsolutePath());
+        }
+
+        return directory;
+    }
+
+    /**
+     * Converts an arbitrary name (e.g. a connection name) to a string that is safe to use as a file name.
+     *
+     * @param name the name to convert
+     * @return a file name only consisting of letters, digits, {@code '-'} and {@code '_'}
+     */
+    public static String toFileName(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+
+        for (char c : name.toCharArray()) {
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-') {
+                sb.append(c);
+            } else {
+                sb.append('_').append(Integer.toHexString(c)).append('_');
+            }
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.result;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary encoding of the values of a column for a chunk of rows, as written to a {@link ResultSnapshot}.
+ * <p>
+ * A chunk starts with its encoding and a bitmap of its {@code null} values, followed by the other values:
+ * columns holding only integers, longs, doubles or strings are stored as such, any other column value
+ * by value, as in {@link ResultPageCodec}. Chunks are compressed if that saves at least an eighth of
+ * their size.
+ */
+final class ColumnChunkCodec {
+
+    private static final byte INTEGERS = 1;
+    private static final byte LONGS = 2;
+    private static final byte DOUBLES = 3;
+    private static final byte STRINGS = 4;
+    private static final byte MIXED = 5;
+
+    private static final int BITS_PER_BYTE = 8;
+    private static final int MIN_COMPRESSED_SAVING_DIVISOR = 8;
+
+    private ColumnChunkCodec() {
+        // no external instances
+    }
+
+    static byte[] encode(Object[] values) throws IOException {
+        byte encoding = getEncoding(values);
+
+        ByteArrayOutputStream rawBytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(rawBytes);
+
+        BitSet nulls = new BitSet(values.length);
+        for (int i = 0; i < values.length; i++) {
+            nulls.set(i, values[i] == null);
+        }
+        out.write(Arrays.copyOf(nulls.toByteArray(), getBitmapLength(values.length)));
+
+        for (Object value : values) {
+            if (value != null) {
+                writeValue(out, encoding, value);
+            }
+        }
+        out.flush();
+
+        return compressIfSmaller(encoding, rawBytes.toByteArray());
+    }
+
+    private static byte getEncoding(Object[] values) {
+        Class<?> valueClass = null;
+        for (Object value : values) {
+            if (value == null) {
+                continue;
+            }
+            if (valueClass == null) {
+                valueClass = value.getClass();
+            } else if (valueClass != value.getClass()) {
+                return MIXED;
+            }
+        }
+
+        if (valueClass == Integer.class) {
+            return INTEGERS;
+        } else if (valueClass == Long.class) {
+            return LONGS;
+        } else if (valueClass == Double.class) {
+            return DOUBLES;
+        } else if (valueClass == String.class) {
+            return STRINGS;
+        }
+        return MIXED;
+    }
+
+    private static void writeValue(DataOutputStream out, byte encoding, Object value) throws IOException {
+        switch (encoding) {
+            case INTEGERS:
+                out.writeInt((Integer) value);
+                break;
+            case LONGS:
+                out.writeLong((Long) value);
+                break;
+            case DOUBLES:
+                out.writeDouble((Double) value);
+                break;
+            case STRINGS:
+                byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                break;
+            default:
+                ResultPageCodec.writeValue(out, value, Collections.emptyMap());
+                break;
+        }
+    }
+
+    private static byte[] compressIfSmaller(byte encoding, byte[] rawBytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(rawBytes);
+            deflater.finish();
+
+            byte[] compressed = new byte[rawBytes.length];
+            int compressedLength = deflater.deflate(compressed);
+
+            boolean compress = deflater.finished()
+                    && compressedLength < rawBytes.length - rawBytes.length / MIN_COMPRESSED_SAVING_DIVISOR;
+
+            ByteBuffer chunk;
+            if (compress) {
+                chunk = ByteBuffer.allocate(2 + Integer.BYTES + compressedLength);
+                chunk.put(encoding).put((byte) 1).putInt(rawBytes.length).put(compressed, 0, compressedLength);
+            } else {
+                chunk = ByteBuffer.allocate(2 + Integer.BYTES + rawBytes.length);
+                chunk.put(encoding).put((byte) 0).putInt(rawBytes.length).put(rawBytes);
+            }
+            return chunk.array();
+
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static Object[] decode(ByteBuffer chunk, int valueCount) throws IOException {
+        try {
+            byte encoding = chunk.get();
+            boolean compressed = chunk.get() != 0;
+            int rawLength = chunk.getInt();
+
+            ByteBuffer raw = chunk;
+            if (compressed) {
+                raw = inflate(chunk, rawLength);
+            }
+
+            byte[] bitmap = new byte[getBitmapLength(valueCount)];
+            raw.get(bitmap);
+            BitSet nulls = BitSet.valueOf(bitmap);
+
+            Object[] values = new Object[valueCount];
+            for (int i = 0; i < valueCount; i++) {
+                if (!nulls.get(i)) {
+                    values[i] = readValue(raw, encoding);
+                }
+            }
+            return values;
+
+        } catch (BufferUnderflowException | NegativeArraySizeException | DataFormatException e) {
+            throw new IOException("Result snapshot is corrupted", e);
+        }
+    }
+
+    private static ByteBuffer inflate(ByteBuffer chunk, int rawLength) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(chunk);
+
+            ByteBuffer raw = ByteBuffer.allocate(rawLength);
+            inflater.inflate(raw);
+            raw.flip();
+            return raw;
+
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static Object readValue(ByteBuffer raw, byte encoding) throws IOException {
+        switch (encoding) {
+            case INTEGERS:
+                return raw.getInt();
+            case LONGS:
+                return raw.getLong();
+            case DOUBLES:
+                return raw.getDouble();
+            case STRINGS:
+                byte[] bytes = new byte[raw.getInt()];
+                raw.get(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            case MIXED:
+                return ResultPageCodec.readValue(raw, Collections.emptyList());
+            default:
+                throw new IOException("Unknown column encoding in result snapshot: " + encoding);
+        }
+    }
+
+    private static int getBitmapLength(int valueCount) {
+        return (valueCount + BITS_PER_BYTE - 1) / BITS_PER_BYTE;
+    }
+}
@@ -0,0 +1,392 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.result;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles filter expressions on fetched rows into predicates on row indexes.
+ * <p>
+ * The language is a small subset of SQL {@code WHERE} conditions:
+ * <pre>
+ *   expression := term [ OR term ]...
+ *   term       := factor [ AND factor ]...
+ *   factor     := NOT factor | ( expression ) | condition
+ *   condition  := column { = | &lt;&gt; | != | &lt; | &lt;= | &gt; | &gt;= } value
+ *               | column [ NOT ] { LIKE | ILIKE } 'pattern'
+ *               | column IS [ NOT ] NULL
+ *   value      := 'string' | number | TRUE | FALSE
+ * </pre>
+ * Columns are referenced by their label (case-insensitively, or {@code "quoted"} if the label
+ * is not a simple name). As in SQL, a condition other than {@code IS NULL} never matches a
+ * {@code null} value.
+ */
+public final class FilterExpression {
+
+    private FilterExpression() {
+        // no external instances
+    }
+
+    /**
+     * Compiles a filter expression.
+     *
+     * @param expression   the filter expression
+     * @param columnLabels the labels of the columns of the filtered rows
+     * @param columnValues supplies the values of a column (by its index), indexed by row index
+     * @return a predicate, which can be evaluated concurrently by multiple threads
+     * @throws FilterExpressionException if the expression is invalid
+     */
+    public static IntPredicate compile(String expression, List<String> columnLabels,
+                                       IntFunction<Object[]> columnValues) {
+
+        Parser parser = new Parser(tokenize(expression), columnLabels, columnValues);
+
+        return parser.parse();
+    }
+
+    private enum TokenType {
+        IDENTIFIER, QUOTED_IDENTIFIER, STRING, NUMBER, OPERATOR, OPENING_PARENTHESIS, CLOSING_PARENTHESIS, END
+    }
+
+    private static final class Token {
+
+        private final TokenType type;
+        private final String text;
+        private final int position;
+
+        private Token(TokenType type, String text, int position) {
+            this.type = type;
+            this.text = text;
+            this.position = position;
+        }
+
+        private boolean isKeyword(String keyword) {
+            return type == TokenType.IDENTIFIER && text.equalsIgnoreCase(keyword);
+        }
+
+        private String describe() {
+            if (type == TokenType.END) {
+                return "end of expression";
+            }
+            return String.format("'%s' at position %d", text, position + 1);
+        }
+    }
+
+    private static List<Token> tokenize(String expression) {
+        List<Token> tokens = new ArrayList<>();
+
+        int i = 0;
+        while (i < expression.length()) {
+            char c = expression.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(') {
+                tokens.add(new Token(TokenType.OPENING_PARENTHESIS, "(", i++));
+            } else if (c == ')') {
+                tokens.add(new Token(TokenType.CLOSING_PARENTHESIS, ")", i++));
+            } else if (c == '\'' || c == '"') {
+                i = readQuoted(expression, i, tokens);
+            } else if ("=<>!".indexOf(c) >= 0) {
+                i = readOperator(expression, i, tokens);
+            } else if (isNumberStart(expression, i)) {
+                i = readWhile(expression, i, TokenType.NUMBER, tokens);
+            } else if (isIdentifierPart(c)) {
+                i = readWhile(expression, i, TokenType.IDENTIFIER, tokens);
+            } else {
+                throw new FilterExpressionException(
+                        String.format("Unexpected character '%c' at position %d", c, i + 1));
+            }
+        }
+
+        tokens.add(new Token(TokenType.END, "", expression.length()));
+        return tokens;
+    }
+
+    private static int readQuoted(String expression, int start, List<Token> tokens) {
+        char quote = expression.charAt(start);
+        StringBuilder text = new StringBuilder();
+
+        int i = start + 1;
+        while (i < expression.length()) {
+            char c = expression.charAt(i++);
+            if (c != quote) {
+                text.append(c);
+            } else if (i < expression.length() && expression.charAt(i) == quote) {
+                // doubled quote character: the quote character itself
+                text.append(c);
+                i++;
+            } else {
+                TokenType type;
+                if (quote == '\'') {
+                    type = TokenType.STRING;
+                } else {
+                    type = TokenType.QUOTED_IDENTIFIER;
+                }
+                tokens.add(new Token(type, text.toString(), start));
+                return i;
+            }
+        }
+
+        throw new FilterExpressionException(
+                String.format("Unterminated %c%c at position %d", quote, quote, start + 1));
+    }
+
+    private static int readOperator(String expression, int start, List<Token> tokens) {
+        int end = start + 1;
+        if (end < expression.length() && "=>".indexOf(expression.charAt(end)) >= 0) {
+            end++;
+        }
+
+        String operator = expression.substring(start, end);
+        if (!List.of("=", "<>", "!=", "<", "<=", ">", ">=").contains(operator)) {
+            throw new FilterExpressionException(
+                    String.format("Unknown operator '%s' at position %d", operator, start + 1));
+        }
+
+        tokens.add(new Token(TokenType.OPERATOR, operator, start));
+        return end;
+    }
+
+    private static int readWhile(String expression, int start, TokenType type, List<Token> tokens) {
+        int end = start + 1;
+        while (end < expression.length() && isTokenPart(type, expression, end)) {
+            end++;
+        }
+
+        tokens.add(new Token(type, expression.substring(start, end), start));
+        return end;
+    }
+
+    private static boolean isTokenPart(TokenType type, String expression, int index) {
+        char c = expression.charAt(index);
+        if (type == TokenType.IDENTIFIER) {
+            return isIdentifierPart(c);
+        }
+
+        char previous = expression.charAt(index - 1);
+        return Character.isDigit(c) || c == '.' || c == 'e' || c == 'E'
+                || ((c == '+' || c == '-') && (previous == 'e' || previous == 'E'));
+    }
+
+    private static boolean isNumberStart(String expression, int index) {
+        char c = expression.charAt(index);
+        boolean followedByDigit = index + 1 < expression.length()
+                && Character.isDigit(expression.charAt(index + 1));
+
+        return Character.isDigit(c) || ((c == '-' || c == '.') && followedByDigit);
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '.';
+    }
+
+    private static final class Parser {
+
+        private final List<Token> tokens;
+        private final List<String> columnLabels;
+        private final IntFunction<Object[]> columnValues;
+
+        private int position;
+
+        private Parser(List<Token> tokens, List<String> columnLabels, IntFunction<Object[]> columnValues) {
+            this.tokens = tokens;
+            this.columnLabels = columnLabels;
+            this.columnValues = columnValues;
+        }
+
+        private IntPredicate parse() {
+            IntPredicate predicate = parseExpression();
+
+            Token token = tokens.get(position);
+            if (token.type != TokenType.END) {
+                throw new FilterExpressionException("Unexpected " + token.describe());
+            }
+            return predicate;
+        }
+
+        private IntPredicate parseExpression() {
+            IntPredicate predicate = parseTerm();
+            while (acceptKeyword("OR")) {
+                predicate = predicate.or(parseTerm());
+            }
+            return predicate;
+        }
+
+        private IntPredicate parseTerm() {
+            IntPredicate predicate = parseFactor();
+            while (acceptKeyword("AND")) {
+                predicate = predicate.and(parseFactor());
+            }
+            return predicate;
+        }
+
+        private IntPredicate parseFactor() {
+            if (acceptKeyword("NOT")) {
+                return parseFactor().negate();
+            }
+
+            if (tokens.get(position).type == TokenType.OPENING_PARENTHESIS) {
+                position++;
+                IntPredicate predicate = parseExpression();
+                expect(TokenType.CLOSING_PARENTHESIS, "')'");
+                return predicate;
+            }
+
+            return parseCondition();
+        }
+
+        private IntPredicate parseCondition() {
+            Object[] values = columnValues.apply(parseColumn());
+
+            if (acceptKeyword("IS")) {
+                boolean negated = acceptKeyword("NOT");
+                if (!acceptKeyword("NULL")) {
+                    throw new FilterExpressionException("Expected NULL, found " + tokens.get(position).describe());
+                }
+                if (negated) {
+                    return row -> values[row] != null;
+                }
+                return row -> values[row] == null;
+            }
+
+            boolean negated = acceptKeyword("NOT");
+            if (acceptKeyword("LIKE")) {
+                return like(values, expect(TokenType.STRING, "a 'pattern'").text, 0, negated);
+            }
+            if (acceptKeyword("ILIKE")) {
+                return like(values, expect(TokenType.STRING, "a 'pattern'").text,
+                        Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE, negated);
+            }
+            if (negated) {
+                throw new FilterExpressionException("Expected LIKE, found " + tokens.get(position).describe());
+            }
+
+            String operator = expect(TokenType.OPERATOR, "a comparison operator").text;
+            IntPredicate outcome = comparisonOutcome(operator);
+            Object value = parseValue();
+
+            return row -> values[row] != null && outcome.test(ValueComparator.compareWithLiteral(values[row], value));
+        }
+
+        private int parseColumn() {
+            Token token = tokens.get(position);
+            if (token.type != TokenType.IDENTIFIER && token.type != TokenType.QUOTED_IDENTIFIER) {
+                throw new FilterExpressionException("Expected a column, found " + token.describe());
+            }
+            position++;
+
+            int columnIndex = columnLabels.indexOf(token.text);
+            for (int i = 0; columnIndex < 0 && i < columnLabels.size(); i++) {
+                if (token.type == TokenType.IDENTIFIER && columnLabels.get(i).equalsIgnoreCase(token.text)) {
+                    columnIndex = i;
+                }
+            }
+
+            if (columnIndex < 0) {
+                throw new FilterExpressionException("Unknown column: " + token.text);
+            }
+            return columnIndex;
+        }
+
+        private Object parseValue() {
+            Token token = tokens.get(position++);
+
+            if (token.type == TokenType.STRING) {
+                return token.text;
+            }
+            if (token.type == TokenType.NUMBER) {
+                try {
+                    return new BigDecimal(token.text);
+                } catch (NumberFormatException e) {
+                    throw new FilterExpressionException("Invalid number " + token.describe());
+                }
+            }
+            if (token.isKeyword("TRUE") || token.isKeyword("FALSE")) {
+                return Boolean.valueOf(token.text.toLowerCase(Locale.ROOT));
+            }
+
+            throw new FilterExpressionException("Expected a value, found " + token.describe());
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            if (tokens.get(position).isKeyword(keyword)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private Token expect(TokenType type, String description) {
+            Token token = tokens.get(position);
+            if (token.type != type) {
+                throw new FilterExpressionException(
+                        String.format("Expected %s, found %s", description, token.describe()));
+            }
+            position++;
+            return token;
+        }
+    }
+
+    private static IntPredicate comparisonOutcome(String operator) {
+        switch (operator) {
+            case "=":
+                return comparison -> comparison == 0;
+            case "<>":
+            case "!=":
+                return comparison -> comparison != 0;
+            case "<":
+                return comparison -> comparison < 0;
+            case "<=":
+                return comparison -> comparison <= 0;
+            case ">":
+                return comparison -> comparison > 0;
+            default:
+                return comparison -> comparison >= 0;
+        }
+    }
+
+    private static IntPredicate like(Object[] values, String likePattern, int flags, boolean negated) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+
+        for (char c : likePattern.toCharArray()) {
+            if (c == '%' || c == '_') {
+                regex.append(Pattern.quote(literal.toString()));
+                literal.setLength(0);
+                if (c == '%') {
+                    regex.append(".*");
+                } else {
+                    regex.append('.');
+                }
+            } else {
+                literal.append(c);
+            }
+        }
+        regex.append(Pattern.quote(literal.toString()));
+
+        Pattern pattern = Pattern.compile(regex.toString(), flags | Pattern.DOTALL);
+
+        return row -> values[row] != null && pattern.matcher(String.valueOf(values[row])).matches() != negated;
+    }
+}
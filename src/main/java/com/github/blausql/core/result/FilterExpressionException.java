@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.result;
+
+/**
+ * Unchecked exception indicating that a filter expression typed by the user is invalid.
+ * The message is meant to be shown to the user as is.
+ */
+public final class FilterExpressionException extends RuntimeException {
+
+    public FilterExpressionException(String message) {
+        super(message);
+    }
+}
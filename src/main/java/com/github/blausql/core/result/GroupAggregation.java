@@ -0,0 +1,489 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.result;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Hash aggregation of the rows of a {@link ResultView}, as in {@code GROUP BY} queries.
+ * <p>
+ * Group keys are dictionary encoded: the values of the grouping column are replaced by the dense
+ * index of their rank (see {@link ParallelIndexSort#rank(Object[])}), using a primitive keyed map.
+ * Aggregates are then kept in primitive arrays indexed by that group index. Large inputs are split
+ * into ranges of rows, which are aggregated concurrently into separate partial results; these are
+ * merged at the end. Distinct values are counted approximately with {@link HyperLogLog}.
+ */
+public final class GroupAggregation {
+
+    public static final int NO_COLUMN = -1;
+
+    static final int MAX_PIVOT_VALUES = 100;
+
+    private static final int MIN_ROWS_PER_TASK = 16384;
+    private static final long DISTINCT_REGISTERS_BUDGET_BYTES = 16L * 1024 * 1024;
+
+    private static final List<Aggregate> VALUE_AGGREGATES = List.of(
+            Aggregate.SUM, Aggregate.MIN, Aggregate.MAX, Aggregate.AVG, Aggregate.APPROX_COUNT_DISTINCT);
+
+    private enum SumKind {
+        NONE, LONG, DOUBLE, DECIMAL
+    }
+
+    private final int[] rowIndexes;
+    private final int[] cellOfPosition;
+    private final int cellCount;
+
+    private final Object[] values;
+    private final int[] valueRanks;
+    private final SumKind sumKind;
+    private final int distinctPrecision;
+
+    private GroupAggregation(ResultView view, int[] rowIndexes, int valueColumnIndex,
+                             int[] cellOfPosition, int cellCount) {
+        this.rowIndexes = rowIndexes;
+        this.cellOfPosition = cellOfPosition;
+        this.cellCount = cellCount;
+
+        if (valueColumnIndex == NO_COLUMN) {
+            this.values = null;
+            this.valueRanks = null;
+            this.sumKind = SumKind.NONE;
+        } else {
+            this.values = view.getColumnValues(valueColumnIndex);
+            this.valueRanks = view.getColumnRanks(valueColumnIndex);
+            this.sumKind = getSumKind(values, rowIndexes);
+        }
+
+        long registersPerCell = Math.max(1, DISTINCT_REGISTERS_BUDGET_BYTES / Math.max(1, cellCount));
+        int precision = Long.SIZE - 1 - Long.numberOfLeadingZeros(registersPerCell);
+        this.distinctPrecision = Math.max(HyperLogLog.MIN_PRECISION, Math.min(HyperLogLog.MAX_PRECISION, precision));
+    }
+
+    /**
+     * Groups the rows shown by a view by the values of a column.
+     *
+     * @param view             the rows to aggregate
+     * @param groupColumnIndex the index of the column to group by
+     * @param valueColumnIndex the index of the column to aggregate, or {@link #NO_COLUMN} to count rows only
+     * @return a row for each group, ordered by the group value: the group value, the number of rows and,
+     * if a value column is given, the count, sum, minimum, maximum, average and approximate number of
+     * distinct values of the value column
+     * @throws AggregationException if the rows cannot be aggregated
+     */
+    public static List<Map<String, Object>> groupBy(ResultView view, int groupColumnIndex, int valueColumnIndex) {
+        int[] rowIndexes = view.getViewRowIndexes();
+        GroupKeys groups = GroupKeys.encode(view, groupColumnIndex, rowIndexes);
+
+        GroupAggregation aggregation = new GroupAggregation(
+                view, rowIndexes, valueColumnIndex, groups.idOfPosition, groups.size);
+        Partial partial = aggregation.aggregate();
+
+        String groupLabel = view.getColumnLabels().get(groupColumnIndex);
+
+        List<Map<String, Object>> result = new ArrayList<>(groups.size);
+        for (int group : groups.getSortedIds()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put(groupLabel, groups.getValue(group));
+            row.put(Aggregate.COUNT.name(), partial.rowCounts[group]);
+
+            if (valueColumnIndex != NO_COLUMN) {
+                String valueLabel = view.getColumnLabels().get(valueColumnIndex);
+
+                row.put(Aggregate.COUNT.getLabel(valueLabel), partial.valueCounts[group]);
+                for (Aggregate aggregate : VALUE_AGGREGATES) {
+                    row.put(aggregate.getLabel(valueLabel), aggregation.getValue(partial, group, aggregate));
+                }
+            }
+            result.add(row);
+        }
+        return result;
+    }
+
+    /**
+     * Groups the rows shown by a view by the values of a column, with an aggregate for each
+     * value of another (pivot) column in a separate column.
+     *
+     * @param view             the rows to aggregate
+     * @param groupColumnIndex the index of the column to group by
+     * @param pivotColumnIndex the index of the column whose values become columns
+     * @param valueColumnIndex the index of the column to aggregate, or {@link #NO_COLUMN} to count rows
+     * @param aggregate        the aggregate to compute; must be {@link Aggregate#COUNT} without a value column
+     * @return a row for each group, ordered by the group value
+     * @throws AggregationException if the rows cannot be aggregated, e.g. the pivot column has too many values
+     */
+    public static List<Map<String, Object>> pivot(ResultView view, int groupColumnIndex, int pivotColumnIndex,
+                                                  int valueColumnIndex, Aggregate aggregate) {
+        if (valueColumnIndex == NO_COLUMN && aggregate != Aggregate.COUNT) {
+            throw new IllegalArgumentException("A value column is required for " + aggregate);
+        }
+
+        int[] rowIndexes = view.getViewRowIndexes();
+        GroupKeys groups = GroupKeys.encode(view, groupColumnIndex, rowIndexes);
+        GroupKeys pivots = GroupKeys.encode(view, pivotColumnIndex, rowIndexes);
+
+        String pivotLabel = view.getColumnLabels().get(pivotColumnIndex);
+        if (pivots.size > MAX_PIVOT_VALUES) {
+            throw new AggregationException(String.format("Column %s has %d distinct values: at most %d are "
+                    + "supported as pivot columns", pivotLabel, pivots.size, MAX_PIVOT_VALUES));
+        }
+
+        if ((long) groups.size * pivots.size > Integer.MAX_VALUE) {
+            throw new AggregationException("Too many groups to pivot");
+        }
+
+        int[] cellOfPosition = new int[rowIndexes.length];
+        for (int position = 0; position < rowIndexes.length; position++) {
+            cellOfPosition[position] = groups.idOfPosition[position] * pivots.size + pivots.idOfPosition[position];
+        }
+
+        GroupAggregation aggregation = new GroupAggregation(
+                view, rowIndexes, valueColumnIndex, cellOfPosition, groups.size * pivots.size);
+        Partial partial = aggregation.aggregate();
+
+        String groupLabel = view.getColumnLabels().get(groupColumnIndex);
+        int[] sortedPivots = pivots.getSortedIds();
+
+        List<Map<String, Object>> result = new ArrayList<>(groups.size);
+        for (int group : groups.getSortedIds()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put(groupLabel, groups.getValue(group));
+
+            for (int pivot : sortedPivots) {
+                String columnLabel = String.format("%s=%s", pivotLabel, pivots.getValue(pivot));
+                row.put(columnLabel, aggregation.getValue(partial, group * pivots.size + pivot, aggregate));
+            }
+            result.add(row);
+        }
+        return result;
+    }
+
+    private Partial aggregate() {
+        int positions = rowIndexes.length;
+
+        // each task allocates arrays for all cells: with many cells, fewer tasks are worth it
+        long rowsPerTask = (long) MIN_ROWS_PER_TASK + cellCount;
+        int tasks = (int) Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), positions / rowsPerTask));
+
+        try {
+            return IntStream.range(0, tasks).parallel()
+                    .mapToObj(task -> accumulate(
+                            (int) ((long) positions * task / tasks),
+                            (int) ((long) positions * (task + 1) / tasks)))
+                    .reduce(this::merge)
+                    .orElseThrow();
+
+        } catch (ArithmeticException e) {
+            throw new AggregationException("Sum is out of the range of 64 bit integers");
+        }
+    }
+
+    private Partial accumulate(int fromPosition, int toPosition) {
+        Partial partial = new Partial(cellCount, sumKind, values != null);
+
+        for (int position = fromPosition; position < toPosition; position++) {
+            int cell = cellOfPosition[position];
+            int row = rowIndexes[position];
+
+            partial.rowCounts[cell]++;
+            if (values != null && values[row] != null) {
+                accumulateValue(partial, cell, row);
+            }
+        }
+        return partial;
+    }
+
+    private void accumulateValue(Partial partial, int cell, int row) {
+        Object value = values[row];
+
+        partial.valueCounts[cell]++;
+
+        if (sumKind == SumKind.LONG) {
+            partial.longSums[cell] = Math.addExact(partial.longSums[cell], ((Number) value).longValue());
+        } else if (sumKind == SumKind.DOUBLE) {
+            partial.doubleSums[cell] += ((Number) value).doubleValue();
+        } else if (sumKind == SumKind.DECIMAL) {
+            partial.decimalSums[cell] = partial.decimalSums[cell].add(toBigDecimal((Number) value));
+        }
+
+        int rank = valueRanks[row];
+        if (partial.minRows[cell] < 0 || rank < valueRanks[partial.minRows[cell]]) {
+            partial.minRows[cell] = row;
+        }
+        if (partial.maxRows[cell] < 0 || rank > valueRanks[partial.maxRows[cell]]) {
+            partial.maxRows[cell] = row;
+        }
+
+        if (partial.distinctValues[cell] == null) {
+            partial.distinctValues[cell] = new HyperLogLog(distinctPrecision);
+        }
+        // ranks are equal for equal values: hashing the rank avoids hashing the value
+        partial.distinctValues[cell].add(HyperLogLog.hash(rank));
+    }
+
+    private Partial merge(Partial target, Partial source) {
+        for (int cell = 0; cell < cellCount; cell++) {
+            target.rowCounts[cell] += source.rowCounts[cell];
+            if (values != null && source.valueCounts[cell] > 0) {
+                mergeValues(target, source, cell);
+            }
+        }
+        return target;
+    }
+
+    private void mergeValues(Partial target, Partial source, int cell) {
+        target.valueCounts[cell] += source.valueCounts[cell];
+
+        if (sumKind == SumKind.LONG) {
+            target.longSums[cell] = Math.addExact(target.longSums[cell], source.longSums[cell]);
+        } else if (sumKind == SumKind.DOUBLE) {
+            target.doubleSums[cell] += source.doubleSums[cell];
+        } else if (sumKind == SumKind.DECIMAL) {
+            target.decimalSums[cell] = target.decimalSums[cell].add(source.decimalSums[cell]);
+        }
+
+        int sourceMinRow = source.minRows[cell];
+        if (target.minRows[cell] < 0 || valueRanks[sourceMinRow] < valueRanks[target.minRows[cell]]) {
+            target.minRows[cell] = sourceMinRow;
+        }
+        int sourceMaxRow = source.maxRows[cell];
+        if (target.maxRows[cell] < 0 || valueRanks[sourceMaxRow] > valueRanks[target.maxRows[cell]]) {
+            target.maxRows[cell] = sourceMaxRow;
+        }
+
+        if (target.distinctValues[cell] == null) {
+            target.distinctValues[cell] = source.distinctValues[cell];
+        } else {
+            target.distinctValues[cell].merge(source.distinctValues[cell]);
+        }
+    }
+
+    private Object getValue(Partial partial, int cell, Aggregate aggregate) {
+        switch (aggregate) {
+            case COUNT:
+                return partial.rowCounts[cell];
+            case SUM:
+                return getSum(partial, cell);
+            case MIN:
+                return getValueOfRow(partial.minRows[cell]);
+            case MAX:
+                return getValueOfRow(partial.maxRows[cell]);
+            case AVG:
+                return getAverage(partial, cell);
+            default:
+                HyperLogLog distinctValues = partial.distinctValues[cell];
+                if (distinctValues == null) {
+                    return 0L;
+                }
+                return distinctValues.estimate();
+        }
+    }
+
+    private Object getValueOfRow(int row) {
+        if (row < 0) {
+            return null;
+        }
+        return values[row];
+    }
+
+    private Object getSum(Partial partial, int cell) {
+        if (partial.valueCounts[cell] == 0) {
+            return null;
+        }
+
+        switch (sumKind) {
+            case LONG:
+                return partial.longSums[cell];
+            case DOUBLE:
+                return partial.doubleSums[cell];
+            case DECIMAL:
+                return partial.decimalSums[cell];
+            default:
+                return null;
+        }
+    }
+
+    private Object getAverage(Partial partial, int cell) {
+        long count = partial.valueCounts[cell];
+        if (count == 0) {
+            return null;
+        }
+
+        switch (sumKind) {
+            case LONG:
+                return BigDecimal.valueOf(partial.longSums[cell])
+                        .divide(BigDecimal.valueOf(count), MathContext.DECIMAL64);
+            case DOUBLE:
+                return partial.doubleSums[cell] / count;
+            case DECIMAL:
+                return partial.decimalSums[cell].divide(BigDecimal.valueOf(count), MathContext.DECIMAL64);
+            default:
+                return null;
+        }
+    }
+
+    private static SumKind getSumKind(Object[] values, int[] rowIndexes) {
+        boolean floatingPoint = false;
+        boolean decimal = false;
+
+        for (int row : rowIndexes) {
+            Object value = values[row];
+            if (value != null) {
+                if (!(value instanceof Number)) {
+                    return SumKind.NONE;
+                }
+                if (value instanceof BigDecimal || value instanceof BigInteger) {
+                    decimal = true;
+                } else if (!ValueComparator.isIntegral(value)) {
+                    floatingPoint = true;
+                }
+            }
+        }
+
+        if (floatingPoint) {
+            return SumKind.DOUBLE;
+        }
+        if (decimal) {
+            return SumKind.DECIMAL;
+        }
+        return SumKind.LONG;
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        }
+        if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        }
+        return BigDecimal.valueOf(number.longValue());
+    }
+
+    /**
+     * Aggregates of a range of rows, for each cell (group, or group and pivot value).
+     */
+    private static final class Partial {
+
+        private final long[] rowCounts;
+        private final long[] valueCounts;
+        private final long[] longSums;
+        private final double[] doubleSums;
+        private final BigDecimal[] decimalSums;
+        private final int[] minRows;
+        private final int[] maxRows;
+        private final HyperLogLog[] distinctValues;
+
+        private Partial(int cellCount, SumKind sumKind, boolean hasValues) {
+            rowCounts = new long[cellCount];
+
+            int valueCellCount = 0;
+            if (hasValues) {
+                valueCellCount = cellCount;
+            }
+            valueCounts = new long[valueCellCount];
+            minRows = new int[valueCellCount];
+            maxRows = new int[valueCellCount];
+            distinctValues = new HyperLogLog[valueCellCount];
+            Arrays.fill(minRows, -1);
+            Arrays.fill(maxRows, -1);
+
+            if (sumKind == SumKind.LONG) {
+                longSums = new long[valueCellCount];
+            } else {
+                longSums = new long[0];
+            }
+            if (sumKind == SumKind.DOUBLE) {
+                doubleSums = new double[valueCellCount];
+            } else {
+                doubleSums = new double[0];
+            }
+            if (sumKind == SumKind.DECIMAL) {
+                decimalSums = new BigDecimal[valueCellCount];
+                Arrays.fill(decimalSums, BigDecimal.ZERO);
+            } else {
+                decimalSums = new BigDecimal[0];
+            }
+        }
+    }
+
+    /**
+     * Dictionary encoding of the values of a column: the values are replaced by dense indexes.
+     */
+    private static final class GroupKeys {
+
+        private final Object[] columnValues;
+        private final int[] idOfPosition;
+        private final int[] rankOfId;
+        private final int[] rowOfId;
+        private final int size;
+
+        private GroupKeys(Object[] columnValues, int[] idOfPosition, int[] rankOfId, int[] rowOfId) {
+            this.columnValues = columnValues;
+            this.idOfPosition = idOfPosition;
+            this.rankOfId = rankOfId;
+            this.rowOfId = rowOfId;
+            this.size = rankOfId.length;
+        }
+
+        private static GroupKeys encode(ResultView view, int columnIndex, int[] rowIndexes) {
+            int[] ranks = view.getColumnRanks(columnIndex);
+
+            IntIntHashMap idOfRank = new IntIntHashMap();
+            int[] idOfPosition = new int[rowIndexes.length];
+            int[] rankOfId = new int[rowIndexes.length];
+            int[] rowOfId = new int[rowIndexes.length];
+
+            for (int position = 0; position < rowIndexes.length; position++) {
+                int row = rowIndexes[position];
+                int newId = idOfRank.size();
+
+                int id = idOfRank.putIfAbsent(ranks[row], newId);
+                if (id == newId) {
+                    rankOfId[id] = ranks[row];
+                    rowOfId[id] = row;
+                }
+                idOfPosition[position] = id;
+            }
+
+            int size = idOfRank.size();
+            return new GroupKeys(view.getColumnValues(columnIndex), idOfPosition,
+                    Arrays.copyOf(rankOfId, size), Arrays.copyOf(rowOfId, size));
+        }
+
+        /**
+         * @return the ids in the order of the values they stand for
+         */
+        private int[] getSortedIds() {
+            return ParallelIndexSort.sort(IntStream.range(0, size).toArray(), rankOfId, true);
+        }
+
+        /**
+         * @return the value an id stands for: one of the equal values of the group
+         */
+        private Object getValue(int id) {
+            return columnValues[rowOfId[id]];
+        }
+    }
+}
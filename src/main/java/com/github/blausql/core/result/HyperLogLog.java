@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.result;
+
+/**
+ * HyperLogLog estimation of the number of distinct values, using a fixed, small amount of memory:
+ * {@code 2^precision} one byte registers, with a typical error of {@code 1.04 / sqrt(2^precision)}.
+ */
+final class HyperLogLog {
+
+    static final int MIN_PRECISION = 4;
+    static final int MAX_PRECISION = 14;
+
+    private static final double ALPHA_16 = 0.673;
+    private static final double ALPHA_32 = 0.697;
+    private static final double ALPHA_64 = 0.709;
+    private static final double ALPHA_INFINITY = 0.7213;
+    private static final double ALPHA_CORRECTION = 1.079;
+    private static final int REGISTERS_16 = 16;
+    private static final int REGISTERS_32 = 32;
+    private static final int REGISTERS_64 = 64;
+
+    private static final double SMALL_RANGE_THRESHOLD = 2.5;
+
+    private static final int FMIX_SHIFT = 33;
+    private static final long FMIX_MULTIPLIER_1 = 0xff51afd7ed558ccdL;
+    private static final long FMIX_MULTIPLIER_2 = 0xc4ceb9fe1a85ec53L;
+
+    private final int precision;
+    private final byte[] registers;
+
+    HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision out of range: " + precision);
+        }
+
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Spreads the bits of a value, as the estimation requires uniformly distributed hashes.
+     *
+     * @param value the value to hash
+     * @return the 64 bit hash of the value (the finalization step of MurmurHash3)
+     */
+    static long hash(long value) {
+        long hash = value;
+        hash ^= hash >>> FMIX_SHIFT;
+        hash *= FMIX_MULTIPLIER_1;
+        hash ^= hash >>> FMIX_SHIFT;
+        hash *= FMIX_MULTIPLIER_2;
+        hash ^= hash >>> FMIX_SHIFT;
+        return hash;
+    }
+
+    void add(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - precision));
+
+        // position of the first 1 bit after the index bits; the sentinel bit caps it
+        long remainingBits = hash << precision | 1L << (precision - 1);
+        byte rank = (byte) (Long.numberOfLeadingZeros(remainingBits) + 1);
+
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    void merge(HyperLogLog other) {
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    long estimate() {
+        int registerCount = registers.length;
+
+        double sum = 0;
+        int zeroRegisters = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeroRegisters++;
+            }
+        }
+
+        double estimate = alpha(registerCount) * registerCount * registerCount / sum;
+        if (estimate <= SMALL_RANGE_THRESHOLD * registerCount && zeroRegisters > 0) {
+            // linear counting is more accurate for small cardinalities
+            estimate = registerCount * Math.log((double) registerCount / zeroRegisters);
+        }
+
+        return Math.round(estimate);
+    }
+
+    private static double alpha(int registerCount) {
+        switch (registerCount) {
+            case REGISTERS_16:
+                return ALPHA_16;
+            case REGISTERS_32:
+                return ALPHA_32;
+            case REGISTERS_64:
+                return ALPHA_64;
+            default:
+                return ALPHA_INFINITY / (1 + ALPHA_CORRECTION / registerCount);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.result;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map of non-negative {@code int} keys to {@code int} values, without
+ * the boxing and per-entry objects of a {@code HashMap<Integer, Integer>}.
+ */
+final class IntIntHashMap {
+
+    private static final int EMPTY = -1;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    IntIntHashMap() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value of a key; if the key is not present yet, it is added with the given value.
+     *
+     * @param key          the key, must not be negative
+     * @param valueIfAbsent the value to add, if the key is not present
+     * @return the value of the key
+     */
+    int putIfAbsent(int key, int valueIfAbsent) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Negative key: " + key);
+        }
+
+        int slot = findSlot(keys, key);
+        if (keys[slot] == key) {
+            return values[slot];
+        }
+
+        keys[slot] = key;
+        values[slot] = valueIfAbsent;
+        size++;
+
+        // at most half full: probe sequences stay short
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+        return valueIfAbsent;
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+
+        allocate(oldKeys.length * 2);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = findSlot(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private static int findSlot(int[] keys, int key) {
+        int mask = keys.length - 1;
+
+        int slot = key * GOLDEN_RATIO & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
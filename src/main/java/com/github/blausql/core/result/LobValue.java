@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.result;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A large column value (e.g. a CLOB, BLOB or long JSON text) too long to keep on the heap: only a preview
+ * is kept, the full value is written to a temporary file while the row is fetched, so that it can be read
+ * after the {@code ResultSet} (and the LOB locators of the driver) are closed.
+ * <p>
+ * The temporary file is deleted when the last {@link StoredResult} holding the value is closed.
+ * Sorting and filtering compare the preview ({@link #toString()}).
+ */
+public final class LobValue {
+
+    private static final Logger LOGGER = Logger.getLogger(LobValue.class.getName());
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final int BITS_PER_HEX_DIGIT = 4;
+    private static final int HEX_DIGIT_MASK = 0xF;
+
+    private final boolean binary;
+    private final String preview;
+    private final long length;
+    private final Path contentFile;
+
+    private final AtomicInteger references = new AtomicInteger();
+
+    private LobValue(boolean binary, String preview, long length, Path contentFile) {
+        this.binary = binary;
+        this.preview = preview;
+        this.length = length;
+        this.contentFile = contentFile;
+    }
+
+    /**
+     * Reads a text value, keeping it as a {@code String} if it is not longer than the preview.
+     *
+     * @param reader        the reader of the value, not closed by this method
+     * @param previewLength the number of characters kept on the heap
+     * @return the value as a {@code String}, or a {@code LobValue} if it is longer than the preview
+     * @throws IOException if reading the value or writing the temporary file fails
+     */
+    public static Object readText(Reader reader, int previewLength) throws IOException {
+        char[] buffer = new char[Math.max(previewLength + 1, BUFFER_SIZE)];
+
+        int previewRead = readFully(reader, buffer, previewLength + 1);
+        if (previewRead <= previewLength) {
+            return new String(buffer, 0, previewRead);
+        }
+
+        String preview = new String(buffer, 0, previewLength);
+        Path contentFile = createContentFile();
+        try (Writer writer = Files.newBufferedWriter(contentFile, StandardCharsets.UTF_8)) {
+            writer.write(buffer, 0, previewRead);
+
+            long length = previewRead;
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                writer.write(buffer, 0, read);
+                length += read;
+            }
+            return new LobValue(false, preview, length, contentFile);
+
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(contentFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a binary value, keeping it as a {@code byte[]} if it is not longer than the preview.
+     *
+     * @param inputStream   the stream of the value, not closed by this method
+     * @param previewLength the number of bytes kept on the heap
+     * @return the value as a {@code byte[]}, or a {@code LobValue} if it is longer than the preview
+     * @throws IOException if reading the value or writing the temporary file fails
+     */
+    public static Object readBinary(InputStream inputStream, int previewLength) throws IOException {
+        byte[] previewBytes = inputStream.readNBytes(previewLength + 1);
+        if (previewBytes.length <= previewLength) {
+            return previewBytes;
+        }
+
+        String preview = toHex(previewBytes, previewLength);
+        Path contentFile = createContentFile();
+        try (OutputStream outputStream = Files.newOutputStream(contentFile)) {
+            outputStream.write(previewBytes);
+
+            long length = previewBytes.length + inputStream.transferTo(outputStream);
+            return new LobValue(true, preview, length, contentFile);
+
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(contentFile);
+            throw e;
+        }
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * @return the number of characters of a text, or the number of bytes of a binary value
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * @return the beginning of the text, or the hexadecimal digits of the first bytes of a binary value
+     */
+    public String getPreview() {
+        return preview;
+    }
+
+    /**
+     * Opens the full text. Binary values are read as hexadecimal digits.
+     *
+     * @return the reader, to be closed by the caller
+     * @throws IOException if the temporary file cannot be read, e.g. because the result was closed
+     */
+    public Reader openReader() throws IOException {
+        if (binary) {
+            return new HexReader(Files.newInputStream(contentFile));
+        }
+        return Files.newBufferedReader(contentFile, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the full value to a file: texts in UTF-8, binary values as they are.
+     *
+     * @param target the file to write, replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public void writeTo(Path target) throws IOException {
+        Files.copy(contentFile, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Deletes the content of a value that was never added to a {@link StoredResult}, e.g. because fetching
+     * its row failed. Values held by a result are not affected.
+     */
+    public void discard() {
+        if (references.get() == 0) {
+            deleteQuietly(contentFile);
+        }
+    }
+
+    void retain() {
+        references.incrementAndGet();
+    }
+
+    void release() {
+        if (references.decrementAndGet() == 0) {
+            deleteQuietly(contentFile);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return preview;
+    }
+
+    private static int readFully(Reader reader, char[] buffer, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            int read = reader.read(buffer, offset, length - offset);
+            if (read == -1) {
+                break;
+            }
+            offset += read;
+        }
+        return offset;
+    }
+
+    private static String toHex(byte[] bytes, int length) {
+        char[] hexDigits = new char[length * 2];
+        for (int i = 0; i < length; i++) {
+            hexDigits[2 * i] = HEX_DIGITS[(bytes[i] >> BITS_PER_HEX_DIGIT) & HEX_DIGIT_MASK];
+            hexDigits[2 * i + 1] = HEX_DIGITS[bytes[i] & HEX_DIGIT_MASK];
+        }
+        return new String(hexDigits);
+    }
+
+    private static Path createContentFile() throws IOException {
+        return Files.createTempFile("blausql-lob-", ".tmp");
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not delete temporary file " + file, e);
+        }
+    }
+
+    /**
+     * Reads bytes as hexadecimal digits.
+     */
+    private static final class HexReader extends Reader {
+
+        private final InputStream inputStream;
+        private int pendingDigit = -1;
+
+        private HexReader(InputStream inputStream) {
+            this.inputStream = new BufferedInputStream(inputStream, BUFFER_SIZE);
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int count = 0;
+            while (count < length) {
+                if (pendingDigit >= 0) {
+                    buffer[offset + count++] = HEX_DIGITS[pendingDigit];
+                    pendingDigit = -1;
+                    continue;
+                }
+
+                int value = inputStream.read();
+                if (value == -1) {
+                    break;
+                }
+                buffer[offset + count++] = HEX_DIGITS[(value >> BITS_PER_HEX_DIGIT) & HEX_DIGIT_MASK];
+                pendingDigit = value & HEX_DIGIT_MASK;
+            }
+
+            if (count == 0 && length > 0) {
+                return -1;
+            }
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            inputStream.close();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.result;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parallel, stable sort of an array of row indexes, which is the permutation the rows are
+ * shown in: the rows themselves are never moved or copied.
+ * <p>
+ * Column values are first replaced by their rank (the position of the value among the
+ * distinct values of the column), so that sorting is done on primitive {@code long}s packing
+ * the rank and the current position of the row: {@link Arrays#parallelSort(long[])} sorts these
+ * on the fork/join common pool, without comparing any of the (boxed) column values.
+ */
+final class ParallelIndexSort {
+
+    static final int NULL_RANK = 0;
+
+    private static final int POSITION_BITS = 31;
+    private static final long POSITION_MASK = (1L << POSITION_BITS) - 1;
+
+    private ParallelIndexSort() {
+        // no external instances
+    }
+
+    /**
+     * Computes the ranks of the values of a column: {@code null}s rank first, values comparing
+     * equal according to {@link ValueComparator} get the same rank.
+     *
+     * @param values the values of a column, indexed by row index
+     * @return the ranks of the values, indexed by row index
+     */
+    static int[] rank(Object[] values) {
+        int[] ranks = new int[values.length];
+
+        if (!rankIntegralValues(values, ranks)) {
+            rankByDistinctValues(values, ranks);
+        }
+
+        return ranks;
+    }
+
+    /**
+     * Sorts row indexes by the rank of their rows. Rows of the same rank keep their relative order,
+     * so that sorting by another column first yields a secondary ordering.
+     *
+     * @param rowIndexes the row indexes in their current order
+     * @param ranks      the ranks of the rows, indexed by row index
+     * @param ascending  {@code true} for ascending, {@code false} for descending order
+     * @return the sorted row indexes
+     */
+    static int[] sort(int[] rowIndexes, int[] ranks, boolean ascending) {
+        long[] keys = new long[rowIndexes.length];
+
+        for (int position = 0; position < rowIndexes.length; position++) {
+            long rank = ranks[rowIndexes[position]];
+            if (!ascending) {
+                rank = Integer.MAX_VALUE - rank;
+            }
+            keys[position] = rank << POSITION_BITS | position;
+        }
+
+        Arrays.parallelSort(keys);
+
+        int[] sortedRowIndexes = new int[rowIndexes.length];
+        for (int i = 0; i < keys.length; i++) {
+            sortedRowIndexes[i] = rowIndexes[(int) (keys[i] & POSITION_MASK)];
+        }
+        return sortedRowIndexes;
+    }
+
+    /**
+     * Integral values within a range of {@link Integer#MAX_VALUE} are their own rank, offset by the minimum.
+     */
+    private static boolean rankIntegralValues(Object[] values, int[] ranks) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+
+        for (Object value : values) {
+            if (value != null) {
+                if (!ValueComparator.isIntegral(value)) {
+                    return false;
+                }
+                long longValue = ((Number) value).longValue();
+                min = Math.min(min, longValue);
+                max = Math.max(max, longValue);
+            }
+        }
+
+        long range = max - min;
+        if (min <= max && (range < 0 || range >= Integer.MAX_VALUE - 1)) {
+            return false;
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                ranks[i] = NULL_RANK;
+            } else {
+                ranks[i] = (int) (((Number) values[i]).longValue() - min + 1);
+            }
+        }
+        return true;
+    }
+
+    private static void rankByDistinctValues(Object[] values, int[] ranks) {
+        Map<Object, Integer> rankOfValue = new HashMap<>();
+        for (Object value : values) {
+            if (value != null) {
+                rankOfValue.put(value, NULL_RANK);
+            }
+        }
+
+        Object[] distinctValues = rankOfValue.keySet().toArray();
+        Arrays.parallelSort(distinctValues, ValueComparator::compare);
+
+        int rank = NULL_RANK;
+        for (int i = 0; i < distinctValues.length; i++) {
+            if (i == 0 || ValueComparator.compare(distinctValues[i - 1], distinctValues[i]) != 0) {
+                rank++;
+            }
+            rankOfValue.put(distinctValues[i], rank);
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                ranks[i] = NULL_RANK;
+            } else {
+                ranks[i] = rankOfValue.get(values[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.result;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary encoding of a page of result rows, as written to the spill file of a {@link StoredResult}.
+ * <p>
+ * Strings, numbers, booleans and binary values are kept as they are; any other value (dates, timestamps,
+ * driver specific types) is stored as its {@code String} representation, which is what the result
+ * window displays anyway. {@link LobValue}s are stored as their index in the LOB values of the result,
+ * their content is already on disk.
+ */
+final class ResultPageCodec {
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte DECIMAL = 6;
+    private static final byte BYTES = 7;
+    private static final byte LOB = 8;
+
+    private ResultPageCodec() {
+        // no external instances
+    }
+
+    static byte[] encode(Object[][] rows, int columnCount, Map<LobValue, Integer> lobIndexes) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(byteArrayOutputStream);
+
+        out.writeInt(rows.length);
+        for (Object[] row : rows) {
+            for (int i = 0; i < columnCount; i++) {
+                writeValue(out, row[i], lobIndexes);
+            }
+        }
+
+        out.flush();
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    static Object[][] decode(ByteBuffer buffer, int columnCount, List<LobValue> lobValues) throws IOException {
+        try {
+            Object[][] rows = new Object[buffer.getInt()][];
+            for (int i = 0; i < rows.length; i++) {
+                Object[] row = new Object[columnCount];
+                for (int j = 0; j < columnCount; j++) {
+                    row[j] = readValue(buffer, lobValues);
+                }
+                rows[i] = row;
+            }
+            return rows;
+
+        } catch (BufferUnderflowException | NegativeArraySizeException | IndexOutOfBoundsException e) {
+            throw new IOException("Result spill file is corrupted", e);
+        }
+    }
+
+    static void writeValue(DataOutputStream out, Object value, Map<LobValue, Integer> lobIndexes)
+            throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof LobValue) {
+            out.writeByte(LOB);
+            out.writeInt(lobIndexes.get(value));
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(INTEGER);
+            out.writeInt(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(DECIMAL);
+            writeBytes(out, value.toString().getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof byte[]) {
+            out.writeByte(BYTES);
+            writeBytes(out, (byte[]) value);
+        } else {
+            out.writeByte(STRING);
+            writeBytes(out, String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static Object readValue(ByteBuffer buffer, List<LobValue> lobValues) throws IOException {
+        byte tag = buffer.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case INTEGER:
+                return buffer.getInt();
+            case LONG:
+                return buffer.getLong();
+            case DOUBLE:
+                return buffer.getDouble();
+            case BOOLEAN:
+                return buffer.get() != 0;
+            case DECIMAL:
+                return new BigDecimal(new String(readBytes(buffer), StandardCharsets.UTF_8));
+            case BYTES:
+                return readBytes(buffer);
+            case STRING:
+                return new String(readBytes(buffer), StandardCharsets.UTF_8);
+            case LOB:
+                return lobValues.get(buffer.getInt());
+            default:
+                throw new IOException("Unknown value type in result spill file: " + tag);
+        }
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,428 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.result;
+
+import com.github.blausql.core.util.FileUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * A query result saved to a file, which can be viewed later without connecting to the database.
+ * <p>
+ * The file is columnar: the rows are stored in chunks of {@value #ROWS_PER_CHUNK} rows, each chunk column by
+ * column (see {@link ColumnChunkCodec}). The column labels and JDBC types are stored in the header, the
+ * position of the column chunks in the footer. Opening a snapshot only reads the header and the footer;
+ * chunks are memory-mapped and decoded when their rows are read, and sorting or filtering by a column only
+ * reads the chunks of that column.
+ * <p>
+ * Large values ({@link LobValue}s) are saved as their preview: the columns holding any are marked as
+ * truncated in the footer.
+ */
+public final class ResultSnapshot extends AbstractList<Map<String, Object>> implements RandomAccess, Closeable {
+
+    static final int ROWS_PER_CHUNK = 4096;
+
+    private static final byte[] MAGIC = "BLAUSQL-RESULT".getBytes(StandardCharsets.US_ASCII);
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int DECODED_CHUNKS = 2;
+    private static final int INITIAL_CAPACITY = 4;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final FileChannel fileChannel;
+    private final List<String> columnLabels;
+    private final int[] columnTypes;
+    private final boolean[] truncatedColumns;
+    private final int rowCount;
+
+    // indexed by chunk, then by column
+    private final long[][] chunkOffsets;
+    private final int[][] chunkLengths;
+
+    private final DecodedChunks decodedChunks = new DecodedChunks();
+    private boolean closed;
+
+    private ResultSnapshot(FileChannel fileChannel, List<String> columnLabels, int[] columnTypes,
+                           boolean[] truncatedColumns, int rowCount, long[][] chunkOffsets, int[][] chunkLengths) {
+        this.fileChannel = fileChannel;
+        this.columnLabels = List.copyOf(columnLabels);
+        this.columnTypes = columnTypes;
+        this.truncatedColumns = truncatedColumns;
+        this.rowCount = rowCount;
+        this.chunkOffsets = chunkOffsets;
+        this.chunkLengths = chunkLengths;
+    }
+
+    /**
+     * Saves the rows of a view, in the order they are shown. The file is written to a temporary file
+     * first, then moved over the target: a failed or cancelled save leaves the previous file intact.
+     *
+     * @param view        the rows to save
+     * @param columnTypes the JDBC types of the columns ({@link java.sql.Types}), in the order of the column labels
+     * @param file        the file to write, replaced if it exists
+     * @return the labels of the columns with large values, which were saved as their preview only
+     * @throws IOException          if the file cannot be written
+     * @throws InterruptedException if the calling thread is interrupted: the file is not written
+     */
+    public static List<String> write(ResultView view, int[] columnTypes, Path file)
+            throws IOException, InterruptedException {
+
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory == null) {
+            throw new IOException("Not a file: " + file);
+        }
+        Path temporaryFile = Files.createTempFile(directory, "snapshot", ".tmp");
+        try {
+            boolean[] truncatedColumns = new boolean[view.getColumnLabels().size()];
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temporaryFile))) {
+                write(view, columnTypes, truncatedColumns, outputStream);
+            }
+
+            FileUtils.replaceAtomically(temporaryFile, file);
+
+            return getTruncatedColumnLabels(view.getColumnLabels(), truncatedColumns);
+
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private static void write(ResultView view, int[] columnTypes, boolean[] truncatedColumns,
+                              OutputStream outputStream) throws IOException, InterruptedException {
+
+        List<String> labels = view.getColumnLabels();
+        int chunkCount = (view.size() + ROWS_PER_CHUNK - 1) / ROWS_PER_CHUNK;
+
+        long[][] offsets = new long[chunkCount][labels.size()];
+        int[][] lengths = new int[chunkCount][labels.size()];
+
+        byte[] header = encodeHeader(labels, columnTypes);
+        outputStream.write(header);
+        long position = header.length;
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException("Saving the snapshot was interrupted");
+            }
+
+            Object[][] columns = getChunkColumns(view, chunk * ROWS_PER_CHUNK, truncatedColumns);
+            for (int column = 0; column < columns.length; column++) {
+                byte[] bytes = ColumnChunkCodec.encode(columns[column]);
+                outputStream.write(bytes);
+
+                offsets[chunk][column] = position;
+                lengths[chunk][column] = bytes.length;
+                position += bytes.length;
+            }
+        }
+
+        outputStream.write(encodeFooter(view.size(), offsets, lengths, truncatedColumns, position));
+    }
+
+    private static byte[] encodeHeader(List<String> labels, int[] columnTypes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.write(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(ROWS_PER_CHUNK);
+        out.writeInt(labels.size());
+        for (int i = 0; i < labels.size(); i++) {
+            byte[] label = labels.get(i).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(label.length);
+            out.write(label);
+            out.writeInt(columnTypes[i]);
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static Object[][] getChunkColumns(ResultView view, int startIndex, boolean[] truncatedColumns) {
+        List<String> labels = view.getColumnLabels();
+        int endIndex = Math.min(startIndex + ROWS_PER_CHUNK, view.size());
+
+        Object[][] columns = new Object[labels.size()][endIndex - startIndex];
+        for (int rowIndex = startIndex; rowIndex < endIndex; rowIndex++) {
+            Map<String, Object> row = view.getRow(rowIndex);
+            for (int column = 0; column < columns.length; column++) {
+                Object value = row.get(labels.get(column));
+                if (value instanceof LobValue) {
+                    value = ((LobValue) value).getPreview();
+                    truncatedColumns[column] = true;
+                }
+                columns[column][rowIndex - startIndex] = value;
+            }
+        }
+        return columns;
+    }
+
+    private static byte[] encodeFooter(int rowCount, long[][] offsets, int[][] lengths, boolean[] truncatedColumns,
+                                       long footerOffset) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeInt(rowCount);
+        for (int chunk = 0; chunk < offsets.length; chunk++) {
+            for (int column = 0; column < offsets[chunk].length; column++) {
+                out.writeLong(offsets[chunk][column]);
+                out.writeInt(lengths[chunk][column]);
+            }
+        }
+        for (boolean truncated : truncatedColumns) {
+            out.writeBoolean(truncated);
+        }
+        // the last bytes of the file: where the footer starts
+        out.writeLong(footerOffset);
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Opens a snapshot, reading only its header and footer.
+     *
+     * @param file the snapshot file
+     * @return the rows of the snapshot, to be closed after use
+     * @throws IOException if the file cannot be read or is not a result snapshot
+     */
+    public static ResultSnapshot open(Path file) throws IOException {
+        FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return open(fileChannel);
+
+        } catch (IOException | RuntimeException e) {
+            fileChannel.close();
+            throw e;
+        }
+    }
+
+    private static ResultSnapshot open(FileChannel fileChannel) throws IOException {
+        try {
+            long fileSize = fileChannel.size();
+            if (fileSize < MAGIC.length + Long.BYTES) {
+                throw new IOException("Not a result snapshot");
+            }
+            // mapping does not read the file: only the pages of the header are read
+            ByteBuffer header = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    Math.min(fileSize, Integer.MAX_VALUE));
+
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a result snapshot");
+            }
+            int version = header.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported result snapshot version: " + version);
+            }
+            if (header.getInt() != ROWS_PER_CHUNK) {
+                throw new IOException("Unsupported result snapshot chunk size");
+            }
+
+            int columnCount = header.getInt();
+            List<String> labels = new ArrayList<>(columnCount);
+            int[] types = new int[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                labels.add(readString(header));
+                types[i] = header.getInt();
+            }
+
+            return openFooter(fileChannel, fileSize, labels, types);
+
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            throw new IOException("Result snapshot is corrupted", e);
+        }
+    }
+
+    private static ResultSnapshot openFooter(FileChannel fileChannel, long fileSize, List<String> labels,
+                                             int[] types) throws IOException {
+        ByteBuffer footerOffsetBuffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, fileSize - Long.BYTES,
+                Long.BYTES);
+        long footerOffset = footerOffsetBuffer.getLong();
+
+        ByteBuffer footer = fileChannel.map(FileChannel.MapMode.READ_ONLY, footerOffset, fileSize - footerOffset);
+
+        int rowCount = footer.getInt();
+        int chunkCount = (rowCount + ROWS_PER_CHUNK - 1) / ROWS_PER_CHUNK;
+
+        long[][] offsets = new long[chunkCount][labels.size()];
+        int[][] lengths = new int[chunkCount][labels.size()];
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            for (int column = 0; column < labels.size(); column++) {
+                offsets[chunk][column] = footer.getLong();
+                lengths[chunk][column] = footer.getInt();
+            }
+        }
+
+        boolean[] truncatedColumns = new boolean[labels.size()];
+        for (int column = 0; column < labels.size(); column++) {
+            truncatedColumns[column] = footer.get() != 0;
+        }
+
+        return new ResultSnapshot(fileChannel, labels, types, truncatedColumns, rowCount, offsets, lengths);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public List<String> getColumnLabels() {
+        return columnLabels;
+    }
+
+    /**
+     * @param columnIndex the zero-based index of the column
+     * @return the JDBC type of the column, as saved with the snapshot
+     */
+    public int getColumnType(int columnIndex) {
+        return columnTypes[columnIndex];
+    }
+
+    /**
+     * @return the labels of the columns with large values, which were saved as their preview only
+     */
+    public List<String> getTruncatedColumnLabels() {
+        return getTruncatedColumnLabels(columnLabels, truncatedColumns);
+    }
+
+    private static List<String> getTruncatedColumnLabels(List<String> labels, boolean[] truncatedColumns) {
+        List<String> truncatedColumnLabels = new ArrayList<>();
+        for (int column = 0; column < truncatedColumns.length; column++) {
+            if (truncatedColumns[column]) {
+                truncatedColumnLabels.add(labels.get(column));
+            }
+        }
+        return truncatedColumnLabels;
+    }
+
+    @Override
+    public int size() {
+        return rowCount;
+    }
+
+    @Override
+    public synchronized Map<String, Object> get(int index) {
+        checkNotClosed();
+        Objects.checkIndex(index, rowCount);
+
+        Object[][] columns = getChunk(index / ROWS_PER_CHUNK);
+        int indexInChunk = index % ROWS_PER_CHUNK;
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int column = 0; column < columns.length; column++) {
+            row.put(columnLabels.get(column), columns[column][indexInChunk]);
+        }
+        return row;
+    }
+
+    /**
+     * Returns the values of a column, reading only the chunks of that column.
+     *
+     * @param columnIndex the index of the column
+     * @return the values of the column, indexed by row index
+     */
+    public synchronized Object[] getColumnValues(int columnIndex) {
+        checkNotClosed();
+        Objects.checkIndex(columnIndex, columnLabels.size());
+
+        Object[] values = new Object[rowCount];
+        for (int chunk = 0; chunk < chunkOffsets.length; chunk++) {
+            Object[] chunkValues = readColumnChunk(chunk, columnIndex);
+            System.arraycopy(chunkValues, 0, values, chunk * ROWS_PER_CHUNK, chunkValues.length);
+        }
+        return values;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            decodedChunks.clear();
+            fileChannel.close();
+        }
+    }
+
+    private Object[][] getChunk(int chunk) {
+        Object[][] columns = decodedChunks.get(chunk);
+        if (columns == null) {
+            columns = new Object[columnLabels.size()][];
+            for (int column = 0; column < columns.length; column++) {
+                columns[column] = readColumnChunk(chunk, column);
+            }
+            decodedChunks.put(chunk, columns);
+        }
+        return columns;
+    }
+
+    private Object[] readColumnChunk(int chunk, int column) {
+        int valueCount = Math.min(ROWS_PER_CHUNK, rowCount - chunk * ROWS_PER_CHUNK);
+        try {
+            ByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY,
+                    chunkOffsets[chunk][column], chunkLengths[chunk][column]);
+            return ColumnChunkCodec.decode(buffer, valueCount);
+
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read result snapshot", e);
+        }
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("Result snapshot is closed");
+        }
+    }
+
+    /**
+     * The most recently read chunks, so that paging through the rows of a chunk decodes it only once.
+     */
+    private static final class DecodedChunks extends LinkedHashMap<Integer, Object[][]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private DecodedChunks() {
+            super(INITIAL_CAPACITY, LOAD_FACTOR, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Object[][]> eldest) {
+            return size() > DECODED_CHUNKS;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.result;
+
+import com.github.blausql.core.preferences.ConfigurationRepository;
+import com.github.blausql.spi.connections.LoadException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps track of the heap used by the rows of all open {@link StoredResult}s.
+ * <p>
+ * When the total exceeds the configured budget, the pages of the oldest open results are spilled
+ * to disk first. Independently of the budget, fetching code is expected to check
+ * {@link #isHeapUsageBelowWatermark()} and stop fetching, rather than letting the client run out of memory.
+ */
+public final class ResultStore {
+
+    private static final Logger LOGGER = Logger.getLogger(ResultStore.class.getName());
+
+    private static final int PERCENT = 100;
+
+    private static final ResultStore INSTANCE = new ResultStore();
+
+    // oldest first: these are spilled first, as they are the least likely to be browsed
+    private final List<StoredResult> openResults = new ArrayList<>();
+
+    private final long budgetBytes;
+    private final int heapWatermarkPercent;
+
+    private long inMemoryBytes;
+
+    public static ResultStore getInstance() {
+        return INSTANCE;
+    }
+
+    private ResultStore() {
+        ConfigurationRepository configurationRepository = ConfigurationRepository.getInstance();
+
+        long configuredBudgetBytes;
+        int configuredHeapWatermarkPercent;
+        try {
+            configuredBudgetBytes = configurationRepository.getResultMemoryBudgetBytes();
+            configuredHeapWatermarkPercent = configurationRepository.getResultHeapWatermarkPercent();
+
+        } catch (LoadException e) {
+            LOGGER.log(Level.WARNING, "Could not read result memory settings: using defaults", e);
+            configuredBudgetBytes = ConfigurationRepository.DEFAULT_RESULT_MEMORY_BUDGET_BYTES;
+            configuredHeapWatermarkPercent = ConfigurationRepository.DEFAULT_RESULT_HEAP_WATERMARK_PERCENT;
+        }
+
+        this.budgetBytes = configuredBudgetBytes;
+        this.heapWatermarkPercent = configuredHeapWatermarkPercent;
+    }
+
+    /**
+     * Creates a new, empty result, accounted to the budget of this store until it is closed.
+     *
+     * @param columnLabels the labels of the columns of the result
+     * @return the new result
+     */
+    public StoredResult createResult(List<String> columnLabels) {
+        return createResult(columnLabels, null);
+    }
+
+    /**
+     * Creates a new, empty result, accounted to the budget of this store until it is closed.
+     *
+     * @param columnLabels the labels of the columns of the result
+     * @param columnTypes  the JDBC types ({@link java.sql.Types}) of the columns, {@code null} if not known
+     * @return the new result
+     */
+    public StoredResult createResult(List<String> columnLabels, int[] columnTypes) {
+        StoredResult storedResult = new StoredResult(this, columnLabels, columnTypes);
+
+        synchronized (this) {
+            openResults.add(storedResult);
+        }
+
+        return storedResult;
+    }
+
+    /**
+     * @return {@code true} if the heap usage of the JVM is below the configured watermark,
+     * so that it is safe to fetch further rows
+     */
+    public boolean isHeapUsageBelowWatermark() {
+        Runtime runtime = Runtime.getRuntime();
+
+        long usedBytes = runtime.totalMemory() - runtime.freeMemory();
+        long watermarkBytes = runtime.maxMemory() / PERCENT * heapWatermarkPercent;
+
+        return usedBytes < watermarkBytes;
+    }
+
+    public synchronized long getInMemoryBytes() {
+        return inMemoryBytes;
+    }
+
+    synchronized void reserve(long bytes) {
+        inMemoryBytes += bytes;
+
+        for (StoredResult storedResult : openResults) {
+            if (inMemoryBytes <= budgetBytes) {
+                break;
+            }
+            inMemoryBytes -= storedResult.spillPages();
+        }
+    }
+
+    synchronized void release(StoredResult storedResult, long bytes) {
+        // identity matters here: results are lists, equal if they contain the same rows
+        openResults.removeIf(openResult -> openResult == storedResult);
+        inMemoryBytes -= bytes;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.result;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * A sorted and/or filtered view of fetched rows.
+ * <p>
+ * The view is a permutation of row indexes: the rows are neither copied nor moved. Sorting
+ * and filtering work on the values (and ranks) of the columns involved, which are extracted once
+ * and kept for subsequent sorts and filters; large results are sorted and filtered using all cores.
+ */
+public final class ResultView {
+
+    private static final int PARALLEL_FILTER_THRESHOLD = 16384;
+
+    private final List<Map<String, Object>> rows;
+    private final List<String> columnLabels;
+    private final Map<Integer, Object[]> extractedColumns = new HashMap<>();
+    private final Map<Integer, int[]> columnRanks = new HashMap<>();
+
+    private int[] sortedRowIndexes;
+    private int sortColumnIndex = -1;
+    private boolean sortAscending;
+
+    private IntPredicate filterPredicate;
+    private String filterExpression;
+
+    // null if the view shows all rows in their original order
+    private int[] viewRowIndexes;
+
+    public ResultView(List<Map<String, Object>> rows, List<String> columnLabels) {
+        this.rows = rows;
+        this.columnLabels = List.copyOf(columnLabels);
+    }
+
+    public List<String> getColumnLabels() {
+        return columnLabels;
+    }
+
+    public int size() {
+        if (viewRowIndexes == null) {
+            return rows.size();
+        }
+        return viewRowIndexes.length;
+    }
+
+    public Map<String, Object> getRow(int viewIndex) {
+        if (viewRowIndexes == null) {
+            return rows.get(viewIndex);
+        }
+        return rows.get(viewRowIndexes[viewIndex]);
+    }
+
+    /**
+     * Sorts the view by a column. The sort is stable: sorting by another column first
+     * yields a secondary ordering.
+     *
+     * @param columnIndex the index of the column
+     * @param ascending   {@code true} for ascending, {@code false} for descending order
+     */
+    public void sortBy(int columnIndex, boolean ascending) {
+        int[] ranks = getColumnRanks(columnIndex);
+
+        int[] rowIndexes = sortedRowIndexes;
+        if (rowIndexes == null) {
+            rowIndexes = IntStream.range(0, rows.size()).toArray();
+        }
+
+        sortedRowIndexes = ParallelIndexSort.sort(rowIndexes, ranks, ascending);
+        sortColumnIndex = columnIndex;
+        sortAscending = ascending;
+
+        updateView();
+    }
+
+    /**
+     * Restores the original order of the rows.
+     */
+    public void clearSort() {
+        sortedRowIndexes = null;
+        sortColumnIndex = -1;
+
+        updateView();
+    }
+
+    /**
+     * Shows only the rows matching a filter expression.
+     *
+     * @param expression the filter expression (see {@link FilterExpression}), or {@code null} or
+     *                   blank to show all rows
+     * @throws FilterExpressionException if the expression is invalid
+     */
+    public void filter(String expression) {
+        if (expression == null || expression.isBlank()) {
+            filterPredicate = null;
+            filterExpression = null;
+        } else {
+            filterPredicate = FilterExpression.compile(expression, columnLabels, this::getColumnValues);
+            filterExpression = expression.trim();
+        }
+
+        updateView();
+    }
+
+    public boolean isSorted() {
+        return sortColumnIndex >= 0;
+    }
+
+    public String getSortColumnLabel() {
+        if (!isSorted()) {
+            throw new IllegalStateException("View is not sorted");
+        }
+        return columnLabels.get(sortColumnIndex);
+    }
+
+    public int getSortColumnIndex() {
+        return sortColumnIndex;
+    }
+
+    public boolean isSortAscending() {
+        return sortAscending;
+    }
+
+    public String getFilterExpression() {
+        return filterExpression;
+    }
+
+    private void updateView() {
+        if (filterPredicate == null) {
+            viewRowIndexes = sortedRowIndexes;
+            return;
+        }
+
+        IntStream rowIndexes;
+        if (sortedRowIndexes == null) {
+            rowIndexes = IntStream.range(0, rows.size());
+        } else {
+            rowIndexes = IntStream.of(sortedRowIndexes);
+        }
+        if (rows.size() >= PARALLEL_FILTER_THRESHOLD) {
+            // the order of the rows is kept: the stream is ordered
+            rowIndexes = rowIndexes.parallel();
+        }
+
+        viewRowIndexes = rowIndexes.filter(filterPredicate).toArray();
+    }
+
+    /**
+     * @return the indexes of the rows shown, in the order they are shown
+     */
+    int[] getViewRowIndexes() {
+        if (viewRowIndexes == null) {
+            return IntStream.range(0, rows.size()).toArray();
+        }
+        return viewRowIndexes;
+    }
+
+    Object[] getColumnValues(int columnIndex) {
+        return extractedColumns.computeIfAbsent(columnIndex, this::extractColumnValues);
+    }
+
+    int[] getColumnRanks(int columnIndex) {
+        return columnRanks.computeIfAbsent(columnIndex, index -> ParallelIndexSort.rank(getColumnValues(index)));
+    }
+
+    private Object[] extractColumnValues(int columnIndex) {
+        if (rows instanceof StoredResult) {
+            return ((StoredResult) rows).getColumnValues(columnIndex);
+        }
+        if (rows instanceof ResultSnapshot) {
+            return ((ResultSnapshot) rows).getColumnValues(columnIndex);
+        }
+
+        String columnLabel = columnLabels.get(columnIndex);
+
+        Object[] values = new Object[rows.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rows.get(i).get(columnLabel);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,426 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.result;
+
+import com.github.blausql.core.connection.ResultSizeEstimator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Types;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The rows of a query result, kept in pages of {@value #ROWS_PER_PAGE} rows.
+ * <p>
+ * Pages are kept on the heap as long as the {@link ResultStore} budget allows; once the budget is
+ * exceeded, the pages are written to a temporary file and only the few most recently
+ * accessed pages are read back into memory. The result is a read-only {@link List} of rows, so that
+ * it can be used wherever fully materialized results are used.
+ * <p>
+ * {@link LobValue}s added to the result are kept until the result is closed, which deletes their content
+ * unless another result holds them too.
+ */
+public final class StoredResult extends AbstractList<Map<String, Object>> implements RandomAccess, Closeable {
+
+    static final int ROWS_PER_PAGE = 256;
+
+    private static final Logger LOGGER = Logger.getLogger(StoredResult.class.getName());
+
+    private static final int PAGED_IN_PAGES = 2;
+    private static final int INITIAL_CAPACITY = 4;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final ResultStore resultStore;
+    private final List<String> columnLabels;
+    private final int[] columnTypes;
+    private final List<Page> pages = new ArrayList<>();
+
+    // the index of a LOB value in the spill file; LobValue does not override equals()
+    private final List<LobValue> lobValues = new ArrayList<>();
+    private final Map<LobValue, Integer> lobIndexes = new HashMap<>();
+
+    private final PagedInPages pagedInPages = new PagedInPages();
+
+    private List<Object[]> openPageRows = new ArrayList<>();
+    private long openPageBytes;
+    private long inMemoryBytes;
+    private int rowCount;
+    private boolean spilled;
+    private boolean truncated;
+    private boolean closed;
+
+    private FileChannel spillFileChannel;
+    private long spillFileLength;
+
+    StoredResult(ResultStore resultStore, List<String> columnLabels, int[] columnTypes) {
+        if (columnTypes != null && columnTypes.length != columnLabels.size()) {
+            throw new IllegalArgumentException(String.format(
+                    "Expected %d column types, got %d", columnLabels.size(), columnTypes.length));
+        }
+
+        this.resultStore = resultStore;
+        this.columnLabels = List.copyOf(columnLabels);
+        this.columnTypes = copyOrUnknown(columnTypes, columnLabels.size());
+    }
+
+    private static int[] copyOrUnknown(int[] columnTypes, int columnCount) {
+        if (columnTypes == null) {
+            int[] unknownColumnTypes = new int[columnCount];
+            Arrays.fill(unknownColumnTypes, Types.OTHER);
+            return unknownColumnTypes;
+        }
+        return columnTypes.clone();
+    }
+
+    public List<String> getColumnLabels() {
+        return columnLabels;
+    }
+
+    /**
+     * Returns the JDBC type of a column, as reported by the driver.
+     *
+     * @param columnIndex the zero-based index of the column
+     * @return the constant from {@link java.sql.Types}, or {@link java.sql.Types#OTHER} if it is not known
+     */
+    public int getColumnType(int columnIndex) {
+        return columnTypes[columnIndex];
+    }
+
+    /**
+     * Appends a row to the result. Rows are accounted to the budget of the {@link ResultStore}
+     * page by page, which might spill this or other results to disk.
+     *
+     * @param values the column values of the row, in the order of the column labels
+     */
+    public void addRow(Object[] values) {
+        if (values.length != columnLabels.size()) {
+            throw new IllegalArgumentException(String.format(
+                    "Expected %d column values, got %d", columnLabels.size(), values.length));
+        }
+
+        long sealedPageBytes = 0;
+        synchronized (this) {
+            checkNotClosed();
+
+            openPageRows.add(values.clone());
+            retainLobValues(values);
+            openPageBytes += ResultSizeEstimator.estimateRow(values);
+            rowCount++;
+
+            if (openPageRows.size() == ROWS_PER_PAGE) {
+                sealedPageBytes = sealOpenPage();
+            }
+        }
+
+        if (sealedPageBytes > 0) {
+            // called without holding the lock of this result: the store might spill this result
+            resultStore.reserve(sealedPageBytes);
+        }
+    }
+
+    /**
+     * Signals that all rows have been added.
+     */
+    public void finishFetching() {
+        long sealedPageBytes;
+        synchronized (this) {
+            checkNotClosed();
+            sealedPageBytes = sealOpenPage();
+        }
+
+        if (sealedPageBytes > 0) {
+            resultStore.reserve(sealedPageBytes);
+        }
+    }
+
+    /**
+     * Marks the result as incomplete: fetching was stopped before all rows were read.
+     */
+    public synchronized void markTruncated() {
+        truncated = true;
+    }
+
+    public synchronized boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * @return {@code true} if any page of this result has been written to disk
+     */
+    public synchronized boolean isSpilled() {
+        return spilled;
+    }
+
+    /**
+     * @return {@code true} if the result holds {@link LobValue}s, whose content is kept in temporary files
+     */
+    public synchronized boolean hasLobValues() {
+        return !lobValues.isEmpty();
+    }
+
+    @Override
+    public synchronized int size() {
+        return rowCount;
+    }
+
+    @Override
+    public synchronized Map<String, Object> get(int index) {
+        checkNotClosed();
+        Objects.checkIndex(index, rowCount);
+
+        int pageIndex = index / ROWS_PER_PAGE;
+        int indexInPage = index % ROWS_PER_PAGE;
+
+        Object[] row;
+        if (pageIndex == pages.size()) {
+            row = openPageRows.get(indexInPage);
+        } else {
+            row = getPageRows(pageIndex)[indexInPage];
+        }
+
+        Map<String, Object> rowMap = new LinkedHashMap<>();
+        for (int i = 0; i < row.length; i++) {
+            rowMap.put(columnLabels.get(i), row[i]);
+        }
+        return rowMap;
+    }
+
+    /**
+     * Returns the values of a column in a single pass over the pages, which is much cheaper than
+     * reading the rows one by one.
+     *
+     * @param columnIndex the index of the column
+     * @return the values of the column, indexed by row index
+     */
+    public synchronized Object[] getColumnValues(int columnIndex) {
+        checkNotClosed();
+        Objects.checkIndex(columnIndex, columnLabels.size());
+
+        Object[] values = new Object[rowCount];
+        int rowIndex = 0;
+
+        for (int pageIndex = 0; pageIndex < pages.size(); pageIndex++) {
+            for (Object[] row : getPageRows(pageIndex)) {
+                values[rowIndex++] = row[columnIndex];
+            }
+        }
+        for (Object[] row : openPageRows) {
+            values[rowIndex++] = row[columnIndex];
+        }
+
+        return values;
+    }
+
+    /**
+     * Writes all pages currently held on the heap to the spill file.
+     *
+     * @return the (estimated) number of heap bytes released
+     */
+    synchronized long spillPages() {
+        if (closed) {
+            return 0;
+        }
+
+        long releasedBytes = 0;
+        try {
+            for (Page page : pages) {
+                if (page.rows != null) {
+                    writeToSpillFile(page);
+                    releasedBytes += page.estimatedBytes;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not spill result rows to disk: keeping them in memory", e);
+        }
+
+        inMemoryBytes -= releasedBytes;
+        return releasedBytes;
+    }
+
+    /**
+     * Releases the memory budget and the spill file of this result. The result cannot be used afterwards.
+     */
+    @Override
+    public void close() {
+        long releasedBytes;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            releasedBytes = inMemoryBytes;
+            inMemoryBytes = 0;
+            pages.clear();
+            pagedInPages.clear();
+            openPageRows = new ArrayList<>();
+
+            closeSpillFile();
+            releaseLobValues();
+        }
+
+        resultStore.release(this, releasedBytes);
+    }
+
+    private void retainLobValues(Object[] values) {
+        for (Object value : values) {
+            if (value instanceof LobValue && !lobIndexes.containsKey(value)) {
+                LobValue lobValue = (LobValue) value;
+                lobValue.retain();
+                lobIndexes.put(lobValue, lobValues.size());
+                lobValues.add(lobValue);
+            }
+        }
+    }
+
+    private void releaseLobValues() {
+        lobValues.forEach(LobValue::release);
+        lobValues.clear();
+        lobIndexes.clear();
+    }
+
+    private long sealOpenPage() {
+        if (openPageRows.isEmpty()) {
+            return 0;
+        }
+
+        Page page = new Page(openPageRows.toArray(new Object[0][]), openPageBytes);
+        pages.add(page);
+
+        long sealedPageBytes = openPageBytes;
+        inMemoryBytes += sealedPageBytes;
+
+        openPageRows = new ArrayList<>(ROWS_PER_PAGE);
+        openPageBytes = 0;
+
+        return sealedPageBytes;
+    }
+
+    private Object[][] getPageRows(int pageIndex) {
+        Page page = pages.get(pageIndex);
+        if (page.rows != null) {
+            return page.rows;
+        }
+
+        Object[][] rows = pagedInPages.get(pageIndex);
+        if (rows == null) {
+            try {
+                ByteBuffer buffer = ByteBuffer.allocate(page.byteLength);
+                while (buffer.hasRemaining()) {
+                    if (spillFileChannel.read(buffer, page.fileOffset + buffer.position()) < 0) {
+                        throw new IOException("Unexpected end of result spill file");
+                    }
+                }
+                buffer.flip();
+                rows = ResultPageCodec.decode(buffer, columnLabels.size(), lobValues);
+
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read result rows from disk", e);
+            }
+            pagedInPages.put(pageIndex, rows);
+        }
+        return rows;
+    }
+
+    private void writeToSpillFile(Page page) throws IOException {
+        byte[] bytes = ResultPageCodec.encode(page.rows, columnLabels.size(), lobIndexes);
+
+        if (spillFileChannel == null) {
+            Path spillFile = Files.createTempFile("blausql-result-", ".spill");
+            spillFileChannel = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        }
+
+        // positional writes and reads rather than mappings: a mapping is only released by the garbage collector,
+        // and a mapped file cannot be deleted on Windows
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            spillFileChannel.write(buffer, spillFileLength + buffer.position());
+        }
+
+        page.fileOffset = spillFileLength;
+        page.byteLength = bytes.length;
+        page.rows = null;
+
+        spillFileLength += bytes.length;
+        spilled = true;
+    }
+
+    private void closeSpillFile() {
+        if (spillFileChannel != null) {
+            try {
+                spillFileChannel.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not close result spill file", e);
+            }
+            spillFileChannel = null;
+        }
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("Result is closed");
+        }
+    }
+
+    /**
+     * The most recently read pages of the spill file, so that scrolling back and forth around
+     * a page boundary does not read the file over and over again.
+     */
+    private static final class PagedInPages extends LinkedHashMap<Integer, Object[][]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private PagedInPages() {
+            super(INITIAL_CAPACITY, LOAD_FACTOR, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Object[][]> eldest) {
+            return size() > PAGED_IN_PAGES;
+        }
+    }
+
+    private static final class Page {
+
+        private final long estimatedBytes;
+
+        private Object[][] rows;
+        private long fileOffset;
+        private int byteLength;
+
+        private Page(Object[][] rows, long estimatedBytes) {
+            this.rows = rows;
+            this.estimatedBytes = estimatedBytes;
+        }
+    }
+}
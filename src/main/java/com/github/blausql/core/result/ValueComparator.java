@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.result;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Orders column values the way a user expects when sorting or filtering fetched rows:
+ * {@code null}s first, then numbers by their numeric value regardless of their Java type, then texts
+ * (including the preview of {@link LobValue}s), then any other value grouped by its type: values of a
+ * {@link Comparable} type by their natural order, anything else by its text.
+ * <p>
+ * Ranking the types first keeps the order total and transitive for columns holding values of
+ * different types, as sorting requires.
+ */
+final class ValueComparator {
+
+    private static final int NUMBER_RANK = 0;
+    private static final int TEXT_RANK = 1;
+    private static final int OTHER_RANK = 2;
+
+    // the order of the values a double cannot represent exactly, among all numbers
+    private static final int NEGATIVE_INFINITY_RANK = -1;
+    private static final int FINITE_RANK = 0;
+    private static final int POSITIVE_INFINITY_RANK = 1;
+    private static final int NAN_RANK = 2;
+
+    private ValueComparator() {
+        // no external instances
+    }
+
+    static int compare(Object left, Object right) {
+        if (left == null || right == null) {
+            return Boolean.compare(left != null, right != null);
+        }
+
+        int result = Integer.compare(getTypeRank(left), getTypeRank(right));
+        if (result != 0) {
+            return result;
+        }
+
+        switch (getTypeRank(left)) {
+            case NUMBER_RANK:
+                return compareNumbers((Number) left, (Number) right);
+            case TEXT_RANK:
+                return String.valueOf(left).compareTo(String.valueOf(right));
+            default:
+                result = left.getClass().getName().compareTo(right.getClass().getName());
+                if (result != 0) {
+                    return result;
+                }
+                return compareSameClass(left, right);
+        }
+    }
+
+    /**
+     * Compares a column value with a literal of a filter expression: unlike {@link #compare(Object, Object)},
+     * values of different types are compared by their text, so that e.g. a date matches {@code '2024-01-01'}.
+     */
+    static int compareWithLiteral(Object value, Object literal) {
+        if (value instanceof Number && literal instanceof Number) {
+            return compareNumbers((Number) value, (Number) literal);
+        }
+        if (value.getClass().equals(literal.getClass())) {
+            return compareSameClass(value, literal);
+        }
+
+        return String.valueOf(value).compareTo(String.valueOf(literal));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareSameClass(Object left, Object right) {
+        if (left instanceof Comparable) {
+            return ((Comparable) left).compareTo(right);
+        }
+        return String.valueOf(left).compareTo(String.valueOf(right));
+    }
+
+    private static int getTypeRank(Object value) {
+        if (value instanceof Number) {
+            return NUMBER_RANK;
+        }
+        if (value instanceof CharSequence || value instanceof LobValue) {
+            return TEXT_RANK;
+        }
+        return OTHER_RANK;
+    }
+
+    /**
+     * Compares numbers by their decimal value: comparing some pairs as doubles would not be
+     * transitive with the pairs compared as decimals.
+     */
+    static int compareNumbers(Number left, Number right) {
+        if (isIntegral(left) && isIntegral(right)) {
+            return Long.compare(left.longValue(), right.longValue());
+        }
+
+        int result = Integer.compare(getNonFiniteRank(left), getNonFiniteRank(right));
+        if (result != 0 || getNonFiniteRank(left) != FINITE_RANK) {
+            return result;
+        }
+
+        if (isFloatingPoint(left) && isFloatingPoint(right)) {
+            // unlike Double.compare, equal for 0.0 and -0.0, as their exact values are
+            double leftValue = left.doubleValue();
+            double rightValue = right.doubleValue();
+            if (leftValue < rightValue) {
+                return -1;
+            }
+            if (leftValue > rightValue) {
+                return 1;
+            }
+            return 0;
+        }
+
+        return toBigDecimal(left).compareTo(toBigDecimal(right));
+    }
+
+    static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    private static boolean isFloatingPoint(Number number) {
+        return number instanceof Double || number instanceof Float;
+    }
+
+    private static int getNonFiniteRank(Number number) {
+        if (!isFloatingPoint(number)) {
+            return FINITE_RANK;
+        }
+
+        double value = number.doubleValue();
+        if (Double.isNaN(value)) {
+            return NAN_RANK;
+        }
+        if (value == Double.NEGATIVE_INFINITY) {
+            return NEGATIVE_INFINITY_RANK;
+        }
+        if (value == Double.POSITIVE_INFINITY) {
+            return POSITIVE_INFINITY_RANK;
+        }
+        return FINITE_RANK;
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        }
+        if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        }
+        if (isIntegral(number)) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+
+        if (isFloatingPoint(number)) {
+            // the shortest decimal of the double: distinct for distinct doubles, in the same order
+            return BigDecimal.valueOf(number.doubleValue());
+        }
+        // e.g. AtomicLong or a driver specific type
+        return new BigDecimal(number.toString());
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.core.result;
+
+import com.github.blausql.core.preferences.ConfigurationRepository;
+import com.github.blausql.spi.connections.LoadException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Formats column values for display: the formatter of a column is looked up once, by its JDBC type, and
+ * falls back to a lookup by the class of the value for drivers returning other classes than expected.
+ * <p>
+ * Date and time values are formatted with shared {@link DateTimeFormatter}s, numbers without going through
+ * {@code String.format}, binary values as hexadecimal digits. Texts longer than
+ * {@link ConfigurationRepository#getResultMaxValueLength()} are truncated, and control characters (e.g. line
+ * breaks) are replaced with spaces, so that every value fits a single line of a table.
+ */
+public final class ValueFormatterRegistry {
+
+    private static final Logger LOGGER = Logger.getLogger(ValueFormatterRegistry.class.getName());
+
+    private static final String NULL_TEXT = "null";
+    private static final String TRUNCATION_MARK = "...";
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final int BITS_PER_HEX_DIGIT = 4;
+    private static final int HEX_DIGIT_MASK = 0xF;
+
+    private static final int MAX_FRACTION_DIGITS = 9;
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    private static final DateTimeFormatter TIME_FORMATTER = new DateTimeFormatterBuilder()
+            .appendPattern("HH:mm:ss")
+            .appendFraction(ChronoField.NANO_OF_SECOND, 0, MAX_FRACTION_DIGITS, true)
+            .toFormatter();
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = new DateTimeFormatterBuilder()
+            .append(DATE_FORMATTER)
+            .appendLiteral(' ')
+            .append(TIME_FORMATTER)
+            .toFormatter();
+
+    private static final DateTimeFormatter OFFSET_TIME_FORMATTER = new DateTimeFormatterBuilder()
+            .append(TIME_FORMATTER)
+            .appendOffsetId()
+            .toFormatter();
+
+    private static final DateTimeFormatter OFFSET_DATE_TIME_FORMATTER = new DateTimeFormatterBuilder()
+            .append(DATE_TIME_FORMATTER)
+            .appendOffsetId()
+            .toFormatter();
+
+    private static final DateTimeFormatter ZONED_DATE_TIME_FORMATTER = new DateTimeFormatterBuilder()
+            .append(OFFSET_DATE_TIME_FORMATTER)
+            .appendLiteral('[')
+            .appendZoneRegionId()
+            .appendLiteral(']')
+            .toFormatter();
+
+    private static final ValueFormatterRegistry INSTANCE = new ValueFormatterRegistry();
+
+    public static ValueFormatterRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    private final int maxValueLength;
+
+    // only modified in the constructor
+    private final Map<Class<?>, ValueFormatter> formattersByClass = new HashMap<>();
+    private final Map<Integer, ValueFormatter> formattersByJdbcType = new HashMap<>();
+
+    private final ValueFormatter defaultFormatter = value -> toDisplayText(formatByClass(value));
+
+    private ValueFormatterRegistry() {
+        int configuredMaxValueLength;
+        try {
+            configuredMaxValueLength = ConfigurationRepository.getInstance().getResultMaxValueLength();
+
+        } catch (LoadException e) {
+            LOGGER.log(Level.WARNING, "Could not read result display settings: using defaults", e);
+            configuredMaxValueLength = ConfigurationRepository.DEFAULT_RESULT_MAX_VALUE_LENGTH;
+        }
+        this.maxValueLength = Math.max(TRUNCATION_MARK.length() + 1, configuredMaxValueLength);
+
+        registerClassFormatters();
+        registerJdbcTypeFormatters();
+    }
+
+    private void registerClassFormatters() {
+        formattersByClass.put(String.class, value -> (String) value);
+        formattersByClass.put(Integer.class, Object::toString);
+        formattersByClass.put(Long.class, Object::toString);
+        formattersByClass.put(Short.class, Object::toString);
+        formattersByClass.put(Byte.class, Object::toString);
+        formattersByClass.put(Double.class, Object::toString);
+        formattersByClass.put(Float.class, Object::toString);
+        formattersByClass.put(BigInteger.class, Object::toString);
+        formattersByClass.put(Boolean.class, Object::toString);
+        // no exponent: 1E+3 is shown as 1000
+        formattersByClass.put(BigDecimal.class, value -> ((BigDecimal) value).toPlainString());
+
+        formattersByClass.put(Timestamp.class,
+                value -> DATE_TIME_FORMATTER.format(((Timestamp) value).toLocalDateTime()));
+        formattersByClass.put(Date.class, value -> DATE_FORMATTER.format(((Date) value).toLocalDate()));
+        formattersByClass.put(Time.class, value -> TIME_FORMATTER.format(((Time) value).toLocalTime()));
+        formattersByClass.put(LocalDate.class, value -> DATE_FORMATTER.format((TemporalAccessor) value));
+        formattersByClass.put(LocalTime.class, value -> TIME_FORMATTER.format((TemporalAccessor) value));
+        formattersByClass.put(LocalDateTime.class, value -> DATE_TIME_FORMATTER.format((TemporalAccessor) value));
+        formattersByClass.put(OffsetTime.class, value -> OFFSET_TIME_FORMATTER.format((TemporalAccessor) value));
+        formattersByClass.put(OffsetDateTime.class,
+                value -> OFFSET_DATE_TIME_FORMATTER.format((TemporalAccessor) value));
+        formattersByClass.put(ZonedDateTime.class,
+                value -> ZONED_DATE_TIME_FORMATTER.format((TemporalAccessor) value));
+
+        formattersByClass.put(byte[].class, value -> toHex((byte[]) value));
+        formattersByClass.put(LobValue.class, value -> formatLobValue((LobValue) value));
+    }
+
+    private void registerJdbcTypeFormatters() {
+        registerJdbcType(String.class, Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR,
+                Types.NCHAR, Types.NVARCHAR, Types.LONGNVARCHAR);
+        registerJdbcType(Integer.class, Types.INTEGER, Types.SMALLINT, Types.TINYINT);
+        registerJdbcType(Long.class, Types.BIGINT);
+        registerJdbcType(BigDecimal.class, Types.DECIMAL, Types.NUMERIC);
+        registerJdbcType(Double.class, Types.DOUBLE, Types.FLOAT);
+        registerJdbcType(Float.class, Types.REAL);
+        registerJdbcType(Boolean.class, Types.BOOLEAN, Types.BIT);
+        registerJdbcType(Date.class, Types.DATE);
+        registerJdbcType(Time.class, Types.TIME);
+        registerJdbcType(Timestamp.class, Types.TIMESTAMP);
+        registerJdbcType(OffsetTime.class, Types.TIME_WITH_TIMEZONE);
+        registerJdbcType(OffsetDateTime.class, Types.TIMESTAMP_WITH_TIMEZONE);
+        registerJdbcType(byte[].class, Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY);
+    }
+
+    private void registerJdbcType(Class<?> expectedClass, int... jdbcTypes) {
+        ValueFormatter expectedClassFormatter = formattersByClass.get(expectedClass);
+
+        ValueFormatter formatter = value -> {
+            if (value.getClass() == expectedClass) {
+                return toDisplayText(expectedClassFormatter.format(value));
+            }
+            return defaultFormatter.format(value);
+        };
+
+        for (int jdbcType : jdbcTypes) {
+            formattersByJdbcType.put(jdbcType, formatter);
+        }
+    }
+
+    /**
+     * Returns the formatter for the values of a column.
+     *
+     * @param jdbcType the JDBC type of the column ({@link Types}), {@link Types#OTHER} if not known
+     * @return the formatter, accepting {@code null} values too
+     */
+    public ValueFormatter getFormatter(int jdbcType) {
+        ValueFormatter formatter = formattersByJdbcType.getOrDefault(jdbcType, defaultFormatter);
+
+        return value -> {
+            if (value == null) {
+                return NULL_TEXT;
+            }
+            return formatter.format(value);
+        };
+    }
+
+    /**
+     * Formats a value of a column of unknown type.
+     *
+     * @param value the value, can be {@code null}
+     * @return the text shown for the value
+     */
+    public String format(Object value) {
+        if (value == null) {
+            return NULL_TEXT;
+        }
+        return defaultFormatter.format(value);
+    }
+
+    /**
+     * @return the maximum length of the text shown for a value, including the truncation mark
+     */
+    public int getMaxValueLength() {
+        return maxValueLength;
+    }
+
+    private String formatByClass(Object value) {
+        ValueFormatter formatter = formattersByClass.get(value.getClass());
+        if (formatter != null) {
+            return formatter.format(value);
+        }
+        return String.valueOf(value);
+    }
+
+    private static String formatLobValue(LobValue lobValue) {
+        String unit = "characters";
+        if (lobValue.isBinary()) {
+            unit = "bytes";
+        }
+        return String.format("[%,d %s] %s", lobValue.getLength(), unit, lobValue.getPreview());
+    }
+
+    private String toHex(byte[] bytes) {
+        // only the bytes shown are converted
+        int length = Math.min(bytes.length, maxValueLength / 2 + 1);
+
+        char[] hexDigits = new char[length * 2];
+        for (int i = 0; i < length; i++) {
+            hexDigits[2 * i] = HEX_DIGITS[(bytes[i] >> BITS_PER_HEX_DIGIT) & HEX_DIGIT_MASK];
+            hexDigits[2 * i + 1] = HEX_DIGITS[bytes[i] & HEX_DIGIT_MASK];
+        }
+        return new String(hexDigits);
+    }
+
+    private String toDisplayText(String text) {
+        if (text == null) {
+            return NULL_TEXT;
+        }
+
+        String displayText = text;
+        if (displayText.length() > maxValueLength) {
+            displayText = displayText.substring(0, maxValueLength - TRUNCATION_MARK.length()) + TRUNCATION_MARK;
+        }
+
+        for (int i = 0; i < displayText.length(); i++) {
+            if (Character.isISOControl(displayText.charAt(i))) {
+                return replaceControlCharacters(displayText);
+            }
+        }
+        return displayText;
+    }
+
+    private static String replaceControlCharacters(String text) {
+        char[] characters = text.toCharArray();
+        for (int i = 0; i < characters.length; i++) {
+            if (Character.isISOControl(characters[i])) {
+                characters[i] = ' ';
+            }
+        }
+        return new String(characters);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.core.scratch;
+
+import com.github.blausql.core.connection.ConnectionConfiguration;
+import com.github.blausql.core.connection.DatabaseConnection;
+import com.github.blausql.core.connection.DatabaseConnectionFactory;
+import com.github.blausql.core.preferences.ConfigurationRepository;
+import com.github.blausql.spi.connections.LoadException;
+
+import java.nio.file.Path;
+
+/**
+ * A local H2 database, shared by all sessions of the process, into which the results of statements
+ * executed on any connection can be loaded as tables: these can be joined with each other with full SQL,
+ * even if they were fetched from different databases.
+ *
+ * <p>The database is kept in memory (until the application exits), unless the
+ * {@code scratchDatabaseFile} setting names a file to keep it in.</p>
+ *
+ * <p>H2 is not bundled with BlauSQL: its jar must be on the application classpath or on the classpath
+ * configured for JDBC drivers.</p>
+ */
+public final class ScratchDatabase {
+
+    public static final String CONNECTION_NAME = "Scratch database";
+
+    private static final String DRIVER_CLASS_NAME = "org.h2.Driver";
+    private static final String IN_MEMORY_JDBC_URL = "jdbc:h2:mem:blausql-scratch";
+
+    // column labels are kept as the source database reports them (e.g. in lower case): allow them unquoted
+    private static final String JDBC_URL_SETTINGS = ";DB_CLOSE_DELAY=-1;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+
+    private static final ScratchDatabase INSTANCE = new ScratchDatabase();
+
+    public static ScratchDatabase getInstance() {
+        return INSTANCE;
+    }
+
+    private ScratchDatabase() {
+        // no external instances
+    }
+
+    /**
+     * @return the configuration of the connection to the scratch database, e.g. to open a session with
+     * @throws LoadException if the settings cannot be read or the H2 JDBC driver is not on the classpath
+     */
+    public ConnectionConfiguration getConnectionConfiguration() throws LoadException {
+        if (!DatabaseConnectionFactory.isDriverAvailable(DRIVER_CLASS_NAME)) {
+            throw new LoadException("The scratch database needs the H2 JDBC driver (" + DRIVER_CLASS_NAME
+                    + "), which is not bundled with BlauSQL: add the H2 jar to the classpath with "
+                    + "Set Classpath in the main menu");
+        }
+
+        String databaseFile = ConfigurationRepository.getInstance().getScratchDatabaseFile();
+
+        String jdbcUrl = IN_MEMORY_JDBC_URL;
+        if (!databaseFile.isEmpty()) {
+            jdbcUrl = "jdbc:h2:file:" + Path.of(databaseFile).toAbsolutePath();
+        }
+
+        ConnectionConfiguration connectionConfiguration = new ConnectionConfiguration(CONNECTION_NAME);
+        connectionConfiguration.setDriverClassName(DRIVER_CLASS_NAME);
+        connectionConfiguration.setJdbcUrl(jdbcUrl + JDBC_URL_SETTINGS);
+        connectionConfiguration.setLoginAutomatically(true);
+        connectionConfiguration.setUserName("sa");
+        connectionConfiguration.setPassword("");
+        return connectionConfiguration;
+    }
+
+    /**
+     * Opens a new connection to the scratch database; the database is created by the first one.
+     *
+     * @return the connection, which the caller has to close
+     * @throws LoadException if the settings cannot be read or the H2 JDBC driver is not on the classpath
+     */
+    public DatabaseConnection connect() throws LoadException {
+        return DatabaseConnectionFactory.getDatabaseConnection(getConnectionConfiguration());
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.core.scratch;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The columns of a table of the scratch database holding the rows of a result: maps the column types
+ * reported by the source database to H2 types, and reads the values in a form H2 accepts for them.
+ */
+final class ScratchTableDefinition {
+
+    // the maximum precision of an H2 NUMERIC column
+    private static final int MAX_NUMERIC_PRECISION = 100_000;
+
+    private final List<String> columnNames;
+    private final List<String> columnDeclarations;
+    private final int[] columnTypes;
+
+    private ScratchTableDefinition(List<String> columnNames, List<String> columnDeclarations, int[] columnTypes) {
+        this.columnNames = columnNames;
+        this.columnDeclarations = columnDeclarations;
+        this.columnTypes = columnTypes;
+    }
+
+    static ScratchTableDefinition of(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+
+        List<String> columnNames = new ArrayList<>(columnCount);
+        List<String> columnDeclarations = new ArrayList<>(columnCount);
+        int[] columnTypes = new int[columnCount];
+
+        Set<String> usedNames = new HashSet<>();
+        for (int i = 0; i < columnCount; i++) {
+            columnNames.add(getUniqueName(metaData.getColumnLabel(i + 1), i, usedNames));
+            columnTypes[i] = getColumnType(metaData, i + 1);
+            columnDeclarations.add(getColumnDeclaration(metaData, i + 1, columnTypes[i]));
+        }
+
+        return new ScratchTableDefinition(columnNames, columnDeclarations, columnTypes);
+    }
+
+    /**
+     * Joins often return several columns of the same name (e.g. {@code ID}): the second one becomes
+     * {@code ID_2}, and so on; columns without a label are named after their position.
+     */
+    private static String getUniqueName(String label, int index, Set<String> usedNames) {
+        String name = label;
+        if (name == null || name.isBlank()) {
+            name = "COLUMN_" + (index + 1);
+        }
+
+        String uniqueName = name;
+        for (int suffix = 2; !usedNames.add(uniqueName.toUpperCase(Locale.ROOT)); suffix++) {
+            uniqueName = name + "_" + suffix;
+        }
+        return uniqueName;
+    }
+
+    /**
+     * @return the {@link Types} constant of the H2 column the values of a source column are stored in
+     */
+    private static int getColumnType(ResultSetMetaData metaData, int column) throws SQLException {
+        int sourceType = metaData.getColumnType(column);
+        switch (sourceType) {
+            case Types.BOOLEAN:
+                return Types.BOOLEAN;
+            case Types.BIT:
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return getIntegralColumnType(metaData, column, sourceType);
+            case Types.REAL:
+                return Types.REAL;
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return Types.DOUBLE;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return Types.NUMERIC;
+            case Types.DATE:
+            case Types.TIME:
+            case Types.TIMESTAMP:
+            case Types.TIME_WITH_TIMEZONE:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return sourceType;
+            case Types.BINARY:
+            case Types.VARBINARY:
+                return Types.VARBINARY;
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return Types.BLOB;
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.CLOB:
+            case Types.NCLOB:
+            case Types.SQLXML:
+                return Types.CLOB;
+            default:
+                // character types, and the ones H2 has no counterpart for (e.g. JSON, arrays) as their text
+                return Types.VARCHAR;
+        }
+    }
+
+    private static int getIntegralColumnType(ResultSetMetaData metaData, int column, int sourceType)
+            throws SQLException {
+        switch (sourceType) {
+            case Types.BIT:
+                // a single bit is a boolean, longer ones (e.g. BIT(8)) are kept as their text
+                if (metaData.getPrecision(column) <= 1) {
+                    return Types.BOOLEAN;
+                }
+                return Types.VARCHAR;
+            case Types.INTEGER:
+                // an unsigned INTEGER (e.g. in MySQL) may exceed the range of an H2 INTEGER
+                return Types.BIGINT;
+            case Types.BIGINT:
+                if (metaData.isSigned(column)) {
+                    return Types.BIGINT;
+                }
+                return Types.NUMERIC;
+            default:
+                return Types.INTEGER;
+        }
+    }
+
+    private static String getColumnDeclaration(ResultSetMetaData metaData, int column, int columnType)
+            throws SQLException {
+        switch (columnType) {
+            case Types.BOOLEAN:
+                return "BOOLEAN";
+            case Types.INTEGER:
+                return "INTEGER";
+            case Types.BIGINT:
+                return "BIGINT";
+            case Types.REAL:
+                return "REAL";
+            case Types.DOUBLE:
+                return "DOUBLE PRECISION";
+            case Types.NUMERIC:
+                return getNumericDeclaration(metaData, column);
+            case Types.DATE:
+                return "DATE";
+            case Types.TIME:
+                return "TIME(9)";
+            case Types.TIMESTAMP:
+                return "TIMESTAMP(9)";
+            case Types.TIME_WITH_TIMEZONE:
+                return "TIME(9) WITH TIME ZONE";
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return "TIMESTAMP(9) WITH TIME ZONE";
+            case Types.VARBINARY:
+                return "VARBINARY";
+            case Types.BLOB:
+                return "BLOB";
+            case Types.CLOB:
+                return "CLOB";
+            default:
+                return "VARCHAR";
+        }
+    }
+
+    private static String getNumericDeclaration(ResultSetMetaData metaData, int column) throws SQLException {
+        if (metaData.getColumnType(column) == Types.BIGINT) {
+            // unsigned BIGINT
+            return "NUMERIC(20)";
+        }
+
+        int precision = metaData.getPrecision(column);
+        int scale = metaData.getScale(column);
+        if (precision <= 0 || precision > MAX_NUMERIC_PRECISION || scale < 0 || scale > precision) {
+            // e.g. an Oracle NUMBER without precision: keep the digits, whatever the scale is
+            return "DECFLOAT";
+        }
+        return String.format(Locale.ROOT, "NUMERIC(%d, %d)", precision, scale);
+    }
+
+    String getCreateTableSql(String tableName) {
+        List<String> columns = new ArrayList<>(columnNames.size());
+        for (int i = 0; i < columnNames.size(); i++) {
+            columns.add(quote(columnNames.get(i)) + " " + columnDeclarations.get(i));
+        }
+        return "CREATE TABLE " + tableName + " (" + String.join(", ", columns) + ")";
+    }
+
+    String getInsertSql(String tableName) {
+        List<String> quotedNames = new ArrayList<>(columnNames.size());
+        for (String columnName : columnNames) {
+            quotedNames.add(quote(columnName));
+        }
+        return "INSERT INTO " + tableName + " (" + String.join(", ", quotedNames) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columnNames.size(), "?")) + ")";
+    }
+
+    private static String quote(String name) {
+        return '"' + name.replace("\"", "\"\"") + '"';
+    }
+
+    Object[] readRow(ResultSet resultSet) throws SQLException {
+        Object[] row = new Object[columnTypes.length];
+        for (int i = 0; i < columnTypes.length; i++) {
+            row[i] = readValue(resultSet, i + 1, columnTypes[i]);
+        }
+        return row;
+    }
+
+    /**
+     * Reads a value with the getter of the type it is stored as: {@code getObject} returns
+     * driver specific classes for some types (e.g. {@code oracle.sql.TIMESTAMP}), LOBs are only
+     * valid while the row is current.
+     */
+    private static Object readValue(ResultSet resultSet, int column, int columnType) throws SQLException {
+        switch (columnType) {
+            case Types.NUMERIC:
+                return resultSet.getBigDecimal(column);
+            case Types.DATE:
+                return resultSet.getDate(column);
+            case Types.TIME:
+                return resultSet.getTime(column);
+            case Types.TIMESTAMP:
+                return resultSet.getTimestamp(column);
+            case Types.TIME_WITH_TIMEZONE:
+                return resultSet.getObject(column, OffsetTime.class);
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return resultSet.getObject(column, OffsetDateTime.class);
+            case Types.VARBINARY:
+            case Types.BLOB:
+                return resultSet.getBytes(column);
+            case Types.VARCHAR:
+            case Types.CLOB:
+                return resultSet.getString(column);
+            default:
+                return resultSet.getObject(column);
+        }
+    }
+
+    void bindRow(PreparedStatement statement, Object[] row) throws SQLException {
+        for (int i = 0; i < row.length; i++) {
+            if (row[i] == null) {
+                statement.setNull(i + 1, columnTypes[i]);
+            } else {
+                statement.setObject(i + 1, row[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.core.scratch;
+
+import com.github.blausql.core.connection.DatabaseConnection;
+import com.github.blausql.core.preferences.ConfigurationRepository;
+import com.github.blausql.spi.connections.LoadException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Loads the result of a query into a table of the {@link ScratchDatabase}.
+ *
+ * <p>The rows are streamed from the source connection (with the {@code copyFetchSize} setting as fetch size)
+ * and inserted with a batched {@code PreparedStatement}, committed every {@code copyBatchSize} rows: the result
+ * is never held in memory as a whole, and is not limited by the {@code resultFetchLimit} setting. A table of the
+ * same name is replaced.</p>
+ */
+public final class ScratchTableLoad {
+
+    private static final Pattern TABLE_NAME_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final DatabaseConnection source;
+    private final String sql;
+    private final String tableName;
+
+    private final AtomicLong loadedRowCount = new AtomicLong();
+
+    /**
+     * @param source    the connection to execute the query on
+     * @param sql       the query
+     * @param tableName the name of the table to create in the scratch database
+     * @throws IllegalArgumentException if the table name is not a plain SQL identifier
+     */
+    public ScratchTableLoad(DatabaseConnection source, String sql, String tableName) {
+        if (!TABLE_NAME_PATTERN.matcher(tableName).matches()) {
+            throw new IllegalArgumentException("Not a valid table name (letters, digits and _ only): " + tableName);
+        }
+        this.source = source;
+        this.sql = sql;
+        this.tableName = tableName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * @return the number of rows committed so far
+     */
+    public long getLoadedRowCount() {
+        return loadedRowCount.get();
+    }
+
+    /**
+     * Executes the query and loads its rows; may be called only once.
+     *
+     * @return the number of rows loaded
+     * @throws InterruptedException if the calling thread is interrupted: the rows committed so far are kept
+     * @throws LoadException        if the settings cannot be read or the H2 JDBC driver is not on the classpath
+     */
+    public long load() throws InterruptedException, LoadException {
+        ConfigurationRepository configurationRepository = ConfigurationRepository.getInstance();
+        int fetchSize = configurationRepository.getCopyFetchSize();
+        int batchSize = configurationRepository.getCopyBatchSize();
+
+        DatabaseConnection target = ScratchDatabase.getInstance().connect();
+        try {
+            source.execute(connection -> loadRows(connection, target, fetchSize, batchSize));
+
+        } finally {
+            target.close();
+        }
+
+        if (Thread.interrupted()) {
+            throw new InterruptedException("Loading " + tableName + " was interrupted");
+        }
+        return loadedRowCount.get();
+    }
+
+    private Void loadRows(Connection connection, DatabaseConnection target, int fetchSize, int batchSize)
+            throws SQLException {
+
+        boolean autoCommit = connection.getAutoCommit();
+
+        // some drivers (e.g. PostgreSQL) only stream results with a cursor inside a transaction
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.setFetchSize(fetchSize);
+
+            try (ResultSet resultSet = statement.executeQuery(sql)) {
+                ScratchTableDefinition definition = ScratchTableDefinition.of(resultSet.getMetaData());
+
+                target.execute(targetConnection -> createTable(targetConnection, definition));
+                copyRows(resultSet, target, definition, batchSize);
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        return null;
+    }
+
+    private Void createTable(Connection connection, ScratchTableDefinition definition) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + tableName);
+            statement.execute(definition.getCreateTableSql(tableName));
+        }
+        return null;
+    }
+
+    private void copyRows(ResultSet resultSet, DatabaseConnection target, ScratchTableDefinition definition,
+                          int batchSize) throws SQLException {
+
+        String insertSql = definition.getInsertSql(tableName);
+
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted() && resultSet.next()) {
+            batch.add(definition.readRow(resultSet));
+
+            if (batch.size() >= batchSize) {
+                writeBatch(target, insertSql, definition, batch);
+                batch.clear();
+            }
+        }
+        writeBatch(target, insertSql, definition, batch);
+    }
+
+    private void writeBatch(DatabaseConnection target, String insertSql, ScratchTableDefinition definition,
+                            List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        target.execute(connection -> {
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement statement = connection.prepareStatement(insertSql)) {
+                for (Object[] row : batch) {
+                    definition.bindRow(statement, row);
+                    statement.addBatch();
+                }
+
+                statement.executeBatch();
+                connection.commit();
+
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+            return null;
+        });
+
+        loadedRowCount.addAndGet(batch.size());
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+public final class SqlUtils {
+
+    private static final Set<String> READ_ONLY_QUERY_KEYWORDS = Set.of("SELECT", "WITH", "VALUES", "TABLE");
+
+    /**
+     * Words which make a query starting with a read-only keyword modify data, lock rows or change the state
+     * of the session anywhere in it: e.g. a data-modifying CTE, {@code SELECT ... INTO}, {@code FOR UPDATE}
+     * or {@code FOR SHARE}, or functions with side effects. Plain function names (e.g. {@code REPLACE})
+     * are rejected as well: a false alarm only costs a cache miss.
+     */
+    private static final Set<String> DATA_MODIFYING_WORDS = Set.of(
+            "INSERT", "UPDATE", "DELETE", "MERGE", "UPSERT", "REPLACE", "TRUNCATE", "INTO",
+            "CREATE", "ALTER", "DROP", "GRANT", "REVOKE", "CALL", "EXEC", "EXECUTE", "COPY",
+            "LOCK", "SHARE", "NOWAIT",
+            "NEXTVAL", "CURRVAL", "SETVAL", "LASTVAL", "SET_CONFIG", "DBLINK_EXEC", "LO_IMPORT", "LO_EXPORT",
+            "LO_UNLINK");
+
+    // e.g. PG_ADVISORY_LOCK, DBMS_LOCK.SLEEP or UTL_FILE.FOPEN
+    private static final List<String> DATA_MODIFYING_PREFIXES = List.of("PG_ADVISORY", "PG_TRY_ADVISORY",
+            "DBMS_", "UTL_");
+
+    private static final String NO_CACHE_HINT = "nocache";
+
+    private SqlUtils() {
+        // no external instances
+    }
+
+    /**
+     * Normalizes an SQL statement, so that statements only differing in formatting compare equal:
+     * comments are removed, whitespace outside of quoted literals and identifiers is collapsed
+     * to a single space, and a trailing semicolon is dropped. Letter case is retained, as it might
+     * be significant for the database.
+     *
+     * @param sql the SQL statement to normalize
+     * @return the normalized statement
+     */
+    public static String normalize(String sql) {
+        StringBuilder sb = new StringBuilder(sql.length());
+
+        boolean pendingSpace = false;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+
+            if (c == '\'' || c == '"') {
+                int end = findClosingQuote(sql, i);
+                appendSeparated(sb, pendingSpace, sql, i, end);
+                pendingSpace = false;
+                i = end;
+
+            } else if (startsWith(sql, i, "--")) {
+                i = findEndOfLine(sql, i);
+                pendingSpace = true;
+
+            } else if (startsWith(sql, i, "/*")) {
+                i = findEndOfBlockComment(sql, i);
+                pendingSpace = true;
+
+            } else if (Character.isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+
+            } else {
+                appendSeparated(sb, pendingSpace, sql, i, i + 1);
+                pendingSpace = false;
+                i++;
+            }
+        }
+
+        int length = sb.length();
+        while (length > 0 && (sb.charAt(length - 1) == ';' || sb.charAt(length - 1) == ' ')) {
+            length--;
+        }
+        sb.setLength(length);
+
+        return sb.toString();
+    }
+
+    /**
+     * Returns the first keyword of a statement in upper case.
+     *
+     * @param sql the SQL statement
+     * @return the first keyword, or an empty string if the statement is empty
+     */
+    public static String getFirstKeyword(String sql) {
+        String normalized = normalize(sql);
+
+        int end = 0;
+        while (end < normalized.length() && Character.isLetter(normalized.charAt(end))) {
+            end++;
+        }
+
+        return normalized.substring(0, end).toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Checks whether a statement is a plain query, which does not modify the database. The check is
+     * conservative: a query is only considered read-only if, outside of literals, quoted identifiers and
+     * comments, none of its words might modify data or lock rows, including sequence functions
+     * (e.g. {@code NEXTVAL} or {@code NEXT VALUE FOR}). Functions with side effects of the database or
+     * the user cannot all be recognized: see {@link #hasNoCacheHint(String)}.
+     *
+     * @param sql the SQL statement
+     * @return {@code true} if the statement only reads data
+     */
+    public static boolean isReadOnlyQuery(String sql) {
+        List<String> words = getWords(sql);
+        if (words.isEmpty() || !READ_ONLY_QUERY_KEYWORDS.contains(words.get(0))) {
+            return false;
+        }
+
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            if (DATA_MODIFYING_WORDS.contains(word) || isSequenceValue(words, i)) {
+                return false;
+            }
+            for (String prefix : DATA_MODIFYING_PREFIXES) {
+                if (word.startsWith(prefix)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSequenceValue(List<String> words, int index) {
+        return "NEXT".equals(words.get(index)) && index + 1 < words.size() && "VALUE".equals(words.get(index + 1));
+    }
+
+    /**
+     * Checks whether a statement opts out of the result cache with a comment only containing {@code nocache}
+     * (a block comment, or a line comment such as {@code -- nocache}), e.g. as it calls a function with
+     * side effects.
+     *
+     * @param sql the SQL statement
+     * @return {@code true} if the result of the statement must not be cached
+     */
+    public static boolean hasNoCacheHint(String sql) {
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"') {
+                i = findClosingQuote(sql, i);
+
+            } else if (startsWith(sql, i, "--")) {
+                int end = findEndOfLine(sql, i);
+                if (isNoCacheHint(sql.substring(i + 2, end))) {
+                    return true;
+                }
+                i = end;
+
+            } else if (startsWith(sql, i, "/*")) {
+                int end = findEndOfBlockComment(sql, i);
+                if (isNoCacheHint(sql.substring(i + 2, Math.max(i + 2, end - 2)))) {
+                    return true;
+                }
+                i = end;
+
+            } else {
+                i++;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNoCacheHint(String commentText) {
+        return NO_CACHE_HINT.equalsIgnoreCase(commentText.trim());
+    }
+
+    /**
+     * @return the words (names and keywords) of a statement in upper case, without the ones in literals,
+     * quoted identifiers and comments
+     */
+    private static List<String> getWords(String sql) {
+        String normalized = normalize(sql);
+
+        List<String> words = new ArrayList<>();
+        int i = 0;
+        while (i < normalized.length()) {
+            char c = normalized.charAt(i);
+            if (c == '\'' || c == '"') {
+                i = findClosingQuote(normalized, i);
+
+            } else if (isWordCharacter(c)) {
+                int start = i;
+                while (i < normalized.length() && isWordCharacter(normalized.charAt(i))) {
+                    i++;
+                }
+                words.add(normalized.substring(start, i).toUpperCase(Locale.ROOT));
+
+            } else {
+                i++;
+            }
+        }
+        return words;
+    }
+
+    private static boolean isWordCharacter(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    private static void appendSeparated(StringBuilder sb, boolean pendingSpace, String sql, int start, int end) {
+        if (pendingSpace && sb.length() > 0) {
+            sb.append(' ');
+        }
+        sb.append(sql, start, end);
+    }
+
+    private static boolean startsWith(String sql, int index, String prefix) {
+        return sql.startsWith(prefix, index);
+    }
+
+    private static int findClosingQuote(String sql, int openingQuoteIndex) {
+        char quote = sql.charAt(openingQuoteIndex);
+
+        int i = openingQuoteIndex + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                boolean escapedByDoubling = i + 1 < sql.length() && sql.charAt(i + 1) == quote;
+                if (!escapedByDoubling) {
+                    return i + 1;
+                }
+                i++;
+            }
+            i++;
+        }
+
+        return sql.length();
+    }
+
+    private static int findEndOfLine(String sql, int index) {
+        int end = sql.indexOf('\n', index);
+        if (end == -1) {
+            return sql.length();
+        }
+        return end + 1;
+    }
+
+    private static int findEndOfBlockComment(String sql, int index) {
+        int end = sql.indexOf("*/", index + 2);
+        if (end == -1) {
+            return sql.length();
+        }
+        return end + 2;
+    }
+}
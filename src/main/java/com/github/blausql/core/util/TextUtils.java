@@ -18,11 +18,17 @@
 package com.github.blausql.core.util;
 
 import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 public final class TextUtils {
 
     public static final String LINE_SEPARATOR = System.getProperty("line.separator");
 
+    private static final long MILLIS_PER_SECOND = TimeUnit.SECONDS.toMillis(1);
+    private static final long SECONDS_PER_MINUTE = TimeUnit.MINUTES.toSeconds(1);
+    private static final long MINUTES_PER_HOUR = TimeUnit.HOURS.toMinutes(1);
+
     private TextUtils() {
         // no external instances
     }
@@ -65,4 +71,29 @@ public final class TextUtils {
             return "";
         }
     }
+
+    /**
+     * Formats a duration in a compact, human-readable way, e.g. {@code 250 ms}, {@code 4.2 s},
+     * {@code 3m 12s} or {@code 2h 5m}.
+     *
+     * @param millis the duration in milliseconds
+     * @return the formatted duration
+     */
+    public static String formatDuration(long millis) {
+        if (millis < MILLIS_PER_SECOND) {
+            return String.format(Locale.ROOT, "%d ms", millis);
+        }
+
+        long seconds = TimeUnit.MILLISECONDS.toSeconds(millis);
+        if (seconds < SECONDS_PER_MINUTE) {
+            return String.format(Locale.ROOT, "%.1f s", (double) millis / MILLIS_PER_SECOND);
+        }
+
+        long minutes = TimeUnit.SECONDS.toMinutes(seconds);
+        if (minutes < MINUTES_PER_HOUR) {
+            return String.format(Locale.ROOT, "%dm %ds", minutes, seconds % SECONDS_PER_MINUTE);
+        }
+
+        return String.format(Locale.ROOT, "%dh %dm", TimeUnit.MINUTES.toHours(minutes), minutes % MINUTES_PER_HOUR);
+    }
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.spi.connections;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the synchronous operations of a {@link ConnectionConfigurationRepository} for its default
+ * asynchronous methods.
+ */
+final class AsyncAdapter {
+
+    interface Operation<T> {
+        T execute() throws LoadException, SaveException, DeleteException;
+    }
+
+    private AsyncAdapter() {
+        // no external instances
+    }
+
+    /**
+     * Runs an operation with an executor.
+     *
+     * @param operation the operation to run
+     * @param executor  the executor to run the operation with
+     * @param <T>       the type of the result
+     * @return a future completed with the result of the operation, or completed exceptionally with a
+     *          {@link CompletionException} caused by the exception thrown by the operation
+     */
+    static <T> CompletableFuture<T> supplyAsync(Operation<T> operation, Executor executor) {
+        Objects.requireNonNull(executor, "Argument executor cannot be null");
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return operation.execute();
+
+            } catch (LoadException | SaveException | DeleteException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+}
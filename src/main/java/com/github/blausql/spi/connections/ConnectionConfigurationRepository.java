@@ -18,11 +18,19 @@ package com.github.blausql.spi.connections;
 
 import com.github.blausql.core.connection.ConnectionConfiguration;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Interface for managing database connection configurations.
  * Implementations can provide custom storage mechanisms for connection configurations.
+ * <p>
+ * Besides the abstract, synchronous methods, the interface provides bulk, paged and asynchronous
+ * variants. Their default implementations are built on the synchronous methods: a repository backed by
+ * a slow store should override them to save or delete several configurations at once, to read a page
+ * without reading all configurations, or to use the asynchronous API of its store.
  */
 public interface ConnectionConfigurationRepository {
 
@@ -58,4 +66,165 @@ public interface ConnectionConfigurationRepository {
      * @throws LoadException if there is an error loading the connection configurations
      */
     ConnectionConfiguration findConnectionConfigurationByName(String connectionName) throws LoadException;
+
+    /**
+     * Retrieves a page of the connection configurations, in the order of {@link #getConnectionConfigurations()}.
+     *
+     * @param offset the number of connection configurations to skip
+     * @param limit  the maximum number of connection configurations to return
+     * @return the connection configurations of the page, fewer than {@code limit} if it is the last page
+     * @throws LoadException if there is an error loading the connection configurations
+     */
+    default List<ConnectionConfiguration> getConnectionConfigurations(int offset, int limit) throws LoadException {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Invalid page: offset=" + offset + ", limit=" + limit);
+        }
+
+        List<ConnectionConfiguration> connectionConfigurations = getConnectionConfigurations();
+
+        int fromIndex = Math.min(offset, connectionConfigurations.size());
+        int toIndex = (int) Math.min((long) fromIndex + limit, connectionConfigurations.size());
+
+        return List.copyOf(connectionConfigurations.subList(fromIndex, toIndex));
+    }
+
+    /**
+     * Saves several connection configurations. Implementations should save all or none of them;
+     * the default implementation saves them one by one.
+     *
+     * @param connectionConfigurations the connection configurations to save
+     * @throws SaveException if there is an error saving the connection configurations
+     */
+    default void saveConnectionConfigurations(Collection<ConnectionConfiguration> connectionConfigurations)
+            throws SaveException {
+
+        for (ConnectionConfiguration connectionConfiguration : connectionConfigurations) {
+            saveConnectionConfiguration(connectionConfiguration);
+        }
+    }
+
+    /**
+     * Deletes several connection configurations by name. Implementations should delete all or none of them;
+     * the default implementation deletes them one by one.
+     *
+     * @param connectionNames the names of the connections to delete
+     * @throws DeleteException if there is an error deleting the connection configurations
+     */
+    default void deleteConnectionConfigurationsByName(Collection<String> connectionNames) throws DeleteException {
+        for (String connectionName : connectionNames) {
+            deleteConnectionConfigurationByName(connectionName);
+        }
+    }
+
+    /**
+     * Retrieves all connection configurations asynchronously.
+     *
+     * @param executor the executor to run blocking operations with
+     * @return a future completed with the connection configurations, or completed exceptionally with a
+     *          {@link java.util.concurrent.CompletionException} caused by a {@link LoadException}
+     */
+    default CompletableFuture<List<ConnectionConfiguration>> getConnectionConfigurationsAsync(Executor executor) {
+        return AsyncAdapter.supplyAsync(this::getConnectionConfigurations, executor);
+    }
+
+    /**
+     * Retrieves a page of the connection configurations asynchronously.
+     *
+     * @param offset   the number of connection configurations to skip
+     * @param limit    the maximum number of connection configurations to return
+     * @param executor the executor to run blocking operations with
+     * @return a future completed with the connection configurations of the page, or completed exceptionally
+     *          with a {@link java.util.concurrent.CompletionException} caused by a {@link LoadException}
+     * @see #getConnectionConfigurations(int, int)
+     */
+    default CompletableFuture<List<ConnectionConfiguration>> getConnectionConfigurationsAsync(
+            int offset, int limit, Executor executor) {
+
+        return AsyncAdapter.supplyAsync(() -> getConnectionConfigurations(offset, limit), executor);
+    }
+
+    /**
+     * Finds a connection configuration by name (case-insensitive) asynchronously.
+     *
+     * @param connectionName the name of the connection to find
+     * @param executor       the executor to run blocking operations with
+     * @return a future completed with the connection configuration, or {@code null} if not found; or completed
+     *          exceptionally with a {@link java.util.concurrent.CompletionException} caused by a
+     *          {@link LoadException}
+     */
+    default CompletableFuture<ConnectionConfiguration> findConnectionConfigurationByNameAsync(
+            String connectionName, Executor executor) {
+
+        return AsyncAdapter.supplyAsync(() -> findConnectionConfigurationByName(connectionName), executor);
+    }
+
+    /**
+     * Saves a connection configuration asynchronously.
+     *
+     * @param connectionConfiguration the connection configuration to save
+     * @param executor                the executor to run blocking operations with
+     * @return a future completed when the connection configuration is saved, or completed exceptionally with a
+     *          {@link java.util.concurrent.CompletionException} caused by a {@link SaveException}
+     */
+    default CompletableFuture<Void> saveConnectionConfigurationAsync(
+            ConnectionConfiguration connectionConfiguration, Executor executor) {
+
+        return AsyncAdapter.supplyAsync(() -> {
+            saveConnectionConfiguration(connectionConfiguration);
+            return null;
+        }, executor);
+    }
+
+    /**
+     * Saves several connection configurations asynchronously.
+     *
+     * @param connectionConfigurations the connection configurations to save
+     * @param executor                 the executor to run blocking operations with
+     * @return a future completed when the connection configurations are saved, or completed exceptionally with a
+     *          {@link java.util.concurrent.CompletionException} caused by a {@link SaveException}
+     * @see #saveConnectionConfigurations(Collection)
+     */
+    default CompletableFuture<Void> saveConnectionConfigurationsAsync(
+            Collection<ConnectionConfiguration> connectionConfigurations, Executor executor) {
+
+        return AsyncAdapter.supplyAsync(() -> {
+            saveConnectionConfigurations(connectionConfigurations);
+            return null;
+        }, executor);
+    }
+
+    /**
+     * Deletes a connection configuration by name asynchronously.
+     *
+     * @param connectionName the name of the connection to delete
+     * @param executor       the executor to run blocking operations with
+     * @return a future completed when the connection configuration is deleted, or completed exceptionally with a
+     *          {@link java.util.concurrent.CompletionException} caused by a {@link DeleteException}
+     */
+    default CompletableFuture<Void> deleteConnectionConfigurationByNameAsync(
+            String connectionName, Executor executor) {
+
+        return AsyncAdapter.supplyAsync(() -> {
+            deleteConnectionConfigurationByName(connectionName);
+            return null;
+        }, executor);
+    }
+
+    /**
+     * Deletes several connection configurations by name asynchronously.
+     *
+     * @param connectionNames the names of the connections to delete
+     * @param executor        the executor to run blocking operations with
+     * @return a future completed when the connection configurations are deleted, or completed exceptionally with a
+     *          {@link java.util.concurrent.CompletionException} caused by a {@link DeleteException}
+     * @see #deleteConnectionConfigurationsByName(Collection)
+     */
+    default CompletableFuture<Void> deleteConnectionConfigurationsByNameAsync(
+            Collection<String> connectionNames, Executor executor) {
+
+        return AsyncAdapter.supplyAsync(() -> {
+            deleteConnectionConfigurationsByName(connectionNames);
+            return null;
+        }, executor);
+    }
 }
@@ -21,19 +21,23 @@ import com.github.blausql.TerminalUI;
 import com.github.blausql.core.connection.ConnectionConfiguration;
 import com.github.blausql.core.preferences.ConnectionConfigurationRepositoryFactory;
 
-import com.github.blausql.spi.connections.DeleteException;
-import com.github.blausql.spi.connections.LoadException;
+import com.github.blausql.spi.connections.ConnectionConfigurationRepository;
 import com.github.blausql.spi.connections.SaveException;
 import com.github.blausql.ui.components.ApplicationWindow;
 import com.github.blausql.ui.components.PasswordBox;
 import com.github.blausql.ui.components.SimpleTextBox;
 import com.github.blausql.ui.hotkey.HotKeyWindowListener;
+import com.github.blausql.ui.util.AsyncOperation;
 import com.googlecode.lanterna.TerminalSize;
 import com.googlecode.lanterna.gui2.*;
 import com.googlecode.lanterna.input.KeyType;
 import com.googlecode.lanterna.screen.Screen;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -69,6 +73,7 @@ public final class ConnectionSettingsWindow extends ApplicationWindow {
     private final TextBox connectionNameTextBox;
     private final TextBox driverClassTextBox;
     private final TextBox jdbcUrlTextBox;
+    private final TextBox alternateJdbcUrlsTextBox;
 
     private final CheckBox loginAutomaticallyCheckBox;
 
@@ -100,6 +105,7 @@ public final class ConnectionSettingsWindow extends ApplicationWindow {
         connectionNameTextBox = createConnectionNameField(connectionConfiguration, mainPanel);
         driverClassTextBox = createDriverClassField(connectionConfiguration, mainPanel);
         jdbcUrlTextBox = createJdbcUrlField(connectionConfiguration, terminalUI, mainPanel);
+        alternateJdbcUrlsTextBox = createAlternateJdbcUrlsField(connectionConfiguration, terminalUI, mainPanel);
         loginAutomaticallyCheckBox = createLoginAutomaticallyField(connectionConfiguration, mainPanel);
         userNameTextBox = createUserNameField(connectionConfiguration, mainPanel);
         passwordPasswordBox = createPasswordField(connectionConfiguration, mainPanel);
@@ -136,6 +142,17 @@ public final class ConnectionSettingsWindow extends ApplicationWindow {
                 ConnectionConfiguration::getJdbcUrl, getBoxLength(terminalUI, JDBC_URL_BOX_LEN), mainPanel);
     }
 
+    private static TextBox createAlternateJdbcUrlsField(
+            ConnectionConfiguration connectionConfiguration, TerminalUI terminalUI, Panel mainPanel) {
+
+        return addTextEntryComponents(
+                "Alternate JDBC URLs (other nodes, separated by "
+                        + ConnectionConfiguration.JDBC_URL_SEPARATOR + ", optional)",
+                connectionConfiguration,
+                cc -> ConnectionConfiguration.joinJdbcUrls(cc.getAlternateJdbcUrls()),
+                getBoxLength(terminalUI, JDBC_URL_BOX_LEN), mainPanel);
+    }
+
     private static CheckBox createLoginAutomaticallyField(
             ConnectionConfiguration connectionConfiguration, Panel mainPanel) {
 
@@ -300,27 +317,32 @@ public final class ConnectionSettingsWindow extends ApplicationWindow {
     }
 
     private void onSaveButtonSelected() {
+        final ConnectionConfiguration connectionConfiguration;
         try {
-            ConnectionConfiguration connectionConfiguration = buildConnectionConfiguration();
+            connectionConfiguration = buildConnectionConfiguration();
 
-            switch (dialogMode) {
-                case ADD:
-                case COPY:
-                    saveConnectionDefinition(connectionConfiguration);
-                    break;
+        } catch (RuntimeException e) {
+            showErrorMessageFromThrowable(e);
+            return;
+        }
 
-                case EDIT:
-                    updateConnectionDefinition(connectionConfiguration);
-                    break;
+        final Function<Executor, CompletableFuture<Void>> saveOperation;
+        switch (dialogMode) {
+            case ADD:
+            case COPY:
+                saveOperation = executor -> saveConnectionDefinition(connectionConfiguration, executor);
+                break;
 
-                default:
-                    throw new IllegalStateException("Unknown dialogMode: " + dialogMode);
-            }
-            this.close();
+            case EDIT:
+                saveOperation = executor -> updateConnectionDefinition(connectionConfiguration, executor);
+                break;
 
-        } catch (RuntimeException | SaveException e) {
-            showErrorMessageFromThrowable(e);
+            default:
+                throw new IllegalStateException("Unknown dialogMode: " + dialogMode);
         }
+
+        AsyncOperation.run(getTerminalUI(), "Saving " + connectionConfiguration.getConnectionName() + "... ",
+                saveOperation, result -> this.close());
     }
 
     private ConnectionConfiguration buildConnectionConfiguration() {
@@ -342,7 +364,10 @@ public final class ConnectionSettingsWindow extends ApplicationWindow {
         final String orderString = orderTextBox.getText();
         final Integer order = mapOrder(orderString);
 
-        return new ConnectionConfiguration(
+        final List<String> alternateJdbcUrls =
+                ConnectionConfiguration.splitJdbcUrls(alternateJdbcUrlsTextBox.getText());
+
+        ConnectionConfiguration connectionConfiguration = new ConnectionConfiguration(
                 connectionName,
                 jdbcDriverClassName,
                 jdbcUrl,
@@ -352,6 +377,10 @@ public final class ConnectionSettingsWindow extends ApplicationWindow {
                 statementSeparator,
                 hotkey,
                 order);
+
+        connectionConfiguration.setAlternateJdbcUrls(alternateJdbcUrls);
+
+        return connectionConfiguration;
     }
 
     private Character mapHotKey(String hotkeyString) {
@@ -383,49 +412,49 @@ public final class ConnectionSettingsWindow extends ApplicationWindow {
         return order;
     }
 
-    private void updateConnectionDefinition(ConnectionConfiguration connectionConfigurationToUpdate)
-            throws SaveException {
+    private CompletableFuture<Void> updateConnectionDefinition(
+            ConnectionConfiguration connectionConfigurationToUpdate, Executor executor) {
 
-        try {
-            String connectionName = connectionConfigurationToUpdate.getConnectionName();
-
-            // In this setup, connection name is the primary key:
-            // we can handle renames, but we have to implement it as delete-then-save
-            final boolean nameChanged = !Objects.equals(connectionName,
-                    originalNameOfExistingConnectionConfiguration);
-            if (nameChanged) {
-                ConnectionConfigurationRepositoryFactory.getRepository()
-                        .deleteConnectionConfigurationByName(originalNameOfExistingConnectionConfiguration);
-            }
+        ConnectionConfigurationRepository repository = ConnectionConfigurationRepositoryFactory.getRepository();
+
+        String connectionName = connectionConfigurationToUpdate.getConnectionName();
 
-            ConnectionConfigurationRepositoryFactory.getRepository()
-                    .saveConnectionConfiguration(connectionConfigurationToUpdate);
+        // In this setup, connection name is the primary key:
+        // we can handle renames, but we have to implement it as delete-then-save
+        final boolean nameChanged = !Objects.equals(connectionName,
+                originalNameOfExistingConnectionConfiguration);
 
-        } catch (DeleteException e) {
-            throw new SaveException("Could not delete previous state", e);
+        CompletableFuture<Void> previousStateDeleted;
+        if (nameChanged) {
+            previousStateDeleted = repository
+                    .deleteConnectionConfigurationByNameAsync(originalNameOfExistingConnectionConfiguration, executor)
+                    .exceptionally(failure -> {
+                        throw new CompletionException(new SaveException("Could not delete previous state",
+                                AsyncOperation.unwrap(failure)));
+                    });
+        } else {
+            previousStateDeleted = CompletableFuture.completedFuture(null);
         }
 
+        return previousStateDeleted.thenCompose(
+                deleted -> repository.saveConnectionConfigurationAsync(connectionConfigurationToUpdate, executor));
     }
 
-    private void saveConnectionDefinition(ConnectionConfiguration connectionConfigurationToSave)
-            throws SaveException {
+    private CompletableFuture<Void> saveConnectionDefinition(
+            ConnectionConfiguration connectionConfigurationToSave, Executor executor) {
 
-        try {
-            String connectionName = connectionConfigurationToSave.getConnectionName();
+        ConnectionConfigurationRepository repository = ConnectionConfigurationRepositoryFactory.getRepository();
 
-            ConnectionConfiguration existingConnectionConfiguration =
-                    ConnectionConfigurationRepositoryFactory.getRepository()
-                            .findConnectionConfigurationByName(connectionName);
+        String connectionName = connectionConfigurationToSave.getConnectionName();
 
-            if (existingConnectionConfiguration != null) {
-                throw new IllegalStateException("Connection with name '" + connectionName + "' already exists");
-            }
+        return repository.findConnectionConfigurationByNameAsync(connectionName, executor)
+                .thenCompose(existingConnectionConfiguration -> {
+                    if (existingConnectionConfiguration != null) {
+                        throw new IllegalStateException(
+                                "Connection with name '" + connectionName + "' already exists");
+                    }
 
-            ConnectionConfigurationRepositoryFactory.getRepository()
-                    .saveConnectionConfiguration(connectionConfigurationToSave);
-
-        } catch (LoadException e) {
-            throw new SaveException("Failed to save connection configuration", e);
-        }
+                    return repository.saveConnectionConfigurationAsync(connectionConfigurationToSave, executor);
+                });
     }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.ui;
+
+import com.github.blausql.core.result.LobValue;
+import com.github.blausql.ui.hotkey.HotKeyWindowListener;
+import com.googlecode.lanterna.gui2.BasicWindow;
+import com.googlecode.lanterna.gui2.TextBox;
+import com.googlecode.lanterna.input.KeyType;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collections;
+
+/**
+ * Shows the beginning of a large value (e.g. a CLOB) read from its temporary file; a value larger than
+ * {@value #MAX_SHOWN_CHARACTERS} characters has to be saved to a file to see all of it.
+ */
+final class LobValueWindow extends BasicWindow {
+
+    private static final int MAX_SHOWN_CHARACTERS = 1_000_000;
+
+    // two hexadecimal digits per byte
+    private static final int HEX_DIGITS_PER_LINE = 64;
+
+    LobValueWindow(String columnLabel, LobValue lobValue) throws IOException {
+        super(getTitle(columnLabel, lobValue));
+
+        addWindowListener(HotKeyWindowListener.builder()
+                .keyType(KeyType.Escape).invoke(this::close)
+                .build());
+
+        TextBox textBox = new TextBox("", TextBox.Style.MULTI_LINE);
+        textBox.setReadOnly(true);
+        textBox.setText(readShownText(lobValue));
+
+        setComponent(textBox);
+        setHints(Collections.singletonList(Hint.FULL_SCREEN));
+    }
+
+    private static String getTitle(String columnLabel, LobValue lobValue) {
+        String unit = "characters";
+        if (lobValue.isBinary()) {
+            unit = "bytes";
+        }
+
+        String shown = "";
+        if (getShownCharacters(lobValue) < getCharacters(lobValue)) {
+            shown = String.format(", first %,d characters shown", MAX_SHOWN_CHARACTERS);
+        }
+        return String.format("%s: %,d %s%s (press ESC to close)", columnLabel, lobValue.getLength(), unit, shown);
+    }
+
+    private static long getCharacters(LobValue lobValue) {
+        if (lobValue.isBinary()) {
+            return 2 * lobValue.getLength();
+        }
+        return lobValue.getLength();
+    }
+
+    private static int getShownCharacters(LobValue lobValue) {
+        return (int) Math.min(getCharacters(lobValue), MAX_SHOWN_CHARACTERS);
+    }
+
+    private static String readShownText(LobValue lobValue) throws IOException {
+        char[] buffer = new char[getShownCharacters(lobValue)];
+
+        int length = 0;
+        try (Reader reader = lobValue.openReader()) {
+            int read = 0;
+            while (length < buffer.length && read != -1) {
+                read = reader.read(buffer, length, buffer.length - length);
+                length += Math.max(read, 0);
+            }
+        }
+
+        if (!lobValue.isBinary()) {
+            return new String(buffer, 0, length);
+        }
+
+        StringBuilder hexLines = new StringBuilder(length + length / HEX_DIGITS_PER_LINE);
+        for (int start = 0; start < length; start += HEX_DIGITS_PER_LINE) {
+            hexLines.append(buffer, start, Math.min(HEX_DIGITS_PER_LINE, length - start)).append('\n');
+        }
+        return hexLines.toString();
+    }
+}
@@ -23,15 +23,21 @@ import com.github.blausql.core.Constants;
 import com.github.blausql.core.connection.ConnectionConfiguration;
 import com.github.blausql.core.preferences.ConfigurationRepository;
 import com.github.blausql.core.preferences.ConnectionConfigurationRepositoryFactory;
+import com.github.blausql.core.result.ResultSnapshot;
 import com.github.blausql.spi.connections.LoadException;
 import com.github.blausql.ui.components.ActionButton;
 import com.github.blausql.ui.components.ApplicationWindow;
 import com.github.blausql.ui.hotkey.HotKeyWindowListener;
+import com.github.blausql.ui.sql.SqlQueryWindow;
+import com.github.blausql.ui.util.AsyncOperation;
 import com.googlecode.lanterna.gui2.Panels;
 import com.googlecode.lanterna.gui2.dialogs.MessageDialogButton;
 
 
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class MainMenuWindow extends ApplicationWindow {
 
@@ -42,28 +48,44 @@ public class MainMenuWindow extends ApplicationWindow {
         ActionButton connectToDatabaseButton =
                 button("[C]onnect to database", this::onConnectorToDatabaseButtonSelected);
 
+        ActionButton compareDataButton  =
+                button("Compare [D]ata", this::onCompareDataButtonSelected);
+
+        ActionButton copyDataButton  =
+                button("Copy [T]able Data", this::onCopyDataButtonSelected);
+
         ActionButton manageConnectionsButton  =
                 button("[M]anage Connections", this::onManageConnectionButtonSelected);
 
-        ActionButton setClasspathButton  =
-                button("[S]et Classpath", this::onSetClasspathButtonSelected);
+        ActionButton openSnapshotButton  =
+                button("[O]pen Result Snapshot", this::onOpenSnapshotButtonSelected);
+
+        ActionButton scratchDatabaseButton = button("Scratch Data[b]ase", this::onScratchDatabaseButtonSelected);
 
-        ActionButton aboutButton  =
-                button("[A]bout", this::onAboutButtonSelected);
+        ActionButton setClasspathButton = button("[S]et Classpath", this::onSetClasspathButtonSelected);
 
-        ActionButton quitApplicationButton  =
-                button("[Q]uit", this::close);
+        ActionButton aboutButton = button("[A]bout", this::onAboutButtonSelected);
+
+        ActionButton quitApplicationButton = button("[Q]uit", this::close);
 
         setComponent(Panels.vertical(
                 connectToDatabaseButton,
+                compareDataButton,
+                copyDataButton,
                 manageConnectionsButton,
+                openSnapshotButton,
+                scratchDatabaseButton,
                 setClasspathButton,
                 aboutButton,
                 quitApplicationButton));
 
         addWindowListener(HotKeyWindowListener.builder()
                 .character('C').invoke(connectToDatabaseButton)
+                .character('D').invoke(compareDataButton)
+                .character('T').invoke(copyDataButton)
                 .character('M').invoke(manageConnectionsButton)
+                .character('O').invoke(openSnapshotButton)
+                .character('B').invoke(scratchDatabaseButton)
                 .character('S').invoke(setClasspathButton)
                 .character('A').invoke(aboutButton)
                 .character('Q').invoke(quitApplicationButton)
@@ -71,10 +93,11 @@ public class MainMenuWindow extends ApplicationWindow {
     }
 
 
-    private void onConnectorToDatabaseButtonSelected() throws LoadException {
-        List<ConnectionConfiguration> connectionConfigurations =
-                ConnectionConfigurationRepositoryFactory.getRepository().getConnectionConfigurations();
+    private void onConnectorToDatabaseButtonSelected() {
+        loadConnectionConfigurations(this::showSelectConnectionForQueryWindow);
+    }
 
+    private void showSelectConnectionForQueryWindow(List<ConnectionConfiguration> connectionConfigurations) {
         if (!connectionConfigurations.isEmpty()) {
             showWindowCenter(new SelectConnectionForQueryWindow(connectionConfigurations, getTerminalUI()));
         } else {
@@ -90,10 +113,55 @@ public class MainMenuWindow extends ApplicationWindow {
         }
     }
 
+    private void onCompareDataButtonSelected() {
+        loadConnectionConfigurations(connectionConfigurations -> showWindowCenter(
+                new SelectConnectionsToCompareWindow(connectionConfigurations, getTerminalUI())));
+    }
+
+    private void onCopyDataButtonSelected() {
+        loadConnectionConfigurations(connectionConfigurations -> showWindowCenter(
+                new SelectConnectionsToTransferDataWindow(connectionConfigurations, getTerminalUI())));
+    }
+
+    private void loadConnectionConfigurations(Consumer<List<ConnectionConfiguration>> onLoaded) {
+        AsyncOperation.run(getTerminalUI(), "Loading connections... ",
+                ConnectionConfigurationRepositoryFactory.getRepository()::getConnectionConfigurationsAsync,
+                onLoaded);
+    }
+
     private void onManageConnectionButtonSelected() {
         showWindowCenter(new ManageConnectionsWindow(getTerminalUI()));
     }
 
+    /**
+     * Shows a result saved in a query result window, without connecting to any database.
+     */
+    private void onOpenSnapshotButtonSelected() throws IOException {
+        File file = getTerminalUI().showFileSelectorDialog("Open Result Snapshot",
+                "Select a result snapshot file", "Open");
+        if (file == null) {
+            return;
+        }
+
+        ResultSnapshot resultSnapshot = ResultSnapshot.open(file.toPath());
+
+        List<String> truncatedColumnLabels = resultSnapshot.getTruncatedColumnLabels();
+        if (!truncatedColumnLabels.isEmpty()) {
+            showMessageBox("Truncated values", String.format("Large values of %s were saved as their preview "
+                            + "only: the snapshot does not have their full content.",
+                    String.join(", ", truncatedColumnLabels)));
+        }
+
+        showWindowFullScreen(new QueryResultWindow(resultSnapshot, "Snapshot " + file.getName()));
+    }
+
+    /**
+     * Opens a session on the local scratch database, which results of other connections can be loaded into.
+     */
+    private void onScratchDatabaseButtonSelected() {
+        SqlQueryWindow.openScratchDatabaseSession(getTerminalUI());
+    }
+
     private void onSetClasspathButtonSelected() throws LoadException {
         List<String> classpath = ConfigurationRepository.getInstance().getClasspath();
 
@@ -20,15 +20,16 @@ package com.github.blausql.ui;
 import com.github.blausql.TerminalUI;
 import com.github.blausql.core.connection.ConnectionConfiguration;
 import com.github.blausql.core.preferences.ConnectionConfigurationRepositoryFactory;
-import com.github.blausql.spi.connections.LoadException;
 import com.github.blausql.ui.components.ApplicationWindow;
 
 import com.github.blausql.ui.hotkey.HotKeyWindowListener;
+import com.github.blausql.ui.util.AsyncOperation;
 import com.googlecode.lanterna.gui2.Panel;
 import com.googlecode.lanterna.gui2.Panels;
 import com.googlecode.lanterna.input.KeyType;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 final class ManageConnectionsWindow extends ApplicationWindow {
 
@@ -61,33 +62,33 @@ final class ManageConnectionsWindow extends ApplicationWindow {
         showWindowCenter(new ConnectionSettingsWindow(getTerminalUI()));
     }
 
-    private void onCopyConnectionButtonSelected() throws LoadException {
+    private void onCopyConnectionButtonSelected() {
 
         this.close();
 
-        List<ConnectionConfiguration> connectionConfigurations =
-                ConnectionConfigurationRepositoryFactory.getRepository().getConnectionConfigurations();
-
-        showWindowCenter(new SelectConnectionToCopyWindow(connectionConfigurations, getTerminalUI()));
+        loadConnectionConfigurations(connectionConfigurations -> showWindowCenter(
+                new SelectConnectionToCopyWindow(connectionConfigurations, getTerminalUI())));
     }
 
-    private void onEditConnectionButtonSelected() throws LoadException {
+    private void onEditConnectionButtonSelected() {
 
         this.close();
 
-        List<ConnectionConfiguration> connectionConfigurations =
-                ConnectionConfigurationRepositoryFactory.getRepository().getConnectionConfigurations();
-
-        showWindowCenter(new SelectConnectionToEditWindow(connectionConfigurations, getTerminalUI()));
+        loadConnectionConfigurations(connectionConfigurations -> showWindowCenter(
+                new SelectConnectionToEditWindow(connectionConfigurations, getTerminalUI())));
     }
 
-    private void onDeleteConnectionButtonSelected() throws LoadException {
+    private void onDeleteConnectionButtonSelected() {
 
         this.close();
 
-        List<ConnectionConfiguration> connectionConfigurations =
-                ConnectionConfigurationRepositoryFactory.getRepository().getConnectionConfigurations();
+        loadConnectionConfigurations(connectionConfigurations -> showWindowCenter(
+                new SelectConnectionToDeleteWindow(connectionConfigurations, getTerminalUI())));
+    }
 
-        showWindowCenter(new SelectConnectionToDeleteWindow(connectionConfigurations, getTerminalUI()));
+    private void loadConnectionConfigurations(Consumer<List<ConnectionConfiguration>> onLoaded) {
+        AsyncOperation.run(getTerminalUI(), "Loading connections... ",
+                ConnectionConfigurationRepositoryFactory.getRepository()::getConnectionConfigurationsAsync,
+                onLoaded);
     }
 }
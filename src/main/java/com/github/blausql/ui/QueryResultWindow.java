@@ -17,19 +17,65 @@
 
 package com.github.blausql.ui;
 
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import com.github.blausql.core.result.Aggregate;
+import com.github.blausql.core.result.AggregationException;
+import com.github.blausql.core.result.FilterExpressionException;
+import com.github.blausql.core.result.GroupAggregation;
+import com.github.blausql.core.result.LobValue;
+import com.github.blausql.core.result.ResultSnapshot;
+import com.github.blausql.core.result.ResultView;
+import com.github.blausql.core.result.StoredResult;
+import com.github.blausql.core.result.ValueFormatter;
+import com.github.blausql.core.result.ValueFormatterRegistry;
+import com.github.blausql.ui.components.SampledWidthTableCellRenderer;
+import com.github.blausql.ui.components.WaitDialog;
 import com.github.blausql.ui.hotkey.HotKeyWindowListener;
 import com.googlecode.lanterna.gui2.BasicWindow;
 import com.googlecode.lanterna.gui2.Label;
+import com.googlecode.lanterna.gui2.dialogs.ListSelectDialog;
+import com.googlecode.lanterna.gui2.dialogs.MessageDialog;
+import com.googlecode.lanterna.gui2.dialogs.TextInputDialog;
 import com.googlecode.lanterna.gui2.table.Table;
 import com.googlecode.lanterna.gui2.table.TableModel;
 import com.googlecode.lanterna.input.KeyType;
 
 
-public class QueryResultWindow extends BasicWindow {
+public final class QueryResultWindow extends BasicWindow {
+
+    private static final Logger LOGGER = Logger.getLogger(QueryResultWindow.class.getName());
+
+    private static final int ROWS_PER_PAGE = 1000;
+
+    private static final String ORIGINAL_ORDER = "(original order)";
+    private static final String NO_PIVOT = "(no pivot column)";
+    private static final String ROWS_ONLY = "(count rows only)";
+
+    private static final String VIEW = "View";
+    private static final String SAVE_TO_FILE = "Save to file";
+
+    private final List<Map<String, Object>> queryResult;
+    private final String title;
+
+    private ResultView resultView;
+    private Table<String> table;
+    private final SampledWidthTableCellRenderer cellRenderer = new SampledWidthTableCellRenderer();
+    private final ResultPagePrefetcher pagePrefetcher = new ResultPagePrefetcher(this::readPage, ROWS_PER_PAGE);
+    private ValueFormatter[] columnFormatters;
+    private int pageStartIndex;
+    private SaveSnapshotBackgroundWorker saveSnapshotWorker;
 
     //CHECKSTYLE.OFF: AvoidInlineConditionals
     public QueryResultWindow(List<Map<String, Object>> queryResult) {
@@ -39,9 +85,19 @@ public class QueryResultWindow extends BasicWindow {
     public QueryResultWindow(List<Map<String, Object>> queryResult, String title) {
         super(String.format("%s (press ESC to close)", title));
 
+        this.queryResult = queryResult;
+        this.title = title;
+
         addWindowListener(HotKeyWindowListener.builder()
-                .keyType(KeyType.Enter).invoke(this::close)
-                .keyType(KeyType.Escape).invoke(this::close)
+                .keyType(KeyType.Enter).invoke(this::closeWindow)
+                .keyType(KeyType.Escape).invoke(this::closeWindow)
+                .character('N').invoke(this::showNextPage)
+                .character('P').invoke(this::showPreviousPage)
+                .character('S').invoke(this::sort)
+                .character('F').invoke(this::filter)
+                .character('G').invoke(this::group)
+                .character('V').invoke(this::showLargeValue)
+                .character('W').invoke(this::saveSnapshot)
                 .build());
 
         if (queryResult.isEmpty()) {
@@ -52,29 +108,399 @@ public class QueryResultWindow extends BasicWindow {
 
             final ArrayList<String> columnLabels = new ArrayList<>(
                     firstRow.keySet());
-            final int numberOfColumns = columnLabels.size();
 
-            Table<String> table = new Table<>(columnLabels.toArray(new String[0]));
-            TableModel<String> tableModel = table.getTableModel();
+            resultView = new ResultView(queryResult, columnLabels);
+            columnFormatters = getColumnFormatters(columnLabels);
+            table = new Table<>(columnLabels.toArray(new String[0]));
+            table.setTableCellRenderer(cellRenderer);
 
-            String[] rowValues = new String[numberOfColumns];
+            showPage(0);
+
+            setComponent(table);
+        }
+
+    }
+    //CHECKSTYLE.ON
+
+    private void showNextPage() {
+        if (table != null && pageStartIndex + ROWS_PER_PAGE < resultView.size()) {
+            showPage(pageStartIndex + ROWS_PER_PAGE);
+        }
+    }
+
+    private void showPreviousPage() {
+        if (table != null && pageStartIndex > 0) {
+            showPage(pageStartIndex - ROWS_PER_PAGE);
+        }
+    }
+
+    /**
+     * Sorting the same column again reverses the order.
+     */
+    private void sort() {
+        if (table == null) {
+            return;
+        }
+
+        List<String> choices = new ArrayList<>(resultView.getColumnLabels());
+        choices.add(ORIGINAL_ORDER);
+
+        String choice = ListSelectDialog.showDialog(getTextGUI(), "Sort", "Sort rows by:",
+                choices.toArray(new String[0]));
+
+        if (ORIGINAL_ORDER.equals(choice)) {
+            if (!pausePrefetching()) {
+                return;
+            }
+            try {
+                resultView.clearSort();
+            } finally {
+                pagePrefetcher.resume();
+            }
+            showPage(0);
+
+        } else if (choice != null) {
+            int columnIndex = resultView.getColumnLabels().indexOf(choice);
+            boolean ascending = !(resultView.getSortColumnIndex() == columnIndex && resultView.isSortAscending());
+
+            if (!pausePrefetching()) {
+                return;
+            }
+            try {
+                resultView.sortBy(columnIndex, ascending);
+            } finally {
+                pagePrefetcher.resume();
+            }
+            showPage(0);
+        }
+    }
+
+    private void filter() {
+        if (table == null) {
+            return;
+        }
+
+        String expression = TextInputDialog.showDialog(getTextGUI(), "Filter",
+                "Show rows matching, e.g. NAME LIKE 'A%' AND ID > 10\n(leave empty to show all rows):",
+                Objects.requireNonNullElse(resultView.getFilterExpression(), ""));
+
+        if (expression != null) {
+            if (!pausePrefetching()) {
+                return;
+            }
+            try {
+                resultView.filter(expression);
+
+            } catch (FilterExpressionException e) {
+                MessageDialog.showMessageDialog(getTextGUI(), "Invalid filter", e.getMessage());
+                return;
+
+            } finally {
+                pagePrefetcher.resume();
+            }
+            showPage(0);
+        }
+    }
+
+    private boolean pausePrefetching() {
+        if (pagePrefetcher.tryPause()) {
+            return true;
+        }
+
+        MessageDialog.showMessageDialog(getTextGUI(), "Please wait",
+                "The rows are being read in the background (e.g. saved to a snapshot): try again once it is done.");
+        return false;
+    }
+
+    /**
+     * Shows the aggregates of the rows shown (i.e. matching the filter) in a new window.
+     */
+    private void group() {
+        if (table == null) {
+            return;
+        }
+
+        List<String> columnLabels = resultView.getColumnLabels();
+
+        String groupColumn = selectColumn("Group", "Group by:", columnLabels, null);
+        if (groupColumn == null) {
+            return;
+        }
+        String pivotColumn = selectColumn("Group", "Pivot by (values become columns):", columnLabels, NO_PIVOT);
+        if (pivotColumn == null) {
+            return;
+        }
+        String valueColumn = selectColumn("Group", "Aggregate the values of:", columnLabels, ROWS_ONLY);
+        if (valueColumn == null) {
+            return;
+        }
+
+        try {
+            showAggregates(columnLabels.indexOf(groupColumn), columnLabels.indexOf(pivotColumn),
+                    columnLabels.indexOf(valueColumn));
+
+        } catch (AggregationException e) {
+            MessageDialog.showMessageDialog(getTextGUI(), "Cannot aggregate", e.getMessage());
+        }
+    }
+
+    private void showAggregates(int groupColumnIndex, int pivotColumnIndex, int valueColumnIndex) {
+        String groupColumn = resultView.getColumnLabels().get(groupColumnIndex);
+
+        List<Map<String, Object>> aggregates;
+        if (pivotColumnIndex < 0) {
+            aggregates = GroupAggregation.groupBy(resultView, groupColumnIndex, valueColumnIndex);
+        } else {
+            Aggregate aggregate = Aggregate.COUNT;
+            if (valueColumnIndex >= 0) {
+                aggregate = ListSelectDialog.showDialog(getTextGUI(), "Group", "Aggregate:", Aggregate.values());
+                if (aggregate == null) {
+                    return;
+                }
+            }
+            aggregates = GroupAggregation.pivot(resultView, groupColumnIndex, pivotColumnIndex,
+                    valueColumnIndex, aggregate);
+        }
+
+        QueryResultWindow aggregatesWindow = new QueryResultWindow(aggregates,
+                String.format("%s grouped by %s", title, groupColumn));
+        aggregatesWindow.setHints(Collections.singletonList(Hint.FULL_SCREEN));
+
+        getTextGUI().addWindowAndWait(aggregatesWindow);
+    }
+
+    /**
+     * Saves the rows shown (i.e. matching the filter, in the order shown) to a file, which can be opened
+     * from the main menu later, without connecting to the database.
+     */
+    private void saveSnapshot() {
+        if (table == null) {
+            return;
+        }
+
+        String fileName = TextInputDialog.showDialog(getTextGUI(), "Save snapshot",
+                String.format("Save the %d rows shown to file:", resultView.size()), "");
+        if (fileName == null || fileName.isBlank()) {
+            return;
+        }
+
+        Path file;
+        try {
+            file = Paths.get(fileName.trim());
+        } catch (InvalidPathException e) {
+            MessageDialog.showMessageDialog(getTextGUI(), "Save snapshot", "Failure: " + e.getMessage());
+            return;
+        }
+
+        List<String> columnLabels = resultView.getColumnLabels();
+        int[] columnTypes = new int[columnLabels.size()];
+        for (int i = 0; i < columnTypes.length; i++) {
+            columnTypes[i] = getColumnType(columnLabels.get(i));
+        }
+
+        WaitDialog waitDialog = WaitDialog.showDialog(getTextGUI(), "Please wait",
+                String.format("Saving %d rows to %s ...", resultView.size(), file), this::cancelSaveSnapshot);
+
+        saveSnapshotWorker = new SaveSnapshotBackgroundWorker(getTextGUI(), pagePrefetcher, resultView,
+                columnTypes, file, waitDialog);
+        saveSnapshotWorker.start();
+    }
+
+    private void cancelSaveSnapshot() {
+        if (saveSnapshotWorker != null) {
+            saveSnapshotWorker.cancel();
+        }
+    }
 
-            for (Map<String, Object> row : queryResult) {
+    /**
+     * Shows or saves a large value (e.g. a CLOB) of the selected row, of which the table only shows a preview.
+     */
+    private void showLargeValue() {
+        if (table == null) {
+            return;
+        }
 
-                for (int i = 0; i < numberOfColumns; i++) {
-                    final String currentColumnLabel = columnLabels.get(i);
-                    final Object valueForCurrentColumn = row.get(currentColumnLabel);
+        Map<String, Object> row = resultView.getRow(pageStartIndex + table.getSelectedRow());
+        List<String> lobColumnLabels = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            if (entry.getValue() instanceof LobValue) {
+                lobColumnLabels.add(entry.getKey());
+            }
+        }
 
-                    rowValues[i] = String.valueOf(valueForCurrentColumn);
+        if (lobColumnLabels.isEmpty()) {
+            MessageDialog.showMessageDialog(getTextGUI(), "Large values",
+                    "The selected row has no values too large to be shown in the table.");
+            return;
+        }
+
+        String columnLabel = lobColumnLabels.get(0);
+        if (lobColumnLabels.size() > 1) {
+            columnLabel = selectColumn("Large values", "Value of:", lobColumnLabels, null);
+        }
+        if (columnLabel != null) {
+            showOrSave(columnLabel, (LobValue) row.get(columnLabel));
+        }
+    }
+
+    private void showOrSave(String columnLabel, LobValue lobValue) {
+        String action = ListSelectDialog.showDialog(getTextGUI(), "Large values", columnLabel, VIEW, SAVE_TO_FILE);
+        try {
+            if (VIEW.equals(action)) {
+                getTextGUI().addWindowAndWait(new LobValueWindow(columnLabel, lobValue));
+
+            } else if (SAVE_TO_FILE.equals(action)) {
+                String fileName = TextInputDialog.showDialog(getTextGUI(), "Save to file",
+                        "Write the value (text in UTF-8) to file:", "");
+                if (fileName != null && !fileName.isBlank()) {
+                    lobValue.writeTo(Paths.get(fileName.trim()));
                 }
+            }
+        } catch (IOException | InvalidPathException e) {
+            MessageDialog.showMessageDialog(getTextGUI(), "Large values", "Failure: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the selected column label, the (optional) extra choice, or {@code null} if cancelled
+     */
+    private String selectColumn(String dialogTitle, String description, List<String> columnLabels, String extraChoice) {
+        List<String> choices = new ArrayList<>();
+        if (extraChoice != null) {
+            choices.add(extraChoice);
+        }
+        choices.addAll(columnLabels);
+
+        return ListSelectDialog.showDialog(getTextGUI(), dialogTitle, description, choices.toArray(new String[0]));
+    }
+
+    /**
+     * Only a page of rows is turned into table rows at a time: rows of large results are kept
+     * in their (possibly spilled to disk) {@link StoredResult} and read when their page is shown.
+     * The pages next to it are read in the background by the {@link ResultPagePrefetcher}.
+     */
+    private void showPage(int startIndex) {
+        final List<String> columnLabels = resultView.getColumnLabels();
+        final int endIndex = Math.min(startIndex + ROWS_PER_PAGE, resultView.size());
+
+        TableModel<String> tableModel = new TableModel<>(columnLabels.toArray(new String[0]));
+
+        List<String[]> pageRows = pagePrefetcher.getPage(startIndex, resultView.size());
+
+        cellRenderer.sampleColumnWidths(pageRows, columnLabels.size());
+        for (String[] rowValues : pageRows) {
+            tableModel.addRow(rowValues);
+        }
+
+        table.setTableModel(tableModel);
+        pageStartIndex = startIndex;
+
+        updateTitle(endIndex);
+    }
+
+    /**
+     * Reads and formats the rows of a page; called from background threads too.
+     */
+    private List<String[]> readPage(int startIndex) {
+        final List<String> columnLabels = resultView.getColumnLabels();
+        final int numberOfColumns = columnLabels.size();
+        final int endIndex = Math.min(startIndex + ROWS_PER_PAGE, resultView.size());
+
+        List<String[]> pageRows = new ArrayList<>(Math.max(endIndex - startIndex, 0));
 
-                tableModel.addRow(rowValues);
+        for (int rowIndex = startIndex; rowIndex < endIndex; rowIndex++) {
+            Map<String, Object> row = resultView.getRow(rowIndex);
+
+            String[] rowValues = new String[numberOfColumns];
+            for (int i = 0; i < numberOfColumns; i++) {
+                final String currentColumnLabel = columnLabels.get(i);
+                final Object valueForCurrentColumn = row.get(currentColumnLabel);
+
+                rowValues[i] = columnFormatters[i].format(valueForCurrentColumn);
             }
 
-            setComponent(table);
+            pageRows.add(rowValues);
         }
+        return pageRows;
+    }
+
+    private ValueFormatter[] getColumnFormatters(List<String> columnLabels) {
+        ValueFormatterRegistry valueFormatterRegistry = ValueFormatterRegistry.getInstance();
 
+        ValueFormatter[] formatters = new ValueFormatter[columnLabels.size()];
+        for (int i = 0; i < formatters.length; i++) {
+            formatters[i] = valueFormatterRegistry.getFormatter(getColumnType(columnLabels.get(i)));
+        }
+        return formatters;
+    }
+
+    private int getColumnType(String columnLabel) {
+        if (queryResult instanceof StoredResult) {
+            StoredResult storedResult = (StoredResult) queryResult;
+
+            int columnIndex = storedResult.getColumnLabels().indexOf(columnLabel);
+            if (columnIndex >= 0) {
+                return storedResult.getColumnType(columnIndex);
+            }
+        }
+        if (queryResult instanceof ResultSnapshot) {
+            ResultSnapshot resultSnapshot = (ResultSnapshot) queryResult;
+
+            int columnIndex = resultSnapshot.getColumnLabels().indexOf(columnLabel);
+            if (columnIndex >= 0) {
+                return resultSnapshot.getColumnType(columnIndex);
+            }
+        }
+        // e.g. aggregates: formatted by the class of the values
+        return Types.OTHER;
+    }
+
+    private void updateTitle(int endIndex) {
+        StringBuilder status = new StringBuilder();
+        if (resultView.isSorted()) {
+            String direction = "descending";
+            if (resultView.isSortAscending()) {
+                direction = "ascending";
+            }
+            status.append(String.format(", sorted by %s %s", resultView.getSortColumnLabel(), direction));
+        }
+        if (resultView.getFilterExpression() != null) {
+            status.append(String.format(", filter: %s", resultView.getFilterExpression()));
+        }
+        if (resultView.size() > ROWS_PER_PAGE) {
+            status.append(String.format(", rows %d-%d of %d (N/P: next/previous page)",
+                    pageStartIndex + 1, endIndex, resultView.size()));
+        } else if (resultView.getFilterExpression() != null) {
+            status.append(String.format(", %d of %d rows", resultView.size(), queryResult.size()));
+        }
+
+        String largeValueKey = "";
+        if (queryResult instanceof StoredResult && ((StoredResult) queryResult).hasLobValues()) {
+            largeValueKey = ", V: large value";
+        }
+
+        setTitle(String.format("%s%s (S: sort, F: filter, G: group%s, W: save snapshot, ESC: close)",
+                title, status, largeValueKey));
+    }
+
+    private void closeWindow() {
+        close();
+        cancelSaveSnapshot();
+        // the result is closed once the rows are no longer read in the background, e.g. by a snapshot save
+        pagePrefetcher.close(this::closeResult);
+    }
+
+    private void closeResult() {
+        if (queryResult instanceof StoredResult) {
+            ((StoredResult) queryResult).close();
+        }
+        if (queryResult instanceof ResultSnapshot) {
+            try {
+                ((ResultSnapshot) queryResult).close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not close result snapshot", e);
+            }
+        }
     }
-    //CHECKSTYLE.ON
 
 }
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.ui;
+
+import com.github.blausql.ui.util.BackgroundTaskScheduler;
+import com.github.blausql.ui.util.TaskPriority;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Prepares the pages next to the one shown by a {@link QueryResultWindow} in the background: reading their
+ * rows (from a spill file, if the result was moved to disk) and formatting their values, so that turning
+ * a page only has to lay out the rows.
+ * <p>
+ * The number of pages prepared ahead, in the direction the user is paging, grows while pages are turned
+ * quickly, and falls back to one once the user stops to read.
+ */
+final class ResultPagePrefetcher {
+
+    private static final Logger LOGGER = Logger.getLogger(ResultPagePrefetcher.class.getName());
+
+    private static final int MAX_PREFETCHED_PAGES = 4;
+    private static final long QUICK_PAGE_TURN_MILLIS = 1000;
+
+    private final IntFunction<List<String[]>> pageReader;
+    private final int rowsPerPage;
+    private final Executor executor = BackgroundTaskScheduler.getInstance().getExecutor(TaskPriority.BACKGROUND);
+
+    // held by the prefetch tasks (and other background readers) while they read rows,
+    // so that the rows are not changed under them; the GUI thread only ever tries to take the write lock
+    private final ReadWriteLock rowsLock = new ReentrantReadWriteLock();
+
+    // releases the rows once closed: run by whichever thread finds the rows no longer read
+    private final AtomicReference<Runnable> pendingRelease = new AtomicReference<>();
+    private volatile boolean released;
+
+    private final Map<Integer, CompletableFuture<List<String[]>>> prefetchedPages = new HashMap<>();
+
+    private int prefetchedPageCount = 1;
+    private long lastPageTurnNanos;
+    private int lastStartIndex;
+    private boolean closed;
+
+    /**
+     * @param pageReader  returns the formatted rows of the page starting at a row index
+     * @param rowsPerPage the number of rows on a page
+     */
+    ResultPagePrefetcher(IntFunction<List<String[]>> pageReader, int rowsPerPage) {
+        this.pageReader = pageReader;
+        this.rowsPerPage = rowsPerPage;
+    }
+
+    /**
+     * Returns the formatted rows of a page, and starts preparing the pages likely to be shown next.
+     *
+     * @param startIndex the index of the first row of the page
+     * @param rowCount   the number of rows of the result
+     * @return the formatted rows
+     */
+    synchronized List<String[]> getPage(int startIndex, int rowCount) {
+        int direction = 1;
+        if (startIndex < lastStartIndex) {
+            direction = -1;
+        }
+        adaptPrefetchedPageCount();
+        lastStartIndex = startIndex;
+
+        List<String[]> rows = getPrefetchedPage(prefetchedPages.remove(startIndex));
+        if (rows == null) {
+            rows = pageReader.apply(startIndex);
+        }
+
+        if (!closed) {
+            discardDistantPages(startIndex);
+            prefetch(startIndex, direction, rowCount);
+        }
+        return rows;
+    }
+
+    private void adaptPrefetchedPageCount() {
+        long now = System.nanoTime();
+        if (lastPageTurnNanos != 0 && TimeUnit.NANOSECONDS.toMillis(now - lastPageTurnNanos) < QUICK_PAGE_TURN_MILLIS) {
+            prefetchedPageCount = Math.min(prefetchedPageCount + 1, MAX_PREFETCHED_PAGES);
+        } else {
+            prefetchedPageCount = 1;
+        }
+        lastPageTurnNanos = now;
+    }
+
+    /**
+     * @return the rows of the page if it is prepared already, {@code null} if it has to be read: the GUI thread
+     * never waits for a prefetch task, which might still be queued behind other background tasks
+     */
+    private static List<String[]> getPrefetchedPage(CompletableFuture<List<String[]>> prefetchedPage) {
+        if (prefetchedPage == null) {
+            return null;
+        }
+        if (!prefetchedPage.isDone()) {
+            prefetchedPage.cancel(false);
+            return null;
+        }
+        try {
+            return prefetchedPage.getNow(null);
+
+        } catch (CompletionException | CancellationException e) {
+            LOGGER.log(Level.FINE, "Prefetched page is not available, reading it again", e);
+            prefetchedPage.cancel(false);
+            return null;
+        }
+    }
+
+    private void discardDistantPages(int startIndex) {
+        int maxDistance = MAX_PREFETCHED_PAGES * rowsPerPage;
+
+        Iterator<Map.Entry<Integer, CompletableFuture<List<String[]>>>> iterator =
+                prefetchedPages.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, CompletableFuture<List<String[]>>> entry = iterator.next();
+            if (Math.abs(entry.getKey() - startIndex) > maxDistance) {
+                entry.getValue().cancel(false);
+                iterator.remove();
+            }
+        }
+    }
+
+    private void prefetch(int startIndex, int direction, int rowCount) {
+        for (int i = 1; i <= prefetchedPageCount; i++) {
+            int pageStartIndex = startIndex + direction * i * rowsPerPage;
+            if (pageStartIndex >= 0 && pageStartIndex < rowCount && !prefetchedPages.containsKey(pageStartIndex)) {
+                prefetchedPages.put(pageStartIndex,
+                        CompletableFuture.supplyAsync(() -> readPage(pageStartIndex), executor));
+            }
+        }
+    }
+
+    private List<String[]> readPage(int startIndex) {
+        rowsLock.readLock().lock();
+        try {
+            if (released) {
+                // a task which was queued when the prefetcher was closed: its page is discarded anyway
+                throw new CancellationException("Result is closed");
+            }
+            return pageReader.apply(startIndex);
+        } finally {
+            rowsLock.readLock().unlock();
+            releaseIfClosed();
+        }
+    }
+
+    /**
+     * Reads the rows outside the GUI thread, e.g. to save them: they are not changed until the reader returns.
+     *
+     * @param rowsReader the reader of the rows
+     * @param <T>        the type of the result of the reader
+     * @return the result of the reader
+     * @throws IOException          if the reader fails
+     * @throws InterruptedException if the reader is interrupted
+     */
+    <T> T readRows(RowsReader<T> rowsReader) throws IOException, InterruptedException {
+        rowsLock.readLock().lockInterruptibly();
+        try {
+            if (released) {
+                throw new IOException("The result is closed");
+            }
+            return rowsReader.read();
+        } finally {
+            rowsLock.readLock().unlock();
+            releaseIfClosed();
+        }
+    }
+
+    /**
+     * Reads the rows of a result in the background, see {@link #readRows(RowsReader)}.
+     *
+     * @param <T> the type of the result of the reader
+     */
+    interface RowsReader<T> {
+        T read() throws IOException, InterruptedException;
+    }
+
+    /**
+     * Discards the prepared pages before the rows are changed (e.g. sorted or filtered), unless the rows are
+     * being read in the background (e.g. saved to a snapshot): the GUI thread does not wait for the readers.
+     * If successful, it must be followed by {@link #resume()}.
+     *
+     * @return {@code false} if the rows are being read, and must not be changed now
+     */
+    synchronized boolean tryPause() {
+        discardAll();
+        return rowsLock.writeLock().tryLock();
+    }
+
+    void resume() {
+        rowsLock.writeLock().unlock();
+    }
+
+    /**
+     * Stops prefetching, without waiting for the running background readers: the rows are released
+     * (e.g. the result is closed) right away if they are not being read, otherwise by the last reader
+     * once it is done.
+     *
+     * @param release releases the rows, called exactly once, possibly on a background thread
+     */
+    synchronized void close(Runnable release) {
+        closed = true;
+        discardAll();
+
+        pendingRelease.set(release);
+        releaseIfClosed();
+    }
+
+    private void releaseIfClosed() {
+        if (pendingRelease.get() == null || !rowsLock.writeLock().tryLock()) {
+            return;
+        }
+        try {
+            Runnable release = pendingRelease.getAndSet(null);
+            if (release != null) {
+                released = true;
+                release.run();
+            }
+        } finally {
+            rowsLock.writeLock().unlock();
+        }
+    }
+
+    private void discardAll() {
+        prefetchedPages.values().forEach(prefetchedPage -> prefetchedPage.cancel(false));
+        prefetchedPages.clear();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.ui;
+
+import com.github.blausql.core.result.ResultSnapshot;
+import com.github.blausql.core.result.ResultView;
+import com.github.blausql.ui.components.WaitDialog;
+import com.github.blausql.ui.util.BackgroundWorker;
+import com.github.blausql.ui.util.TaskPriority;
+import com.googlecode.lanterna.gui2.WindowBasedTextGUI;
+import com.googlecode.lanterna.gui2.dialogs.MessageDialog;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Saves the rows shown by a {@link QueryResultWindow} to a {@link ResultSnapshot} file, outside the GUI thread.
+ */
+final class SaveSnapshotBackgroundWorker extends BackgroundWorker<List<String>> {
+
+    private static final String TITLE = "Save snapshot";
+
+    private final WindowBasedTextGUI textGUI;
+    private final ResultPagePrefetcher pagePrefetcher;
+    private final ResultView resultView;
+    private final int[] columnTypes;
+    private final Path file;
+    private final WaitDialog waitDialog;
+
+    SaveSnapshotBackgroundWorker(WindowBasedTextGUI textGUI, ResultPagePrefetcher pagePrefetcher,
+                                 ResultView resultView, int[] columnTypes, Path file, WaitDialog waitDialog) {
+        super(textGUI, null, TaskPriority.NORMAL);
+        this.textGUI = textGUI;
+        this.pagePrefetcher = pagePrefetcher;
+        this.resultView = resultView;
+        this.columnTypes = columnTypes.clone();
+        this.file = file;
+        this.waitDialog = waitDialog;
+    }
+
+    @Override
+    protected List<String> doBackgroundTask() throws IOException, InterruptedException {
+        return pagePrefetcher.readRows(() -> ResultSnapshot.write(resultView, columnTypes, file));
+    }
+
+    @Override
+    protected void onBackgroundTaskInterrupted(InterruptedException interruptedException) {
+        waitDialog.close();
+
+        MessageDialog.showMessageDialog(textGUI, TITLE, "Saving was cancelled: " + file + " was not changed.");
+    }
+
+    @Override
+    protected void onBackgroundTaskFailed(Throwable t) {
+        waitDialog.close();
+
+        MessageDialog.showMessageDialog(textGUI, TITLE, "Failure: " + t.getMessage());
+    }
+
+    @Override
+    protected void onBackgroundTaskCompleted(List<String> truncatedColumnLabels) {
+        waitDialog.close();
+
+        String message = "Saved to " + file;
+        if (!truncatedColumnLabels.isEmpty()) {
+            message += String.format(".%nLarge values of %s were saved as their preview only.",
+                    String.join(", ", truncatedColumnLabels));
+        }
+        MessageDialog.showMessageDialog(textGUI, TITLE, message);
+    }
+}
@@ -19,66 +19,79 @@ package com.github.blausql.ui;
 
 import com.github.blausql.TerminalUI;
 import com.github.blausql.core.connection.ConnectionConfiguration;
-import com.github.blausql.core.connection.DatabaseConnectionFactory;
 import com.github.blausql.core.connection.DatabaseConnection;
+import com.github.blausql.core.connection.SpeculativeConnector;
 import com.github.blausql.ui.components.WaitDialog;
 import com.github.blausql.ui.sql.SqlQueryWindow;
 import com.github.blausql.ui.util.BackgroundWorker;
+import com.github.blausql.ui.util.TaskPriority;
 import com.googlecode.lanterna.gui2.Window;
-import com.googlecode.lanterna.gui2.dialogs.MessageDialogButton;
 
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
-final class SelectConnectionForQueryWindow extends SelectConnectionWindow {
+public final class SelectConnectionForQueryWindow extends SelectConnectionWindow {
 
-    SelectConnectionForQueryWindow(List<ConnectionConfiguration> connectionDefinitions, TerminalUI terminalUI) {
+    public SelectConnectionForQueryWindow(List<ConnectionConfiguration> connectionDefinitions, TerminalUI terminalUI) {
         super("Select connection to Connect to", connectionDefinitions, terminalUI);
     }
 
     @Override
-    protected void onConnectionSelected(
-            ConnectionConfiguration connectionDefinition) {
-
-        this.close();
-
-        if (!connectionDefinition.getLoginAutomatically()) {
+    protected void onConnectionHighlighted(ConnectionConfiguration connectionDefinition) {
+        SpeculativeConnector speculativeConnector = getTerminalUI().getSpeculativeConnector();
 
-            CredentialsDialog credentialsDialog =
-                    new CredentialsDialog(connectionDefinition);
-
-            showWindowCenter(credentialsDialog);
-
-            MessageDialogButton dialogResult = credentialsDialog.getSelectedButton();
-            if (dialogResult == MessageDialogButton.Cancel) {
+        if (connectionDefinition != null && connectionDefinition.getLoginAutomatically()) {
+            speculativeConnector.warmUpAfterDwell(connectionDefinition);
+        } else {
+            speculativeConnector.discard();
+        }
+    }
 
-                return;
-            }
+    @Override
+    protected void onCredentialsRequested(ConnectionConfiguration connectionDefinition) {
+        SpeculativeConnector speculativeConnector = getTerminalUI().getSpeculativeConnector();
+
+        String userName = connectionDefinition.getUserName();
+        if (userName != null && !userName.isBlank()) {
+            // handed over only if the saved credentials are accepted unchanged
+            speculativeConnector.warmUp(connectionDefinition);
+        } else {
+            speculativeConnector.discard();
+            speculativeConnector.prepareDriver(connectionDefinition);
+        }
+    }
 
-            ConnectionConfiguration actualConnectionConfiguration = new ConnectionConfiguration(connectionDefinition);
+    @Override
+    protected void onCancelled() {
+        getTerminalUI().getSpeculativeConnector().discard();
+    }
 
-            String userName = credentialsDialog.getUserName();
-            actualConnectionConfiguration.setUserName(userName);
+    @Override
+    protected void onConnectionSelected(
+            ConnectionConfiguration connectionDefinition) {
 
-            String password = credentialsDialog.getPassword();
-            actualConnectionConfiguration.setPassword(password);
+        this.close();
 
-            connectionDefinition = actualConnectionConfiguration;
+        ConnectionConfiguration actualConnectionDefinition = withCredentials(connectionDefinition);
+        if (actualConnectionDefinition == null) {
+            getTerminalUI().getSpeculativeConnector().discard();
+            return;
         }
 
-        establishConnection(connectionDefinition);
+        establishConnection(actualConnectionDefinition);
     }
 
     private void establishConnection(
             final ConnectionConfiguration connectionDefinition) {
 
         final AtomicReference<Window> waitDialogRef = new AtomicReference<>();
-        final BackgroundWorker<DatabaseConnection> backgroundWorker = new BackgroundWorker<>(this) {
+        final BackgroundWorker<DatabaseConnection> backgroundWorker =
+                new BackgroundWorker<>(this, null, TaskPriority.INTERACTIVE) {
 
             @Override
             protected DatabaseConnection doBackgroundTask() throws InterruptedException {
 
-                return DatabaseConnectionFactory.getDatabaseConnection(connectionDefinition);
+                return getTerminalUI().getSpeculativeConnector().getDatabaseConnection(connectionDefinition);
             }
 
             @Override
@@ -98,7 +111,6 @@ final class SelectConnectionForQueryWindow extends SelectConnectionWindow {
                 closeWaitDialog();
 
                 showWindowFullScreen(new SqlQueryWindow(connectionDefinition, databaseConnection, getTerminalUI()));
-
             }
 
             private void closeWaitDialog() {
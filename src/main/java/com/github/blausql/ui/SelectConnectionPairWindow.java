@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.ui;
+
+import com.github.blausql.TerminalUI;
+import com.github.blausql.core.connection.ConnectionConfiguration;
+import com.googlecode.lanterna.gui2.dialogs.TextInputDialog;
+
+import java.util.List;
+
+/**
+ * Selects a source connection, then (in a second instance) a target connection.
+ */
+abstract class SelectConnectionPairWindow extends SelectConnectionWindow {
+
+    private final List<ConnectionConfiguration> connectionConfigurations;
+    private final ConnectionConfiguration sourceConnectionConfiguration;
+
+    /**
+     * @param sourceConnectionConfiguration {@code null} to select the source connection, otherwise
+     *                                      the already selected source connection
+     */
+    SelectConnectionPairWindow(String title, List<ConnectionConfiguration> connectionConfigurations,
+                               ConnectionConfiguration sourceConnectionConfiguration, TerminalUI terminalUI) {
+        super(title, connectionConfigurations, terminalUI);
+
+        this.connectionConfigurations = List.copyOf(connectionConfigurations);
+        this.sourceConnectionConfiguration = sourceConnectionConfiguration;
+    }
+
+    protected final ConnectionConfiguration getSourceConnectionConfiguration() {
+        return sourceConnectionConfiguration;
+    }
+
+    @Override
+    protected final void onConnectionSelected(ConnectionConfiguration connectionConfiguration) {
+
+        close();
+
+        ConnectionConfiguration actualConnectionConfiguration = withCredentials(connectionConfiguration);
+        if (actualConnectionConfiguration == null) {
+            return;
+        }
+
+        if (sourceConnectionConfiguration == null) {
+            showWindowCenter(createTargetSelectionWindow(connectionConfigurations, actualConnectionConfiguration));
+        } else {
+            onConnectionPairSelected(sourceConnectionConfiguration, actualConnectionConfiguration);
+        }
+    }
+
+    /**
+     * Prompts for a line of text.
+     *
+     * @return the trimmed text, or {@code null} if the user cancelled or entered nothing
+     */
+    protected final String promptForText(String title, String description, String initialContent) {
+        String text = TextInputDialog.showDialog(getApplicationTextGUI(), title, description, initialContent);
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        return text.trim();
+    }
+
+    protected abstract SelectConnectionPairWindow createTargetSelectionWindow(
+            List<ConnectionConfiguration> availableConnectionConfigurations,
+            ConnectionConfiguration selectedSourceConnectionConfiguration);
+
+    protected abstract void onConnectionPairSelected(ConnectionConfiguration selectedSourceConnectionConfiguration,
+                                                     ConnectionConfiguration targetConnectionConfiguration);
+}
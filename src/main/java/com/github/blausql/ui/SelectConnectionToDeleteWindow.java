@@ -20,10 +20,8 @@ package com.github.blausql.ui;
 import com.github.blausql.TerminalUI;
 import com.github.blausql.core.connection.ConnectionConfiguration;
 import com.github.blausql.core.preferences.ConnectionConfigurationRepositoryFactory;
-import com.github.blausql.spi.connections.DeleteException;
-import com.github.blausql.ui.util.BackgroundWorker;
+import com.github.blausql.ui.util.AsyncOperation;
 
-import com.googlecode.lanterna.gui2.Window;
 import com.googlecode.lanterna.gui2.dialogs.MessageDialogButton;
 
 import java.util.List;
@@ -43,37 +41,11 @@ final class SelectConnectionToDeleteWindow extends SelectConnectionWindow {
                 MessageDialogButton.OK, MessageDialogButton.Cancel);
 
         if (MessageDialogButton.OK.equals(dialogResult)) {
-            final Window showWaitDialog = showWaitDialog("Please wait",
-                    "Deleting " + connectionConfiguration.getConnectionName() + "... ");
-
-            new BackgroundWorker<Void>(this) {
-
-                @Override
-                protected Void doBackgroundTask() throws DeleteException {
-                    ConnectionConfigurationRepositoryFactory.getRepository()
-                            .deleteConnectionConfigurationByName(connectionConfiguration.getConnectionName());
-
-                    return null;
-                }
-
-                @Override
-                protected void onBackgroundTaskInterrupted(InterruptedException interruptedException) {
-                    showWaitDialog.close();
-                }
-
-                @Override
-                protected void onBackgroundTaskFailed(Throwable t) {
-                    showWaitDialog.close();
-                    showErrorMessageFromThrowable(t);
-
-                }
-
-                @Override
-                protected void onBackgroundTaskCompleted(Void result) {
-                    showWaitDialog.close();
-                    SelectConnectionToDeleteWindow.this.close();
-                }
-            }.start();
+            AsyncOperation.run(getTerminalUI(), "Deleting " + connectionConfiguration.getConnectionName() + "... ",
+                    executor -> ConnectionConfigurationRepositoryFactory.getRepository()
+                            .deleteConnectionConfigurationByNameAsync(
+                                    connectionConfiguration.getConnectionName(), executor),
+                    deleted -> close());
         } else {
             close();
         }
@@ -19,8 +19,12 @@ package com.github.blausql.ui;
 
 import com.github.blausql.TerminalUI;
 import com.github.blausql.core.connection.ConnectionConfiguration;
+import com.github.blausql.core.connection.ConnectionConfigurationIndex;
 import com.github.blausql.ui.components.ApplicationWindow;
+import com.github.blausql.ui.components.VirtualListBox;
+import com.googlecode.lanterna.TerminalSize;
 import com.googlecode.lanterna.gui2.*;
+import com.googlecode.lanterna.gui2.dialogs.MessageDialogButton;
 
 import com.googlecode.lanterna.input.KeyStroke;
 import com.googlecode.lanterna.input.KeyType;
@@ -28,58 +32,107 @@ import com.googlecode.lanterna.input.KeyType;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-
+/**
+ * Lists connection configurations to select one from. Typing filters the list by name and JDBC URL;
+ * while the list has the focus, the hotkey of a connection selects it.
+ */
 abstract class SelectConnectionWindow extends ApplicationWindow {
 
+    private static final int MIN_LIST_COLUMNS = 40;
+    private static final int MAX_NAME_COLUMNS = 40;
+    private static final int NON_LIST_COLUMNS = 6;
+    private static final int NON_LIST_ROWS = 14;
+
     private final Map<Character, ConnectionConfiguration> hotKeyMap = new ConcurrentHashMap<>();
 
+    private final ConnectionConfigurationIndex connectionConfigurationIndex;
+    private final int nameColumns;
+
+    private final TextBox filterTextBox;
+    private final VirtualListBox<ConnectionConfiguration> connectionListBox;
+    private final Label statusLabel = new Label("");
+
     SelectConnectionWindow(String title, List<ConnectionConfiguration> connectionConfigurations,
                            TerminalUI terminalUI) {
         super(title, terminalUI);
 
         addWindowListener(new HotKeyWindowListener());
 
-        Panel panel = new Panel();
-
-        panel.addComponent(new Button("CANCEL (ESC)", new Runnable() {
+        connectionConfigurationIndex = new ConnectionConfigurationIndex(connectionConfigurations);
 
-            public void run() {
-                SelectConnectionWindow.this.close();
+        int longestName = 0;
+        for (ConnectionConfiguration connectionConfiguration : connectionConfigurations) {
+            Character hotkey = connectionConfiguration.getHotkey();
+            if (hotkey != null) {
+                hotKeyMap.put(normalizeHotkey(hotkey), connectionConfiguration);
             }
-        }));
+            longestName = Math.max(longestName, getNameText(connectionConfiguration).length());
+        }
+        nameColumns = Math.min(longestName, MAX_NAME_COLUMNS);
+
+        TerminalSize screenTerminalSize = getApplicationTextGUI().getScreen().getTerminalSize();
+        int columns = Math.max(MIN_LIST_COLUMNS, screenTerminalSize.getColumns() - NON_LIST_COLUMNS);
+        int rows = Math.max(1, Math.min(connectionConfigurations.size(),
+                screenTerminalSize.getRows() - NON_LIST_ROWS));
+
+        filterTextBox = new TextBox(new TerminalSize(columns, 1));
+        filterTextBox.setTextChangeListener((newText, changedByUser) -> applyFilter());
+
+        // selected later, after the subclass is constructed
+        connectionListBox = new VirtualListBox<>(new TerminalSize(columns, rows),
+                this::describe, selected -> onConnectionSelected(selected));
+        connectionListBox.setSelectionChangeListener(highlighted -> onConnectionHighlighted(highlighted));
+
+        Panel panel = new Panel();
+
+        panel.addComponent(new Button("CANCEL (ESC)", new CancelAction()));
 
         panel.addComponent(new EmptySpace());
 
         if (connectionConfigurations.isEmpty()) {
             panel.addComponent(new Label("(No connection configuration is available)"));
         } else {
-            for (final ConnectionConfiguration connectionConfiguration : connectionConfigurations) {
+            panel.addComponent(new Label("Type to filter by name or JDBC URL, Enter to select"));
+            panel.addComponent(filterTextBox);
+            panel.addComponent(connectionListBox);
+            panel.addComponent(statusLabel);
 
-                String buttonText;
+            applyFilter();
+            setFocusedInteractable(connectionListBox);
+        }
 
-                Character hotkey = connectionConfiguration.getHotkey();
-                if (hotkey != null) {
-                    buttonText = String.format("[%s] %s", hotkey, connectionConfiguration.getConnectionName());
+        setComponent(panel);
+    }
 
-                    hotKeyMap.put(normalizeHotkey(hotkey), connectionConfiguration);
-                } else {
-                    buttonText = connectionConfiguration.getConnectionName();
-                }
+    private void applyFilter() {
+        long startNanos = System.nanoTime();
+        List<ConnectionConfiguration> matches = connectionConfigurationIndex.filter(filterTextBox.getText());
+        long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
 
-                Button button = new Button(buttonText, new Runnable() {
+        connectionListBox.setItems(matches);
 
-                    public void run() {
-                        onConnectionSelected(connectionConfiguration);
-                    }
-                });
+        statusLabel.setText(String.format("%d of %d connections, filtered in %d us",
+                matches.size(), connectionConfigurationIndex.size(), elapsedMicros));
+    }
 
-                panel.addComponent(button);
-            }
+    private String describe(ConnectionConfiguration connectionConfiguration) {
+        String jdbcUrl = connectionConfiguration.getJdbcUrl();
+        if (jdbcUrl == null) {
+            jdbcUrl = "";
         }
 
-        setComponent(panel);
+        return String.format("%-" + nameColumns + "s  %s", getNameText(connectionConfiguration), jdbcUrl);
+    }
+
+    private static String getNameText(ConnectionConfiguration connectionConfiguration) {
+        Character hotkey = connectionConfiguration.getHotkey();
+        if (hotkey != null) {
+            return String.format("[%s] %s", hotkey, connectionConfiguration.getConnectionName());
+        }
+        return connectionConfiguration.getConnectionName();
     }
 
     class HotKeyWindowListener extends WindowListenerAdapter {
@@ -87,7 +140,9 @@ abstract class SelectConnectionWindow extends ApplicationWindow {
         @Override
         public void onInput(Window basePane, KeyStroke keyStroke, AtomicBoolean deliverEvent) {
 
-            if (keyStroke.getKeyType() == KeyType.Character) {
+            boolean filtering = getFocusedInteractable() == filterTextBox;
+
+            if (keyStroke.getKeyType() == KeyType.Character && !filtering) {
                 Character character = keyStroke.getCharacter();
 
                 ConnectionConfiguration connectionConfiguration = hotKeyMap.get(normalizeHotkey(character));
@@ -95,19 +150,95 @@ abstract class SelectConnectionWindow extends ApplicationWindow {
                 if (connectionConfiguration != null) {
                     onConnectionSelected(connectionConfiguration);
                     deliverEvent.set(false);
+
+                } else if (!Character.isWhitespace(character)) {
+                    // any other character starts filtering: delivered to the filter box
+                    filterTextBox.takeFocus();
                 }
 
+            } else if (keyStroke.getKeyType() == KeyType.Enter && filtering) {
+                connectionListBox.selectItem();
+                deliverEvent.set(false);
+
             } else if (keyStroke.getKeyType() == KeyType.Escape) {
-                close();
+                cancel();
                 deliverEvent.set(false);
             }
         }
     }
 
+    private void cancel() {
+        close();
+        onCancelled();
+    }
+
+    private final class CancelAction implements Runnable {
+
+        @Override
+        public void run() {
+            cancel();
+        }
+    }
+
     private static char normalizeHotkey(Character hotkey) {
         return Character.toUpperCase(hotkey);
     }
 
+    /**
+     * Prompts for the user name and password, unless the connection logs in automatically.
+     *
+     * @param connectionConfiguration the selected connection configuration
+     * @return the configuration to connect with, or {@code null} if the user cancelled
+     */
+    protected final ConnectionConfiguration withCredentials(ConnectionConfiguration connectionConfiguration) {
+
+        if (connectionConfiguration.getLoginAutomatically()) {
+            return connectionConfiguration;
+        }
+
+        onCredentialsRequested(connectionConfiguration);
+
+        CredentialsDialog credentialsDialog = new CredentialsDialog(connectionConfiguration);
+
+        showWindowCenter(credentialsDialog);
+
+        MessageDialogButton dialogResult = credentialsDialog.getSelectedButton();
+        if (dialogResult == MessageDialogButton.Cancel) {
+            return null;
+        }
+
+        ConnectionConfiguration actualConnectionConfiguration = new ConnectionConfiguration(connectionConfiguration);
+        actualConnectionConfiguration.setUserName(credentialsDialog.getUserName());
+        actualConnectionConfiguration.setPassword(credentialsDialog.getPassword());
+
+        return actualConnectionConfiguration;
+    }
+
+    /**
+     * Invoked when another connection configuration is highlighted in the list.
+     *
+     * @param connectionConfiguration the highlighted connection configuration, {@code null} if none is
+     */
+    protected void onConnectionHighlighted(ConnectionConfiguration connectionConfiguration) {
+        // no action by default
+    }
+
+    /**
+     * Invoked before the user name and password are prompted for.
+     *
+     * @param connectionConfiguration the selected connection configuration, with the saved credentials (if any)
+     */
+    protected void onCredentialsRequested(ConnectionConfiguration connectionConfiguration) {
+        // no action by default
+    }
+
+    /**
+     * Invoked when the window is closed without selecting a connection configuration.
+     */
+    protected void onCancelled() {
+        // no action by default
+    }
+
     protected abstract void onConnectionSelected(
             ConnectionConfiguration connectionConfiguration);
 
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.ui;
+
+import com.github.blausql.TerminalUI;
+import com.github.blausql.core.compare.RowDifference;
+import com.github.blausql.core.compare.TableComparison;
+import com.github.blausql.core.compare.TableComparisonResult;
+import com.github.blausql.core.connection.ConnectionConfiguration;
+import com.github.blausql.core.connection.DatabaseConnection;
+import com.github.blausql.core.connection.DatabaseConnectionFactory;
+import com.github.blausql.ui.util.BackgroundWorker;
+import com.googlecode.lanterna.gui2.Window;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Selects the connections to compare the data of a table between.
+ */
+final class SelectConnectionsToCompareWindow extends SelectConnectionPairWindow {
+
+    SelectConnectionsToCompareWindow(List<ConnectionConfiguration> connectionConfigurations, TerminalUI terminalUI) {
+        this(connectionConfigurations, null, terminalUI);
+    }
+
+    private SelectConnectionsToCompareWindow(List<ConnectionConfiguration> connectionConfigurations,
+                                             ConnectionConfiguration sourceConnectionConfiguration,
+                                             TerminalUI terminalUI) {
+        super(getTitle(sourceConnectionConfiguration), connectionConfigurations, sourceConnectionConfiguration,
+                terminalUI);
+    }
+
+    private static String getTitle(ConnectionConfiguration sourceConnectionConfiguration) {
+        if (sourceConnectionConfiguration == null) {
+            return "Select source connection to compare";
+        }
+        return "Compare " + sourceConnectionConfiguration.getConnectionName() + " to";
+    }
+
+    @Override
+    protected SelectConnectionPairWindow createTargetSelectionWindow(
+            List<ConnectionConfiguration> availableConnectionConfigurations,
+            ConnectionConfiguration selectedSourceConnectionConfiguration) {
+
+        return new SelectConnectionsToCompareWindow(
+                availableConnectionConfigurations, selectedSourceConnectionConfiguration, getTerminalUI());
+    }
+
+    @Override
+    protected void onConnectionPairSelected(ConnectionConfiguration selectedSourceConnectionConfiguration,
+                                            ConnectionConfiguration targetConnectionConfiguration) {
+
+        String tableName = promptForText("Compare table data", "Table to compare:", "");
+        if (tableName == null) {
+            return;
+        }
+
+        String keyColumn = promptForText("Compare table data",
+                "Unique integer key column of " + tableName + ":", "ID");
+        if (keyColumn == null) {
+            return;
+        }
+
+        compare(selectedSourceConnectionConfiguration, targetConnectionConfiguration, tableName, keyColumn);
+    }
+
+    private void compare(ConnectionConfiguration sourceConnectionConfiguration,
+                         ConnectionConfiguration targetConnectionConfiguration, String tableName, String keyColumn) {
+
+        final AtomicReference<Window> waitDialogRef = new AtomicReference<>();
+        final BackgroundWorker<TableComparisonResult> backgroundWorker = new BackgroundWorker<>(this) {
+
+            @Override
+            protected TableComparisonResult doBackgroundTask() throws InterruptedException {
+
+                return compareTables(sourceConnectionConfiguration, targetConnectionConfiguration, tableName,
+                        keyColumn);
+            }
+
+            @Override
+            protected void onBackgroundTaskInterrupted(InterruptedException interruptedException) {
+                // do nothing
+            }
+
+            @Override
+            protected void onBackgroundTaskFailed(Throwable throwable) {
+                waitDialogRef.get().close();
+
+                showErrorMessageFromThrowable(throwable);
+            }
+
+            @Override
+            protected void onBackgroundTaskCompleted(TableComparisonResult result) {
+                waitDialogRef.get().close();
+
+                showComparisonResult(result, tableName);
+            }
+        };
+
+        waitDialogRef.set(showWaitDialog("Please wait",
+                String.format("Comparing %s of %s and %s ...", tableName,
+                        sourceConnectionConfiguration.getConnectionName(),
+                        targetConnectionConfiguration.getConnectionName()),
+                backgroundWorker::cancel));
+
+        backgroundWorker.start();
+    }
+
+    private static TableComparisonResult compareTables(ConnectionConfiguration sourceConnectionConfiguration,
+                                                       ConnectionConfiguration targetConnectionConfiguration,
+                                                       String tableName, String keyColumn)
+            throws InterruptedException {
+
+        DatabaseConnection source = DatabaseConnectionFactory.getDatabaseConnection(sourceConnectionConfiguration);
+        try {
+            DatabaseConnection target = DatabaseConnectionFactory.getDatabaseConnection(targetConnectionConfiguration);
+            try {
+                return new TableComparison(source, target, tableName, keyColumn).compare();
+            } finally {
+                target.close();
+            }
+        } finally {
+            source.close();
+        }
+    }
+
+    private void showComparisonResult(TableComparisonResult result, String tableName) {
+
+        String summary = String.format("%s: %d rows in source, %d rows in target", tableName,
+                result.getSourceRowCount(), result.getTargetRowCount());
+
+        if (result.isMatching()) {
+            showMessageBox("Table data matches", summary);
+            return;
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (RowDifference rowDifference : result.getRowDifferences()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("KEY", rowDifference.getKey());
+            row.put("DIFFERENCE", rowDifference.getKind());
+            rows.add(row);
+        }
+
+        String title = String.format("%s, %d of %d chunks differ%s", summary, result.getMismatchingChunkCount(),
+                result.getChunkCount(), getTruncatedMarker(result));
+
+        showWindowFullScreen(new QueryResultWindow(rows, title));
+    }
+
+    private static String getTruncatedMarker(TableComparisonResult result) {
+        if (result.isRowDifferencesTruncated()) {
+            return ", first " + result.getRowDifferences().size() + " differing rows shown";
+        }
+        return "";
+    }
+}
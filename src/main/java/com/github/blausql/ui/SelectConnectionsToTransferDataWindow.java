@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.ui;
+
+import com.github.blausql.TerminalUI;
+import com.github.blausql.core.connection.ConnectionConfiguration;
+import com.github.blausql.core.copy.TableCopy;
+import com.github.blausql.core.copy.TableCopyResult;
+import com.github.blausql.core.util.TextUtils;
+import com.github.blausql.ui.util.BackgroundWorker;
+import com.googlecode.lanterna.gui2.Window;
+import com.googlecode.lanterna.gui2.dialogs.MessageDialogButton;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Selects the connections to copy the data of a table between.
+ */
+final class SelectConnectionsToTransferDataWindow extends SelectConnectionPairWindow {
+
+    SelectConnectionsToTransferDataWindow(List<ConnectionConfiguration> connectionConfigurations,
+                                          TerminalUI terminalUI) {
+        this(connectionConfigurations, null, terminalUI);
+    }
+
+    private SelectConnectionsToTransferDataWindow(List<ConnectionConfiguration> connectionConfigurations,
+                                                  ConnectionConfiguration sourceConnectionConfiguration,
+                                                  TerminalUI terminalUI) {
+        super(getTitle(sourceConnectionConfiguration), connectionConfigurations, sourceConnectionConfiguration,
+                terminalUI);
+    }
+
+    private static String getTitle(ConnectionConfiguration sourceConnectionConfiguration) {
+        if (sourceConnectionConfiguration == null) {
+            return "Select connection to copy data from";
+        }
+        return "Copy data from " + sourceConnectionConfiguration.getConnectionName() + " to";
+    }
+
+    @Override
+    protected SelectConnectionPairWindow createTargetSelectionWindow(
+            List<ConnectionConfiguration> availableConnectionConfigurations,
+            ConnectionConfiguration selectedSourceConnectionConfiguration) {
+
+        return new SelectConnectionsToTransferDataWindow(
+                availableConnectionConfigurations, selectedSourceConnectionConfiguration, getTerminalUI());
+    }
+
+    @Override
+    protected void onConnectionPairSelected(ConnectionConfiguration selectedSourceConnectionConfiguration,
+                                            ConnectionConfiguration targetConnectionConfiguration) {
+
+        String sourceTable = promptForText("Copy table data", "Table to copy from:", "");
+        if (sourceTable == null) {
+            return;
+        }
+
+        String targetTable = promptForText("Copy table data", "Existing table to copy to:", sourceTable);
+        if (targetTable == null) {
+            return;
+        }
+
+        String keyColumn = promptForText("Copy table data",
+                "Unique integer key column of " + sourceTable + ":", "ID");
+        if (keyColumn == null) {
+            return;
+        }
+
+        TableCopy tableCopy = new TableCopy(selectedSourceConnectionConfiguration, targetConnectionConfiguration,
+                sourceTable, targetTable, keyColumn);
+
+        try {
+            if (tableCopy.hasCheckpoint() && showMessageBox("Resume copy",
+                    "A previous copy of " + sourceTable + " did not finish. \n"
+                            + "Do you want to continue it from the last committed row?",
+                    MessageDialogButton.Yes, MessageDialogButton.No) == MessageDialogButton.No) {
+
+                tableCopy.discardCheckpoint();
+            }
+        } catch (IOException e) {
+            showErrorMessageFromThrowable(e);
+            return;
+        }
+
+        copy(tableCopy, sourceTable);
+    }
+
+    private void copy(TableCopy tableCopy, String sourceTable) {
+
+        final AtomicReference<Window> waitDialogRef = new AtomicReference<>();
+        final BackgroundWorker<TableCopyResult> backgroundWorker = new BackgroundWorker<>(this) {
+
+            @Override
+            protected TableCopyResult doBackgroundTask() throws Exception {
+                return tableCopy.copy();
+            }
+
+            @Override
+            protected void onBackgroundTaskInterrupted(InterruptedException interruptedException) {
+                // do nothing: the copy can be resumed
+            }
+
+            @Override
+            protected void onBackgroundTaskFailed(Throwable throwable) {
+                waitDialogRef.get().close();
+
+                showErrorMessageFromThrowable(throwable);
+            }
+
+            @Override
+            protected void onBackgroundTaskCompleted(TableCopyResult result) {
+                waitDialogRef.get().close();
+
+                showMessageBox("Copy completed", String.format("%s %d rows of %s in %s (%d rows/s)",
+                        getCopiedVerb(result), result.getCopiedRowCount(), sourceTable,
+                        TextUtils.formatDuration(result.getElapsedMillis()), result.getRowsPerSecond()));
+            }
+        };
+
+        waitDialogRef.set(showWaitDialog("Please wait", "Copying " + sourceTable + " ...", backgroundWorker::cancel));
+
+        backgroundWorker.start();
+    }
+
+    private static String getCopiedVerb(TableCopyResult result) {
+        if (result.isResumed()) {
+            return "Resumed and copied";
+        }
+        return "Copied";
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.ui.components;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TerminalTextUtils;
+import com.googlecode.lanterna.gui2.table.DefaultTableCellRenderer;
+import com.googlecode.lanterna.gui2.table.Table;
+
+import java.util.List;
+
+/**
+ * Renders the cells of a table as single lines, with column widths computed from a bounded sample of rows:
+ * lanterna's default renderer measures every cell whenever the table is laid out, which gets slow with many
+ * rows of wide values. Values wider than their column (not in the sample) are cut at the column border.
+ */
+public final class SampledWidthTableCellRenderer extends DefaultTableCellRenderer<String> {
+
+    private static final int MAX_SAMPLED_ROWS = 200;
+
+    private static final TerminalSize SINGLE_CELL = new TerminalSize(1, 1);
+
+    private TerminalSize[] columnSizes = new TerminalSize[0];
+
+    /**
+     * Computes the column widths from (a sample of) the rows shown.
+     *
+     * @param rows        the cell texts of the rows, in column order
+     * @param columnCount the number of columns
+     */
+    public synchronized void sampleColumnWidths(List<String[]> rows, int columnCount) {
+        int[] columnWidths = new int[columnCount];
+
+        // evenly spaced rows, starting with the first one
+        int step = Math.max(1, (rows.size() + MAX_SAMPLED_ROWS - 1) / MAX_SAMPLED_ROWS);
+        for (int rowIndex = 0; rowIndex < rows.size(); rowIndex += step) {
+            String[] row = rows.get(rowIndex);
+            for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+                int width = TerminalTextUtils.getColumnWidth(row[columnIndex]);
+                columnWidths[columnIndex] = Math.max(columnWidths[columnIndex], width);
+            }
+        }
+
+        TerminalSize[] sizes = new TerminalSize[columnCount];
+        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+            sizes[columnIndex] = new TerminalSize(Math.max(1, columnWidths[columnIndex]), 1);
+        }
+        this.columnSizes = sizes;
+    }
+
+    @Override
+    public synchronized TerminalSize getPreferredSize(Table<String> table, String cell, int columnIndex,
+                                                      int rowIndex) {
+        if (columnIndex >= columnSizes.length) {
+            return SINGLE_CELL;
+        }
+        return columnSizes[columnIndex];
+    }
+
+    @Override
+    protected String[] getContent(String cell) {
+        return new String[] {cell};
+    }
+}
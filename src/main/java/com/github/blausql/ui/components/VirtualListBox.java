@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.ui.components;
+
+import com.googlecode.lanterna.TerminalPosition;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TerminalTextUtils;
+import com.googlecode.lanterna.graphics.ThemeDefinition;
+import com.googlecode.lanterna.gui2.AbstractInteractableComponent;
+import com.googlecode.lanterna.gui2.AbstractListBox;
+import com.googlecode.lanterna.gui2.InteractableRenderer;
+import com.googlecode.lanterna.gui2.TextGUIGraphics;
+import com.googlecode.lanterna.input.KeyStroke;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A list box showing a list without copying it, and only creating the labels of the visible items:
+ * replacing the items (e.g. with the ones matching a filter) costs the same with ten or ten thousand of them.
+ * <p>
+ * The list passed to {@link #setItems(List)} must not be modified while it is shown.
+ *
+ * @param <T> the type of the items
+ */
+public final class VirtualListBox<T> extends AbstractInteractableComponent<VirtualListBox<T>> {
+
+    private final TerminalSize preferredSize;
+    private final Function<? super T, String> labelFunction;
+    private final Consumer<? super T> selectAction;
+
+    private Consumer<? super T> selectionChangeListener = item -> { };
+
+    private List<T> items = List.of();
+    private int selectedIndex = -1;
+    private int scrollTopIndex;
+
+    /**
+     * @param preferredSize the size of the list box
+     * @param labelFunction returns the text shown for an item
+     * @param selectAction  invoked with the selected item when Enter is pressed
+     */
+    public VirtualListBox(TerminalSize preferredSize, Function<? super T, String> labelFunction,
+                          Consumer<? super T> selectAction) {
+        this.preferredSize = Objects.requireNonNull(preferredSize, "Argument preferredSize cannot be null");
+        this.labelFunction = Objects.requireNonNull(labelFunction, "Argument labelFunction cannot be null");
+        this.selectAction = Objects.requireNonNull(selectAction, "Argument selectAction cannot be null");
+    }
+
+    /**
+     * Sets the listener invoked with the newly highlighted item (or {@code null} if the list became empty)
+     * whenever the highlighted item changes.
+     *
+     * @param listener the listener
+     * @return this list box
+     */
+    public VirtualListBox<T> setSelectionChangeListener(Consumer<? super T> listener) {
+        this.selectionChangeListener = Objects.requireNonNull(listener, "Argument listener cannot be null");
+        return this;
+    }
+
+    /**
+     * Replaces the items shown, selecting the first one.
+     *
+     * @param newItems the items to show, not copied
+     * @return this list box
+     */
+    public VirtualListBox<T> setItems(List<T> newItems) {
+        this.items = Objects.requireNonNull(newItems, "Argument newItems cannot be null");
+        this.scrollTopIndex = 0;
+        if (newItems.isEmpty()) {
+            this.selectedIndex = -1;
+        } else {
+            this.selectedIndex = 0;
+        }
+        invalidate();
+        selectionChangeListener.accept(getSelectedItem());
+        return this;
+    }
+
+    public int getItemCount() {
+        return items.size();
+    }
+
+    public int getSelectedIndex() {
+        return selectedIndex;
+    }
+
+    /**
+     * @return the selected item, or {@code null} if the list is empty
+     */
+    public T getSelectedItem() {
+        if (selectedIndex < 0) {
+            return null;
+        }
+        return items.get(selectedIndex);
+    }
+
+    /**
+     * Invokes the select action with the selected item, if there is one.
+     */
+    public void selectItem() {
+        T selectedItem = getSelectedItem();
+        if (selectedItem != null) {
+            selectAction.accept(selectedItem);
+        }
+    }
+
+    @Override
+    protected Result handleKeyStroke(KeyStroke keyStroke) {
+        int lastIndex = items.size() - 1;
+        int pageSize = Math.max(1, getSize().getRows());
+
+        switch (keyStroke.getKeyType()) {
+            case ArrowDown:
+                if (selectedIndex >= lastIndex) {
+                    return Result.MOVE_FOCUS_DOWN;
+                }
+                return setSelectedIndex(selectedIndex + 1);
+
+            case ArrowUp:
+                if (selectedIndex <= 0) {
+                    return Result.MOVE_FOCUS_UP;
+                }
+                return setSelectedIndex(selectedIndex - 1);
+
+            case PageDown:
+                return setSelectedIndex(Math.min(lastIndex, selectedIndex + pageSize));
+
+            case PageUp:
+                return setSelectedIndex(Math.max(0, selectedIndex - pageSize));
+
+            case Home:
+                return setSelectedIndex(0);
+
+            case End:
+                return setSelectedIndex(lastIndex);
+
+            case Enter:
+                selectItem();
+                return Result.HANDLED;
+
+            default:
+                return super.handleKeyStroke(keyStroke);
+        }
+    }
+
+    private Result setSelectedIndex(int index) {
+        if (items.isEmpty()) {
+            return Result.HANDLED;
+        }
+
+        int newIndex = Math.max(0, Math.min(items.size() - 1, index));
+        if (newIndex != selectedIndex) {
+            selectedIndex = newIndex;
+            invalidate();
+            selectionChangeListener.accept(getSelectedItem());
+        }
+        return Result.HANDLED;
+    }
+
+    @Override
+    protected InteractableRenderer<VirtualListBox<T>> createDefaultRenderer() {
+        return new VirtualListBoxRenderer<>();
+    }
+
+    private static final class VirtualListBoxRenderer<T> implements InteractableRenderer<VirtualListBox<T>> {
+
+        @Override
+        public TerminalPosition getCursorLocation(VirtualListBox<T> listBox) {
+            // no visible cursor, like the list boxes of lanterna
+            return null;
+        }
+
+        @Override
+        public TerminalSize getPreferredSize(VirtualListBox<T> listBox) {
+            return listBox.preferredSize;
+        }
+
+        @Override
+        public void drawComponent(TextGUIGraphics graphics, VirtualListBox<T> listBox) {
+            // styled like the list boxes of lanterna
+            ThemeDefinition themeDefinition = listBox.getTheme().getDefinition(AbstractListBox.class);
+
+            int rows = graphics.getSize().getRows();
+            int columns = graphics.getSize().getColumns();
+
+            scrollToSelectedItem(listBox, rows);
+
+            graphics.applyThemeStyle(themeDefinition.getNormal());
+            graphics.fill(' ');
+
+            for (int row = 0; row < rows; row++) {
+                int index = listBox.scrollTopIndex + row;
+                if (index >= listBox.items.size()) {
+                    break;
+                }
+
+                if (index == listBox.selectedIndex && listBox.isFocused()) {
+                    graphics.applyThemeStyle(themeDefinition.getSelected());
+                } else if (index == listBox.selectedIndex) {
+                    graphics.applyThemeStyle(themeDefinition.getActive());
+                } else {
+                    graphics.applyThemeStyle(themeDefinition.getNormal());
+                }
+
+                String label = listBox.labelFunction.apply(listBox.items.get(index));
+                graphics.putString(0, row, TerminalTextUtils.fitString(label, columns));
+            }
+        }
+
+        private static void scrollToSelectedItem(VirtualListBox<?> listBox, int rows) {
+            if (listBox.selectedIndex < listBox.scrollTopIndex) {
+                listBox.scrollTopIndex = listBox.selectedIndex;
+            } else if (rows > 0 && listBox.selectedIndex >= listBox.scrollTopIndex + rows) {
+                listBox.scrollTopIndex = listBox.selectedIndex - rows + 1;
+            }
+            listBox.scrollTopIndex = Math.max(0, listBox.scrollTopIndex);
+        }
+    }
+}
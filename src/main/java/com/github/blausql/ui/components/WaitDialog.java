@@ -21,6 +21,10 @@ import com.googlecode.lanterna.TerminalSize;
 import com.googlecode.lanterna.gui2.*;
 import com.googlecode.lanterna.gui2.dialogs.DialogWindow;
 
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.function.Supplier;
+
 
 /**
  * Inspired by com.googlecode.lanterna.gui.dialog.WaitingDialog,
@@ -28,6 +32,11 @@ import com.googlecode.lanterna.gui2.dialogs.DialogWindow;
  */
 public final class WaitDialog extends DialogWindow {
 
+    // progress is read at this rate, however often the task publishes it
+    private static final long PROGRESS_REFRESH_MILLIS = 250;
+
+    private final Panel mainPanel;
+    private Timer progressTimer;
 
     private final class CloseWaitDialogAndInvokeRunnable implements Runnable {
 
@@ -56,11 +65,47 @@ public final class WaitDialog extends DialogWindow {
 
         Button cancelButton = new Button("Cancel", new CloseWaitDialogAndInvokeRunnable(runnable));
 
-        Panel mainPanel = Panels.vertical(topPanel, new EmptySpace(), cancelButton);
+        mainPanel = Panels.vertical(topPanel, new EmptySpace(), cancelButton);
 
         setComponent(mainPanel);
     }
 
+    /**
+     * Shows the progress of the task below the text, refreshed a few times per second until the dialog is closed.
+     *
+     * @param progressText returns the description of the progress; called from a timer thread
+     */
+    public synchronized void showProgress(Supplier<String> progressText) {
+        if (progressTimer != null) {
+            throw new IllegalStateException("Progress is shown already");
+        }
+
+        Label progressLabel = new Label(progressText.get());
+        mainPanel.addComponent(1, progressLabel);
+
+        progressTimer = new Timer("wait-dialog-progress", true);
+        progressTimer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                TextGUI textGUI = getTextGUI();
+                if (textGUI != null) {
+                    String text = progressText.get();
+                    textGUI.getGUIThread().invokeLater(() -> progressLabel.setText(text));
+                }
+            }
+        }, PROGRESS_REFRESH_MILLIS, PROGRESS_REFRESH_MILLIS);
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (progressTimer != null) {
+                progressTimer.cancel();
+            }
+        }
+        super.close();
+    }
+
     @Override
     public Object showDialog(WindowBasedTextGUI textGUI) {
         showDialog(textGUI, true);
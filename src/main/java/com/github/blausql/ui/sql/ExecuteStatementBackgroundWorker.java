@@ -19,18 +19,27 @@ package com.github.blausql.ui.sql;
 
 import com.github.blausql.TerminalUI;
 import com.github.blausql.core.connection.DatabaseConnection;
+import com.github.blausql.core.connection.ExecutionProgress;
 import com.github.blausql.core.connection.StatementResult;
+import com.github.blausql.core.history.QueryHistory;
+import com.github.blausql.core.history.QueryHistoryEntry;
+import com.github.blausql.core.history.QueryOutcome;
+import com.github.blausql.core.preferences.ConfigurationRepository;
+import com.github.blausql.core.result.ResultStore;
+import com.github.blausql.core.result.StoredResult;
+import com.github.blausql.core.util.TextUtils;
 import com.github.blausql.ui.QueryResultWindow;
 import com.github.blausql.ui.components.WaitDialog;
 import com.github.blausql.ui.util.BackgroundWorker;
-import com.googlecode.lanterna.TerminalSize;
+import com.github.blausql.ui.util.TaskPriority;
+import com.github.blausql.spi.connections.LoadException;
 import com.googlecode.lanterna.gui2.Window;
-import com.googlecode.lanterna.gui2.WindowBasedTextGUI;
-import com.googlecode.lanterna.screen.Screen;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 final class ExecuteStatementBackgroundWorker extends BackgroundWorker<List<StatementResult>> {
 
@@ -40,6 +49,7 @@ final class ExecuteStatementBackgroundWorker extends BackgroundWorker<List<State
     private final Window showWaitDialog;
     private final SqlQueryWindow sqlQueryWindow;
     private final boolean showIndividualResults;
+    private final ExecutionProgress progress;
 
     ExecuteStatementBackgroundWorker(TerminalUI terminalUI,
                                    DatabaseConnection databaseConnection,
@@ -55,48 +65,86 @@ final class ExecuteStatementBackgroundWorker extends BackgroundWorker<List<State
                                    WaitDialog showWaitDialog,
                                    SqlQueryWindow sqlQueryWindow,
                                    boolean showIndividualResults) {
-        super(sqlQueryWindow);
+        super(sqlQueryWindow, databaseConnection, TaskPriority.NORMAL);
         this.terminalUI = terminalUI;
         this.databaseConnection = databaseConnection;
         this.sqlCommands = new ArrayList<>(sqlCommands);
         this.showWaitDialog = showWaitDialog;
         this.sqlQueryWindow = sqlQueryWindow;
         this.showIndividualResults = showIndividualResults;
+        this.progress = new ExecutionProgress(sqlCommands.size());
+
+        showWaitDialog.showProgress(progress::describe);
     }
 
     @Override
-    protected List<StatementResult> doBackgroundTask() throws InterruptedException {
-        WindowBasedTextGUI windowBasedTextGUI = terminalUI.getWindowBasedTextGUI();
-        Screen screen = windowBasedTextGUI.getScreen();
-        TerminalSize terminalSize = screen.getTerminalSize();
-        int limit = terminalSize.getRows() - 2;
+    protected List<StatementResult> doBackgroundTask() throws InterruptedException, LoadException {
+        int limit = ConfigurationRepository.getInstance().getResultFetchLimit();
 
         List<StatementResult> results = new ArrayList<>();
-        for (String sql : sqlCommands) {
-            if (Thread.currentThread().isInterrupted()) {
-                throw new InterruptedException("Statement execution was interrupted");
+        try {
+            for (int i = 0; i < sqlCommands.size(); i++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException("Statement execution was interrupted");
+                }
+                progress.startStatement(i);
+                results.add(executeAndRecordStatement(sqlCommands.get(i), limit));
             }
-            results.add(databaseConnection.executeStatement(sql, limit));
+            return results;
+
+        } catch (InterruptedException | RuntimeException e) {
+            // the results fetched so far are never shown: release them
+            results.forEach(StatementResult::releaseQueryResult);
+            throw e;
         }
-        return results;
+    }
+
+    private StatementResult executeAndRecordStatement(String sql, int limit) {
+        long executedAtMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        try {
+            StatementResult result = databaseConnection.executeStatement(sql, limit, progress);
+
+            recordStatement(sql, executedAtMillis, startNanos, getRowCount(result), QueryOutcome.SUCCEEDED);
+            return result;
+
+        } catch (RuntimeException e) {
+            recordStatement(sql, executedAtMillis, startNanos, -1, QueryOutcome.FAILED);
+            throw e;
+        }
+    }
+
+    private void recordStatement(String sql, long executedAtMillis, long startNanos, long rowCount,
+                                 QueryOutcome outcome) {
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        QueryHistory.getInstance().record(new QueryHistoryEntry(databaseConnection.getConnectionName(), sql,
+                executedAtMillis, durationMillis, rowCount, outcome));
+    }
+
+    private static long getRowCount(StatementResult result) {
+        if (result.isResultSet()) {
+            return result.getQueryResult().size();
+        }
+        return result.getUpdateCount();
     }
 
     @Override
     protected void onBackgroundTaskInterrupted(InterruptedException interruptedException) {
-        terminalUI.showMessageBox("Interrupted",
-                "The statement was aborted. \n"
-                        + "You might have to re-connect before you can run a new one.");
-
         sqlQueryWindow.onStatementCompleted();
+
+        // a session closed while running a statement is not interested in the outcome
+        sqlQueryWindow.runInForeground(() -> terminalUI.showMessageBox("Interrupted",
+                "The statement was aborted. \n"
+                        + "You might have to re-connect before you can run a new one."));
     }
 
     @Override
     protected void onBackgroundTaskFailed(Throwable t) {
         showWaitDialog.close();
-
-        terminalUI.showErrorMessageFromThrowable(t);
-
         sqlQueryWindow.onStatementCompleted();
+
+        sqlQueryWindow.runInForeground(() -> terminalUI.showErrorMessageFromThrowable(t));
     }
 
     @Override
@@ -104,32 +152,33 @@ final class ExecuteStatementBackgroundWorker extends BackgroundWorker<List<State
         showWaitDialog.close();
         sqlQueryWindow.onStatementCompleted();
 
+        if (!sqlQueryWindow.runInForeground(() -> showResults(results))) {
+            results.forEach(StatementResult::releaseQueryResult);
+        }
+    }
+
+    private void showResults(List<StatementResult> results) {
         int totalUpdated = 0;
         boolean hasResults = false;
-        List<Map<String, Object>> combinedResults = new ArrayList<>();
 
         for (int i = 0; i < results.size(); i++) {
             StatementResult result = results.get(i);
             if (result.isResultSet()) {
                 hasResults = true;
                 if (showIndividualResults) {
-                    String title;
-                    if (results.size() == 1) {
-                        title = "Query Result";
-                    } else {
-                        title = String.format("Query Result %d of %d", i + 1, results.size());
-                    }
+                    String title = getTitle(result, i, results.size());
                     terminalUI.showWindowFullScreen(new QueryResultWindow(result.getQueryResult(), title));
-                } else {
-                    combinedResults.addAll(result.getQueryResult());
                 }
             } else {
                 totalUpdated += result.getUpdateCount();
             }
         }
 
-        if (hasResults && !showIndividualResults && !combinedResults.isEmpty()) {
-            terminalUI.showWindowFullScreen(new QueryResultWindow(combinedResults, "Query Results"));
+        if (hasResults && !showIndividualResults) {
+            List<Map<String, Object>> combinedResults = combineQueryResults(results);
+            if (!combinedResults.isEmpty()) {
+                terminalUI.showWindowFullScreen(new QueryResultWindow(combinedResults, "Query Results"));
+            }
         }
 
         if (totalUpdated > 0) {
@@ -141,4 +190,44 @@ final class ExecuteStatementBackgroundWorker extends BackgroundWorker<List<State
                 String.format("Executed %d statement(s)", results.size()));
         }
     }
+
+    private static String getTitle(StatementResult result, int index, int numberOfResults) {
+        String title;
+        if (numberOfResults == 1) {
+            title = "Query Result";
+        } else {
+            title = String.format("Query Result %d of %d", index + 1, numberOfResults);
+        }
+        if (result.isFromCache()) {
+            long cacheAge = System.currentTimeMillis() - result.getCachedAtMillis();
+            title = String.format("%s [cached %s ago]", title, TextUtils.formatDuration(cacheAge));
+        }
+        if (result.isTruncated()) {
+            title = String.format("%s [truncated: client memory is low]", title);
+        }
+        return title;
+    }
+
+    private static List<Map<String, Object>> combineQueryResults(List<StatementResult> results) {
+        StoredResult combinedResult = null;
+
+        for (StatementResult result : results) {
+            if (result.isResultSet()) {
+                for (Map<String, Object> row : result.getQueryResult()) {
+                    if (combinedResult == null) {
+                        combinedResult = ResultStore.getInstance().createResult(new ArrayList<>(row.keySet()));
+                    }
+                    combinedResult.addRow(combinedResult.getColumnLabels().stream().map(row::get).toArray());
+                }
+                result.releaseQueryResult();
+            }
+        }
+
+        if (combinedResult == null) {
+            return Collections.emptyList();
+        }
+
+        combinedResult.finishFetching();
+        return combinedResult;
+    }
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.blausql.ui.sql;
+
+import com.github.blausql.TerminalUI;
+import com.github.blausql.core.explain.ExecutionPlan;
+import com.github.blausql.core.explain.PlanDiff;
+import com.github.blausql.core.util.TextUtils;
+import com.github.blausql.ui.components.ApplicationWindow;
+import com.github.blausql.ui.hotkey.HotKeyWindowListener;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.gui2.TextBox;
+import com.googlecode.lanterna.gui2.dialogs.ListSelectDialog;
+import com.googlecode.lanterna.input.KeyType;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shows a captured execution plan, and how it differs from the plan captured before it.
+ */
+final class ExecutionPlanWindow extends ApplicationWindow {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private static final int MAX_STATEMENT_LINE_LENGTH = 100;
+
+    private final List<ExecutionPlan> history;
+
+    /**
+     * @param history the plans captured for the statement, the most recent first
+     * @param index   the index of the plan to show
+     */
+    ExecutionPlanWindow(List<ExecutionPlan> history, int index, TerminalUI terminalUI) {
+        super("Execution plan (press H for history, ESC to close)", terminalUI);
+
+        this.history = List.copyOf(history);
+
+        addWindowListener(HotKeyWindowListener.builder()
+                .keyType(KeyType.Escape).invoke(this::close)
+                .character('H').invoke(this::showHistory)
+                .build());
+
+        TextBox planTextBox = new TextBox(getDesiredSizeForPlanTextBox(), "");
+        planTextBox.setReadOnly(true);
+        planTextBox.setText(getPlanText(index));
+
+        setComponent(planTextBox);
+    }
+
+    private String getPlanText(int index) {
+        ExecutionPlan plan = history.get(index);
+
+        List<String> lines = new ArrayList<>();
+        // breakLine terminates the last line too, leaving an empty line after the statement
+        lines.add(TextUtils.breakLine(plan.getNormalizedSql(), MAX_STATEMENT_LINE_LENGTH));
+        lines.add(describe(plan));
+        lines.add("");
+        lines.addAll(plan.getPlanLines());
+
+        if (index + 1 < history.size()) {
+            ExecutionPlan previousPlan = history.get(index + 1);
+
+            lines.add("");
+            if (PlanDiff.isSame(previousPlan, plan)) {
+                lines.add("Same plan as " + describe(previousPlan));
+            } else {
+                lines.add("Changes since " + describe(previousPlan) + ":");
+                lines.add("");
+                lines.addAll(PlanDiff.diff(previousPlan.getPlanLines(), plan.getPlanLines()));
+            }
+        }
+
+        return TextUtils.joinStringsWithNewLine(lines);
+    }
+
+    private static String describe(ExecutionPlan plan) {
+        String kind;
+        if (plan.isAnalyzed()) {
+            kind = "executed and analyzed";
+        } else {
+            kind = "explained";
+        }
+
+        return String.format("captured at %s, %s in %s",
+                DATE_TIME_FORMATTER.format(Instant.ofEpochMilli(plan.getCapturedAtMillis())), kind,
+                TextUtils.formatDuration(plan.getElapsedMillis()));
+    }
+
+    private void showHistory() {
+        List<String> choices = new ArrayList<>(history.size());
+        for (ExecutionPlan plan : history) {
+            choices.add(describe(plan));
+        }
+
+        String choice = ListSelectDialog.showDialog(getApplicationTextGUI(), "Plan history",
+                "Show the plan captured at:", choices.toArray(new String[0]));
+
+        if (choice != null) {
+            showWindowFullScreen(new ExecutionPlanWindow(history, choices.indexOf(choice), getTerminalUI()));
+        }
+    }
+
+    private TerminalSize getDesiredSizeForPlanTextBox() {
+        TerminalSize screenTerminalSize = getApplicationTextGUI().getScreen().getTerminalSize();
+
+        final int planTextBoxColumns = screenTerminalSize.getColumns() - 4;
+        final int planTextBoxRows = screenTerminalSize.getRows() - 2;
+
+        return new TerminalSize(planTextBoxColumns, planTextBoxRows);
+    }
+}
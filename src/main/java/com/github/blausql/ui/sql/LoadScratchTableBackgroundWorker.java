@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.ui.sql;
+
+import com.github.blausql.TerminalUI;
+import com.github.blausql.core.connection.DatabaseConnection;
+import com.github.blausql.core.scratch.ScratchTableLoad;
+import com.github.blausql.core.util.TextUtils;
+import com.github.blausql.spi.connections.LoadException;
+import com.github.blausql.ui.components.WaitDialog;
+import com.github.blausql.ui.util.BackgroundWorker;
+import com.github.blausql.ui.util.TaskPriority;
+import com.googlecode.lanterna.gui2.dialogs.MessageDialogButton;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+final class LoadScratchTableBackgroundWorker extends BackgroundWorker<Long> {
+
+    private final TerminalUI terminalUI;
+    private final ScratchTableLoad tableLoad;
+    private final WaitDialog waitDialog;
+    private final SqlQueryWindow sqlQueryWindow;
+    private final long startNanos = System.nanoTime();
+
+    LoadScratchTableBackgroundWorker(TerminalUI terminalUI,
+                                     DatabaseConnection databaseConnection,
+                                     ScratchTableLoad tableLoad,
+                                     WaitDialog waitDialog,
+                                     SqlQueryWindow sqlQueryWindow) {
+        super(sqlQueryWindow, databaseConnection, TaskPriority.NORMAL);
+        this.terminalUI = terminalUI;
+        this.tableLoad = tableLoad;
+        this.waitDialog = waitDialog;
+        this.sqlQueryWindow = sqlQueryWindow;
+
+        waitDialog.showProgress(this::describeProgress);
+    }
+
+    private String describeProgress() {
+        return String.format(Locale.ROOT, "%,d rows loaded in %s", tableLoad.getLoadedRowCount(),
+                TextUtils.formatDuration(getElapsedMillis()));
+    }
+
+    private long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    @Override
+    protected Long doBackgroundTask() throws InterruptedException, LoadException {
+        return tableLoad.load();
+    }
+
+    @Override
+    protected void onBackgroundTaskInterrupted(InterruptedException interruptedException) {
+        sqlQueryWindow.onStatementCompleted();
+
+        sqlQueryWindow.runInForeground(() -> terminalUI.showMessageBox("Interrupted",
+                String.format(Locale.ROOT, "Loading was aborted: scratch table %s has the first %,d rows only.",
+                        tableLoad.getTableName(), tableLoad.getLoadedRowCount())));
+    }
+
+    @Override
+    protected void onBackgroundTaskFailed(Throwable t) {
+        waitDialog.close();
+        sqlQueryWindow.onStatementCompleted();
+
+        sqlQueryWindow.runInForeground(() -> terminalUI.showErrorMessageFromThrowable(t));
+    }
+
+    @Override
+    protected void onBackgroundTaskCompleted(Long loadedRowCount) {
+        waitDialog.close();
+        sqlQueryWindow.onStatementCompleted();
+
+        String message = String.format(Locale.ROOT, "Loaded %,d rows into scratch table %s in %s. %n"
+                        + "Do you want to open the scratch database now?",
+                loadedRowCount, tableLoad.getTableName(), TextUtils.formatDuration(getElapsedMillis()));
+
+        sqlQueryWindow.runInForeground(() -> {
+            MessageDialogButton selectedButton = terminalUI.showMessageBox("Scratch table loaded", message,
+                    MessageDialogButton.Yes, MessageDialogButton.No);
+
+            if (selectedButton == MessageDialogButton.Yes) {
+                SqlQueryWindow.openScratchDatabaseSession(terminalUI);
+            }
+        });
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.ui.sql;
+
+import com.github.blausql.TerminalUI;
+import com.github.blausql.core.history.QueryHistory;
+import com.github.blausql.core.history.QueryHistoryEntry;
+import com.github.blausql.core.history.QueryHistoryStatement;
+import com.github.blausql.core.history.QueryOutcome;
+import com.github.blausql.core.util.TextUtils;
+import com.github.blausql.spi.connections.LoadException;
+import com.github.blausql.ui.components.ApplicationWindow;
+import com.github.blausql.ui.hotkey.HotKeyWindowListener;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.gui2.ActionListBox;
+import com.googlecode.lanterna.gui2.Label;
+import com.googlecode.lanterna.gui2.Panels;
+import com.googlecode.lanterna.gui2.TextBox;
+import com.googlecode.lanterna.input.KeyType;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Lists the statements of the {@link QueryHistory}: the ones matching the text typed into the search
+ * box (updated as you type), the slowest or the most frequently executed ones.
+ */
+final class QueryHistoryWindow extends ApplicationWindow {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+
+    private static final int MAX_STATEMENTS_SHOWN = 200;
+
+    enum View {
+        SEARCH("matching statements, the most recent first"),
+        SLOWEST("slowest statements"),
+        MOST_FREQUENT("most frequently executed statements");
+
+        private final String description;
+
+        View(String description) {
+            this.description = description;
+        }
+    }
+
+    private final Consumer<String> statementConsumer;
+
+    private final TextBox searchTextBox;
+    private final ActionListBox statementListBox;
+    private final Label statusLabel = new Label("");
+
+    private View view;
+
+    /**
+     * @param initialView        the statements to list first
+     * @param statementConsumer  called with the statement selected with Enter
+     */
+    QueryHistoryWindow(View initialView, Consumer<String> statementConsumer, TerminalUI terminalUI) {
+        super("Query history", terminalUI);
+
+        this.statementConsumer = statementConsumer;
+
+        addWindowListener(HotKeyWindowListener.builder()
+                .keyType(KeyType.Escape).invoke(this::close)
+                .keyType(KeyType.F5).invoke(() -> showView(View.SEARCH))
+                .keyType(KeyType.F6).invoke(() -> showView(View.SLOWEST))
+                .keyType(KeyType.F7).invoke(() -> showView(View.MOST_FREQUENT))
+                .build());
+
+        TerminalSize screenTerminalSize = getApplicationTextGUI().getScreen().getTerminalSize();
+        final int columns = screenTerminalSize.getColumns() - 4;
+        final int listRows = screenTerminalSize.getRows() - 8;
+
+        searchTextBox = new TextBox(new TerminalSize(columns, 1));
+        searchTextBox.setTextChangeListener((newText, changedByUser) -> showView(View.SEARCH));
+
+        statementListBox = new ActionListBox(new TerminalSize(columns, listRows));
+
+        setComponent(Panels.vertical(
+                new Label("Type to search, press Down to select a statement and Enter to insert it into the editor"),
+                new Label("F5: Search | F6: Slowest | F7: Most frequent | ESC: Close"),
+                searchTextBox,
+                statementListBox,
+                statusLabel));
+
+        showView(initialView);
+
+        if (initialView == View.SEARCH) {
+            setFocusedInteractable(searchTextBox);
+        } else {
+            setFocusedInteractable(statementListBox);
+        }
+    }
+
+    private void showView(View newView) {
+        this.view = newView;
+
+        try {
+            long startNanos = System.nanoTime();
+            List<QueryHistoryStatement> statements = getStatements();
+            long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+
+            statementListBox.clearItems();
+            for (QueryHistoryStatement statement : statements) {
+                statementListBox.addItem(describe(statement), () -> selectStatement(statement));
+            }
+
+            statusLabel.setText(String.format("%d %s, found in %d us",
+                    statements.size(), view.description, elapsedMicros));
+
+        } catch (LoadException e) {
+            showErrorMessageFromThrowable(e);
+        }
+    }
+
+    private List<QueryHistoryStatement> getStatements() throws LoadException {
+        QueryHistory queryHistory = QueryHistory.getInstance();
+
+        if (view == View.SLOWEST) {
+            return queryHistory.getSlowest(MAX_STATEMENTS_SHOWN);
+        } else if (view == View.MOST_FREQUENT) {
+            return queryHistory.getMostFrequent(MAX_STATEMENTS_SHOWN);
+        }
+        return queryHistory.search(searchTextBox.getText(), MAX_STATEMENTS_SHOWN);
+    }
+
+    private static String describe(QueryHistoryStatement statement) {
+        QueryHistoryEntry lastExecution = statement.getLastExecution();
+
+        String outcomeMarker;
+        if (lastExecution.getOutcome() == QueryOutcome.FAILED) {
+            outcomeMarker = "!";
+        } else {
+            outcomeMarker = " ";
+        }
+
+        return String.format("%s %s %5dx avg %-8s max %-8s %s",
+                outcomeMarker,
+                DATE_TIME_FORMATTER.format(Instant.ofEpochMilli(lastExecution.getExecutedAtMillis())),
+                statement.getExecutionCount(),
+                TextUtils.formatDuration(statement.getAverageDurationMillis()),
+                TextUtils.formatDuration(statement.getMaxDurationMillis()),
+                statement.getSql());
+    }
+
+    private void selectStatement(QueryHistoryStatement statement) {
+        close();
+        statementConsumer.accept(statement.getLastExecution().getSql());
+    }
+}
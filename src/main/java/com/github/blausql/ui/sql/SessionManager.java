@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.ui.sql;
+
+import com.github.blausql.TerminalUI;
+import com.github.blausql.core.preferences.ConnectionConfigurationRepositoryFactory;
+import com.github.blausql.ui.SelectConnectionForQueryWindow;
+import com.github.blausql.ui.util.AsyncOperation;
+
+import com.googlecode.lanterna.gui2.Window;
+import com.googlecode.lanterna.gui2.WindowBasedTextGUI;
+import com.googlecode.lanterna.gui2.dialogs.ListSelectDialog;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Keeps track of the open {@link SqlQueryWindow}s, so that several sessions can be used at the same time:
+ * while a statement runs in one session, the user can switch to another one (F11 in any window).
+ * <p>
+ * The session whose window is the topmost one is in the foreground. Results of statements completed
+ * in a background session are shown when the user switches to it.
+ * <p>
+ * Each terminal has its own session manager: in server mode, the users connected to the server only see
+ * their own sessions. All methods must be called from the GUI thread of the terminal.
+ */
+final class SessionManager {
+
+    private static final String NEW_SESSION_CHOICE = "New session...";
+
+    private static final Map<WindowBasedTextGUI, SessionManager> INSTANCES = new WeakHashMap<>();
+
+    static SessionManager getInstance(TerminalUI terminalUI) {
+        synchronized (INSTANCES) {
+            return INSTANCES.computeIfAbsent(terminalUI.getWindowBasedTextGUI(), textGUI -> new SessionManager());
+        }
+    }
+
+    private static final class Session {
+
+        private final int number;
+        private final SqlQueryWindow window;
+        private final String connectionName;
+        private final TerminalUI terminalUI;
+
+        private final List<Runnable> pendingActions = new ArrayList<>();
+        private List<Window> windowsAbove = Collections.emptyList();
+        private boolean busy;
+
+        private Session(int number, SqlQueryWindow window, String connectionName, TerminalUI terminalUI) {
+            this.number = number;
+            this.window = window;
+            this.connectionName = connectionName;
+            this.terminalUI = terminalUI;
+        }
+
+        private String describe() {
+            String state;
+            if (busy) {
+                state = " (running)";
+            } else if (!pendingActions.isEmpty()) {
+                state = " (results ready)";
+            } else {
+                state = "";
+            }
+            return String.format("%d %s%s", number, connectionName, state);
+        }
+    }
+
+    private final List<Session> sessions = new ArrayList<>();
+    private boolean hotKeyRegistered;
+    private int lastSessionNumber;
+    private boolean switcherShown;
+
+    private SessionManager() {
+        // no external instances
+    }
+
+    void register(SqlQueryWindow window, String connectionName, TerminalUI terminalUI) {
+        sessions.add(new Session(++lastSessionNumber, window, connectionName, terminalUI));
+
+        if (!hotKeyRegistered) {
+            hotKeyRegistered = true;
+            terminalUI.getWindowBasedTextGUI().addListener((gui, keyStroke) -> onUnhandledKeyStroke(keyStroke));
+        }
+
+        fireSessionsChanged();
+    }
+
+    void unregister(SqlQueryWindow window) {
+        sessions.removeIf(session -> session.window == window);
+
+        fireSessionsChanged();
+    }
+
+    void closeAll() {
+        new ArrayList<>(sessions).forEach(session -> session.window.closeSession());
+    }
+
+    void setBusy(SqlQueryWindow window, boolean busy) {
+        Session session = findSession(window);
+        if (session != null) {
+            session.busy = busy;
+            fireSessionsChanged();
+        }
+    }
+
+    /**
+     * Runs an action showing the outcome of a background task right away if the session is in
+     * the foreground, otherwise when the user switches to it.
+     *
+     * @return {@code false} if the session is closed already, and the action is dropped
+     */
+    boolean runInForeground(SqlQueryWindow window, Runnable action) {
+        Session session = findSession(window);
+        if (session == null) {
+            return false;
+        }
+
+        if (session == getForegroundSession(session.terminalUI.getWindowBasedTextGUI())) {
+            action.run();
+        } else {
+            session.pendingActions.add(action);
+            fireSessionsChanged();
+        }
+        return true;
+    }
+
+    /**
+     * @return a line listing the sessions, the one of the window in brackets
+     */
+    String getStatusLine(SqlQueryWindow window) {
+        StringBuilder sb = new StringBuilder("F11: Sessions ");
+        for (Session session : sessions) {
+            sb.append(" | ");
+            if (session.window == window) {
+                sb.append('[').append(session.describe()).append(']');
+            } else {
+                sb.append(session.describe());
+            }
+        }
+        return sb.toString();
+    }
+
+    void showSessionSwitcher(TerminalUI terminalUI) {
+        List<String> choices = new ArrayList<>(sessions.size() + 1);
+        for (Session session : sessions) {
+            choices.add(session.describe());
+        }
+        choices.add(NEW_SESSION_CHOICE);
+
+        String choice;
+        switcherShown = true;
+        try {
+            choice = ListSelectDialog.showDialog(terminalUI.getWindowBasedTextGUI(), "Sessions",
+                    "Switch to session:", choices.toArray(new String[0]));
+        } finally {
+            switcherShown = false;
+        }
+
+        if (NEW_SESSION_CHOICE.equals(choice)) {
+            openNewSession(terminalUI);
+        } else if (choice != null) {
+            switchTo(sessions.get(choices.indexOf(choice)));
+        }
+    }
+
+    private boolean onUnhandledKeyStroke(KeyStroke keyStroke) {
+        if (keyStroke.getKeyType() != KeyType.F11 || sessions.isEmpty() || switcherShown) {
+            return false;
+        }
+
+        showSessionSwitcher(sessions.get(0).terminalUI);
+        return true;
+    }
+
+    private void openNewSession(TerminalUI terminalUI) {
+        AsyncOperation.run(terminalUI, "Loading connections... ",
+                ConnectionConfigurationRepositoryFactory.getRepository()::getConnectionConfigurationsAsync,
+                connectionConfigurations -> {
+                    if (connectionConfigurations.isEmpty()) {
+                        terminalUI.showMessageBox("No connection configurations",
+                                "Create a connection configuration in the main menu first.");
+                        return;
+                    }
+
+                    terminalUI.showWindowCenter(
+                            new SelectConnectionForQueryWindow(connectionConfigurations, terminalUI));
+                });
+    }
+
+    private void switchTo(Session target) {
+        WindowBasedTextGUI textGUI = target.terminalUI.getWindowBasedTextGUI();
+
+        Session current = getForegroundSession(textGUI);
+        if (current == target) {
+            return;
+        }
+
+        if (current != null) {
+            // dialogs and results of the current session are brought back when switching back to it
+            current.windowsAbove = getWindowsAbove(textGUI, current.window);
+        }
+
+        bringToTop(textGUI, target.window);
+        for (Window window : target.windowsAbove) {
+            if (textGUI.getWindows().contains(window)) {
+                bringToTop(textGUI, window);
+            }
+        }
+        target.windowsAbove = Collections.emptyList();
+
+        List<Runnable> pendingActions = new ArrayList<>(target.pendingActions);
+        target.pendingActions.clear();
+        pendingActions.forEach(target.terminalUI::runInGUIThread);
+
+        fireSessionsChanged();
+    }
+
+    private static void bringToTop(WindowBasedTextGUI textGUI, Window window) {
+        textGUI.moveToTop(window);
+        textGUI.setActiveWindow(window);
+    }
+
+    private List<Window> getWindowsAbove(WindowBasedTextGUI textGUI, Window sessionWindow) {
+        // getWindows() lists the windows bottom to top
+        List<Window> windows = new ArrayList<>(textGUI.getWindows());
+
+        List<Window> windowsAbove = new ArrayList<>();
+        for (Window window : windows.subList(windows.indexOf(sessionWindow) + 1, windows.size())) {
+            if (findSession(window) == null) {
+                windowsAbove.add(window);
+            }
+        }
+        return windowsAbove;
+    }
+
+    private Session getForegroundSession(WindowBasedTextGUI textGUI) {
+        Session foregroundSession = null;
+        for (Window window : textGUI.getWindows()) {
+            Session session = findSession(window);
+            if (session != null) {
+                foregroundSession = session;
+            }
+        }
+        return foregroundSession;
+    }
+
+    private Session findSession(Window window) {
+        for (Session session : sessions) {
+            if (session.window == window) {
+                return session;
+            }
+        }
+        return null;
+    }
+
+    private void fireSessionsChanged() {
+        for (Session session : sessions) {
+            session.window.onSessionsChanged(getStatusLine(session.window));
+        }
+    }
+}
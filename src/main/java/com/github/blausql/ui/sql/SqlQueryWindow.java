@@ -20,10 +20,26 @@ import com.github.blausql.TerminalUI;
 import com.github.blausql.core.Constants;
 import com.github.blausql.core.connection.ConnectionConfiguration;
 import com.github.blausql.core.connection.DatabaseConnection;
+import com.github.blausql.core.connection.DatabaseConnectionFactory;
+import com.github.blausql.core.connection.QueryResultCache;
+import com.github.blausql.core.explain.ExecutionPlan;
+import com.github.blausql.core.explain.ExecutionPlanHistory;
+import com.github.blausql.core.history.QueryHistory;
+import com.github.blausql.core.metadata.SchemaMetadata;
+import com.github.blausql.core.metadata.SchemaMetadataCache;
+import com.github.blausql.core.metadata.TableMetadata;
+import com.github.blausql.core.scratch.ScratchDatabase;
+import com.github.blausql.core.scratch.ScratchTableLoad;
+import com.github.blausql.spi.connections.LoadException;
+import com.github.blausql.spi.connections.SaveException;
 import com.github.blausql.ui.HelpWindow;
+import com.github.blausql.ui.QueryResultWindow;
 import com.github.blausql.ui.components.ApplicationWindow;
 import com.github.blausql.ui.components.WaitDialog;
+import com.github.blausql.ui.util.AsyncOperation;
+import com.github.blausql.ui.util.BackgroundTaskScheduler;
 import com.github.blausql.ui.util.BackgroundWorker;
+import com.github.blausql.ui.util.TaskPriority;
 import com.github.blausql.core.util.TextUtils;
 import com.github.blausql.ui.hotkey.HotKeyWindowListener;
 import com.googlecode.lanterna.TerminalPosition;
@@ -32,6 +48,7 @@ import com.googlecode.lanterna.gui2.*;
 import com.googlecode.lanterna.gui2.Label;
 import com.googlecode.lanterna.gui2.Panel;
 import com.googlecode.lanterna.gui2.dialogs.MessageDialogButton;
+import com.googlecode.lanterna.gui2.dialogs.TextInputDialog;
 import com.googlecode.lanterna.gui2.menu.Menu;
 import com.googlecode.lanterna.gui2.menu.MenuBar;
 import com.googlecode.lanterna.gui2.menu.MenuItem;
@@ -43,9 +60,14 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -55,6 +77,8 @@ public final class SqlQueryWindow extends ApplicationWindow {
     private static final String SEPARATOR = "----------";
 
     private final DatabaseConnection databaseConnection;
+    // with the credentials of the session: the background metadata refresh opens a connection of its own
+    private final ConnectionConfiguration connectionConfiguration;
 
     private final TextBox sqlQueryTextBox;
     private final String connectionName;
@@ -62,6 +86,8 @@ public final class SqlQueryWindow extends ApplicationWindow {
 
     private final AtomicReference<BackgroundWorker<?>> backgroundWorkerReference = new AtomicReference<>();
     private final Menu fileMenu;
+    private final Label sessionStatusLabel = new Label("");
+    private BackgroundWorker<SchemaMetadata> metadataRefreshWorker;
 
     public SqlQueryWindow(ConnectionConfiguration connectionConfiguration,
                           DatabaseConnection databaseConnection,
@@ -73,19 +99,9 @@ public final class SqlQueryWindow extends ApplicationWindow {
         statementSeparator = connectionConfiguration.getStatementSeparator();
 
         this.databaseConnection = databaseConnection;
+        this.connectionConfiguration = new ConnectionConfiguration(connectionConfiguration);
 
-        Panel bottomPanel = Panels.horizontal(
-                new Label("F1: Help"),
-                new Separator(Direction.VERTICAL),
-                new Label("F7: Execute Each"),
-                new Separator(Direction.VERTICAL),
-                new Label("F8: Execute Current"),
-                new Separator(Direction.VERTICAL),
-                new Label("F9: Execute All"),
-                new Separator(Direction.VERTICAL),
-                new Label("F12: Menu"),
-                new Separator(Direction.VERTICAL),
-                new Label("ESC: Exit"));
+        Panel bottomPanel = createBottomPanel();
 
         TerminalSize desiredSizeForSqlQueryTextBox = getDesiredSizeForSqlQueryTextBox();
         sqlQueryTextBox = new SqlEditorTextBox(desiredSizeForSqlQueryTextBox, "");
@@ -94,26 +110,57 @@ public final class SqlQueryWindow extends ApplicationWindow {
                 .keyType(KeyType.Escape).invoke(this::closeWindow)
                 .keyType(KeyType.F1).invoke(this::displayHelp)
                 .keyType(KeyType.F2).invoke(this::clearEditor)
+                .keyType(KeyType.F3).invoke(this::explainStatementAtCursor)
                 .keyType(KeyType.F4).invoke(this::duplicateStatementAtCursor)
                 .keyType(KeyType.F5).invoke(this::saveSqlFile)
                 .keyType(KeyType.F6).invoke(this::selectSqlFileToLoad)
                 .keyType(KeyType.F7).invoke(this::executeQueryEach)
                 .keyType(KeyType.F8).invoke(this::executeQueryAtCursor)
                 .keyType(KeyType.F9).invoke(this::executeQueryAll)
+                .keyType(KeyType.F10).invoke(this::searchQueryHistory)
                 .keyType(KeyType.F12).invoke(this::openMenu)
                 .build());
 
-        MenuBar menubar = new MenuBar();
-
         fileMenu = createFileMenu();
-        menubar.add(fileMenu);
-        menubar.add(createExecuteMenu());
-        menubar.add(createHelpMenu());
+        MenuBar menubar = createMenuBar(fileMenu);
 
-        Panel verticalPanel = Panels.vertical(menubar, sqlQueryTextBox, bottomPanel);
+        Panel verticalPanel = Panels.vertical(menubar, sqlQueryTextBox, bottomPanel, sessionStatusLabel);
         setComponent(verticalPanel);
 
         setFocusedInteractable(sqlQueryTextBox);
+
+        SessionManager.getInstance(terminalUI).register(this, connectionName, terminalUI);
+
+        refreshSchemaMetadataInBackground();
+    }
+
+    private static Panel createBottomPanel() {
+        return Panels.horizontal(
+                new Label("F1: Help"),
+                new Separator(Direction.VERTICAL),
+                new Label("F7: Execute Each"),
+                new Separator(Direction.VERTICAL),
+                new Label("F8: Execute Current"),
+                new Separator(Direction.VERTICAL),
+                new Label("F9: Execute All"),
+                new Separator(Direction.VERTICAL),
+                new Label("F12: Menu"),
+                new Separator(Direction.VERTICAL),
+                new Label("ESC: Exit"));
+    }
+
+    private MenuBar createMenuBar(Menu theFileMenu) {
+        MenuBar menubar = new MenuBar();
+
+        menubar.add(theFileMenu);
+        menubar.add(createExecuteMenu());
+        menubar.add(createHistoryMenu());
+        menubar.add(createSchemaMenu());
+        menubar.add(createCacheMenu());
+        menubar.add(createSessionMenu());
+        menubar.add(createHelpMenu());
+
+        return menubar;
     }
 
     private Menu createFileMenu() {
@@ -135,6 +182,44 @@ public final class SqlQueryWindow extends ApplicationWindow {
         menu.add(new MenuItem("Execute each statement       (F7)", this::executeQueryEach));
         menu.add(new MenuItem("Execute statement at cursor  (F8)", this::executeQueryAtCursor));
         menu.add(new MenuItem("Execute all content at once  (F9)", this::executeQueryAll));
+        menu.add(new MenuItem(SEPARATOR).setEnabled(false));
+        menu.add(new MenuItem("Explain statement at cursor  (F3)", this::explainStatementAtCursor));
+        menu.add(new MenuItem(SEPARATOR).setEnabled(false));
+        menu.add(new MenuItem("Load result into scratch table...", this::loadResultIntoScratchTable));
+        return menu;
+    }
+
+    private Menu createHistoryMenu() {
+        final Menu menu;
+        menu = new Menu("History");
+        menu.add(new MenuItem("Search query history  (F10)", this::searchQueryHistory));
+        menu.add(new MenuItem("Slowest statements", () -> showQueryHistory(QueryHistoryWindow.View.SLOWEST)));
+        menu.add(new MenuItem("Most frequent statements",
+                () -> showQueryHistory(QueryHistoryWindow.View.MOST_FREQUENT)));
+        return menu;
+    }
+
+    private Menu createSchemaMenu() {
+        final Menu menu;
+        menu = new Menu("Schema");
+        menu.add(new MenuItem("Browse tables", this::browseTables));
+        menu.add(new MenuItem("Refresh schema metadata", this::refreshSchemaMetadata));
+        return menu;
+    }
+
+    private Menu createCacheMenu() {
+        final Menu menu;
+        menu = new Menu("Cache");
+        menu.add(new MenuItem("Enable/disable result cache", this::toggleResultCache));
+        menu.add(new MenuItem("Clear cached results", this::clearCachedResults));
+        return menu;
+    }
+
+    private Menu createSessionMenu() {
+        final Menu menu;
+        menu = new Menu("Session");
+        menu.add(new MenuItem("Switch session...  (F11)", this::showSessionSwitcher));
+        menu.add(new MenuItem("Open scratch database", () -> openScratchDatabaseSession(getTerminalUI())));
         return menu;
     }
 
@@ -156,11 +241,29 @@ public final class SqlQueryWindow extends ApplicationWindow {
 
     private static TerminalSize getDesiredSizeForSqlQueryTextBox(TerminalSize screenTerminalSize) {
         final int sqlQueryTextBoxColumns = screenTerminalSize.getColumns() - 4;
-        final int sqlQueryTextBoxRows = screenTerminalSize.getRows() - 2;
+        final int sqlQueryTextBoxRows = screenTerminalSize.getRows() - 3;
 
         return new TerminalSize(sqlQueryTextBoxColumns, sqlQueryTextBoxRows);
     }
 
+    private void showSessionSwitcher() {
+        SessionManager.getInstance(getTerminalUI()).showSessionSwitcher(getTerminalUI());
+    }
+
+    void onSessionsChanged(String statusLine) {
+        sessionStatusLabel.setText(statusLine);
+    }
+
+    /**
+     * Shows the outcome of a background task: right away if this session is in the foreground,
+     * otherwise when the user switches to it.
+     *
+     * @return {@code false} if the session is closed already, and the action is dropped
+     */
+    boolean runInForeground(Runnable action) {
+        return SessionManager.getInstance(getTerminalUI()).runInForeground(this, action);
+    }
+
     private void displayHelp() {
         getTerminalUI().showWindowFullScreen(new HelpWindow(SqlQueryWindow.class, getTerminalUI()));
     }
@@ -204,6 +307,159 @@ public final class SqlQueryWindow extends ApplicationWindow {
         executeStatement(statementToExecute);
     }
 
+    private void explainStatementAtCursor() {
+
+        String statementToExplain = getStatementAtCursor();
+        if (statementToExplain.isBlank()) {
+            showMessageBox("Empty SQL statement", "No valid SQL statement is specified");
+            return;
+        }
+
+        final WaitDialog waitDialog = showWaitDialog("Please wait",
+                String.format("Capturing execution plan on %s ...", connectionName),
+                this::cancelBackgroundOperation);
+
+        startBackgroundTask(new BackgroundWorker<List<ExecutionPlan>>(this, databaseConnection, TaskPriority.NORMAL) {
+
+            @Override
+            protected List<ExecutionPlan> doBackgroundTask() throws LoadException, SaveException {
+                ExecutionPlan executionPlan = databaseConnection.captureExecutionPlan(statementToExplain);
+
+                ExecutionPlanHistory executionPlanHistory = ExecutionPlanHistory.getInstance();
+                executionPlanHistory.record(connectionName, executionPlan);
+
+                return executionPlanHistory.getHistory(connectionName, executionPlan.getNormalizedSql());
+            }
+
+            @Override
+            protected void onBackgroundTaskInterrupted(InterruptedException interruptedException) {
+                waitDialog.close();
+                onStatementCompleted();
+            }
+
+            @Override
+            protected void onBackgroundTaskFailed(Throwable t) {
+                waitDialog.close();
+                onStatementCompleted();
+                runInForeground(() -> showErrorMessageFromThrowable(t));
+            }
+
+            @Override
+            protected void onBackgroundTaskCompleted(List<ExecutionPlan> history) {
+                waitDialog.close();
+                onStatementCompleted();
+                runInForeground(() -> showWindowFullScreen(new ExecutionPlanWindow(history, 0, getTerminalUI())));
+            }
+        });
+    }
+
+    /**
+     * Loads the result of the statement at the cursor into a table of the {@link ScratchDatabase}.
+     */
+    private void loadResultIntoScratchTable() {
+
+        String statementToLoad = getStatementAtCursor();
+        if (statementToLoad.isBlank()) {
+            showMessageBox("Empty SQL statement", "No valid SQL statement is specified");
+            return;
+        }
+
+        String tableName = TextInputDialog.showDialog(getTextGUI(), "Load into scratch table",
+                "Name of the table to create (an existing one is replaced)", "");
+        if (tableName == null || tableName.isBlank()) {
+            return;
+        }
+
+        ScratchTableLoad tableLoad;
+        try {
+            tableLoad = new ScratchTableLoad(databaseConnection, statementToLoad, tableName.trim());
+
+        } catch (IllegalArgumentException e) {
+            showMessageBox("Invalid table name", e.getMessage());
+            return;
+        }
+
+        final WaitDialog waitDialog = showWaitDialog("Please wait",
+                String.format("Loading the result into scratch table %s ...", tableLoad.getTableName()),
+                this::cancelBackgroundOperation);
+
+        startBackgroundTask(new LoadScratchTableBackgroundWorker(getTerminalUI(), databaseConnection, tableLoad,
+                waitDialog, this));
+    }
+
+    /**
+     * Opens a session on the {@link ScratchDatabase}, where the results loaded from any connection can be
+     * queried and joined.
+     *
+     * @param terminalUI the terminal to open the session on
+     */
+    public static void openScratchDatabaseSession(TerminalUI terminalUI) {
+        ConnectionConfiguration scratchConfiguration;
+        try {
+            scratchConfiguration = ScratchDatabase.getInstance().getConnectionConfiguration();
+
+        } catch (LoadException e) {
+            terminalUI.showErrorMessageFromThrowable(e);
+            return;
+        }
+
+        AsyncOperation.run(terminalUI, "Opening the scratch database... ",
+                executor -> CompletableFuture.supplyAsync(
+                        () -> DatabaseConnectionFactory.getDatabaseConnection(scratchConfiguration), executor),
+                scratchConnection -> terminalUI.showWindowFullScreen(
+                        new SqlQueryWindow(scratchConfiguration, scratchConnection, terminalUI)));
+    }
+
+    private void searchQueryHistory() {
+        showQueryHistory(QueryHistoryWindow.View.SEARCH);
+    }
+
+    private void showQueryHistory(QueryHistoryWindow.View view) {
+
+        final WaitDialog waitDialog = showWaitDialog("Please wait", "Loading query history ...",
+                this::cancelBackgroundOperation);
+
+        startBackgroundTask(new BackgroundWorker<Integer>(this, null, TaskPriority.INTERACTIVE) {
+
+            @Override
+            protected Integer doBackgroundTask() throws LoadException {
+                return QueryHistory.getInstance().load();
+            }
+
+            @Override
+            protected void onBackgroundTaskInterrupted(InterruptedException interruptedException) {
+                waitDialog.close();
+                onStatementCompleted();
+            }
+
+            @Override
+            protected void onBackgroundTaskFailed(Throwable t) {
+                waitDialog.close();
+                onStatementCompleted();
+                showErrorMessageFromThrowable(t);
+            }
+
+            @Override
+            protected void onBackgroundTaskCompleted(Integer statementCount) {
+                waitDialog.close();
+                onStatementCompleted();
+                showWindowFullScreen(new QueryHistoryWindow(view, SqlQueryWindow.this::insertStatement,
+                        getTerminalUI()));
+            }
+        });
+    }
+
+    private void insertStatement(String statement) {
+        String currentEditorContent = sqlQueryTextBox.getText();
+
+        if (currentEditorContent.isBlank()) {
+            sqlQueryTextBox.setText(statement);
+        } else {
+            sqlQueryTextBox.setText(TextUtils.joinStringsWithNewLine(currentEditorContent, statement));
+        }
+        setFocusedInteractable(sqlQueryTextBox);
+    }
+
     private void duplicateStatementAtCursor() {
 
         String currentStatement = getStatementAtCursor();
@@ -328,11 +584,27 @@ public final class SqlQueryWindow extends ApplicationWindow {
                 MessageDialogButton.OK, MessageDialogButton.Cancel);
 
         if (dialogResult == MessageDialogButton.OK) {
-            databaseConnection.close();
-            close();
+            closeSession();
         }
     }
 
+    void closeSession() {
+        metadataRefreshWorker.cancel();
+        BackgroundTaskScheduler.getInstance().cancelAll(databaseConnection);
+        databaseConnection.close();
+        close();
+        SessionManager.getInstance(getTerminalUI()).unregister(this);
+    }
+
+    /**
+     * Closes all sessions of a terminal and their connections, e.g. when a client of the server disconnects.
+     *
+     * @param terminalUI the terminal
+     */
+    public static void closeAllSessions(TerminalUI terminalUI) {
+        SessionManager.getInstance(terminalUI).closeAll();
+    }
+
     private void saveSqlFile() {
 
         File file = showFileSelectorDialog("Save SQL file",
@@ -406,6 +678,7 @@ public final class SqlQueryWindow extends ApplicationWindow {
 
     private void startBackgroundTask(BackgroundWorker<?> statementExecutorBackgroundWorker) {
         backgroundWorkerReference.set(statementExecutorBackgroundWorker);
+        SessionManager.getInstance(getTerminalUI()).setBusy(this, true);
 
         statementExecutorBackgroundWorker.start();
     }
@@ -417,7 +690,124 @@ public final class SqlQueryWindow extends ApplicationWindow {
         }
     }
 
+    private void toggleResultCache() {
+        QueryResultCache queryResultCache = QueryResultCache.getInstance();
+
+        try {
+            boolean enable = !queryResultCache.isEnabled();
+            queryResultCache.setEnabled(enable);
+
+            if (enable) {
+                showMessageBox("Result cache", "Result cache is enabled: re-running a query "
+                        + "\nshows the cached result, until a statement modifies data.");
+            } else {
+                showMessageBox("Result cache", "Result cache is disabled.");
+            }
+
+        } catch (SaveException e) {
+            showErrorMessageFromThrowable(e);
+        }
+    }
+
+    private void clearCachedResults() {
+        databaseConnection.clearCachedResults();
+
+        showMessageBox("Result cache", "Cached results of " + connectionName + " are cleared.");
+    }
+
+    private void refreshSchemaMetadataInBackground() {
+
+        // The cached metadata (if any) is available right away; the probe and the
+        // potential harvest run in the background, on a connection of their own:
+        // statements of the user do not wait for them on the connection of the session.
+        metadataRefreshWorker = new BackgroundWorker<>(this, null, TaskPriority.BACKGROUND) {
+
+            @Override
+            protected SchemaMetadata doBackgroundTask() throws Exception {
+                DatabaseConnection metadataConnection =
+                        DatabaseConnectionFactory.getDatabaseConnection(connectionConfiguration);
+                try {
+                    return SchemaMetadataCache.getInstance().refreshIfStale(connectionName, metadataConnection);
+                } finally {
+                    metadataConnection.close();
+                }
+            }
+
+            @Override
+            protected void onBackgroundTaskInterrupted(InterruptedException interruptedException) {
+                // nothing to do: the next session will try again
+            }
+
+            @Override
+            protected void onBackgroundTaskFailed(Throwable t) {
+                // stale metadata is better than an error dialog popping up unexpectedly:
+                // an explicit refresh from the Schema menu reports errors
+            }
+
+            @Override
+            protected void onBackgroundTaskCompleted(SchemaMetadata result) {
+                // nothing to do: the cache is updated
+            }
+        };
+        metadataRefreshWorker.start();
+    }
+
+    private void refreshSchemaMetadata() {
+
+        final Window waitDialog = showWaitDialog("Please wait",
+                String.format("Reading schema metadata of %s ...", connectionName));
+
+        new BackgroundWorker<SchemaMetadata>(this, databaseConnection, TaskPriority.INTERACTIVE) {
+
+            @Override
+            protected SchemaMetadata doBackgroundTask() {
+                return SchemaMetadataCache.getInstance().refresh(connectionName, databaseConnection);
+            }
+
+            @Override
+            protected void onBackgroundTaskInterrupted(InterruptedException interruptedException) {
+                waitDialog.close();
+            }
+
+            @Override
+            protected void onBackgroundTaskFailed(Throwable t) {
+                waitDialog.close();
+                showErrorMessageFromThrowable(t);
+            }
+
+            @Override
+            protected void onBackgroundTaskCompleted(SchemaMetadata result) {
+                waitDialog.close();
+                browseTables();
+            }
+        }.start();
+    }
+
+    private void browseTables() {
+
+        Optional<SchemaMetadata> schemaMetadata = SchemaMetadataCache.getInstance().get(connectionName);
+
+        if (schemaMetadata.isEmpty()) {
+            showMessageBox("Schema metadata not available",
+                    "Schema metadata is being read in the background: please try again later.");
+            return;
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (TableMetadata table : schemaMetadata.get().getTables()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("SCHEMA", table.getSchema());
+            row.put("TABLE", table.getTableName());
+            row.put("TYPE", table.getTableType());
+            row.put("COLUMNS", table.getColumns().size());
+            rows.add(row);
+        }
+
+        showWindowFullScreen(new QueryResultWindow(rows, "Tables of " + connectionName));
+    }
+
     void onStatementCompleted() {
+        SessionManager.getInstance(getTerminalUI()).setBusy(this, false);
         setFocusedInteractable(sqlQueryTextBox);
     }
 }
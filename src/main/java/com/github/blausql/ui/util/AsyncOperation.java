@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.ui.util;
+
+import com.github.blausql.TerminalUI;
+import com.github.blausql.ui.components.WaitDialog;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs an asynchronous operation (e.g. of the connection configuration repository) behind a wait dialog,
+ * then handles its outcome in the GUI thread, so that a slow operation never freezes the UI.
+ * <p>
+ * The operation is started with an executor of the {@link BackgroundTaskScheduler}, with
+ * {@link TaskPriority#INTERACTIVE} priority. If the user cancels the wait dialog, the outcome of the operation
+ * is ignored; the operation itself is not interrupted.
+ */
+public final class AsyncOperation {
+
+    private AsyncOperation() {
+        // no external instances
+    }
+
+    /**
+     * Starts an asynchronous operation and shows a wait dialog until it completes.
+     *
+     * @param terminalUI  the UI to show the wait dialog and errors on
+     * @param waitText    the text of the wait dialog
+     * @param operation   starts the operation with the executor passed to it
+     * @param onCompleted invoked in the GUI thread with the result of the operation, if it succeeded
+     * @param <T>         the type of the result
+     */
+    public static <T> void run(TerminalUI terminalUI, String waitText,
+                               Function<Executor, CompletableFuture<T>> operation,
+                               Consumer<? super T> onCompleted) {
+
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Executor executor = BackgroundTaskScheduler.getInstance().getExecutor(TaskPriority.INTERACTIVE);
+
+        CompletableFuture<T> future = operation.apply(executor);
+
+        // the outcome is handled with invokeLater: always after the dialog is shown
+        WaitDialog waitDialog = terminalUI.showWaitDialog("Please wait", waitText, () -> cancelled.set(true));
+
+        future.whenComplete((result, failure) -> terminalUI.runInGUIThread(() -> {
+            if (cancelled.get()) {
+                return;
+            }
+            waitDialog.close();
+
+            try {
+                if (failure != null) {
+                    terminalUI.showErrorMessageFromThrowable(unwrap(failure));
+                } else {
+                    onCompleted.accept(result);
+                }
+            } catch (RuntimeException e) {
+                terminalUI.showErrorMessageFromThrowable(e);
+            }
+        }));
+    }
+
+    /**
+     * @param failure the exception a future was completed with
+     * @return the exception thrown by the operation itself
+     */
+    public static Throwable unwrap(Throwable failure) {
+        Throwable throwable = failure;
+        while ((throwable instanceof CompletionException || throwable instanceof ExecutionException)
+                && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        return throwable;
+    }
+}
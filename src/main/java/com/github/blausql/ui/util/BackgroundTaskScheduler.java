@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.ui.util;
+
+import com.github.blausql.core.preferences.ConfigurationRepository;
+import com.github.blausql.spi.connections.LoadException;
+
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the tasks of {@link BackgroundWorker}s.
+ * <p>
+ * Tasks submitted with the same serial key (e.g. the {@code DatabaseConnection} they use) run one at a time,
+ * as a JDBC connection must not be used by several threads concurrently. At most
+ * {@link ConfigurationRepository#getBackgroundTaskConcurrency()} tasks run at the same time; the waiting ones
+ * are started in the order of their {@link TaskPriority}, then in the order they were submitted.
+ * {@link TaskPriority#INTERACTIVE} tasks may run beyond that limit by {@value #INTERACTIVE_RESERVED_TASKS}
+ * more tasks, so that long-running statements filling it do not keep them waiting.
+ * <p>
+ * Tasks run on daemon platform threads, or on virtual threads if
+ * {@link ConfigurationRepository#isBackgroundTaskVirtualThreads()} is set and the JVM supports them
+ * (Java 21 or later).
+ */
+public final class BackgroundTaskScheduler {
+
+    private static final Logger LOGGER = Logger.getLogger(BackgroundTaskScheduler.class.getName());
+
+    private static final int INTERACTIVE_RESERVED_TASKS = 2;
+
+    private static final Comparator<ScheduledTask> TASK_ORDER =
+            Comparator.comparing((ScheduledTask task) -> task.priority)
+                    .thenComparingLong(task -> task.sequenceNumber);
+
+    private static final BackgroundTaskScheduler INSTANCE = new BackgroundTaskScheduler();
+
+    public static BackgroundTaskScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    private final int maxConcurrentTasks;
+    private final ExecutorService executorService;
+    private final AtomicLong sequence = new AtomicLong();
+
+    // the fields below are guarded by this
+
+    private final PriorityQueue<ScheduledTask> readyTasks = new PriorityQueue<>(TASK_ORDER);
+    private final Map<Object, PriorityQueue<ScheduledTask>> waitingTasksBySerialKey = new HashMap<>();
+    private final Set<Object> busySerialKeys = new HashSet<>();
+    private final Set<ScheduledTask> pendingTasks = new HashSet<>();
+    private int runningTaskCount;
+
+    private BackgroundTaskScheduler() {
+        int concurrency = ConfigurationRepository.DEFAULT_BACKGROUND_TASK_CONCURRENCY;
+        boolean virtualThreads = false;
+        try {
+            ConfigurationRepository configurationRepository = ConfigurationRepository.getInstance();
+            concurrency = configurationRepository.getBackgroundTaskConcurrency();
+            virtualThreads = configurationRepository.isBackgroundTaskVirtualThreads();
+
+        } catch (LoadException e) {
+            LOGGER.log(Level.WARNING, "Failed to read background task settings, using the defaults", e);
+        }
+
+        this.maxConcurrentTasks = Math.max(1, concurrency);
+
+        if (virtualThreads) {
+            this.executorService = createVirtualThreadExecutorService();
+        } else {
+            this.executorService = createPlatformThreadExecutorService();
+        }
+    }
+
+    /**
+     * Cancels all tasks: the ones waiting are not started, the running ones are interrupted.
+     */
+    public void cancelAll() {
+        cancel(getPendingTasks(task -> true));
+    }
+
+    /**
+     * Cancels the tasks submitted with a serial key: the ones waiting are not started,
+     * the running one is interrupted.
+     *
+     * @param serialKey the serial key the tasks were submitted with
+     */
+    public void cancelAll(Object serialKey) {
+        Objects.requireNonNull(serialKey, "Argument serialKey cannot be null");
+
+        cancel(getPendingTasks(task -> serialKey.equals(task.serialKey)));
+    }
+
+    /**
+     * Returns an executor submitting tasks without a serial key, e.g. for the asynchronous operations of
+     * the connection configuration repository. Tasks cancelled before they are started are never run.
+     *
+     * @param priority the priority of the tasks while they are waiting to be started
+     * @return the executor
+     */
+    public Executor getExecutor(TaskPriority priority) {
+        Objects.requireNonNull(priority, "Argument priority cannot be null");
+
+        return command -> submit(null, priority, command, () -> LOGGER.log(Level.FINE,
+                "Task cancelled before it was started: {0}", command));
+    }
+
+    ScheduledTask submit(Object serialKey, TaskPriority priority, Runnable body, Runnable onCancelledBeforeStart) {
+        ScheduledTask task = new ScheduledTask(serialKey, priority, sequence.incrementAndGet(),
+                body, onCancelledBeforeStart);
+
+        synchronized (this) {
+            pendingTasks.add(task);
+
+            if (serialKey == null || busySerialKeys.add(serialKey)) {
+                readyTasks.add(task);
+            } else {
+                waitingTasksBySerialKey.computeIfAbsent(serialKey, key -> new PriorityQueue<>(TASK_ORDER)).add(task);
+            }
+
+            startReadyTasks();
+        }
+
+        return task;
+    }
+
+    private synchronized List<ScheduledTask> getPendingTasks(Predicate<ScheduledTask> filter) {
+        // the most recent first: cancelling a task never starts a task submitted later with the same key
+        return pendingTasks.stream()
+                .filter(filter)
+                .sorted(Comparator.comparingLong((ScheduledTask task) -> task.sequenceNumber).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private static void cancel(List<ScheduledTask> tasks) {
+        tasks.forEach(ScheduledTask::cancel);
+    }
+
+    private void startReadyTasks() {
+        // the interactive tasks are at the head of the queue: once the head cannot start, no task can
+        while (!readyTasks.isEmpty() && runningTaskCount < getMaxConcurrentTasks(readyTasks.peek())) {
+            ScheduledTask task = readyTasks.poll();
+            runningTaskCount++;
+
+            executorService.execute(() -> runTask(task));
+        }
+    }
+
+    private int getMaxConcurrentTasks(ScheduledTask task) {
+        if (task.priority == TaskPriority.INTERACTIVE) {
+            return maxConcurrentTasks + INTERACTIVE_RESERVED_TASKS;
+        }
+        return maxConcurrentTasks;
+    }
+
+    private void runTask(ScheduledTask task) {
+        try {
+            task.run();
+        } finally {
+            onTaskFinished(task);
+        }
+    }
+
+    private synchronized void onTaskFinished(ScheduledTask task) {
+        runningTaskCount--;
+        pendingTasks.remove(task);
+
+        releaseSerialKey(task.serialKey);
+        startReadyTasks();
+    }
+
+    private synchronized void dequeue(ScheduledTask task) {
+        pendingTasks.remove(task);
+
+        if (readyTasks.remove(task)) {
+            releaseSerialKey(task.serialKey);
+            startReadyTasks();
+
+        } else if (task.serialKey != null) {
+            PriorityQueue<ScheduledTask> waitingTasks = waitingTasksBySerialKey.get(task.serialKey);
+            if (waitingTasks != null && waitingTasks.remove(task) && waitingTasks.isEmpty()) {
+                waitingTasksBySerialKey.remove(task.serialKey);
+            }
+        }
+    }
+
+    private void releaseSerialKey(Object serialKey) {
+        if (serialKey == null) {
+            return;
+        }
+
+        PriorityQueue<ScheduledTask> waitingTasks = waitingTasksBySerialKey.get(serialKey);
+        if (waitingTasks == null) {
+            busySerialKeys.remove(serialKey);
+            return;
+        }
+
+        readyTasks.add(waitingTasks.poll());
+        if (waitingTasks.isEmpty()) {
+            waitingTasksBySerialKey.remove(serialKey);
+        }
+    }
+
+    private static ExecutorService createVirtualThreadExecutorService() {
+        try {
+            // looked up reflectively, so that the application still compiles and runs on Java 11
+            Method factoryMethod = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+
+            return (ExecutorService) factoryMethod.invoke(null);
+
+        } catch (ReflectiveOperationException e) {
+            LOGGER.log(Level.INFO, "Virtual threads are not supported by this JVM, using platform threads", e);
+
+            return createPlatformThreadExecutorService();
+        }
+    }
+
+    private static ExecutorService createPlatformThreadExecutorService() {
+        return Executors.newCachedThreadPool(new ThreadFactory() {
+
+            private final ThreadFactory defaultThreadFactory = Executors.defaultThreadFactory();
+            private final AtomicInteger workerThreadCounter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+
+                final long workerNumber = workerThreadCounter.incrementAndGet();
+
+                final Thread thread = defaultThreadFactory.newThread(r);
+                thread.setName(String.format("BackgroundWorker-thread-%s", workerNumber));
+                thread.setDaemon(true);
+
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * A submitted task, which is either waiting, running, finished or cancelled before it was started.
+     */
+    final class ScheduledTask {
+
+        private final Object serialKey;
+        private final TaskPriority priority;
+        private final long sequenceNumber;
+        private final Runnable body;
+        private final Runnable onCancelledBeforeStart;
+
+        // guarded by this
+        private boolean started;
+        private boolean finished;
+        private boolean cancelled;
+        private Thread runner;
+
+        private ScheduledTask(Object serialKey, TaskPriority priority, long sequenceNumber,
+                              Runnable body, Runnable onCancelledBeforeStart) {
+            this.serialKey = serialKey;
+            this.priority = Objects.requireNonNull(priority, "Argument priority cannot be null");
+            this.sequenceNumber = sequenceNumber;
+            this.body = body;
+            this.onCancelledBeforeStart = onCancelledBeforeStart;
+        }
+
+        private void run() {
+            synchronized (this) {
+                if (started || cancelled) {
+                    return;
+                }
+                started = true;
+                runner = Thread.currentThread();
+            }
+
+            try {
+                body.run();
+            } finally {
+                synchronized (this) {
+                    finished = true;
+                    runner = null;
+                }
+            }
+        }
+
+        /**
+         * Cancels the task: if it has not been started yet, it is removed from the queue and
+         * the cancellation callback is invoked; if it is running, its thread is interrupted.
+         */
+        void cancel() {
+            boolean notStarted;
+            synchronized (this) {
+                notStarted = !started && !cancelled;
+                cancelled = true;
+
+                if (started && !finished) {
+                    runner.interrupt();
+                }
+            }
+
+            if (notStarted) {
+                dequeue(this);
+                onCancelledBeforeStart.run();
+            }
+        }
+    }
+}
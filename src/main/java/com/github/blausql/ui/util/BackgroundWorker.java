@@ -22,47 +22,53 @@ import com.googlecode.lanterna.gui2.TextGUI;
 import com.googlecode.lanterna.gui2.TextGUIThread;
 
 import java.util.Objects;
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 public abstract class BackgroundWorker<R> {
 
-    private static final ExecutorService EXECUTOR_SERVICE = Executors.newCachedThreadPool(
-            new ThreadFactory() {
+    private final Object serialKey;
+    private final TaskPriority priority;
 
-        private final ThreadFactory defaultThreadFactory = Executors.defaultThreadFactory();
-        private final AtomicInteger workerThreadCounter = new AtomicInteger();
-
-
-        @Override
-        public Thread newThread(Runnable r) {
-
-            final long workerNumber = workerThreadCounter.incrementAndGet();
-
-            final Thread thread = defaultThreadFactory.newThread(r);
-            thread.setName(String.format("BackgroundWorker-thread-%s", workerNumber));
-            thread.setDaemon(true);
-
-            return thread;
-        }
-    });
-    private Future<?> future;
+    private BackgroundTaskScheduler.ScheduledTask scheduledTask;
+    private volatile boolean cancelled;
 
     private final ReentrantLock lock = new ReentrantLock();
 
     private final TextGUIThread textGUIThread;
 
     protected BackgroundWorker(ApplicationWindow parent) {
-        Objects.requireNonNull(parent, "Argument parent cannot be null");
+        this(parent, null, TaskPriority.NORMAL);
+    }
+
+    /**
+     * @param parent    the window the worker reports back to
+     * @param serialKey tasks with the same key (e.g. the database connection they use) never run
+     *                  concurrently, {@code null} if the task does not need to be serialized
+     * @param priority  the priority of the task while it is waiting to be started
+     */
+    protected BackgroundWorker(ApplicationWindow parent, Object serialKey, TaskPriority priority) {
+        this(Objects.requireNonNull(parent, "Argument parent cannot be null").getApplicationTextGUI(),
+                serialKey, priority);
+    }
 
-        TextGUI textGUI = parent.getApplicationTextGUI();
+    /**
+     * @param textGUI   the text GUI the worker reports back to, e.g. of a window that is not an
+     *                  {@link ApplicationWindow}
+     * @param serialKey tasks with the same key never run concurrently, {@code null} if the task does not
+     *                  need to be serialized
+     * @param priority  the priority of the task while it is waiting to be started
+     */
+    protected BackgroundWorker(TextGUI textGUI, Object serialKey, TaskPriority priority) {
+        Objects.requireNonNull(priority, "Argument priority cannot be null");
         Objects.requireNonNull(textGUI, "textGUI");
 
         TextGUIThread guiThread = textGUI.getGUIThread();
         Objects.requireNonNull(guiThread, "guiThread");
 
         this.textGUIThread = guiThread;
+        this.serialKey = serialKey;
+        this.priority = priority;
     }
 
     public final void start() {
@@ -74,11 +80,12 @@ public abstract class BackgroundWorker<R> {
             }
 
             try {
-                if (future != null && future.isCancelled()) {
+                if (cancelled) {
                     throw new IllegalStateException("Cancelled already");
                 }
 
-                this.future = EXECUTOR_SERVICE.submit(new RunBackgroundTask());
+                this.scheduledTask = BackgroundTaskScheduler.getInstance().submit(
+                        serialKey, priority, new RunBackgroundTask(), this::dispatchCancelledBeforeStart);
 
             } finally {
                 lock.unlock();
@@ -99,11 +106,12 @@ public abstract class BackgroundWorker<R> {
             }
 
             try {
-                if (future == null) {
+                if (scheduledTask == null) {
                     throw new IllegalStateException(this + " is not started yet");
                 }
 
-                future.cancel(true);
+                cancelled = true;
+                scheduledTask.cancel();
 
             } finally {
                 lock.unlock();
@@ -115,6 +123,11 @@ public abstract class BackgroundWorker<R> {
         }
     }
 
+    private void dispatchCancelledBeforeStart() {
+        textGUIThread.invokeLater(() -> onBackgroundTaskInterrupted(
+                new InterruptedException("Cancelled before background task started")));
+    }
+
     protected abstract R doBackgroundTask() throws Exception;
 
     protected abstract void onBackgroundTaskInterrupted(InterruptedException interruptedException);
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2017-2025 Peter G. Horvath, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.blausql.ui.util;
+
+/**
+ * The order in which queued {@link BackgroundWorker}s are started, once a worker thread is available.
+ */
+public enum TaskPriority {
+
+    /**
+     * Short tasks the user is waiting for, e.g. connecting or reading metadata to show: these may
+     * also start when the other tasks already use up the background task concurrency.
+     */
+    INTERACTIVE,
+
+    /**
+     * Statements executed by the user.
+     */
+    NORMAL,
+
+    /**
+     * Tasks nobody is waiting for, e.g. refreshing cached metadata.
+     */
+    BACKGROUND
+}